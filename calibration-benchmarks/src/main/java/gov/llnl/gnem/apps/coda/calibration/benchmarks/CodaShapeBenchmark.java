@@ -0,0 +1,85 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.EnvelopeFit;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.CalibrationCurveFitter;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.CodaSNREndTimePicker;
+
+/**
+ * The per-envelope shape work: the CMA-ES coda fit, with and without the
+ * length auto pick, and the SNR based end time picker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodaShapeBenchmark {
+
+    private static final double SAMPLE_RATE = 1.0;
+    private static final int PRE_EVENT_SAMPLES = 120;
+    private static final double NOISE_LEVEL = 1.0;
+
+    @Param({ "400", "1500" })
+    private int length;
+
+    private CalibrationCurveFitter fitter;
+    private CodaSNREndTimePicker picker;
+    private ShapeFitterConstraints constraints;
+    private float[] segment;
+    private float[] pickerEnvelope;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        fitter = new CalibrationCurveFitter();
+        picker = new CodaSNREndTimePicker();
+        constraints = SyntheticData.shapeConstraints();
+        segment = data.codaEnvelope(length, (int) (length * 0.6), SAMPLE_RATE, 6.0, 1.2, -0.008);
+        pickerEnvelope = data.pickerEnvelope(length + PRE_EVENT_SAMPLES, PRE_EVENT_SAMPLES, NOISE_LEVEL, 6.0);
+    }
+
+    @Benchmark
+    public EnvelopeFit fitCodaCMAES() {
+        return fitter.fitCodaCMAES(segment, SAMPLE_RATE, constraints, 0.0);
+    }
+
+    @Benchmark
+    public EnvelopeFit fitCodaCMAESAutoPick() {
+        return fitter.fitCodaCMAES(segment, SAMPLE_RATE, constraints, 10.0, true);
+    }
+
+    @Benchmark
+    public double getEndTime() {
+        return picker.getEndTime(pickerEnvelope, SAMPLE_RATE, PRE_EVENT_SAMPLES, PRE_EVENT_SAMPLES, 10.0, 1500.0, 2.0, NOISE_LEVEL);
+    }
+}
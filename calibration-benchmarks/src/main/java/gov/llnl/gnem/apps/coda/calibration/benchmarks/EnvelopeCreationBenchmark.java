@@ -0,0 +1,103 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.Default14BandEnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.service.impl.EnvelopeCreationServiceImpl;
+import gov.llnl.gnem.apps.coda.envelope.service.impl.EnvelopeStacker;
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
+
+/**
+ * Generates the default 14 band envelopes, and optionally the stacks, for
+ * two horizontal channels of every event and station.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EnvelopeCreationBenchmark {
+
+    @Param({ "2" })
+    private int events;
+
+    @Param({ "4" })
+    private int stations;
+
+    @Param({ "40" })
+    private double sampleRate;
+
+    @Param({ "600" })
+    private int lengthSec;
+
+    @Param({ "false", "true" })
+    private boolean spectralFilterBank;
+
+    @Param({ "COMPLEX_FFT", "REAL_FFT" })
+    private EnvelopeEngine envelopeEngine;
+
+    private EnvelopeCreationServiceImpl envelopeService;
+    private EnvelopeJobConfiguration configuration;
+    private List<Waveform> waveforms;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        waveforms = data.rawWaveforms(data.events(events), data.stations(stations), (int) (lengthSec * sampleRate), sampleRate);
+        configuration = Default14BandEnvelopeJobConfiguration.getConfiguration();
+
+        WaveformToTimeSeriesConverter converter = new WaveformToTimeSeriesConverter();
+        envelopeService = new EnvelopeCreationServiceImpl(converter, null, new EnvelopeStacker(converter));
+        ReflectionUtils.doWithFields(EnvelopeCreationServiceImpl.class, field -> {
+            ReflectionUtils.makeAccessible(field);
+            ReflectionUtils.setField(field, envelopeService, spectralFilterBank);
+        }, field -> field.getName().equals("spectralFilterBank"));
+        ReflectionUtils.doWithFields(EnvelopeCreationServiceImpl.class, field -> {
+            ReflectionUtils.makeAccessible(field);
+            ReflectionUtils.setField(field, envelopeService, envelopeEngine);
+        }, field -> field.getName().equals("envelopeEngine"));
+    }
+
+    @Benchmark
+    public Result<List<Waveform>> createEnvelopes() {
+        return envelopeService.createEnvelopes(1L, waveforms, configuration, false);
+    }
+
+    @Benchmark
+    public Result<List<Waveform>> createStacks() {
+        return envelopeService.createEnvelopes(1L, waveforms, configuration, true);
+    }
+}
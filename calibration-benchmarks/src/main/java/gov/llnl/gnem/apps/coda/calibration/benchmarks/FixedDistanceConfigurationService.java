@@ -0,0 +1,141 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.util.GeodeticCoordinate;
+import gov.llnl.gnem.apps.coda.common.model.util.WGS84DistanceCalcFunction;
+
+/**
+ * A {@link ConfigurationService} that answers distance lookups from a table
+ * filled in by {@link SyntheticData} so the suites measure the calculators and
+ * not the geodesic math or a repository.
+ */
+public class FixedDistanceConfigurationService implements ConfigurationService {
+
+    private final Map<String, Double> distances = new ConcurrentHashMap<>();
+    private VelocityConfiguration velocityConfiguration = new VelocityConfiguration().setPhaseVelocityInKms(3.5);
+    private CalibrationSettings calibrationSettings = new CalibrationSettings();
+    private ShapeFitterConstraints shapeConstraints = SyntheticData.shapeConstraints();
+
+    public FixedDistanceConfigurationService putDistance(Event event, Station station, double distanceKm) {
+        distances.put(key(event, station), distanceKm);
+        return this;
+    }
+
+    private static String key(Event event, Station station) {
+        return event.getEventId() + '/' + station.getNetworkName() + '.' + station.getStationName();
+    }
+
+    @Override
+    public double getDistance(Event event, Station station) {
+        if (event == null || station == null) {
+            return Double.NaN;
+        }
+        return distances.getOrDefault(key(event, station), Double.NaN);
+    }
+
+    @Override
+    public double[] getDistances(List<Waveform> waveforms) {
+        double[] result = new double[waveforms.size()];
+        for (int i = 0; i < result.length; i++) {
+            Waveform waveform = waveforms.get(i);
+            if (waveform != null && waveform.getStream() != null) {
+                result[i] = getDistance(waveform.getEvent(), waveform.getStream().getStation());
+            } else {
+                result[i] = Double.NaN;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public VelocityConfiguration getVelocityConfiguration() {
+        return velocityConfiguration;
+    }
+
+    @Override
+    public VelocityConfiguration update(VelocityConfiguration entry) {
+        velocityConfiguration = entry;
+        return entry;
+    }
+
+    @Override
+    public CalibrationSettings getCalibrationSettings() {
+        return calibrationSettings;
+    }
+
+    @Override
+    public CalibrationSettings update(CalibrationSettings entry) {
+        calibrationSettings = entry;
+        return entry;
+    }
+
+    @Override
+    public ShapeFitterConstraints getCalibrationShapeFitterConstraints() {
+        return shapeConstraints;
+    }
+
+    @Override
+    public ShapeFitterConstraints update(ShapeFitterConstraints entry) {
+        shapeConstraints = entry;
+        return entry;
+    }
+
+    @Override
+    public String updatePolygon(String rawGeoJSON) {
+        return rawGeoJSON;
+    }
+
+    @Override
+    public String getPolygonGeoJSON() {
+        return null;
+    }
+
+    @Override
+    public WGS84DistanceCalcFunction getDistanceFunc() {
+        throw new UnsupportedOperationException("Distances are fixed by the synthetic data");
+    }
+
+    @Override
+    public Double getEpicentralDistance(GeodeticCoordinate coordA, GeodeticCoordinate coordB) {
+        throw new UnsupportedOperationException("Distances are fixed by the synthetic data");
+    }
+
+    @Override
+    public Double getHypocentralDistance(GeodeticCoordinate coordA, GeodeticCoordinate coordB) {
+        throw new UnsupportedOperationException("Distances are fixed by the synthetic data");
+    }
+
+    @Override
+    public GeodeticCoordinate getEventCoord(Event event) {
+        throw new UnsupportedOperationException("Distances are fixed by the synthetic data");
+    }
+
+    @Override
+    public GeodeticCoordinate getStationCoord(Station station) {
+        throw new UnsupportedOperationException("Distances are fixed by the synthetic data");
+    }
+}
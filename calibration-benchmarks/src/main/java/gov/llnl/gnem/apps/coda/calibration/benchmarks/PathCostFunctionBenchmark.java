@@ -0,0 +1,116 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.Joint1DPathCorrection;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticCodaModel;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
+
+/**
+ * One evaluation of the path inversion cost function for a single band, the
+ * call CMA-ES makes tens of thousands of times per band.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathCostFunctionBenchmark {
+
+    private static final int NUM_TERMS = 4;
+
+    @Param({ "50", "500" })
+    private int events;
+
+    @Param({ "20" })
+    private int stations;
+
+    private ToDoubleFunction<double[]> costFunction;
+    private double[] params;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        FixedDistanceConfigurationService configService = new FixedDistanceConfigurationService();
+        SpectraCalculator spectraCalc = new SpectraCalculator(new WaveformToTimeSeriesConverter(),
+                                                              new SyntheticCodaModel(),
+                                                              new MdacCalculatorService(),
+                                                              null,
+                                                              null,
+                                                              configService.getVelocityConfiguration(),
+                                                              configService);
+        Joint1DPathCorrection pathCorrection = new Joint1DPathCorrection(spectraCalc, null, configService);
+
+        List<Event> eventList = data.events(events);
+        List<Station> stationList = data.stations(stations);
+        data.assignDistances(eventList, stationList, configService);
+        FrequencyBand band = new FrequencyBand(1.0, 1.5);
+        Map<Event, Map<Station, SpectraMeasurement>> measurements = data.pathMeasurements(eventList, stationList, band, configService);
+
+        SpectraMeasurementTable.Builder builder = new SpectraMeasurementTable.Builder();
+        for (Entry<Event, Map<Station, SpectraMeasurement>> eventEntry : measurements.entrySet()) {
+            for (Entry<Station, SpectraMeasurement> stationEntry : eventEntry.getValue().entrySet()) {
+                SpectraMeasurement measurement = stationEntry.getValue();
+                builder.add(band, eventEntry.getKey(), stationEntry.getKey(), -1l, measurement.getRawAtMeasurementTime(), measurement.getPathCorrected(), measurement.getPathAndSiteCorrected());
+            }
+        }
+        SpectraMeasurementTable table = builder.build();
+
+        params = new double[NUM_TERMS + stationList.size()];
+        params[0] = Math.log10(0.0001);
+        params[1] = Math.log10(500.0);
+        params[2] = Math.log10(500.0);
+        params[3] = Math.log10(Math.log10(2.0));
+        for (int i = 0; i < stationList.size(); i++) {
+            params[NUM_TERMS + i] = 0.5 * i / stationList.size();
+        }
+        int[] stationIdx = new int[table.getStationCount()];
+        for (int s = 0; s < stationIdx.length; s++) {
+            stationIdx[s] = NUM_TERMS + stationList.indexOf(table.getStation(s));
+        }
+        costFunction = pathCorrection.bandCostFunction(table, band, stationIdx, configService.getVelocityConfiguration().getPhaseVelocityInKms());
+    }
+
+    @Benchmark
+    public double costFunction() {
+        return costFunction.applyAsDouble(params);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
+import llnl.gnem.core.util.SeriesMath;
+
+/**
+ * The per-sample series operations the envelope and measurement paths lean
+ * on, over a raw 40 sps seismogram of {@code length} samples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeriesMathBenchmark {
+
+    private static final double SAMPLE_RATE = 40.0;
+
+    @Param({ "4096", "65536", "1048576" })
+    private int length;
+
+    @Param({ "40" })
+    private int halfWidth;
+
+    private float[] data;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticData().noise(length);
+    }
+
+    @Benchmark
+    public float[] envelope() {
+        return SeriesMath.envelope(data);
+    }
+
+    @Benchmark
+    public float[] envelopeRealFFT() {
+        return SeriesMath.envelope(data, EnvelopeEngine.REAL_FFT);
+    }
+
+    @Benchmark
+    public float[] meanSmooth() {
+        return SeriesMath.meanSmooth(data, halfWidth);
+    }
+
+    @Benchmark
+    public float[] interpolateTo1Sps() {
+        return SeriesMath.interpolate(0.0, 1.0 / SAMPLE_RATE, data, 1.0);
+    }
+
+    @Benchmark
+    public float[] interpolateTo100Sps() {
+        return SeriesMath.interpolate(0.0, 1.0 / SAMPLE_RATE, data, 1.0 / 100.0);
+    }
+}
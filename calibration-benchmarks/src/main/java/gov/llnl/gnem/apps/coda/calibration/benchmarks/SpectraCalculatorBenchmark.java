@@ -0,0 +1,124 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticCodaModel;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
+
+/**
+ * Amplitude measurement of envelopes against their synthetics across every
+ * event, station and band, and the MDAC Mw fit of a single event spectrum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpectraCalculatorBenchmark {
+
+    @Param({ "10" })
+    private int events;
+
+    @Param({ "10" })
+    private int stations;
+
+    @Param({ "1200" })
+    private int lengthSec;
+
+    private SpectraCalculator spectraCalc;
+    private VelocityConfiguration velocityConfig;
+    private List<SyntheticCoda> synthetics;
+    private Map<FrequencyBand, SharedFrequencyBandParameters> bandParameters;
+    private Event fitEvent;
+    private Map<FrequencyBand, SummaryStatistics> spectrum;
+    private MdacParametersFI mdacFi;
+    private MdacParametersPS mdacPs;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        FixedDistanceConfigurationService configService = new FixedDistanceConfigurationService();
+        velocityConfig = configService.getVelocityConfiguration();
+        spectraCalc = new SpectraCalculator(new WaveformToTimeSeriesConverter(), new SyntheticCodaModel(), new MdacCalculatorService(), null, null, velocityConfig, configService);
+
+        List<Event> eventList = data.events(events);
+        List<Station> stationList = data.stations(stations);
+        List<FrequencyBand> bands = SyntheticData.defaultBands();
+        data.assignDistances(eventList, stationList, configService);
+        synthetics = data.synthetics(eventList, stationList, bands, configService, lengthSec);
+
+        bandParameters = new HashMap<>();
+        for (FrequencyBand band : bands) {
+            bandParameters.put(band, SyntheticData.bandParameters(band));
+        }
+
+        fitEvent = eventList.get(0);
+        spectrum = data.mdacSpectrum(bands, 4.5, 0.5);
+        mdacFi = SyntheticData.mdacFi();
+        mdacPs = SyntheticData.mdacPs();
+    }
+
+    @Benchmark
+    public List<SpectraMeasurement> measureAmplitudes() {
+        return spectraCalc.measureAmplitudes(synthetics, bandParameters, velocityConfig);
+    }
+
+    @Benchmark
+    public double[] fitMw() {
+        return spectraCalc.fitMw(fitEvent, spectrum, PICK_TYPES.LG, mdacFi, mdacPs, uniformWeights());
+    }
+
+    private static Function<Map<Double, Double>, SortedMap<Double, Double>> uniformWeights() {
+        return frequencies -> {
+            SortedMap<Double, Double> weights = new TreeMap<>();
+            frequencies.keySet().forEach(frequency -> weights.put(frequency, 1.0));
+            return weights;
+        };
+    }
+}
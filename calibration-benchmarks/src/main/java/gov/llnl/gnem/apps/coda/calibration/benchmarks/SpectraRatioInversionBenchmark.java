@@ -0,0 +1,104 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSnapshot;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraRatioInversionCalculator;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.spectra.model.domain.SpectraRatioPairDetails;
+import gov.llnl.gnem.apps.coda.spectra.model.domain.SpectraRatioPairInversionResult;
+import gov.llnl.gnem.apps.coda.spectra.model.domain.messaging.EventPair;
+
+/**
+ * Per event pair spectral ratio inversion. {@code threads} sizes the pool the
+ * pairs are inverted on, so 1 gives the single pair cost and larger values
+ * show how the inversion scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpectraRatioInversionBenchmark {
+
+    @Param({ "5" })
+    private int eventPairs;
+
+    @Param({ "5" })
+    private int stations;
+
+    @Param({ "1", "4" })
+    private int threads;
+
+    private SpectraRatioInversionCalculator calculator;
+    private Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData();
+        List<Event> events = data.events(eventPairs + 1);
+        ratioData = data.ratioData(events, data.stations(stations), SyntheticData.defaultBands());
+
+        MdacParametersPS mdacPs = SyntheticData.mdacPs();
+        CalibrationSnapshot snapshot = new CalibrationSnapshot(0L,
+                                                               Collections.emptyMap(),
+                                                               Collections.emptyMap(),
+                                                               SyntheticData.mdacFi(),
+                                                               Collections.singletonMap(mdacPs.getPhase(), mdacPs),
+                                                               null,
+                                                               null,
+                                                               Collections.emptyMap(),
+                                                               Collections.emptyMap(),
+                                                               Collections.emptyMap());
+        calculator = new SpectraRatioInversionCalculator(new MdacCalculatorService(), SyntheticData.mdacFi(), mdacPs, snapshot, 1.0);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<EventPair, SpectraRatioPairInversionResult> cmaesRegressionPerPair() throws InterruptedException {
+        return calculator.cmaesRegressionPerPair(ratioData, executor);
+    }
+}
@@ -0,0 +1,395 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Collectors;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.Default14BandEnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.spectra.model.domain.SpectraRatioPairDetails;
+import gov.llnl.gnem.apps.coda.spectra.model.domain.messaging.EventPair;
+
+/**
+ * Seeded generators for the benchmark inputs. Everything is derived from the
+ * seed so a suite sees the same data on every run and on every machine, and
+ * nothing has to be loaded from disk or a database.
+ */
+public class SyntheticData {
+
+    public static final long DEFAULT_SEED = 20240601L;
+
+    private static final long ORIGIN_EPOCH_MS = 1_500_000_000_000L;
+    private static final double PHASE_VELOCITY_KMS = 3.5;
+
+    private final Random random;
+
+    public SyntheticData() {
+        this(DEFAULT_SEED);
+    }
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return the center bands of the default 14 band envelope configuration
+     */
+    public static List<FrequencyBand> defaultBands() {
+        return Default14BandEnvelopeJobConfiguration.getConfiguration()
+                                                    .getFrequencyBandConfiguration()
+                                                    .stream()
+                                                    .map(band -> new FrequencyBand(band.getLowFrequency(), band.getHighFrequency()))
+                                                    .sorted()
+                                                    .collect(Collectors.toList());
+    }
+
+    public static ShapeFitterConstraints shapeConstraints() {
+        return new ShapeFitterConstraints().setMinIntercept(-10.0)
+                                           .setMaxIntercept(20.0)
+                                           .setMinGamma(0.0)
+                                           .setMaxGamma(4.0)
+                                           .setMinBeta(-0.1)
+                                           .setMaxBeta(0.01)
+                                           .setLengthWeight(0.5);
+    }
+
+    public static MdacParametersPS mdacPs() {
+        MdacParametersPS mdacPs = new MdacParametersPS();
+        mdacPs.setDelEta(0.0);
+        mdacPs.setDelGamma0(0.0);
+        mdacPs.setDelQ0(0.0);
+        mdacPs.setDistCrit(0.001);
+        mdacPs.setEta(1.1);
+        mdacPs.setGamma0(0.65);
+        mdacPs.setPhase(PICK_TYPES.LG.getPhase());
+        mdacPs.setQ0(210.0);
+        mdacPs.setSnr(2.0);
+        mdacPs.setU0(7900.0);
+        return mdacPs;
+    }
+
+    public static MdacParametersFI mdacFi() {
+        MdacParametersFI mdacFi = new MdacParametersFI();
+        mdacFi.setAlphaR(6000.0);
+        mdacFi.setAlphas(6000.0);
+        mdacFi.setBetas(3500.0);
+        mdacFi.setBetaR(3500.0);
+        mdacFi.setDelPsi(0.0);
+        mdacFi.setDelSigma(0.0);
+        mdacFi.setM0ref(1000000000);
+        mdacFi.setPsi(0.25);
+        mdacFi.setRadPatP(0.44);
+        mdacFi.setRadPatS(0.6);
+        mdacFi.setRhor(2700.0);
+        mdacFi.setRhos(2700.0);
+        mdacFi.setSigma(0.3);
+        mdacFi.setZeta(1);
+        return mdacFi;
+    }
+
+    /**
+     * Shared band parameters with a fixed group velocity so the coda start of
+     * every synthetic lands at {@code distance / 3.5} seconds after origin.
+     */
+    public static SharedFrequencyBandParameters bandParameters(FrequencyBand band) {
+        return new SharedFrequencyBandParameters().setLowFrequency(band.getLowFrequency())
+                                                  .setHighFrequency(band.getHighFrequency())
+                                                  .setVelocity0(PHASE_VELOCITY_KMS)
+                                                  .setVelocity1(0.0)
+                                                  .setVelocity2(1.0)
+                                                  .setBeta0(-0.005)
+                                                  .setBeta1(0.0)
+                                                  .setBeta2(1.0)
+                                                  .setGamma0(1.0)
+                                                  .setGamma1(0.0)
+                                                  .setGamma2(1.0)
+                                                  .setMinSnr(2.0)
+                                                  .setMinLength(10.0)
+                                                  .setMaxLength(500.0)
+                                                  .setP1(-3.0)
+                                                  .setS2(1.0)
+                                                  .setXc(2.0)
+                                                  .setXt(0.5)
+                                                  .setQ(2.5);
+    }
+
+    /**
+     * A gaussian noise series, the stand-in for a raw seismogram in the
+     * {@code SeriesMath} suites.
+     */
+    public float[] noise(int length) {
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        return data;
+    }
+
+    /**
+     * A log10 coda envelope sampled at {@code sampleRate} that follows
+     * {@code intercept - gamma * log10(t) + beta * t} for
+     * {@code codaLength} samples and then drops to a noisy floor for the
+     * rest of the series.
+     */
+    public float[] codaEnvelope(int length, int codaLength, double sampleRate, double intercept, double gamma, double beta) {
+        float[] data = new float[length];
+        double floor = intercept;
+        for (int i = 0; i < length; i++) {
+            double t = (i / sampleRate) + 1.0;
+            if (i < codaLength) {
+                data[i] = (float) (intercept - gamma * Math.log10(t) + beta * t + 0.02 * random.nextGaussian());
+                floor = data[i];
+            } else {
+                data[i] = (float) (floor - 1.5 + 0.3 * random.nextGaussian());
+            }
+        }
+        return data;
+    }
+
+    /**
+     * A log10 envelope with {@code preEventSamples} of noise at
+     * {@code noiseLevel} ahead of a coda that decays back into the noise,
+     * shaped like the 1 sps envelopes the end time picker sees.
+     */
+    public float[] pickerEnvelope(int length, int preEventSamples, double noiseLevel, double peak) {
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            double value = noiseLevel + 0.2 * random.nextGaussian();
+            if (i >= preEventSamples) {
+                double t = (i - preEventSamples) + 1.0;
+                value = Math.max(value, peak - 1.2 * Math.log10(t) - 0.008 * t + 0.05 * random.nextGaussian());
+            }
+            data[i] = (float) value;
+        }
+        return data;
+    }
+
+    public List<Event> events(int count) {
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Event event = new Event().setEventId("E" + i)
+                                     .setOriginTime(new Date(ORIGIN_EPOCH_MS + i * 3_600_000L))
+                                     .setLatitude(35.0 + random.nextDouble() * 2.0)
+                                     .setLongitude(-117.0 + random.nextDouble() * 2.0)
+                                     .setDepth(random.nextDouble() * 15.0);
+            events.add(event);
+        }
+        return events;
+    }
+
+    public List<Station> stations(int count) {
+        List<Station> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stations.add(new Station().setNetworkName("XX").setStationName("S" + i).setLatitude(33.0 + random.nextDouble() * 6.0).setLongitude(-120.0 + random.nextDouble() * 6.0));
+        }
+        return stations;
+    }
+
+    /**
+     * Assigns each event and station pair a distance between 50 and 500 km
+     * in the given configuration service.
+     */
+    public void assignDistances(List<Event> events, List<Station> stations, FixedDistanceConfigurationService configService) {
+        for (Event event : events) {
+            for (Station station : stations) {
+                configService.putDistance(event, station, 50.0 + random.nextDouble() * 450.0);
+            }
+        }
+    }
+
+    /**
+     * Raw broadband waveforms, two horizontal channels per event and
+     * station, made of background noise with a decaying arrival part way
+     * through.
+     */
+    public List<Waveform> rawWaveforms(List<Event> events, List<Station> stations, int samples, double sampleRate) {
+        List<Waveform> waveforms = new ArrayList<>(events.size() * stations.size() * 2);
+        for (Event event : events) {
+            for (Station station : stations) {
+                for (String channel : new String[] { "BHE", "BHN" }) {
+                    double[] data = new double[samples];
+                    int onset = samples / 5;
+                    for (int i = 0; i < samples; i++) {
+                        double amplitude = 1.0;
+                        if (i >= onset) {
+                            amplitude += 1000.0 * Math.exp(-(i - onset) / (sampleRate * 30.0));
+                        }
+                        data[i] = amplitude * random.nextGaussian();
+                    }
+                    Date begin = event.getOriginTime();
+                    Waveform waveform = new Waveform().setEvent(event)
+                                                      .setStream(new Stream().setStation(station).setChannelName(channel))
+                                                      .setBeginTime(begin)
+                                                      .setEndTime(new Date(begin.getTime() + (long) (1000.0 * (samples - 1) / sampleRate)))
+                                                      .setSampleRate(sampleRate)
+                                                      .setSegmentType("vel")
+                                                      .setSegmentUnits("nm/s")
+                                                      .setSegment(data);
+                    waveforms.add(waveform);
+                }
+            }
+        }
+        return waveforms;
+    }
+
+    /**
+     * A measured envelope and its synthetic for every event, station and
+     * band. The envelopes start at the origin, carry an end pick 200 seconds
+     * into the coda and differ from the synthetic by a per recording offset
+     * plus noise, which is what the amplitude measurement recovers.
+     */
+    public List<SyntheticCoda> synthetics(List<Event> events, List<Station> stations, List<FrequencyBand> bands, FixedDistanceConfigurationService configService, int samples) {
+        List<SyntheticCoda> synthetics = new ArrayList<>(events.size() * stations.size() * bands.size());
+        for (Event event : events) {
+            for (Station station : stations) {
+                double distance = configService.getDistance(event, station);
+                double codaStartSec = distance / PHASE_VELOCITY_KMS;
+                for (FrequencyBand band : bands) {
+                    SharedFrequencyBandParameters params = bandParameters(band);
+                    double offset = 2.0 + random.nextDouble();
+
+                    double[] envelope = new double[samples];
+                    for (int i = 0; i < samples; i++) {
+                        envelope[i] = offset + syntheticPoint(params, i - codaStartSec) + 0.05 * random.nextGaussian();
+                    }
+                    int synthSamples = samples - (int) Math.ceil(codaStartSec);
+                    double[] synthetic = new double[synthSamples];
+                    for (int i = 0; i < synthSamples; i++) {
+                        synthetic[i] = syntheticPoint(params, i);
+                    }
+
+                    Date origin = event.getOriginTime();
+                    Date codaStart = new Date(origin.getTime() + (long) Math.ceil(codaStartSec) * 1000L);
+                    Waveform source = new Waveform().setEvent(event)
+                                                    .setStream(new Stream().setStation(station).setChannelName("STACK"))
+                                                    .setBeginTime(origin)
+                                                    .setEndTime(new Date(origin.getTime() + (samples - 1) * 1000L))
+                                                    .setSampleRate(1.0)
+                                                    .setLowFrequency(band.getLowFrequency())
+                                                    .setHighFrequency(band.getHighFrequency())
+                                                    .setSegment(envelope)
+                                                    .setAssociatedPicks(
+                                                            new ArrayList<>(Collections.singletonList(
+                                                                    new WaveformPick().setPickType(PICK_TYPES.F.name()).setPickName(PICK_TYPES.F.name()).setPickTimeSecFromOrigin(codaStartSec + 200.0))));
+                    synthetics.add(new SyntheticCoda().setSourceWaveform(source)
+                                                      .setSourceModel(params)
+                                                      .setSegment(synthetic)
+                                                      .setSampleRate(1.0)
+                                                      .setBeginTime(codaStart)
+                                                      .setEndTime(new Date(codaStart.getTime() + (synthSamples - 1) * 1000L)));
+                }
+            }
+        }
+        return synthetics;
+    }
+
+    private static double syntheticPoint(SharedFrequencyBandParameters params, double t) {
+        if (t <= 0.0) {
+            return -10.0;
+        }
+        return 1.0 - params.getGamma0() * Math.log10(t) + params.getBeta0() * t;
+    }
+
+    /**
+     * Raw amplitude measurements for one band with every event recorded at
+     * every station, the input the path inversion works on.
+     */
+    public Map<Event, Map<Station, SpectraMeasurement>> pathMeasurements(List<Event> events, List<Station> stations, FrequencyBand band, FixedDistanceConfigurationService configService) {
+        Map<Event, Map<Station, SpectraMeasurement>> measurements = new LinkedHashMap<>();
+        double f0 = Math.sqrt(band.getLowFrequency() * band.getHighFrequency());
+        for (Event event : events) {
+            double source = 5.0 + random.nextDouble() * 2.0;
+            Map<Station, SpectraMeasurement> byStation = new LinkedHashMap<>();
+            for (Station station : stations) {
+                double distance = configService.getDistance(event, station);
+                double amp = source - Math.log10(distance) - (distance * Math.PI * f0 * Math.log10(Math.E)) / (300.0 * PHASE_VELOCITY_KMS) + 0.1 * random.nextGaussian();
+                byStation.put(station, new SpectraMeasurement().setRawAtMeasurementTime(amp));
+            }
+            measurements.put(event, byStation);
+        }
+        return measurements;
+    }
+
+    /**
+     * Log10 amplitudes per band following the MDAC source spectrum for the
+     * given moment magnitude and apparent stress, as {@code fitMw} consumes
+     * them.
+     */
+    public Map<FrequencyBand, SummaryStatistics> mdacSpectrum(List<FrequencyBand> bands, double mw, double apparentStress) {
+        DoubleUnaryOperator mdacFunc = new MdacCalculatorService().getCalculateMdacAmplitudeForMwFunction(mdacPs(), mdacFi(), mw, PICK_TYPES.LG, apparentStress);
+        Map<FrequencyBand, SummaryStatistics> spectrum = new TreeMap<>();
+        for (FrequencyBand band : bands) {
+            SummaryStatistics stats = new SummaryStatistics();
+            stats.addValue(mdacFunc.applyAsDouble((band.getLowFrequency() + band.getHighFrequency()) / 2.0) + 0.02 * random.nextGaussian());
+            spectrum.put(band, stats);
+        }
+        return spectrum;
+    }
+
+    /**
+     * Spectral ratio measurements for consecutive event pairs, each pair seen
+     * at every station in every band, with Brune shaped ratios between the
+     * two events.
+     */
+    public Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData(List<Event> events, List<Station> stations, List<FrequencyBand> bands) {
+        Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData = new HashMap<>();
+        for (int i = 0; i + 1 < events.size(); i++) {
+            double logM0A = 15.0 + random.nextDouble() * 2.0;
+            double logM0B = 14.0 + random.nextDouble() * 2.0;
+            double cornerA = 0.5 + random.nextDouble() * 2.0;
+            double cornerB = 1.0 + random.nextDouble() * 4.0;
+            Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>> byStation = new HashMap<>();
+            for (Station station : stations) {
+                Map<FrequencyBand, SpectraRatioPairDetails> byBand = new TreeMap<>();
+                for (FrequencyBand band : bands) {
+                    double f = (band.getLowFrequency() + band.getHighFrequency()) / 2.0;
+                    double numer = logM0A - Math.log10(1.0 + Math.pow(f / cornerA, 2.0));
+                    double denom = logM0B - Math.log10(1.0 + Math.pow(f / cornerB, 2.0));
+                    SpectraRatioPairDetails details = new SpectraRatioPairDetails();
+                    details.setDiffAvg(numer - denom + 0.05 * random.nextGaussian());
+                    byBand.put(band, details);
+                }
+                byStation.put(station, byBand);
+            }
+            ratioData.put(new EventPair().setY(events.get(i)).setX(events.get(i + 1)), byStation);
+        }
+        return ratioData;
+    }
+}
@@ -56,6 +56,7 @@ import gov.llnl.gnem.apps.coda.calibration.gui.controllers.SpectraRatioLoadingCo
 import gov.llnl.gnem.apps.coda.calibration.gui.controllers.parameters.ParametersController;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.CalibrationClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ParameterClient;
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.SpectraRatioClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.exporters.ParamExporter;
 import gov.llnl.gnem.apps.coda.calibration.gui.events.CalibrationStageShownEvent;
 import gov.llnl.gnem.apps.coda.calibration.gui.events.MapIconActivationCallback;
@@ -191,6 +192,8 @@ public class CodaGuiController {
 
     private CalibrationClient calibrationClient;
 
+    private SpectraRatioClient spectraRatioClient;
+
     private DirectoryChooser sacDirFileChooser = new DirectoryChooser();
     private DirectoryChooser screenshotFolderChooser = new DirectoryChooser();
 
@@ -237,7 +240,8 @@ public class CodaGuiController {
             CodaParamLoadingController codaParamLoadingController, ReferenceEventLoadingController refEventLoadingController, SpectraRatioLoadingController spectraRatioLoadingController,
             CalibrationClient calibrationClient, ParamExporter paramExporter, LoadRatioEventsGuiController ratioLoadGui, WaveformGui waveformGui, DataController data, EventTableController eventTable,
             ParametersController param, ShapeController shape, PathController path, SiteController site, MeasuredMwsController measuredMws, ParameterClient configClient,
-            EnvelopeGuiController envelopeGui, SpectraRatioGuiController spectraGui, HostnameVerifier hostnameVerifier, SSLContext sslContext, Environment env, EventBus bus) {
+            EnvelopeGuiController envelopeGui, SpectraRatioGuiController spectraGui, SpectraRatioClient spectraRatioClient, HostnameVerifier hostnameVerifier, SSLContext sslContext, Environment env,
+            EventBus bus) {
         this.waveformClient = waveformClient;
         this.cctMapController = cctMapController;
         this.certMapController = certMapController;
@@ -246,6 +250,7 @@ public class CodaGuiController {
         this.refEventLoadingController = refEventLoadingController;
         this.spectraRatioLoadingController = spectraRatioLoadingController;
         this.calibrationClient = calibrationClient;
+        this.spectraRatioClient = spectraRatioClient;
         this.paramExporter = paramExporter;
         this.waveformGui = waveformGui;
         this.ratioLoadGui = ratioLoadGui;
@@ -774,6 +779,7 @@ public class CodaGuiController {
         if (monitor == null && event.getStatus() == RatioStatusEvent.Status.STARTING) {
             RatioStatusProgressListener eventMonitor = new RatioStatusProgressListener(bus, event);
             ProgressMonitor newMonitor = new ProgressMonitor("Ratio Measurement Progress " + event.getId(), eventMonitor);
+            newMonitor.addCancelCallback(() -> spectraRatioClient.cancelRatioCalculation(event.getId()).subscribe());
             loadingGui.addProgressMonitor(newMonitor);
             ratioMonitors.put(event.getId(), newMonitor);
             service.schedule(() -> loadingGui.removeProgressMonitor(monitor), 15, TimeUnit.MINUTES);
@@ -782,6 +788,7 @@ public class CodaGuiController {
 
         if (monitor != null && (event.getStatus() == RatioStatusEvent.Status.COMPLETE || event.getStatus() == RatioStatusEvent.Status.ERROR)) {
             monitor.setProgressStage("Finished");
+            monitor.clearCancelCallbacks();
             service.schedule(() -> loadingGui.removeProgressMonitor(monitor), 15, TimeUnit.MINUTES);
         } else if (monitor != null) {
             switch (event.getStatus()) {
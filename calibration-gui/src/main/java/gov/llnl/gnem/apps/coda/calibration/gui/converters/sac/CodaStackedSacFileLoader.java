@@ -33,6 +33,7 @@ import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
 import llnl.gnem.core.io.SAC.SACHeader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Component
 public class CodaStackedSacFileLoader implements FileToEnvelopeConverter {
@@ -52,20 +53,20 @@ public class CodaStackedSacFileLoader implements FileToEnvelopeConverter {
     @Override
     public Mono<Result<Waveform>> convertFile(File file) {
         if (file != null && file.exists() && file.isFile() && filter.matches(file.toPath())) {
-            return Mono.fromSupplier(() -> sacLoader.convertSacFileToWaveform(file)).map(result -> {
+            return Mono.fromSupplier(() -> {
+                // The name is cheap to check so do it before decoding the file
+                Result<StackInfo> res = filenameParser.parse(file.getName().toUpperCase(Locale.ENGLISH));
+                if (!res.isSuccess()) {
+                    return new Result<Waveform>(false, res.getErrors(), null);
+                }
+                Result<Waveform> result = sacLoader.convertSacFileToWaveform(file);
                 if (result.getResultPayload().isPresent()) {
                     Waveform waveform = result.getResultPayload().get();
-                    Result<StackInfo> res = filenameParser.parse(file.getName().toUpperCase(Locale.ENGLISH));
-                    if (res.isSuccess()) {
-                        waveform.getStream().setChannelName(Stream.TYPE_STACK);
-                        waveform.setSegmentType(res.getResultPayload().get().getDataType());
-                        waveform.setSegmentUnits(DEFAULT_VEL_UNITS);
-                        waveform.setLowFrequency(res.getResultPayload().get().getLowFrequency());
-                        waveform.setHighFrequency(res.getResultPayload().get().getHighFrequency());
-                    } else {
-                        result.getErrors().addAll(res.getErrors());
-                        result.setSuccess(false);
-                    }
+                    waveform.getStream().setChannelName(Stream.TYPE_STACK);
+                    waveform.setSegmentType(res.getResultPayload().get().getDataType());
+                    waveform.setSegmentUnits(DEFAULT_VEL_UNITS);
+                    waveform.setLowFrequency(res.getResultPayload().get().getLowFrequency());
+                    waveform.setHighFrequency(res.getResultPayload().get().getHighFrequency());
                 }
                 return result;
             });
@@ -75,7 +76,7 @@ public class CodaStackedSacFileLoader implements FileToEnvelopeConverter {
 
     @Override
     public Flux<Result<Waveform>> convertFiles(List<File> files) {
-        return Flux.fromIterable(files).flatMap(this::convertFile);
+        return Flux.fromIterable(files).flatMap(file -> convertFile(file).subscribeOn(Schedulers.boundedElastic()), sacLoader.getParallelism());
     }
 
     @Override
@@ -20,6 +20,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -71,6 +72,19 @@ public class SpectraRatioWebClient implements SpectraRatioClient {
                      .map(SpectraRatiosReportByEventPair::new);
     }
 
+    @Override
+    public Mono<Boolean> cancelRatioCalculation(Long id) {
+        return client.post()
+                     .uri("/spectra-ratios/cancel/")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .accept(MediaType.APPLICATION_JSON)
+                     .bodyValue(id)
+                     .retrieve()
+                     .toBodilessEntity()
+                     .map(response -> response.getStatusCode().is2xxSuccessful())
+                     .onErrorReturn(Boolean.FALSE);
+    }
+
     @Override
     public Mono<SpectraRatioPairDetails> updateRatio(SpectraRatioPairDetails ratio) {
         return client.post().uri("/spectra-ratios/update-ratio").bodyValue(ratio).retrieve().bodyToMono(SpectraRatioPairDetails.class);
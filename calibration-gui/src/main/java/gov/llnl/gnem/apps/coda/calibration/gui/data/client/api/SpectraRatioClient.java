@@ -30,6 +30,8 @@ public interface SpectraRatioClient {
 
     public Mono<SpectraRatiosReportByEventPair> makeSpectraRatioMeasurementsFromRatioData(Set<String> smallEventIds, Set<String> largeEventIds, List<RatioEventData> ratioEventData);
 
+    public Mono<Boolean> cancelRatioCalculation(Long id);
+
     public Mono<SpectraRatioPairDetails> updateRatio(SpectraRatioPairDetails ratio);
 
     public Flux<SpectraRatioPairDetails> getRatios();
@@ -63,6 +63,7 @@ import llnl.gnem.core.util.SeriesMath;
 import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.util.Geometry.EModel;
 import llnl.gnem.core.util.seriesMathHelpers.MinMax;
+import llnl.gnem.core.waveform.seismogram.SeismicSignal;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 public class CodaWaveformPlot extends PlotlyWaveformPlot {
@@ -71,6 +72,10 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
 
     private static final int DEFAULT_LINE_WIDTH = 3;
 
+    private static final int PLOT_POINTS = 2000;
+
+    private static final String WAVEFORM_IDENTIFIER = "Waveform";
+
     private static final Logger log = LoggerFactory.getLogger(CodaWaveformPlot.class);
 
     private final NumberFormat dfmt4 = NumberFormatFactory.fourDecimalOneLeadingZero();
@@ -115,6 +120,10 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
 
     private DistanceCalculator distanceCalc;
 
+    private volatile TimeSeries waveformSeries;
+
+    private volatile double[] waveformSamples;
+
     private enum PLOT_ORDERING {
         BACKGROUND(0), NOISE_BOX(1), WAVEFORM(2), NOISE_LINE(3), SHAPE_FIT(4), MODEL_FIT(5), PICKS(6);
 
@@ -214,8 +223,10 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
 
             final float[] waveformSegment = doublesToFloats(waveform.getSegment());
             final TimeSeries rawSeries = new TimeSeries(waveformSegment, waveform.getSampleRate(), beginTime);
-            rawSeries.setIdentifier("Waveform");
+            rawSeries.setIdentifier(WAVEFORM_IDENTIFIER);
             rawSeries.setZeroTimeOffsetSeconds(originTimeZeroOffset);
+            waveformSeries = rawSeries;
+            waveformSamples = waveform.getSegment();
             this.addSeismogram(rawSeries, PLOT_ORDERING.WAVEFORM.getZOrder());
 
             final MinMax minmax = rawSeries.getMinMax();
@@ -244,6 +255,7 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
 
                     xAxis.setMin(xMin);
                     xAxis.setMax(xMax);
+                    showWaveformWindow(xMin, xMax);
                 } catch (Exception e) {
                     // Don't zoom
                     this.resetAxisLimits();
@@ -370,11 +382,65 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
                 }
             });
         } else {
+            waveformSeries = null;
+            waveformSamples = null;
             plotIdentifier = "";
         }
         this.replot();
     }
 
+    /**
+     * Draws the waveform at no more than {@link #PLOT_POINTS} samples. The
+     * full segment stays on the seismogram for picks, zoom ranges and the fit
+     * overlays, only the plotted trace is reduced.
+     */
+    @Override
+    protected Line createSeismogramLine(final SeismicSignal seismogram) {
+        final float[] data = seismogram.getData();
+        if (data.length <= PLOT_POINTS) {
+            return super.createSeismogramLine(seismogram);
+        }
+        return createReducedLine(seismogram.getIdentifier(), seismogram.getZeroTimeOffsetSeconds(), seismogram.getSamprate(), SeriesMath.floatToDouble(data), 0, data.length);
+    }
+
+    private Line createReducedLine(final String identifier, final double start, final double sampleRate, final double[] data, final int from, final int to) {
+        final float[] reduced = SeriesMath.doubleToFloat(SeriesMath.minMaxDecimate(data, from, to, PLOT_POINTS));
+        return createWaveformLine(identifier, start + from / sampleRate, (to - from) / sampleRate / reduced.length, reduced);
+    }
+
+    private Line createWaveformLine(final String identifier, final double start, final double delta, final float[] data) {
+        final Line line = new BasicLine(identifier, start, delta, data, Color.BLUE, LineStyles.SOLID, 1);
+        line.setName(identifier);
+        line.setZindex(PLOT_ORDERING.WAVEFORM.getZOrder());
+        return line;
+    }
+
+    /**
+     * Swaps the waveform trace for the visible x range reduced to plot
+     * resolution from the samples already held by the plot, or back to the
+     * overview when the range is reset. Waveforms short enough to be drawn
+     * whole are left alone.
+     */
+    private void showWaveformWindow(final double xMin, final double xMax) {
+        final TimeSeries series = waveformSeries;
+        final double[] samples = waveformSamples;
+        if (series == null || samples == null || samples.length <= PLOT_POINTS) {
+            return;
+        }
+        final double start = series.getZeroTimeOffsetSeconds();
+        final double sampleRate = series.getSamprate();
+        int from = 0;
+        int to = samples.length;
+        if (xMin != xMax) {
+            from = (int) Math.max(0, Math.min(to, Math.floor((xMin - start) * sampleRate)));
+            to = (int) Math.max(from, Math.min(to, Math.ceil((xMax - start) * sampleRate) + 1));
+        }
+        if (from < to) {
+            addPlotObject(createReducedLine(WAVEFORM_IDENTIFIER, start, sampleRate, samples, from, to));
+            this.replot();
+        }
+    }
+
     private double calcWindowTime(final double time, final SharedFrequencyBandParameters params, final Waveform waveform, final double distance) {
         return time + distance / (params.getVelocity0() - params.getVelocity1() / (params.getVelocity2() + distance));
     }
@@ -645,6 +711,16 @@ public class CodaWaveformPlot extends PlotlyWaveformPlot {
         setAxisLimits(change.getAxisLimits().getFirst(), change.getAxisLimits().getSecond());
     }
 
+    @Override
+    public void setAxisLimits(final AxisLimits... axisLimits) {
+        super.setAxisLimits(axisLimits);
+        for (final AxisLimits limit : axisLimits) {
+            if (Axis.Type.X.equals(limit.getAxis())) {
+                showWaveformWindow(limit.getMin(), limit.getMax());
+            }
+        }
+    }
+
     public void setAxisChangeListener(PropertyChangeListener axisChange) {
 
         // Remove existing listener before adding another one
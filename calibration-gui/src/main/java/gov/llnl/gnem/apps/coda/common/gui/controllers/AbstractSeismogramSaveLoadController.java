@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,6 +48,8 @@ import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
 import javafx.application.Platform;
 import javafx.scene.input.MouseEvent;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * The AbstractSeismogramSaveLoadController defines the contract and workflow
@@ -163,7 +166,13 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
                         fileFailedProgress.setTotal(0l);
                         bus.post(processingFailedProgressEvent);
 
-                        fileConverters.parallelStream().forEach(fileConverter -> fileConverter.convertFiles(files).buffer(maxBatching, ArrayList::new).doOnNext(results -> {
+                        long startNanos = System.nanoTime();
+                        AtomicLong filesDone = new AtomicLong();
+
+                        // Uploads run on their own thread with one batch of
+                        // decoded files queued behind them, so decoding the next
+                        // batch overlaps with uploading the current one
+                        fileConverters.parallelStream().forEach(fileConverter -> fileConverter.convertFiles(files).buffer(maxBatching, ArrayList::new).concatMap(results -> Mono.fromRunnable(() -> {
                             try {
                                 List<Waveform> successfulResults = results.parallelStream().filter(Result::isSuccess).map(result -> result.getResultPayload().get()).collect(Collectors.toList());
                                 List<Result<Waveform>> failedResults = results.parallelStream().filter(r -> !r.isSuccess()).collect(Collectors.toList());
@@ -172,6 +181,8 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
 
                                 fileProcessingProgress.setCurrent(fileProcessingProgress.getCurrent() + successfulResults.size());
 
+                                double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+                                processingMonitor.setProgressStage(String.format(Locale.ENGLISH, "%.1f files/s", filesDone.addAndGet(results.size()) / elapsedSeconds));
                                 bus.post(processingProgressEvent);
                                 if (failedResults.size() > 0) {
                                     fileProcessingProgress.setTotal(fileProcessingProgress.getTotal() - failedResults.size());
@@ -183,7 +194,7 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
                             } catch (RuntimeException ex) {
                                 log.trace(ex.getMessage(), ex);
                             }
-                        }).blockLast(Duration.ofHours(1l)));
+                        }).subscribeOn(Schedulers.boundedElastic()), 1).blockLast(Duration.ofHours(1l)));
 
                         if (completionCallback != null) {
                             completionCallback.run();
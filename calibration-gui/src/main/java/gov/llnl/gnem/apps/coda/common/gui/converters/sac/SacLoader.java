@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.common.gui.converters.sac;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.FloatBuffer;
 import java.nio.file.FileSystems;
 import java.nio.file.PathMatcher;
 import java.time.Instant;
@@ -24,11 +25,11 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.FileToWaveformConverter;
@@ -40,13 +41,13 @@ import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
 import gov.llnl.gnem.apps.coda.common.model.util.LightweightIllegalStateException;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
-import llnl.gnem.core.io.SAC.SACFileReader;
+import llnl.gnem.core.io.SAC.MappedSACFile;
 import llnl.gnem.core.io.SAC.SACHeader;
 import llnl.gnem.core.metadata.Channel;
-import llnl.gnem.core.signalprocessing.Sequence;
 import llnl.gnem.core.util.TimeT;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class SacLoader implements FileToWaveformConverter {
@@ -62,6 +63,9 @@ public class SacLoader implements FileToWaveformConverter {
     private static final Logger log = LoggerFactory.getLogger(SacLoader.class);
     //FIXME: This is just silly, I wish we could reliably get SAC files with .sac extensions but even still we need a better way than this...
     private final PathMatcher filter = FileSystems.getDefault().getPathMatcher("regex:(?i).*(\\.env|\\.synenv|\\.out|\\.param[s]?|\\.zip\\.tar|\\.gz|\\.tgz|\\.7z|\\.dat|\\.txt|\\.[a-z]*sh)$");
+    @Value("${sac-loader.parallelism:4}")
+    private int parallelism = 4;
+
     private final PathMatcher acceptFilter = path -> {
         if (path != null && path.toFile().exists() && path.toFile().isFile() && !path.toFile().isHidden() && !filter.matches(path)) {
             return true;
@@ -78,9 +82,14 @@ public class SacLoader implements FileToWaveformConverter {
         return Mono.empty();
     }
 
+    /**
+     * Decodes up to {@link #getParallelism()} files at a time on the bounded
+     * elastic scheduler. Results are emitted in completion order and no more
+     * files are started than the subscriber has asked for.
+     */
     @Override
     public Flux<Result<Waveform>> convertFiles(List<File> files) {
-        return Flux.fromIterable(files).flatMap(this::convertFile);
+        return Flux.fromIterable(files).flatMap(file -> convertFile(file).subscribeOn(Schedulers.boundedElastic()), getParallelism());
     }
 
     public Result<Waveform> convertSacFileToWaveform(File file) {
@@ -90,10 +99,9 @@ public class SacLoader implements FileToWaveformConverter {
 
         String fileName = file.getPath().toString();
         log.trace("Reading {} ", fileName);
-        SACFileReader reader = null;
         try {
-            reader = new SACFileReader(file.getAbsolutePath());
-            SACHeader header = reader.header;
+            MappedSACFile sacFile = new MappedSACFile(file.toPath());
+            SACHeader header = sacFile.getHeader();
 
             Result<String> headerResult = validateHeaderDefined(fileName, "KNETWK", header.knetwk);
             String networkName = headerResult.isSuccess() ? headerResult.getResultPayload().orElse(UNKNOWN_VAL) : UNKNOWN_VAL;
@@ -219,18 +227,13 @@ public class SacLoader implements FileToWaveformConverter {
             }
 
             double sampleRate = header.delta > 0 ? 1.0 / header.delta : 1.0;
-            Sequence sequence = reader.readSequence(header.npts);
-            float[] rawVals = sequence.getArray();
-            double[] segment = new double[rawVals.length];
-            try {
-                IntStream.range(0, rawVals.length).forEach(index -> {
-                    segment[index] = rawVals[index];
-                    if (!Double.isFinite(segment[index])) {
-                        throw new LightweightIllegalStateException("Invalid data in segment for file: " + fileName);
-                    }
-                });
-            } catch (LightweightIllegalStateException e) {
-                return exceptionalResult(e);
+            FloatBuffer samples = sacFile.getSamples();
+            double[] segment = new double[samples.remaining()];
+            for (int i = 0; i < segment.length; i++) {
+                segment[i] = samples.get(i);
+                if (!Double.isFinite(segment[i])) {
+                    return exceptionalResult(new LightweightIllegalStateException("Invalid data in segment for file: " + fileName));
+                }
             }
 
             Waveform waveform = new Waveform().setBeginTime(beginTime)
@@ -267,10 +270,6 @@ public class SacLoader implements FileToWaveformConverter {
             return new Result<>(true, waveform);
         } catch (NegativeArraySizeException | IllegalStateException | IOException e) {
             return exceptionalResult(new LightweightIllegalStateException(String.format("Error parsing (%s): file does not exist or is unreadable. %s", fileName, e.getMessage()), e));
-        } finally {
-            if (reader != null) {
-                reader.close();
-            }
         }
     }
 
@@ -367,6 +366,15 @@ public class SacLoader implements FileToWaveformConverter {
         return acceptFilter;
     }
 
+    public int getParallelism() {
+        return Math.max(1, parallelism);
+    }
+
+    public SacLoader setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
     public String getOrCreateEvid(Waveform waveform) {
         String evid = "0";
         Double time = 0d;
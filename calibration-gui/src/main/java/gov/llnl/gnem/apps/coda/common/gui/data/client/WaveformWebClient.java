@@ -14,6 +14,8 @@
 */
 package gov.llnl.gnem.apps.coda.common.gui.data.client;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -21,16 +23,20 @@ import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentFrames;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -39,11 +45,23 @@ public class WaveformWebClient implements WaveformClient {
 
     private static final Logger log = LoggerFactory.getLogger(WaveformWebClient.class);
 
+    private static final MediaType SEGMENT_FRAMES = MediaType.parseMediaType(SegmentFrames.MEDIA_TYPE_VALUE);
+
     private WebClient client;
 
+    private ObjectMapper frameMapper;
+
+    @FunctionalInterface
+    private interface FrameDecoder<T> {
+        T decode(SegmentFrames.Frame frame) throws IOException;
+    }
+
     @Autowired
-    public WaveformWebClient(WebClient client) {
+    public WaveformWebClient(WebClient client, ObjectMapper objectMapper) {
         this.client = client;
+        this.frameMapper = objectMapper.copy()
+                                       .addMixIn(Waveform.class, SegmentFrames.WithoutSegmentMixin.class)
+                                       .addMixIn(SyntheticCoda.class, SegmentFrames.WithoutSegmentMixin.class);
     }
 
     @Override
@@ -123,13 +141,11 @@ public class WaveformWebClient implements WaveformClient {
 
     @Override
     public Flux<Waveform> getWaveformsFromIds(Collection<Long> ids) {
-        return client.get()
-                     .uri("/waveforms/batch/{ids}", ids.toString().replaceAll("\\[|\\]", ""))
-                     .accept(MediaType.APPLICATION_JSON)
-                     .retrieve()
-                     .bodyToFlux(Waveform.class)
-                     .filter(Objects::nonNull)
-                     .onErrorReturn(new Waveform());
+        return readFrames("/waveforms/query/batch", ids, frame -> {
+            Waveform waveform = frameMapper.readValue(frame.getMetadata(), Waveform.class);
+            waveform.setSegment(frame.getSegment(0));
+            return waveform;
+        }).filter(Objects::nonNull).onErrorReturn(new Waveform());
     }
 
     @Override
@@ -145,13 +161,51 @@ public class WaveformWebClient implements WaveformClient {
 
     @Override
     public Flux<SyntheticCoda> getSyntheticsFromWaveformIds(Collection<Long> ids) {
-        return client.get()
-                     .uri("/synthetics/batch/{ids}", ids.toString().replaceAll("\\[|\\]", ""))
-                     .accept(MediaType.APPLICATION_JSON)
-                     .retrieve()
-                     .bodyToFlux(SyntheticCoda.class)
-                     .filter(Objects::nonNull)
-                     .onErrorReturn(new SyntheticCoda());
+        return readFrames("/synthetics/query/batch-by-waveform", ids, frame -> {
+            SyntheticCoda synthetic = frameMapper.readValue(frame.getMetadata(), SyntheticCoda.class);
+            if (frame.getSegment(0) != null) {
+                synthetic.setSegment(frame.getSegment(0));
+            }
+            if (synthetic.getSourceWaveform() != null) {
+                synthetic.getSourceWaveform().setSegment(frame.getSegment(1));
+            }
+            return synthetic;
+        }).filter(Objects::nonNull).onErrorReturn(new SyntheticCoda());
+    }
+
+    /**
+     * Posts the identifiers and decodes the binary frames in the response as
+     * they arrive rather than after the whole body has been buffered.
+     */
+    private <T> Flux<T> readFrames(String uri, Collection<Long> ids, FrameDecoder<T> decoder) {
+        return Flux.defer(() -> {
+            SegmentFrames.Reader reader = new SegmentFrames.Reader();
+            return client.post()
+                         .uri(uri)
+                         .contentType(MediaType.APPLICATION_JSON)
+                         .accept(SEGMENT_FRAMES)
+                         .bodyValue(ids)
+                         .retrieve()
+                         .bodyToFlux(DataBuffer.class)
+                         .concatMapIterable(buffer -> {
+                             byte[] chunk = new byte[buffer.readableByteCount()];
+                             buffer.read(chunk);
+                             DataBufferUtils.release(buffer);
+                             return reader.feed(chunk);
+                         })
+                         .map(frame -> {
+                             try {
+                                 return decoder.decode(frame);
+                             } catch (IOException e) {
+                                 throw new UncheckedIOException(e);
+                             }
+                         })
+                         .doOnComplete(() -> {
+                             if (reader.hasPartialFrame()) {
+                                 log.warn("Response from {} ended part way through a waveform", uri);
+                             }
+                         });
+        });
     }
 
     @Override
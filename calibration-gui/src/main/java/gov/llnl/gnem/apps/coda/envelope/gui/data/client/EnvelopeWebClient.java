@@ -21,6 +21,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -44,6 +45,9 @@ public class EnvelopeWebClient implements EnvelopeClient {
 
     private WebClient client;
 
+    @Value("${envelope-app.stream-envelopes:true}")
+    private boolean streamEnvelopes;
+
     @Autowired
     public EnvelopeWebClient(WebClient client) {
         this.client = client;
@@ -61,6 +65,16 @@ public class EnvelopeWebClient implements EnvelopeClient {
 
     @Override
     public Flux<Waveform> postEnvelopes(Long sessionId, List<Waveform> segments, EnvelopeJobConfiguration job) {
+        if (streamEnvelopes) {
+            // Envelopes arrive one per line as the service finishes them
+            return client.post()
+                         .uri("/envelopes/create/batch-stream/" + sessionId)
+                         .contentType(MediaType.APPLICATION_JSON)
+                         .accept(MediaType.APPLICATION_NDJSON)
+                         .bodyValue(new EnvelopeJob().setData(segments).setJobConfig(job))
+                         .retrieve()
+                         .bodyToFlux(Waveform.class);
+        }
         return client.post()
                      .uri("/envelopes/create/batch/" + sessionId)
                      .contentType(MediaType.APPLICATION_JSON)
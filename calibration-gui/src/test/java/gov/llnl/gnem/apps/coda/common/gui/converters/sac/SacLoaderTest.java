@@ -27,17 +27,21 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import llnl.gnem.core.io.SAC.MappedSACFile;
+import llnl.gnem.core.io.SAC.SACFileReader;
 
 public class SacLoaderTest {
 
@@ -66,6 +70,34 @@ public class SacLoaderTest {
         Assertions.assertTrue(res.getResultPayload().isPresent(), "Expect that waveform results should have a Waveform payload");
     }
 
+    @ParameterizedTest
+    @MethodSource("singleFile")
+    public void testMappedReaderMatchesStreamReader(File inputFile, @TempDir Path tempDir) throws Exception {
+        SACFileReader streamReader = new SACFileReader(inputFile);
+        float[] expected = streamReader.getAllSamples();
+        streamReader.close();
+
+        // Flip every header number and sample to get a copy in the other byte order
+        byte[] swapped = Files.readAllBytes(inputFile.toPath());
+        for (int i = 0; i < swapped.length; i += 4) {
+            if (i < 4 * 110 || i >= 4 * 158) {
+                ArrayUtils.reverse(swapped, i, i + 4);
+            }
+        }
+        Path swappedFile = tempDir.resolve(inputFile.getName());
+        Files.write(swappedFile, swapped);
+
+        for (Path path : List.of(inputFile.toPath(), swappedFile)) {
+            MappedSACFile mapped = new MappedSACFile(path);
+            Assertions.assertEquals(streamReader.getHeader().kstnm, mapped.getHeader().kstnm);
+            Assertions.assertEquals(streamReader.getHeader().delta, mapped.getHeader().delta);
+            Assertions.assertEquals(streamReader.getHeader().evdp, mapped.getHeader().evdp);
+            float[] actual = new float[mapped.getSamples().remaining()];
+            mapped.getSamples().get(actual);
+            Assertions.assertArrayEquals(expected, actual);
+        }
+    }
+
     public static Collection<Arguments> singleFile() throws IOException {
         try (Stream<Path> stream = Files.walk(Paths.get("src/test/resources/sac/"))) {
             return stream.filter(path -> path.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".sac")).map(path -> {
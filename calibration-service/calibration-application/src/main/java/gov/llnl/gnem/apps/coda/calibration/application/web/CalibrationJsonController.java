@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationService;
@@ -45,11 +46,18 @@ public class CalibrationJsonController {
     }
 
     @GetMapping(value = "/start/{autoPickingEnabled}", name = "runCalibration")
-    public ResponseEntity<?> runCalibration(@PathVariable(name = "autoPickingEnabled", required = false) Boolean autoPickingEnabled) {
+    public ResponseEntity<?> runCalibration(@PathVariable(name = "autoPickingEnabled", required = false) Boolean autoPickingEnabled,
+            @RequestParam(name = "incremental", required = false) Boolean incremental) {
         if (autoPickingEnabled == null) {
             autoPickingEnabled = Boolean.FALSE;
         }
-        if (getService().startCalibration(autoPickingEnabled)) {
+        boolean started;
+        if (incremental == null) {
+            started = getService().startCalibration(autoPickingEnabled);
+        } else {
+            started = getService().startCalibration(autoPickingEnabled, incremental);
+        }
+        if (started) {
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.badRequest().build();
@@ -50,7 +50,7 @@ public class CalibrationNotificationStompController {
     }
 
     private <T> void registerCalEvent(final NotificationService notificationService, final TypingMessageTemplate typingTemplate, Class<T> clazz) {
-        notificationService.register(new Listener<T>() {
+        notificationService.registerAsync(new Listener<T>() {
             @Override
             public void apply(T event) {
                 typingTemplate.convertAndSend("/topic/calibration-events", event);
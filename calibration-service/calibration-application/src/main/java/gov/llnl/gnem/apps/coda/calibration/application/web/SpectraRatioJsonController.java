@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.application.web;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -77,6 +78,15 @@ public class SpectraRatioJsonController {
         return measureSpectraRatioFromRatioData(job.getSmallEventIds(), job.getLargeEventIds(), job.getRatioEventData());
     }
 
+    @PostMapping(value = { "/cancel", "/cancel/" }, name = "cancelRatioCalculation")
+    public ResponseEntity<?> cancelRatioCalculation(@RequestBody Long id) {
+        if (service.cancelRatioCalculation(id)) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping(value = { "/update-ratio", "/update-ratio/" }, name = "updateSpectraRatio", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> updateSpectraRatio(@RequestBody SpectraRatioPairDetails ratio) {
         try {
@@ -121,7 +131,7 @@ public class SpectraRatioJsonController {
             } else {
                 resp = ResponseEntity.badRequest().build();
             }
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+        } catch (InterruptedException | ExecutionException | TimeoutException | CancellationException e) {
             resp = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
         return resp == null ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build() : resp;
@@ -157,7 +167,7 @@ public class SpectraRatioJsonController {
             } else {
                 resp = ResponseEntity.badRequest().build();
             }
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+        } catch (InterruptedException | ExecutionException | TimeoutException | CancellationException e) {
             resp = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
         return resp == null ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build() : resp;
@@ -36,10 +36,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticCodaGenerationService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticService;
+import gov.llnl.gnem.apps.coda.common.application.web.SegmentFrameWriter;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentFrames;
 import jakarta.validation.Valid;
 
 @RestController
@@ -53,10 +56,13 @@ public class SyntheticCollectionJsonController {
 
     private SyntheticCodaGenerationService genService;
 
+    private SegmentFrameWriter frameWriter;
+
     @Autowired
-    public SyntheticCollectionJsonController(SyntheticService syntheticService, SyntheticCodaGenerationService genService) {
+    public SyntheticCollectionJsonController(SyntheticService syntheticService, SyntheticCodaGenerationService genService, SegmentFrameWriter frameWriter) {
         this.syntheticService = syntheticService;
         this.genService = genService;
+        this.frameWriter = frameWriter;
     }
 
     @GetMapping(value = { "/all", "/all/" }, name = "getAll")
@@ -85,6 +91,15 @@ public class SyntheticCollectionJsonController {
         return ResponseEntity.ok().body(data);
     }
 
+    /**
+     * Streams the synthetics for the given waveform identifiers, sent in the
+     * request body, as binary {@link SegmentFrames}.
+     */
+    @PostMapping(value = { "/query/batch-by-waveform", "/query/batch-by-waveform/" }, name = "getBatchFramesByWaveformIds", consumes = MediaType.APPLICATION_JSON_VALUE, produces = SegmentFrames.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> getBatchFramesByWaveformIds(@RequestBody List<Long> waveformIds) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(SegmentFrames.MEDIA_TYPE_VALUE)).body(frameWriter.streamSynthetics(waveformIds, syntheticService::findAllByWaveformId));
+    }
+
     @GetMapping(value = "/single/{id}", name = "getSyntheticCoda")
     public ResponseEntity<?> getSyntheticCoda(@PathVariable("id") Long id) {
         SyntheticCoda synthetic = syntheticService.findOne(id);
@@ -0,0 +1,49 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import gov.llnl.gnem.apps.coda.common.service.impl.NotificationServiceImpl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the asynchronous notification queue depth and event counts on
+ * the actuator metrics endpoint.
+ */
+@Configuration
+public class NotificationMetricsConfig {
+
+    @Bean
+    public MeterBinder notificationMetrics(NotificationServiceImpl notificationService) {
+        return registry -> {
+            Gauge.builder("cct.notifications.queue.depth", notificationService, NotificationServiceImpl::getQueueDepth)
+                 .description("Events waiting for the asynchronous notification listeners")
+                 .register(registry);
+            FunctionCounter.builder("cct.notifications.dropped", notificationService, NotificationServiceImpl::getDroppedCount)
+                           .description("Events dropped because the notification queue was full")
+                           .register(registry);
+            FunctionCounter.builder("cct.notifications.coalesced", notificationService, NotificationServiceImpl::getCoalescedCount)
+                           .description("Change events merged into an earlier queued event")
+                           .register(registry);
+            FunctionCounter.builder("cct.notifications.dispatched", notificationService, NotificationServiceImpl::getDispatchedCount)
+                           .description("Events handed to the asynchronous notification listeners")
+                           .register(registry);
+        };
+    }
+}
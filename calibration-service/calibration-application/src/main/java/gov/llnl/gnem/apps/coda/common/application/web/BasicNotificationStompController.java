@@ -28,7 +28,7 @@ public class BasicNotificationStompController {
     @Autowired
     public BasicNotificationStompController(SimpMessagingTemplate template, NotificationService notificationService) {
         final TypingMessageTemplate typingTemplate = new TypingMessageTemplate(template);
-        notificationService.register(new Listener<PassFailEvent>() {
+        notificationService.registerAsync(new Listener<PassFailEvent>() {
             @Override
             public void apply(PassFailEvent event) {
                 typingTemplate.convertAndSend("/topic/status-events", event);
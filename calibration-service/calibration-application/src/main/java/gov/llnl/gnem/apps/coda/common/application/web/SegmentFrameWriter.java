@@ -0,0 +1,98 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentFrames;
+
+/**
+ * Streams waveforms and synthetics as {@link SegmentFrames}, loading and
+ * writing a chunk of identifiers at a time so only that chunk is held in
+ * memory.
+ */
+@Component
+public class SegmentFrameWriter {
+
+    private static final int CHUNK_SIZE = 50;
+
+    private final ObjectMapper mapper;
+
+    @FunctionalInterface
+    private interface FrameEncoder<T> {
+        void write(OutputStream out, T value) throws IOException;
+    }
+
+    @Autowired
+    public SegmentFrameWriter(MappingJackson2HttpMessageConverter jsonConverter) {
+        this.mapper = jsonConverter.getObjectMapper()
+                                   .copy()
+                                   .addMixIn(Waveform.class, SegmentFrames.WithoutSegmentMixin.class)
+                                   .addMixIn(SyntheticCoda.class, SegmentFrames.WithoutSegmentMixin.class);
+    }
+
+    public StreamingResponseBody streamWaveforms(List<Long> ids, Function<List<Long>, ? extends Collection<Waveform>> loader) {
+        return stream(ids, loader, this::write);
+    }
+
+    public StreamingResponseBody streamSynthetics(List<Long> ids, Function<List<Long>, ? extends Collection<SyntheticCoda>> loader) {
+        return stream(ids, loader, this::write);
+    }
+
+    public void write(OutputStream out, Waveform waveform) throws IOException {
+        SegmentFrames.write(out, mapper.writeValueAsBytes(waveform), waveform.getSegment());
+    }
+
+    /**
+     * Writes the synthetic segment followed by the segment of its source
+     * waveform, if it has one.
+     */
+    public void write(OutputStream out, SyntheticCoda synthetic) throws IOException {
+        Waveform source = synthetic.getSourceWaveform();
+        SegmentFrames.write(out, mapper.writeValueAsBytes(synthetic), synthetic.getSegment(), source != null ? source.getSegment() : null);
+    }
+
+    private <T> StreamingResponseBody stream(List<Long> ids, Function<List<Long>, ? extends Collection<T>> loader, FrameEncoder<T> encoder) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        return out -> {
+            for (int i = 0; i < distinctIds.size(); i += CHUNK_SIZE) {
+                Collection<T> values = loader.apply(distinctIds.subList(i, Math.min(i + CHUNK_SIZE, distinctIds.size())));
+                if (values != null) {
+                    for (T value : values) {
+                        if (value != null) {
+                            encoder.write(out, value);
+                        }
+                    }
+                }
+                out.flush();
+            }
+        };
+    }
+}
@@ -33,8 +33,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentFrames;
 import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
 import jakarta.validation.Valid;
 
@@ -45,9 +47,12 @@ public class WaveformsCollectionJsonController {
 
     private WaveformService waveformService;
 
+    private SegmentFrameWriter frameWriter;
+
     @Autowired
-    public WaveformsCollectionJsonController(WaveformService waveformService) {
+    public WaveformsCollectionJsonController(WaveformService waveformService, SegmentFrameWriter frameWriter) {
         this.waveformService = waveformService;
+        this.frameWriter = frameWriter;
     }
 
     @PostMapping(value = { "/query/all", "/query/all/" }, name = "getByExampleAllMatching")
@@ -139,6 +144,16 @@ public class WaveformsCollectionJsonController {
         }
     }
 
+    /**
+     * Same as {@link #getBatch(Collection)} but with the identifiers in the
+     * request body and the waveforms streamed back as binary
+     * {@link SegmentFrames}.
+     */
+    @PostMapping(value = { "/query/batch", "/query/batch/" }, name = "getBatchFrames", consumes = MediaType.APPLICATION_JSON_VALUE, produces = SegmentFrames.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> getBatchFrames(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(SegmentFrames.MEDIA_TYPE_VALUE)).body(frameWriter.streamWaveforms(ids, getWaveformService()::findAll));
+    }
+
     @PostMapping(value = "/batch/{sessionId}", name = "createBatch")
     public ResponseEntity<?> createBatch(@PathVariable Long sessionId, @Valid @RequestBody Set<Waveform> waveforms, BindingResult result) {
         if (result.hasErrors()) {
@@ -14,12 +14,18 @@
 */
 package gov.llnl.gnem.apps.coda.envelope.application.web;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.ResponseEntity.BodyBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,9 +33,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.model.util.LightweightIllegalStateException;
 import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJob;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
 import jakarta.validation.Valid;
@@ -39,11 +49,16 @@ import jakarta.validation.Valid;
 @RequestMapping(value = { "/api/v1/envelopes/create", "/api/v1/envelopes/create/" }, name = "EnvelopeJsonController", produces = MediaType.APPLICATION_JSON_VALUE)
 public class EnvelopeJsonController {
 
+    private static final Logger log = LoggerFactory.getLogger(EnvelopeJsonController.class);
+
     private EnvelopeCreationService service;
 
+    private ObjectMapper mapper;
+
     @Autowired
-    public EnvelopeJsonController(EnvelopeCreationService service) {
+    public EnvelopeJsonController(EnvelopeCreationService service, MappingJackson2HttpMessageConverter jsonConverter) {
         this.service = service;
+        this.mapper = jsonConverter.getObjectMapper();
     }
 
     @PostMapping(value = "/batch/{sessionId}", name = "createBatch")
@@ -80,4 +95,46 @@ public class EnvelopeJsonController {
         }
         return response.body(result);
     }
+
+    @PostMapping(value = "/batch-stream/{sessionId}", name = "createBatchStream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<StreamingResponseBody> createBatchStream(@PathVariable Long sessionId, @Valid @RequestBody EnvelopeJob job, BindingResult bindResult) {
+        return streamEnvelopes(sessionId, job, bindResult, false);
+    }
+
+    @PostMapping(value = "/batch-stacks-only-stream/{sessionId}", name = "createBatchStacksStream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<StreamingResponseBody> createBatchStacksStream(@PathVariable Long sessionId, @Valid @RequestBody EnvelopeJob job, BindingResult bindResult) {
+        return streamEnvelopes(sessionId, job, bindResult, true);
+    }
+
+    /**
+     * Writes each envelope as one line of JSON as soon as the service hands
+     * it over. Writes block while the client catches up, which in turn holds
+     * up the envelope processing.
+     */
+    private ResponseEntity<StreamingResponseBody> streamEnvelopes(Long sessionId, EnvelopeJob job, BindingResult bindResult, boolean shouldReturnStacks) {
+        if (bindResult.hasErrors()) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(mapper.writeValueAsBytes(bindResult)));
+        }
+        if (job.getData() == null || job.getData().isEmpty()) {
+            Result<List<Waveform>> result = new Result<>(false,
+                                                         Collections.singletonList(new LightweightIllegalStateException("No waveforms provided; unable to compute envelopes.")),
+                                                         Collections.emptyList());
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(mapper.writeValueAsBytes(result)));
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> {
+            Result<Integer> result = service.createEnvelopes(sessionId, job.getData(), job.getJobConfig(), shouldReturnStacks, waveform -> {
+                try {
+                    out.write(mapper.writeValueAsBytes(waveform));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!result.isSuccess()) {
+                log.warn("Unable to stream envelopes for session {}: {}", sessionId, result.getErrors());
+            }
+        });
+    }
 }
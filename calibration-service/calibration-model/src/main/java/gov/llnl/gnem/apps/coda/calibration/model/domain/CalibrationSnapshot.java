@@ -0,0 +1,101 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.Collections;
+import java.util.Map;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+/**
+ * Read-only view of the calibration parameters as of a single point in time.
+ * Lookups that used to be a repository query per waveform or per event pair
+ * become map reads against this snapshot. The version increases every time
+ * the parameters are reloaded so callers can tell if two snapshots are the
+ * same.
+ * <p>
+ * The entities held here are detached and shared, callers must copy them
+ * before making changes.
+ */
+public class CalibrationSnapshot {
+
+    private final long version;
+    private final Map<FrequencyBand, SharedFrequencyBandParameters> sharedParameters;
+    private final Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteParameters;
+    private final MdacParametersFI mdacFi;
+    private final Map<String, MdacParametersPS> mdacPsByPhase;
+    private final VelocityConfiguration velocityConfiguration;
+    private final ShapeFitterConstraints shapeConstraints;
+    private final Map<String, ReferenceMwParameters> referenceMwsByEvent;
+    private final Map<String, ValidationMwParameters> validationMwsByEvent;
+    private final Map<String, MeasuredMwParameters> measuredMwsByEvent;
+
+    public CalibrationSnapshot(long version, Map<FrequencyBand, SharedFrequencyBandParameters> sharedParameters, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteParameters,
+            MdacParametersFI mdacFi, Map<String, MdacParametersPS> mdacPsByPhase, VelocityConfiguration velocityConfiguration, ShapeFitterConstraints shapeConstraints,
+            Map<String, ReferenceMwParameters> referenceMwsByEvent, Map<String, ValidationMwParameters> validationMwsByEvent, Map<String, MeasuredMwParameters> measuredMwsByEvent) {
+        this.version = version;
+        this.sharedParameters = Collections.unmodifiableMap(sharedParameters);
+        this.siteParameters = Collections.unmodifiableMap(siteParameters);
+        this.mdacFi = mdacFi;
+        this.mdacPsByPhase = Collections.unmodifiableMap(mdacPsByPhase);
+        this.velocityConfiguration = velocityConfiguration;
+        this.shapeConstraints = shapeConstraints;
+        this.referenceMwsByEvent = Collections.unmodifiableMap(referenceMwsByEvent);
+        this.validationMwsByEvent = Collections.unmodifiableMap(validationMwsByEvent);
+        this.measuredMwsByEvent = Collections.unmodifiableMap(measuredMwsByEvent);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<FrequencyBand, SharedFrequencyBandParameters> getSharedParameters() {
+        return sharedParameters;
+    }
+
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> getSiteParameters() {
+        return siteParameters;
+    }
+
+    public MdacParametersFI getMdacFi() {
+        return mdacFi;
+    }
+
+    public MdacParametersPS getMdacPs(String phase) {
+        return mdacPsByPhase.get(phase);
+    }
+
+    public VelocityConfiguration getVelocityConfiguration() {
+        return velocityConfiguration;
+    }
+
+    public ShapeFitterConstraints getShapeConstraints() {
+        return shapeConstraints;
+    }
+
+    public ReferenceMwParameters getReferenceMw(String eventId) {
+        return referenceMwsByEvent.get(eventId);
+    }
+
+    public ValidationMwParameters getValidationMw(String eventId) {
+        return validationMwsByEvent.get(eventId);
+    }
+
+    public MeasuredMwParameters getMeasuredMw(String eventId) {
+        return measuredMwsByEvent.get(eventId);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+
+/**
+ * Column oriented copy of the spectra measurements a calibration stage works
+ * from. Each row is one measurement of one event at one station in one
+ * frequency band, with the amplitudes held in parallel primitive arrays and
+ * the events, stations and bands replaced by an index into a dictionary.
+ * <p>
+ * Rows are grouped by band and then by event, so the rows of group {@code g}
+ * occupy {@code [getGroupStart(g), getGroupEnd(g))} and the groups of band
+ * {@code b} occupy {@code [getBandGroupStart(b), getBandGroupEnd(b))}. The
+ * groups of an event across all bands are indexed separately through
+ * {@link #getEventGroups(int)}. All of the accessors read the backing arrays
+ * directly, nothing is copied after the table is built.
+ * <p>
+ * A table only holds a single measurement per band, event and station; the
+ * last one added wins.
+ */
+public class SpectraMeasurementTable {
+
+    private final List<FrequencyBand> bands;
+    private final Map<FrequencyBand, Integer> bandIndex;
+    private final List<Event> events;
+    private final List<Station> stations;
+
+    private final int[] bandGroupOffsets;
+    private final int[] groupOffsets;
+    private final int[] groupBand;
+    private final int[] groupEvent;
+    private final int[] eventGroupOffsets;
+    private final int[] eventGroups;
+
+    private final long[] waveformId;
+    private final int[] station;
+    private final double[] rawAtMeasurementTime;
+    private final double[] pathCorrected;
+    private final double[] pathAndSiteCorrected;
+
+    private SpectraMeasurementTable(Builder builder) {
+        bands = Collections.unmodifiableList(new ArrayList<>(builder.rowsByBand.keySet()));
+        bandIndex = new HashMap<>();
+        for (int b = 0; b < bands.size(); b++) {
+            bandIndex.put(bands.get(b), b);
+        }
+        events = Collections.unmodifiableList(builder.events);
+        stations = Collections.unmodifiableList(builder.stations);
+
+        int groupCount = 0;
+        for (Map<Integer, Map<Integer, Integer>> byEvent : builder.rowsByBand.values()) {
+            groupCount += byEvent.size();
+        }
+        int rowCount = builder.size;
+
+        bandGroupOffsets = new int[bands.size() + 1];
+        groupOffsets = new int[groupCount + 1];
+        groupBand = new int[groupCount];
+        groupEvent = new int[groupCount];
+        waveformId = new long[rowCount];
+        station = new int[rowCount];
+        rawAtMeasurementTime = new double[rowCount];
+        pathCorrected = new double[rowCount];
+        pathAndSiteCorrected = new double[rowCount];
+
+        int b = 0;
+        int g = 0;
+        int row = 0;
+        for (Map<Integer, Map<Integer, Integer>> byEvent : builder.rowsByBand.values()) {
+            bandGroupOffsets[b] = g;
+            for (Entry<Integer, Map<Integer, Integer>> eventEntry : byEvent.entrySet()) {
+                groupOffsets[g] = row;
+                groupBand[g] = b;
+                groupEvent[g] = eventEntry.getKey();
+                for (Entry<Integer, Integer> stationEntry : eventEntry.getValue().entrySet()) {
+                    int source = stationEntry.getValue();
+                    station[row] = stationEntry.getKey();
+                    waveformId[row] = builder.waveformId[source];
+                    rawAtMeasurementTime[row] = builder.rawAtMeasurementTime[source];
+                    pathCorrected[row] = builder.pathCorrected[source];
+                    pathAndSiteCorrected[row] = builder.pathAndSiteCorrected[source];
+                    row++;
+                }
+                g++;
+            }
+            b++;
+        }
+        bandGroupOffsets[b] = g;
+        groupOffsets[g] = row;
+
+        // Counting sort of the groups by event for the event major passes
+        eventGroupOffsets = new int[events.size() + 1];
+        for (int i = 0; i < groupCount; i++) {
+            eventGroupOffsets[groupEvent[i] + 1]++;
+        }
+        for (int e = 0; e < events.size(); e++) {
+            eventGroupOffsets[e + 1] += eventGroupOffsets[e];
+        }
+        eventGroups = new int[groupCount];
+        int[] next = Arrays.copyOf(eventGroupOffsets, events.size());
+        for (int i = 0; i < groupCount; i++) {
+            eventGroups[next[groupEvent[i]]++] = i;
+        }
+    }
+
+    /**
+     * Builds a table from measurements binned by frequency band, skipping
+     * any measurement whose waveform does not pass the given filter.
+     */
+    public static SpectraMeasurementTable of(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, Predicate<Waveform> filter) {
+        Builder builder = new Builder();
+        if (dataByFreqBand != null) {
+            for (Entry<FrequencyBand, List<SpectraMeasurement>> entries : dataByFreqBand.entrySet()) {
+                for (SpectraMeasurement entry : entries.getValue()) {
+                    Waveform waveform = entry.getWaveform();
+                    if (filter.test(waveform)) {
+                        builder.add(
+                                entries.getKey(),
+                                    waveform.getEvent(),
+                                    waveform.getStream().getStation(),
+                                    waveform.getId() != null ? waveform.getId() : -1l,
+                                    entry.getRawAtMeasurementTime(),
+                                    entry.getPathCorrected(),
+                                    entry.getPathAndSiteCorrected());
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return waveformId.length;
+    }
+
+    public int getBandCount() {
+        return bands.size();
+    }
+
+    public FrequencyBand getBand(int band) {
+        return bands.get(band);
+    }
+
+    /**
+     * @return the index of the band or -1 if the table has no rows for it
+     */
+    public int getBandIndex(FrequencyBand band) {
+        return bandIndex.getOrDefault(band, -1);
+    }
+
+    public int getEventCount() {
+        return events.size();
+    }
+
+    public Event getEvent(int event) {
+        return events.get(event);
+    }
+
+    public int getStationCount() {
+        return stations.size();
+    }
+
+    public Station getStation(int station) {
+        return stations.get(station);
+    }
+
+    public int getGroupCount() {
+        return groupBand.length;
+    }
+
+    public int getBandGroupStart(int band) {
+        return bandGroupOffsets[band];
+    }
+
+    public int getBandGroupEnd(int band) {
+        return bandGroupOffsets[band + 1];
+    }
+
+    public int getGroupStart(int group) {
+        return groupOffsets[group];
+    }
+
+    public int getGroupEnd(int group) {
+        return groupOffsets[group + 1];
+    }
+
+    public int getGroupBand(int group) {
+        return groupBand[group];
+    }
+
+    public int getGroupEvent(int group) {
+        return groupEvent[group];
+    }
+
+    public int getEventGroupStart(int event) {
+        return eventGroupOffsets[event];
+    }
+
+    public int getEventGroupEnd(int event) {
+        return eventGroupOffsets[event + 1];
+    }
+
+    /**
+     * The group indexes of every event, the groups of event {@code e} are at
+     * {@code [getEventGroupStart(e), getEventGroupEnd(e))}. This is the
+     * backing array and must not be modified.
+     */
+    public int[] getEventGroups() {
+        return eventGroups;
+    }
+
+    /**
+     * @return the id of the waveform the row was measured on or -1 if it was
+     *         never persisted
+     */
+    public long getWaveformId(int row) {
+        return waveformId[row];
+    }
+
+    public int getStationIndex(int row) {
+        return station[row];
+    }
+
+    public double getRawAtMeasurementTime(int row) {
+        return rawAtMeasurementTime[row];
+    }
+
+    public double getPathCorrected(int row) {
+        return pathCorrected[row];
+    }
+
+    public double getPathAndSiteCorrected(int row) {
+        return pathAndSiteCorrected[row];
+    }
+
+    public static class Builder {
+
+        private final Map<FrequencyBand, Map<Integer, Map<Integer, Integer>>> rowsByBand = new LinkedHashMap<>();
+        private final Map<Event, Integer> eventIndex = new HashMap<>();
+        private final Map<Station, Integer> stationIndex = new HashMap<>();
+        private final List<Event> events = new ArrayList<>();
+        private final List<Station> stations = new ArrayList<>();
+
+        private int size;
+        private long[] waveformId = new long[16];
+        private double[] rawAtMeasurementTime = new double[16];
+        private double[] pathCorrected = new double[16];
+        private double[] pathAndSiteCorrected = new double[16];
+
+        public Builder add(FrequencyBand band, Event event, Station station, long waveformId, double rawAtMeasurementTime, double pathCorrected, double pathAndSiteCorrected) {
+            Integer e = eventIndex.computeIfAbsent(event, k -> {
+                events.add(k);
+                return events.size() - 1;
+            });
+            Integer s = stationIndex.computeIfAbsent(station, k -> {
+                stations.add(k);
+                return stations.size() - 1;
+            });
+            Map<Integer, Integer> byStation = rowsByBand.computeIfAbsent(band, k -> new LinkedHashMap<>()).computeIfAbsent(e, k -> new LinkedHashMap<>());
+            Integer row = byStation.get(s);
+            if (row == null) {
+                if (size == this.waveformId.length) {
+                    int capacity = size * 2;
+                    this.waveformId = Arrays.copyOf(this.waveformId, capacity);
+                    this.rawAtMeasurementTime = Arrays.copyOf(this.rawAtMeasurementTime, capacity);
+                    this.pathCorrected = Arrays.copyOf(this.pathCorrected, capacity);
+                    this.pathAndSiteCorrected = Arrays.copyOf(this.pathAndSiteCorrected, capacity);
+                }
+                row = size++;
+                byStation.put(s, row);
+            }
+            this.waveformId[row] = waveformId;
+            this.rawAtMeasurementTime[row] = rawAtMeasurementTime;
+            this.pathCorrected[row] = pathCorrected;
+            this.pathAndSiteCorrected[row] = pathAndSiteCorrected;
+            return this;
+        }
+
+        public SpectraMeasurementTable build() {
+            return new SpectraMeasurementTable(this);
+        }
+    }
+}
@@ -14,6 +14,9 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.model.messaging;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -28,17 +31,28 @@ public class CalibrationStatusEvent {
     private Long id;
     private Status status;
     private Result<Exception> error;
+    /**
+     * Wall-clock milliseconds spent in each stage that has finished so far in
+     * this calibration.
+     */
+    private Map<Status, Long> stageTimings = new EnumMap<>(Status.class);
 
     public CalibrationStatusEvent(Long id, Status status) {
         this.id = id;
         this.status = status;
     }
 
+    public CalibrationStatusEvent(Long id, Status status, Result<Exception> error) {
+        this(id, status, error, null);
+    }
+
     @JsonCreator
-    public CalibrationStatusEvent(@JsonProperty("id") Long id, @JsonProperty("status") Status status, @JsonProperty("error") Result<Exception> error) {
+    public CalibrationStatusEvent(@JsonProperty("id") Long id, @JsonProperty("status") Status status, @JsonProperty("error") Result<Exception> error,
+            @JsonProperty("stageTimings") Map<Status, Long> stageTimings) {
         this.id = id;
         this.status = status;
         this.error = error;
+        setStageTimings(stageTimings);
     }
 
     public Long getId() {
@@ -68,9 +82,21 @@ public class CalibrationStatusEvent {
         return this;
     }
 
+    public Map<Status, Long> getStageTimings() {
+        return stageTimings;
+    }
+
+    public CalibrationStatusEvent setStageTimings(Map<Status, Long> stageTimings) {
+        this.stageTimings = new EnumMap<>(Status.class);
+        if (stageTimings != null) {
+            this.stageTimings.putAll(stageTimings);
+        }
+        return this;
+    }
+
     @Override
     public String toString() {
-        return "CalibrationStatusEvent [id=" + id + ", status=" + status + ", error=" + error + "]";
+        return "CalibrationStatusEvent [id=" + id + ", status=" + status + ", error=" + error + ", stageTimings=" + stageTimings + "]";
     }
 
     @Override
@@ -80,6 +106,7 @@ public class CalibrationStatusEvent {
         result = prime * result + ((error == null) ? 0 : error.hashCode());
         result = prime * result + ((id == null) ? 0 : id.hashCode());
         result = prime * result + ((status == null) ? 0 : status.hashCode());
+        result = prime * result + ((stageTimings == null) ? 0 : stageTimings.hashCode());
         return result;
     }
 
@@ -112,6 +139,13 @@ public class CalibrationStatusEvent {
         if (status != other.status) {
             return false;
         }
+        if (stageTimings == null) {
+            if (other.stageTimings != null) {
+                return false;
+            }
+        } else if (!stageTimings.equals(other.stageTimings)) {
+            return false;
+        }
         return true;
     }
 }
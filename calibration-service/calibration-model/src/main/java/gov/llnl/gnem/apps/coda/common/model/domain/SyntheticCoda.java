@@ -21,6 +21,7 @@ import java.util.Objects;
 import jakarta.persistence.Basic;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -41,6 +42,8 @@ import org.springframework.format.annotation.NumberFormat;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentConverter;
+
 @Entity
 @Table(name = "Synthetic_Coda", indexes = { @Index(columnList = "source_waveform_id", name = "source_waveform_id_index") })
 public class SyntheticCoda implements Serializable {
@@ -66,6 +69,7 @@ public class SyntheticCoda implements Serializable {
     @NotNull
     @Lob
     @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = SegmentConverter.class)
     private DoubleArrayList segment = new DoubleArrayList(0);
 
     @Column(name = "beginTime")
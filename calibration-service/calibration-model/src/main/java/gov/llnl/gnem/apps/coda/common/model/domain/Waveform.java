@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 import jakarta.persistence.Basic;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -49,6 +50,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.model.util.SegmentConverter;
 
 @Entity
 @Table(name = "Waveform", indexes = { @Index(columnList = "beginTime", name = "btime_index"), @Index(columnList = "endTime", name = "etime_index"),
@@ -119,6 +121,7 @@ public class Waveform {
     @NotNull
     @Lob
     @Basic
+    @Convert(converter = SegmentConverter.class)
     private DoubleArrayList segment = new DoubleArrayList(0);
 
     @OneToMany(cascade = { CascadeType.ALL }, orphanRemoval = true, mappedBy = "waveform", targetEntity = WaveformPick.class, fetch = FetchType.EAGER)
@@ -274,11 +277,18 @@ public class Waveform {
     }
 
     public double[] getSegment() {
+        if (segment == null) {
+            return null;
+        }
         return segment.toArray();
     }
 
     public Waveform setSegment(double[] segment) {
-        this.segment = new DoubleArrayList(segment);
+        if (segment == null) {
+            this.segment = null;
+        } else {
+            this.segment = new DoubleArrayList(segment);
+        }
         return this;
     }
 
@@ -57,6 +57,23 @@ public class WaveformPick implements Serializable {
     @Column(name = "pickTimeSecFromOrigin")
     private Double pickTimeSecFromOrigin;
 
+    public WaveformPick() {
+        //NOP
+    }
+
+    /**
+     * Metadata constructor that references the owning waveform by id only so
+     * loading a pick does not pull in the waveform segment.
+     */
+    public WaveformPick(Long id, Integer version, Long waveformId, String pickName, String pickType, Double pickTimeSecFromOrigin) {
+        this.id = id;
+        this.version = version;
+        this.waveform = new Waveform().setId(waveformId).setData(null);
+        this.pickName = pickName;
+        this.pickType = pickType;
+        this.pickTimeSecFromOrigin = pickTimeSecFromOrigin;
+    }
+
     public Long getId() {
         return this.id;
     }
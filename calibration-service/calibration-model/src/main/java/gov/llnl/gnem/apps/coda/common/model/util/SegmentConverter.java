@@ -0,0 +1,244 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Stores sample segments as a compact little-endian block instead of a Java
+ * serialized {@link DoubleArrayList}.
+ *
+ * <p>
+ * Layout is an 8 byte header followed by the samples:
+ *
+ * <pre>
+ * [0..1] magic 'C' 'S'
+ * [2]    format version
+ * [3]    flags (FLOAT32, XOR_DELTA, DEFLATE)
+ * [4..7] sample count (int32 LE)
+ * [8..]  payload, float64 or float32 LE; XOR delta coded and/or deflated per the flags
+ * </pre>
+ *
+ * Values written by older versions as serialized objects are still readable.
+ * Storing as float32 is lossy and is therefore opt-in.
+ */
+@Converter
+public class SegmentConverter implements AttributeConverter<DoubleArrayList, byte[]> {
+
+    static final byte MAGIC_0 = 'C';
+    static final byte MAGIC_1 = 'S';
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    static final int FLOAT32 = 0x1;
+    static final int XOR_DELTA = 0x2;
+    static final int DEFLATE = 0x4;
+
+    private static final byte SERIALIZED_MAGIC_0 = (byte) 0xAC;
+    private static final byte SERIALIZED_MAGIC_1 = (byte) 0xED;
+    private static final ObjectInputFilter SERIALIZED_FILTER = ObjectInputFilter.Config.createFilter("org.eclipse.collections.**;java.lang.*;!*");
+
+    @Value("${waveform.segment.float32:false}")
+    private boolean float32 = false;
+
+    @Value("${waveform.segment.compression:false}")
+    private boolean compression = false;
+
+    public SegmentConverter() {
+        //Default for JPA, settings are injected when managed by Spring
+    }
+
+    public SegmentConverter(boolean float32, boolean compression) {
+        this.float32 = float32;
+        this.compression = compression;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(DoubleArrayList attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        int flags = 0;
+        if (float32) {
+            flags |= FLOAT32;
+        }
+        if (compression) {
+            flags |= XOR_DELTA | DEFLATE;
+        }
+        return encode(attribute.toArray(), flags);
+    }
+
+    @Override
+    public DoubleArrayList convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        //Wraps the decoded array without copying
+        return DoubleArrayList.newListWith(decode(dbData));
+    }
+
+    public static byte[] encode(double[] samples, int flags) {
+        boolean asFloat = (flags & FLOAT32) != 0;
+        boolean delta = (flags & XOR_DELTA) != 0;
+        int width = asFloat ? Float.BYTES : Double.BYTES;
+
+        ByteBuffer payload = ByteBuffer.allocate(samples.length * width).order(ByteOrder.LITTLE_ENDIAN);
+        if (asFloat) {
+            int prev = 0;
+            for (double sample : samples) {
+                int bits = Float.floatToRawIntBits((float) sample);
+                payload.putInt(delta ? bits ^ prev : bits);
+                prev = bits;
+            }
+        } else {
+            long prev = 0L;
+            for (double sample : samples) {
+                long bits = Double.doubleToRawLongBits(sample);
+                payload.putLong(delta ? bits ^ prev : bits);
+                prev = bits;
+            }
+        }
+
+        byte[] body = payload.array();
+        int bodyLength = body.length;
+        if ((flags & DEFLATE) != 0) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(body);
+                deflater.finish();
+                byte[] compressed = new byte[Math.max(64, body.length + (body.length >> 3) + 64)];
+                int written = 0;
+                while (!deflater.finished()) {
+                    if (written == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    written += deflater.deflate(compressed, written, compressed.length - written);
+                }
+                if (written < body.length) {
+                    body = compressed;
+                    bodyLength = written;
+                } else {
+                    flags &= ~DEFLATE;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(MAGIC_0).put(MAGIC_1).put(VERSION).put((byte) flags).putInt(samples.length);
+        out.put(body, 0, bodyLength);
+        return out.array();
+    }
+
+    public static double[] decode(byte[] data) {
+        if (data.length >= 2 && data[0] == SERIALIZED_MAGIC_0 && data[1] == SERIALIZED_MAGIC_1) {
+            return decodeSerialized(data);
+        }
+        if (data.length < HEADER_BYTES || data[0] != MAGIC_0 || data[1] != MAGIC_1) {
+            throw new IllegalStateException("Unrecognized segment encoding");
+        }
+        if (data[2] != VERSION) {
+            throw new IllegalStateException("Unsupported segment encoding version " + data[2]);
+        }
+        int flags = data[3];
+        ByteBuffer header = ByteBuffer.wrap(data, 4, 4).order(ByteOrder.LITTLE_ENDIAN);
+        int count = header.getInt();
+        boolean asFloat = (flags & FLOAT32) != 0;
+        boolean delta = (flags & XOR_DELTA) != 0;
+        int width = asFloat ? Float.BYTES : Double.BYTES;
+
+        ByteBuffer payload;
+        if ((flags & DEFLATE) != 0) {
+            byte[] body = new byte[count * width];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, HEADER_BYTES, data.length - HEADER_BYTES);
+                int read = 0;
+                while (read < body.length && !inflater.finished()) {
+                    int n = inflater.inflate(body, read, body.length - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != body.length) {
+                    throw new IllegalStateException("Truncated segment data, expected " + body.length + " bytes but got " + read);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt segment data", e);
+            } finally {
+                inflater.end();
+            }
+            payload = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            if (data.length - HEADER_BYTES < count * width) {
+                throw new IllegalStateException("Truncated segment data");
+            }
+            payload = ByteBuffer.wrap(data, HEADER_BYTES, count * width).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        double[] samples = new double[count];
+        if (asFloat) {
+            int prev = 0;
+            for (int i = 0; i < count; i++) {
+                int bits = payload.getInt();
+                if (delta) {
+                    bits ^= prev;
+                }
+                samples[i] = Float.intBitsToFloat(bits);
+                prev = bits;
+            }
+        } else if (!delta) {
+            payload.asDoubleBuffer().get(samples);
+        } else {
+            long prev = 0L;
+            for (int i = 0; i < count; i++) {
+                long bits = payload.getLong() ^ prev;
+                samples[i] = Double.longBitsToDouble(bits);
+                prev = bits;
+            }
+        }
+        return samples;
+    }
+
+    private static double[] decodeSerialized(byte[] data) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(SERIALIZED_FILTER);
+            Object value = in.readObject();
+            if (value instanceof DoubleArrayList) {
+                return ((DoubleArrayList) value).toArray();
+            }
+            throw new IllegalStateException("Unexpected serialized segment type " + (value != null ? value.getClass() : null));
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to read serialized segment", e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Length-prefixed binary frames for shipping waveforms and synthetics between
+ * the GUI and the service without text encoding every sample. Each frame holds
+ * the JSON metadata of one object, with its segments left out, followed by the
+ * segments in the {@link SegmentConverter} block format:
+ *
+ * <pre>
+ * int32  metadata length, then that many bytes of UTF-8 JSON
+ * int32  segment count, then for each segment
+ *        int32 block length (-1 for a missing segment), then the block
+ * </pre>
+ *
+ * All lengths are big-endian. Frames can be written and read one at a time so
+ * neither side has to hold the whole response in memory.
+ */
+public final class SegmentFrames {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.cct.segment-frames";
+
+    private static final int NO_SEGMENT = -1;
+
+    /**
+     * Jackson mix-in for the metadata part of a frame; the segments travel as
+     * binary blocks instead.
+     */
+    @JsonIgnoreProperties({ "segment" })
+    public abstract static class WithoutSegmentMixin {
+    }
+
+    private SegmentFrames() {
+    }
+
+    public static void write(OutputStream out, byte[] metadata, double[]... segments) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(metadata.length);
+        data.write(metadata);
+        data.writeInt(segments.length);
+        for (double[] segment : segments) {
+            if (segment == null) {
+                data.writeInt(NO_SEGMENT);
+            } else {
+                byte[] block = SegmentConverter.encode(segment, 0);
+                data.writeInt(block.length);
+                data.write(block);
+            }
+        }
+        data.flush();
+    }
+
+    public static class Frame {
+        private final byte[] metadata;
+        private final double[][] segments;
+
+        Frame(byte[] metadata, double[][] segments) {
+            this.metadata = metadata;
+            this.segments = segments;
+        }
+
+        public byte[] getMetadata() {
+            return metadata;
+        }
+
+        /**
+         * @return the segment at the index or null if the frame has no segment
+         *         there
+         */
+        public double[] getSegment(int index) {
+            return index < segments.length ? segments[index] : null;
+        }
+    }
+
+    /**
+     * Reassembles frames from arbitrarily split chunks of a stream. Not thread
+     * safe; use one reader per stream.
+     */
+    public static class Reader {
+        private byte[] pending = new byte[0];
+        private int size = 0;
+
+        /**
+         * @return every frame completed by this chunk, possibly none
+         */
+        public List<Frame> feed(byte[] chunk) {
+            if (size + chunk.length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(size + chunk.length, pending.length * 2));
+            }
+            System.arraycopy(chunk, 0, pending, size, chunk.length);
+            size += chunk.length;
+
+            List<Frame> frames = new ArrayList<>();
+            int consumed = 0;
+            int frameLength;
+            while ((frameLength = completeFrameLength(consumed)) > 0) {
+                frames.add(decode(ByteBuffer.wrap(pending, consumed, frameLength)));
+                consumed += frameLength;
+            }
+            if (consumed > 0) {
+                System.arraycopy(pending, consumed, pending, 0, size - consumed);
+                size -= consumed;
+            }
+            return frames;
+        }
+
+        /**
+         * @return true if the stream stopped part way through a frame
+         */
+        public boolean hasPartialFrame() {
+            return size > 0;
+        }
+
+        /**
+         * @return the length of the frame starting at the offset if all of it
+         *         has arrived, otherwise 0
+         */
+        private int completeFrameLength(int offset) {
+            ByteBuffer buffer = ByteBuffer.wrap(pending, offset, size - offset);
+            if (!skipBlock(buffer) || buffer.remaining() < Integer.BYTES) {
+                return 0;
+            }
+            int segmentCount = buffer.getInt();
+            for (int i = 0; i < segmentCount; i++) {
+                if (!skipBlock(buffer)) {
+                    return 0;
+                }
+            }
+            return buffer.position() - offset;
+        }
+
+        private static boolean skipBlock(ByteBuffer buffer) {
+            if (buffer.remaining() < Integer.BYTES) {
+                return false;
+            }
+            int length = Math.max(0, buffer.getInt());
+            if (buffer.remaining() < length) {
+                return false;
+            }
+            buffer.position(buffer.position() + length);
+            return true;
+        }
+
+        private static Frame decode(ByteBuffer buffer) {
+            byte[] metadata = new byte[buffer.getInt()];
+            buffer.get(metadata);
+            double[][] segments = new double[buffer.getInt()][];
+            for (int i = 0; i < segments.length; i++) {
+                int length = buffer.getInt();
+                if (length != NO_SEGMENT) {
+                    byte[] block = new byte[length];
+                    buffer.get(block);
+                    segments[i] = SegmentConverter.decode(block);
+                }
+            }
+            return new Frame(metadata, segments);
+        }
+    }
+}
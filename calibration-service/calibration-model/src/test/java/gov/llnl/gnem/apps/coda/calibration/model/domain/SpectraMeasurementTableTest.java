@@ -0,0 +1,62 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class SpectraMeasurementTableTest {
+
+    @Test
+    public void testRowsGroupedByBandAndEvent() {
+        FrequencyBand low = new FrequencyBand(1.0, 2.0);
+        FrequencyBand high = new FrequencyBand(2.0, 3.0);
+        Event first = new Event().setEventId("1");
+        Event second = new Event().setEventId("2");
+        Station a = new Station().setStationName("A");
+        Station b = new Station().setStationName("B");
+
+        SpectraMeasurementTable table = new SpectraMeasurementTable.Builder().add(low, first, a, 1l, 1.0, 0.0, 0.0)
+                                                                             .add(high, first, a, 2l, 2.0, 0.0, 0.0)
+                                                                             .add(low, second, b, 3l, 3.0, 0.0, 0.0)
+                                                                             .add(low, first, b, 4l, 4.0, 0.0, 0.0)
+                                                                             .add(low, first, a, 5l, 5.0, 0.0, 0.0)
+                                                                             .build();
+
+        Assertions.assertEquals(4, table.size());
+        Assertions.assertEquals(2, table.getBandCount());
+        Assertions.assertEquals(-1, table.getBandIndex(new FrequencyBand(3.0, 4.0)));
+
+        int lowIdx = table.getBandIndex(low);
+        Assertions.assertEquals(2, table.getBandGroupEnd(lowIdx) - table.getBandGroupStart(lowIdx));
+        int group = table.getBandGroupStart(lowIdx);
+        Assertions.assertEquals(first, table.getEvent(table.getGroupEvent(group)));
+        Assertions.assertEquals(2, table.getGroupEnd(group) - table.getGroupStart(group));
+        // The later measurement replaces the earlier one in place
+        Assertions.assertEquals(5l, table.getWaveformId(table.getGroupStart(group)));
+        Assertions.assertEquals(5.0, table.getRawAtMeasurementTime(table.getGroupStart(group)));
+        Assertions.assertEquals(b, table.getStation(table.getStationIndex(table.getGroupStart(group) + 1)));
+
+        int firstIdx = table.getGroupEvent(group);
+        Assertions.assertEquals(2, table.getEventGroupEnd(firstIdx) - table.getEventGroupStart(firstIdx));
+        for (int i = table.getEventGroupStart(firstIdx); i < table.getEventGroupEnd(firstIdx); i++) {
+            Assertions.assertEquals(firstIdx, table.getGroupEvent(table.getEventGroups()[i]));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SegmentConverterTest {
+
+    private static double[] envelope(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.log10(1.0 + Math.exp(-i / 200.0) * 1000.0) + 0.01 * Math.sin(i);
+        }
+        return values;
+    }
+
+    @Test
+    public void testLosslessRoundTrip() {
+        double[] values = envelope(5000);
+        values[10] = Double.NaN;
+        values[11] = Double.NEGATIVE_INFINITY;
+        for (boolean compression : new boolean[] { false, true }) {
+            SegmentConverter converter = new SegmentConverter(false, compression);
+            byte[] stored = converter.convertToDatabaseColumn(new DoubleArrayList(values));
+            Assertions.assertArrayEquals(values, converter.convertToEntityAttribute(stored).toArray());
+        }
+    }
+
+    @Test
+    public void testFloat32RoundTrip() {
+        double[] values = envelope(1000);
+        SegmentConverter converter = new SegmentConverter(true, true);
+        double[] restored = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(new DoubleArrayList(values))).toArray();
+        Assertions.assertEquals(values.length, restored.length);
+        for (int i = 0; i < values.length; i++) {
+            Assertions.assertEquals((float) values[i], restored[i]);
+        }
+    }
+
+    @Test
+    public void testEmptyAndNull() {
+        SegmentConverter converter = new SegmentConverter();
+        Assertions.assertNull(converter.convertToDatabaseColumn(null));
+        Assertions.assertNull(converter.convertToEntityAttribute(null));
+        byte[] stored = converter.convertToDatabaseColumn(new DoubleArrayList(0));
+        Assertions.assertEquals(SegmentConverter.HEADER_BYTES, stored.length);
+        Assertions.assertEquals(0, converter.convertToEntityAttribute(stored).size());
+    }
+
+    @Test
+    public void testReadsSerializedSegments() throws IOException {
+        double[] values = envelope(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new DoubleArrayList(values));
+        }
+        Assertions.assertArrayEquals(values, new SegmentConverter().convertToEntityAttribute(bytes.toByteArray()).toArray());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SegmentFramesTest {
+
+    @Test
+    public void testFramesSurviveAnyChunking() throws IOException {
+        double[] first = new double[] { 1.0, -2.5, Double.NaN, 1e-300 };
+        double[] second = new double[] { 3.0 };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentFrames.write(out, "{\"id\":1}".getBytes(StandardCharsets.UTF_8), first);
+        SegmentFrames.write(out, "{\"id\":2}".getBytes(StandardCharsets.UTF_8), second, null);
+        SegmentFrames.write(out, new byte[0]);
+        byte[] stream = out.toByteArray();
+
+        for (int chunkSize = 1; chunkSize <= stream.length; chunkSize++) {
+            SegmentFrames.Reader reader = new SegmentFrames.Reader();
+            List<SegmentFrames.Frame> frames = new ArrayList<>();
+            for (int i = 0; i < stream.length; i += chunkSize) {
+                frames.addAll(reader.feed(Arrays.copyOfRange(stream, i, Math.min(i + chunkSize, stream.length))));
+            }
+
+            Assertions.assertFalse(reader.hasPartialFrame());
+            Assertions.assertEquals(3, frames.size());
+            Assertions.assertEquals("{\"id\":1}", new String(frames.get(0).getMetadata(), StandardCharsets.UTF_8));
+            Assertions.assertArrayEquals(first, frames.get(0).getSegment(0));
+            Assertions.assertNull(frames.get(0).getSegment(1));
+            Assertions.assertArrayEquals(second, frames.get(1).getSegment(0));
+            Assertions.assertNull(frames.get(1).getSegment(1));
+            Assertions.assertEquals(0, frames.get(2).getMetadata().length);
+        }
+    }
+
+    @Test
+    public void testTruncatedStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentFrames.write(out, new byte[] { '{', '}' }, new double[10]);
+        byte[] stream = out.toByteArray();
+
+        SegmentFrames.Reader reader = new SegmentFrames.Reader();
+        Assertions.assertTrue(reader.feed(Arrays.copyOf(stream, stream.length - 1)).isEmpty());
+        Assertions.assertTrue(reader.hasPartialFrame());
+    }
+}
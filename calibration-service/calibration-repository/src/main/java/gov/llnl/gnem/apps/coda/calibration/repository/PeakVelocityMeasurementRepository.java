@@ -31,4 +31,6 @@ public interface PeakVelocityMeasurementRepository extends DetachableJpaReposito
 
     @Query("select p from PeakVelocityMeasurement p where p.waveform.id = :waveformId")
     public PeakVelocityMeasurementMetadata findByWaveformIdMetadataOnly(@Param("waveformId") Long waveformId);
+
+    public List<PeakVelocityMeasurement> findAllByWaveformLowFrequencyAndWaveformHighFrequency(Double lowFrequency, Double highFrequency);
 }
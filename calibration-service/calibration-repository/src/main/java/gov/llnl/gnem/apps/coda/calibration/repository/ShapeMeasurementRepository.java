@@ -28,6 +28,8 @@ public interface ShapeMeasurementRepository extends DetachableJpaRepository<Shap
 
     public ShapeMeasurement findOneByWaveformId(Long waveformId);
 
+    public List<ShapeMeasurement> findAllByWaveformLowFrequencyAndWaveformHighFrequency(Double lowFrequency, Double highFrequency);
+
     @Query("select v from ShapeMeasurement v")
     public List<ShapeMeasurementMetadata> findAllMetadataOnly();
 
@@ -14,10 +14,12 @@
 */
 package gov.llnl.gnem.apps.coda.common.repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -36,6 +38,12 @@ public interface WaveformRepository extends DetachableJpaRepository<Waveform, Lo
     public Waveform findByUniqueFields(@Param("eventId") String eventId, @Param("networkName") String networkName, @Param("stationName") String stationName, @Param("lowFrequency") Double lowFrequency,
             @Param("highFrequency") Double highFrequency);
 
+    @Query("select distinct w from Waveform w left join fetch w.associatedPicks where w.event.eventId in :eventIds and w.stream.station.stationName in :stationNames")
+    public List<Waveform> findAllByEventIdsAndStationNames(@Param("eventIds") Collection<String> eventIds, @Param("stationNames") Collection<String> stationNames);
+
+    @Query("select distinct w from Waveform w left join fetch w.associatedPicks where w.id in :ids")
+    public List<Waveform> findAllWithPicksByIds(@Param("ids") Collection<Long> ids);
+
     @Query("select w from Waveform w where w.beginTime = :beginTime and w.endTime = :endTime and w.event = :event and w.stream = :stream and w.segmentType = :segmentType and w.segmentUnits = :segmentUnits and w.lowFrequency = :lowFrequency and w.highFrequency = :highFrequency order by w.id desc")
     public Waveform findOneByAllFields(@Param("beginTime") Date beginTime, @Param("endTime") Date endTime, @Param("event") Event event, @Param("stream") Stream stream,
             @Param("segmentType") String segmentType, @Param("segmentUnits") String segmentUnits, @Param("lowFrequency") Double lowFrequency, @Param("highFrequency") Double highFrequency);
@@ -55,6 +63,36 @@ public interface WaveformRepository extends DetachableJpaRepository<Waveform, Lo
     @Query("select p from WaveformPick p where p.waveform.id = :id")
     public List<WaveformPick> findPicksByWaveformId(@Param("id") Long id);
 
+    @Query("select new WaveformPick(p.id, p.version, p.waveform.id, p.pickName, p.pickType, p.pickTimeSecFromOrigin) from WaveformPick p where p.waveform.id in :ids")
+    public List<WaveformPick> findPickMetadataByWaveformIds(@Param("ids") List<Long> ids);
+
+    @Query("select w.segment from Waveform w where w.id = :id")
+    public DoubleArrayList findSegmentById(@Param("id") Long id);
+
+    /**
+     * @return pairs of the waveform id and its {@link DoubleArrayList} segment
+     */
+    @Query("select w.id, w.segment from Waveform w where w.id in :ids")
+    public List<Object[]> findSegmentsByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Waveform w SET w.version = w.version + 1, w.maxVelTime = :maxVelTime, w.codaStartTime = :codaStartTime, w.userStartTime = :userStartTime, w.active = :active "
+            + "where w.id = :id and w.version = :version")
+    public int updateMetadata(@Param("id") Long id, @Param("version") Integer version, @Param("maxVelTime") Date maxVelTime, @Param("codaStartTime") Date codaStartTime,
+            @Param("userStartTime") Date userStartTime, @Param("active") Boolean active);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update WaveformPick p SET p.version = p.version + 1, p.pickName = :pickName, p.pickType = :pickType, p.pickTimeSecFromOrigin = :pickTime where p.id = :id and p.waveform.id = :waveformId")
+    public int updatePick(@Param("waveformId") Long waveformId, @Param("id") Long id, @Param("pickName") String pickName, @Param("pickType") String pickType, @Param("pickTime") Double pickTime);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from WaveformPick p where p.waveform.id = :waveformId and p.id not in (:ids)")
+    public int deletePicksNotIn(@Param("waveformId") Long waveformId, @Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from WaveformPick p where p.waveform.id = :waveformId")
+    public int deletePicks(@Param("waveformId") Long waveformId);
+
     @Query("select w.event from Waveform w where w.event.eventId = :eventId order by w.id desc")
     public List<Event> findEventById(@Param("eventId") String eventId, Pageable pageable);
 
@@ -105,6 +143,14 @@ public interface WaveformRepository extends DetachableJpaRepository<Waveform, Lo
     @Query("select w from Waveform w where w.active = true and w.event.eventId = :eventId and w.stream.channelName = 'STACK' and w.stream.station.stationName in :stationNames")
     public List<Waveform> findAllActiveStacksByEventIdAndStationNames(@Param("eventId") String eventId, @Param("stationNames") List<String> stationNames);
 
+    @Query("select new Waveform(w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.maxVelTime, w.codaStartTime, w.userStartTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from Waveform w "
+            + "where w.active = true and w.stream.channelName = 'STACK' and w.stream.station.stationName in :stationNames")
+    public List<Waveform> findAllActiveStackMetadataByStationNames(@Param("stationNames") List<String> stationNames);
+
+    @Query("select new Waveform(w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.maxVelTime, w.codaStartTime, w.userStartTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from Waveform w "
+            + "where w.active = true and w.event.eventId = :eventId and w.stream.channelName = 'STACK' and w.stream.station.stationName in :stationNames")
+    public List<Waveform> findAllActiveStackMetadataByEventIdAndStationNames(@Param("eventId") String eventId, @Param("stationNames") List<String> stationNames);
+
     @Query("select w.id from Waveform w where w.active = false")
     public List<Long> findAllInactiveIds();
 
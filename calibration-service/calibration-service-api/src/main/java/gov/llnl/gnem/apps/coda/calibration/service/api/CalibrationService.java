@@ -26,6 +26,14 @@ public interface CalibrationService {
 
     public boolean startCalibration(boolean autoPickingEnabled);
 
+    /**
+     * @param incremental
+     *            if true, frequency bands whose inputs have not changed since
+     *            the last completed calibration reuse their persisted peak
+     *            velocity and shape results instead of being re-measured
+     */
+    public boolean startCalibration(boolean autoPickingEnabled, boolean incremental);
+
     public boolean cancelCalibration(Long id);
 
     public boolean clearData();
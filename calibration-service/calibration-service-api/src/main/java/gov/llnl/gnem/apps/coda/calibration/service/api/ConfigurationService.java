@@ -14,11 +14,14 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.api;
 
+import java.util.List;
+
 import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.util.GeodeticCoordinate;
 import gov.llnl.gnem.apps.coda.common.model.util.WGS84DistanceCalcFunction;
 
@@ -48,4 +51,17 @@ public interface ConfigurationService {
     public GeodeticCoordinate getEventCoord(Event event);
 
     public GeodeticCoordinate getStationCoord(Station station);
+
+    /**
+     * Distance in km between the event and station using the configured
+     * distance method. Results are cached until the calibration settings
+     * change, and a relocated event or station is recomputed automatically.
+     */
+    public double getDistance(Event event, Station station);
+
+    /**
+     * @return the {@link #getDistance(Event, Station)} for each waveform in
+     *         order, NaN where the waveform has no event or station
+     */
+    public double[] getDistances(List<Waveform> waveforms);
 }
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
@@ -26,4 +27,7 @@ public interface PathCalibrationService {
 
     Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf) throws InterruptedException;
+
+    Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(SpectraMeasurementTable spectra, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters,
+            VelocityConfiguration velConf) throws InterruptedException;
 }
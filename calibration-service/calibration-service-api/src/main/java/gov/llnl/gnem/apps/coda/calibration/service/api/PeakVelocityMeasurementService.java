@@ -19,6 +19,7 @@ import java.util.List;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurementMetadata;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.service.api.BaseService;
 
@@ -32,4 +33,8 @@ public interface PeakVelocityMeasurementService extends BaseService<PeakVelocity
 
     public PeakVelocityMeasurementMetadata findByWaveformIdMetadataOnly(Long id);
 
+    public List<PeakVelocityMeasurement> findAllByFrequencyBand(FrequencyBand frequencyBand);
+
+    public void deleteAllByFrequencyBand(FrequencyBand frequencyBand);
+
 }
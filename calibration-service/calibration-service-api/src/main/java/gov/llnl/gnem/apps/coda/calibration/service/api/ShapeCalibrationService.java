@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.api;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
@@ -31,5 +32,13 @@ public interface ShapeCalibrationService {
     public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(List<PeakVelocityMeasurement> snrFilteredVelocity,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap, ShapeFitterConstraints constraints) throws InterruptedException;
 
+    /**
+     * Measure shapes for only the given frequency bands. Persisted shape
+     * measurements are replaced for those bands only and the parameters for
+     * every other band are returned as they were passed in.
+     */
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(List<PeakVelocityMeasurement> snrFilteredVelocity,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap, ShapeFitterConstraints constraints, Set<FrequencyBand> bandsToMeasure) throws InterruptedException;
+
     public List<PeakVelocityMeasurement> adjustEndPicksBasedOnSynthetics(List<PeakVelocityMeasurement> velocityMeasurements, List<SyntheticCoda> synthetics, ShapeFitterConstraints constraints);
 }
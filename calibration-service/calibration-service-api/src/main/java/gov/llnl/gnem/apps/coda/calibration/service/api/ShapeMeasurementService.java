@@ -18,6 +18,7 @@ import java.util.List;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.service.api.BaseService;
 
 public interface ShapeMeasurementService extends BaseService<ShapeMeasurement, Long> {
@@ -27,4 +28,6 @@ public interface ShapeMeasurementService extends BaseService<ShapeMeasurement, L
     public List<ShapeMeasurementMetadata> findAllMetadataOnly();
 
     public ShapeMeasurementMetadata findOneMetadataByWaveformId(Long waveformId);
+
+    public void deleteAllByFrequencyBand(FrequencyBand frequencyBand);
 }
@@ -36,6 +36,12 @@ public interface SpectraMeasurementService {
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap);
 
+    /**
+     * Replace all currently persisted measurements with the given ones. Does
+     * nothing if the given list is empty.
+     */
+    public List<SpectraMeasurement> replaceAll(List<SpectraMeasurement> measurements);
+
     public SpectraMeasurement findOne(Long id);
 
     public SpectraMeasurement findOneForUpdate(Long id);
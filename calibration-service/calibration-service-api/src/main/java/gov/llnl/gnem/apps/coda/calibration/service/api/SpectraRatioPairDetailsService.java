@@ -31,6 +31,8 @@ public interface SpectraRatioPairDetailsService extends BaseService<SpectraRatio
 
     public Future<Result<SpectraRatiosReport>> makeSpectraRatioMeasurementsFromWaveforms(Boolean autoPickingEnabled, Boolean persistResults, Set<String> smallEventIds, Set<String> largeEventIds);
 
+    public boolean cancelRatioCalculation(Long id);
+
     public SpectraRatioPairDetails update(SpectraRatioPairDetails ratio);
 
     public List<SpectraRatioPairDetailsMetadata> findAllMetadataOnly();
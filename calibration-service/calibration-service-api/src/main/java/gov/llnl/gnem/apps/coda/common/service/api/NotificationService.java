@@ -18,6 +18,13 @@ public interface NotificationService {
 
     public void register(Listener<?> listener);
 
+    /**
+     * Registers a listener that is handed events from a background thread,
+     * possibly with several change events merged into one, instead of on the
+     * posting thread.
+     */
+    public void registerAsync(Listener<?> listener);
+
     public <T> void post(T event);
 
 }
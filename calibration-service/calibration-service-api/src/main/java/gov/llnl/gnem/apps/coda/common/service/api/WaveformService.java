@@ -14,6 +14,7 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.api;
 
+import java.util.Collection;
 import java.util.List;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
@@ -50,8 +51,32 @@ public interface WaveformService extends BaseService<Waveform, Long> {
 
     public List<Waveform> getAllActiveStacksInStationNames(List<String> stationNames);
 
+    /**
+     * @param loadSegments
+     *            when false the waveforms are returned with only their
+     *            metadata and picks and a null segment. The samples are then
+     *            fetched on demand by
+     *            {@code WaveformToTimeSeriesConverter} and saving such a
+     *            waveform leaves the stored segment untouched.
+     */
+    public List<Waveform> findAllActiveStacksByEventIdAndStationNames(String eventId, List<String> stationNames, boolean loadSegments);
+
+    /**
+     * @see #findAllActiveStacksByEventIdAndStationNames(String, List, boolean)
+     */
+    public List<Waveform> getAllActiveStacksInStationNames(List<String> stationNames, boolean loadSegments);
+
     public List<Waveform> getSharedEventStationStacksById(Long id);
 
+    /**
+     * Fetch the segments of any of the given waveforms that were loaded
+     * without one, in batched queries rather than one per waveform.
+     *
+     * @return the waveforms that had a segment set on them, the caller should
+     *         release those with {@code setData(null)} once done with them
+     */
+    public List<Waveform> loadSegments(Collection<Waveform> waveforms);
+
     public List<Waveform> getActiveSharedEventStationStacksById(Long id);
 
     public List<String> getUniqueEventIds();
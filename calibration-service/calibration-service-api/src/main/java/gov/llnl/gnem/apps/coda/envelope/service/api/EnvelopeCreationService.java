@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.envelope.service.api;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
@@ -25,4 +26,17 @@ public interface EnvelopeCreationService {
 
     public Result<List<Waveform>> createEnvelopes(Long sessionId, Collection<Waveform> waveforms, EnvelopeJobConfiguration envConf, boolean shouldReturnStacks);
 
+    /**
+     * Streaming variant of
+     * {@link #createEnvelopes(Long, Collection, EnvelopeJobConfiguration, boolean)}.
+     * Waveforms are processed a few event/station groups at a time and each
+     * envelope (or stack) is handed to the sink as soon as its group is
+     * complete, so only the groups in flight are held in memory. The sink is
+     * always called from the calling thread and a slow sink throttles the
+     * processing.
+     *
+     * @return the number of waveforms passed to the sink
+     */
+    public Result<Integer> createEnvelopes(Long sessionId, Collection<Waveform> waveforms, EnvelopeJobConfiguration envConf, boolean shouldReturnStacks, Consumer<Waveform> sink);
+
 }
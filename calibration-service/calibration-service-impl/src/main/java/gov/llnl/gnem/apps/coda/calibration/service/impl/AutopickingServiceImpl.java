@@ -40,11 +40,12 @@ import llnl.gnem.core.waveform.seismogram.TimeSeries;
 public class AutopickingServiceImpl implements AutopickingService {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private EndTimePicker endTimePicker;
-    private WaveformToTimeSeriesConverter converter = new WaveformToTimeSeriesConverter();
+    private WaveformToTimeSeriesConverter converter;
     private static final double BAD = 0d;
 
-    public AutopickingServiceImpl(EndTimePicker endTimePicker) {
+    public AutopickingServiceImpl(EndTimePicker endTimePicker, WaveformToTimeSeriesConverter converter) {
         this.endTimePicker = endTimePicker;
+        this.converter = converter;
     }
 
     /**
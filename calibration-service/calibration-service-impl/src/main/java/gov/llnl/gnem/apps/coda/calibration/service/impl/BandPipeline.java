@@ -0,0 +1,93 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+
+/**
+ * Runs a unit of calibration work for each {@link FrequencyBand} as its own
+ * task so a band can move through a chain of dependent steps (e.g. synthetic
+ * generation then amplitude measurement) without waiting on every other band
+ * to finish the first step.
+ */
+@Component
+public class BandPipeline {
+
+    private final ExecutorService bandExecutor;
+
+    @Autowired
+    public BandPipeline(@Qualifier("CalibrationBandExecutorService") ExecutorService bandExecutor) {
+        this.bandExecutor = bandExecutor;
+    }
+
+    /**
+     * Apply the given work to every band partition concurrently and wait for
+     * all of them to complete.
+     *
+     * @param partitions
+     *            inputs grouped by frequency band
+     * @param work
+     *            the steps to run for a single band
+     * @return the result of the work for each band that produced a non-null
+     *         result
+     * @throws InterruptedException
+     *             if the calling thread is interrupted while waiting, any
+     *             outstanding band tasks are cancelled first
+     */
+    public <T, R> Map<FrequencyBand, R> run(Map<FrequencyBand, List<T>> partitions, BiFunction<FrequencyBand, List<T>, R> work) throws InterruptedException {
+        Map<FrequencyBand, Future<R>> tasks = new HashMap<>(partitions.size());
+        for (Entry<FrequencyBand, List<T>> partition : partitions.entrySet()) {
+            tasks.put(partition.getKey(), bandExecutor.submit(() -> work.apply(partition.getKey(), partition.getValue())));
+        }
+
+        Map<FrequencyBand, R> results = new HashMap<>(tasks.size());
+        try {
+            for (Entry<FrequencyBand, Future<R>> task : tasks.entrySet()) {
+                R result = task.getValue().get();
+                if (result != null) {
+                    results.put(task.getKey(), result);
+                }
+            }
+        } catch (InterruptedException | CancellationException e) {
+            cancelAll(tasks);
+            throw new InterruptedException();
+        } catch (ExecutionException e) {
+            cancelAll(tasks);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private <R> void cancelAll(Map<FrequencyBand, Future<R>> tasks) {
+        tasks.values().forEach(task -> task.cancel(true));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+
+/**
+ * Tracks a fingerprint of the inputs to the peak velocity and shape stages for
+ * each frequency band as of the last completed calibration so an incremental
+ * calibration can tell which bands actually need to be re-measured.
+ * <p>
+ * The band fingerprint covers the active waveform ids, their data, event and
+ * station locations, any picks not generated by the calibration itself, the
+ * band's {@link SharedFrequencyBandParameters}, the
+ * {@link VelocityConfiguration} and the {@link ShapeFitterConstraints}. The
+ * shared parameters are captured at the end of a run so that the values the
+ * calibration wrote back are what the next run compares against.
+ */
+@Component
+public class CalibrationFingerprints {
+
+    private static final long PRIME = 1099511628211L;
+    private static final long OFFSET = -3750763034362895579L;
+
+    private final Map<FrequencyBand, Long> lastInputs = new HashMap<>();
+    private final Map<FrequencyBand, Long> lastParameters = new HashMap<>();
+    private final Map<FrequencyBand, Integer> lastMeasurementCounts = new HashMap<>();
+
+    /**
+     * @return the fingerprint of the waveform and configuration inputs for each
+     *         band present in the given stacks
+     */
+    public Map<FrequencyBand, Long> inputFingerprints(List<Waveform> stacks, VelocityConfiguration velocityConfig, ShapeFitterConstraints constraints) {
+        long config = mix(mix(OFFSET, Objects.hashCode(velocityConfig)), Objects.hashCode(constraints));
+        return stacks.stream()
+                     .filter(Objects::nonNull)
+                     .collect(Collectors.groupingBy(w -> new FrequencyBand(w.getLowFrequency(), w.getHighFrequency())))
+                     .entrySet()
+                     .stream()
+                     .collect(Collectors.toMap(Entry::getKey, band -> {
+                         long hash = config;
+                         for (Waveform waveform : band.getValue().stream().sorted(Comparator.comparing(Waveform::getId, Comparator.nullsFirst(Comparator.naturalOrder()))).collect(Collectors.toList())) {
+                             hash = mix(hash, waveformFingerprint(waveform));
+                         }
+                         return hash;
+                     }));
+    }
+
+    /**
+     * @return the bands whose inputs and shared parameters are unchanged since
+     *         the last recorded calibration
+     */
+    public synchronized Set<FrequencyBand> unchangedBands(Map<FrequencyBand, Long> inputs, Map<FrequencyBand, SharedFrequencyBandParameters> parameters) {
+        Set<FrequencyBand> unchanged = new HashSet<>();
+        for (Entry<FrequencyBand, Long> input : inputs.entrySet()) {
+            FrequencyBand band = input.getKey();
+            SharedFrequencyBandParameters sfb = parameters.get(band);
+            if (sfb != null && input.getValue().equals(lastInputs.get(band)) && Long.valueOf(sfb.hashCode()).equals(lastParameters.get(band))) {
+                unchanged.add(band);
+            }
+        }
+        return unchanged;
+    }
+
+    /**
+     * @return the number of persisted peak velocity measurements recorded for
+     *         the band on the last calibration, or -1 if unknown
+     */
+    public synchronized int measurementCount(FrequencyBand band) {
+        return lastMeasurementCounts.getOrDefault(band, -1);
+    }
+
+    public synchronized void record(Map<FrequencyBand, Long> inputs, Map<FrequencyBand, SharedFrequencyBandParameters> parameters, Map<FrequencyBand, Integer> measurementCounts) {
+        clear();
+        for (Entry<FrequencyBand, Long> input : inputs.entrySet()) {
+            SharedFrequencyBandParameters sfb = parameters.get(input.getKey());
+            if (sfb != null) {
+                lastInputs.put(input.getKey(), input.getValue());
+                lastParameters.put(input.getKey(), (long) sfb.hashCode());
+                lastMeasurementCounts.put(input.getKey(), measurementCounts.getOrDefault(input.getKey(), 0));
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        lastInputs.clear();
+        lastParameters.clear();
+        lastMeasurementCounts.clear();
+    }
+
+    private long waveformFingerprint(Waveform waveform) {
+        long hash = mix(OFFSET, Objects.hashCode(waveform.getId()));
+        hash = mix(hash, Objects.hashCode(waveform.getBeginTime()));
+        hash = mix(hash, Objects.hashCode(waveform.getEndTime()));
+        hash = mix(hash, Objects.hashCode(waveform.getSampleRate()));
+        hash = mix(hash, Arrays.hashCode(waveform.getSegment()));
+
+        Event event = waveform.getEvent();
+        if (event != null) {
+            hash = mix(hash, Objects.hash(event.getEventId(), event.getOriginTime(), event.getLatitude(), event.getLongitude(), event.getDepth()));
+        }
+        if (waveform.getStream() != null && waveform.getStream().getStation() != null) {
+            Station station = waveform.getStream().getStation();
+            hash = mix(hash, Objects.hash(station.getNetworkName(), station.getStationName(), station.getLatitude(), station.getLongitude(), station.getElevation()));
+        }
+
+        if (waveform.getAssociatedPicks() != null) {
+            // Coda start picks are regenerated by every calibration so they
+            // don't count as an input
+            List<WaveformPick> picks = waveform.getAssociatedPicks()
+                                               .stream()
+                                               .filter(p -> !PICK_TYPES.CS.getPhase().equalsIgnoreCase(p.getPickName()))
+                                               .sorted(Comparator.comparing(WaveformPick::getPickName, Comparator.nullsFirst(Comparator.naturalOrder())))
+                                               .collect(Collectors.toList());
+            for (WaveformPick pick : picks) {
+                hash = mix(hash, Objects.hash(pick.getPickName(), pick.getPickType(), pick.getPickTimeSecFromOrigin()));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * PRIME;
+    }
+}
@@ -18,8 +18,11 @@ import java.time.LocalDateTime;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -43,6 +46,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -58,9 +62,11 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ValidationMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent.Status;
 import gov.llnl.gnem.apps.coda.calibration.model.messaging.MeasurementStatusEvent;
 import gov.llnl.gnem.apps.coda.calibration.service.api.AutopickingService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationService;
@@ -147,13 +153,24 @@ public class CalibrationServiceImpl implements CalibrationService {
 
     private WaveformPickService pickService;
 
+    private BandPipeline bandPipeline;
+
+    private CalibrationFingerprints fingerprints;
+
+    @Value("${calibration.incremental-enabled:false}")
+    private boolean incrementalByDefault;
+
+    @Value("${measurement.lazy-segments:true}")
+    private boolean lazyMeasurementSegments;
+
     @Autowired
     public CalibrationServiceImpl(WaveformService waveformService, PeakVelocityMeasurementService peakVelocityMeasurementsService, SharedFrequencyBandParametersService sharedParametersService,
             ShapeCalibrationService shapeCalibrationService, SpectraMeasurementService spectraMeasurementService, SyntheticCodaGenerationService syntheticGenerationService,
             PathCalibrationService pathCalibrationService, MdacParametersFiService mdacFiService, MdacParametersPsService mdacPsService, ReferenceMwParametersService referenceMwService,
             ValidationMwParametersService validationMwService, SiteCalibrationService siteCalibrationService, SyntheticService syntheticService, NotificationService notificationService,
             DatabaseCleaningService cleaningService, ConfigurationService configService, SiteFrequencyBandParametersService siteParamsService, SpectraCalculator spectraCalc,
-            WaveformPickService pickService, AutopickingService picker, @Qualifier("MeasurementExecutorService") ExecutorService measureService) {
+            WaveformPickService pickService, AutopickingService picker, @Qualifier("MeasurementExecutorService") ExecutorService measureService, BandPipeline bandPipeline,
+            CalibrationFingerprints fingerprints) {
         this.waveformService = waveformService;
         this.peakVelocityMeasurementsService = peakVelocityMeasurementsService;
         this.sharedParametersService = sharedParametersService;
@@ -175,6 +192,8 @@ public class CalibrationServiceImpl implements CalibrationService {
         this.pickService = pickService;
         this.picker = picker;
         this.measureService = measureService;
+        this.bandPipeline = bandPipeline;
+        this.fingerprints = fingerprints;
     }
 
     @Override
@@ -183,7 +202,7 @@ public class CalibrationServiceImpl implements CalibrationService {
         Future<Result<MeasuredMwReportByEvent>> future = CompletableFuture.completedFuture(new Result<>(false, new MeasuredMwReportByEvent()));
         Supplier<MeasuredMwReportByEvent> measurementFunc = () -> {
             List<String> stationNames = siteParamsService.findDistinctStationNames();
-            List<Waveform> stacks = waveformService.getAllActiveStacksInStationNames(stationNames);
+            List<Waveform> stacks = waveformService.getAllActiveStacksInStationNames(stationNames, !lazyMeasurementSegments);
             return makeMwMeasurements(id, autoPickingEnabled, persistResults, stacks);
         };
 
@@ -197,7 +216,7 @@ public class CalibrationServiceImpl implements CalibrationService {
         Supplier<MeasuredMwReportByEvent> measurementFunc = () -> {
             MeasuredMwReportByEvent measuredMws = new MeasuredMwReportByEvent();
             List<String> stationNames = siteParamsService.findDistinctStationNames();
-            List<Waveform> stacks = eventIds.stream().flatMap(eventId -> waveformService.findAllActiveStacksByEventIdAndStationNames(eventId, stationNames).stream()).collect(Collectors.toList());
+            List<Waveform> stacks = eventIds.stream().flatMap(eventId -> waveformService.findAllActiveStacksByEventIdAndStationNames(eventId, stationNames, !lazyMeasurementSegments).stream()).collect(Collectors.toList());
             if (stacks != null && !stacks.isEmpty()) {
                 measuredMws = makeMwMeasurements(id, autoPickingEnabled, persistResults, stacks);
             } else {
@@ -278,14 +297,13 @@ public class CalibrationServiceImpl implements CalibrationService {
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = MetadataUtils.mapSharedParamsToFrequencyBands(sharedParametersService.findAll());
 
             List<Waveform> measStacks = stacks;
-            List<PeakVelocityMeasurement> velocityMeasured = Optional.ofNullable(peakVelocityMeasurementsService.measureVelocities(measStacks, velocityConfig, persistResults))
-                                                                     .orElseGet(ArrayList::new);
+            List<PeakVelocityMeasurement> velocityMeasured = measureByBand(measStacks, Function.identity(), band -> peakVelocityMeasurementsService.measureVelocities(band, velocityConfig, persistResults));
 
             //Offset the coda start picks to the model velocity from the individual peak velocity estimate
             velocityMeasured = offsetCodaStarts(velocityMeasured, frequencyBandParameterMap);
 
             if (autoPickingEnabled) {
-                velocityMeasured = picker.autoPickVelocityMeasuredWaveforms(velocityMeasured, frequencyBandParameterMap);
+                velocityMeasured = measureByBand(velocityMeasured, PeakVelocityMeasurement::getWaveform, band -> picker.autoPickVelocityMeasuredWaveforms(band, frequencyBandParameterMap));
             }
 
             final Map<FrequencyBand, SharedFrequencyBandParameters> snrFilterMap = new HashMap<>(frequencyBandParameterMap);
@@ -294,15 +312,19 @@ public class CalibrationServiceImpl implements CalibrationService {
             measStacks = velocityMeasured.stream().map(PeakVelocityMeasurement::getWaveform).filter(Objects::nonNull).collect(Collectors.toList());
             measStacks = MetadataUtils.filterToEndPicked(measStacks);
 
-            List<SyntheticCoda> synthetics = syntheticGenerationService.generateSynthetics(measStacks, frequencyBandParameterMap);
+            List<SyntheticCoda> synthetics = measureByBand(measStacks, Function.identity(), band -> syntheticGenerationService.generateSynthetics(band, frequencyBandParameterMap));
 
             if (autoPickingEnabled) {
                 ShapeFitterConstraints constraints = configService.getCalibrationShapeFitterConstraints();
-                velocityMeasured = shapeCalibrationService.adjustEndPicksBasedOnSynthetics(velocityMeasured, synthetics, constraints);
+                // Re-picking and the shape fit look across every band at once
+                List<Waveform> loaded = loadSegments(velocityMeasured.stream().map(PeakVelocityMeasurement::getWaveform).collect(Collectors.toList()));
                 try {
+                    velocityMeasured = shapeCalibrationService.adjustEndPicksBasedOnSynthetics(velocityMeasured, synthetics, constraints);
                     shapeCalibrationService.measureShapes(velocityMeasured, frequencyBandParameterMap, constraints, autoPickingEnabled, false);
                 } catch (InterruptedException e) {
                     return details;
+                } finally {
+                    releaseSegments(loaded);
                 }
                 if (persistResults) {
                     List<Waveform> picks = velocityMeasured.stream().map(PeakVelocityMeasurement::getWaveform).filter(Objects::nonNull).collect(Collectors.toList());
@@ -312,13 +334,16 @@ public class CalibrationServiceImpl implements CalibrationService {
                 measStacks = velocityMeasured.stream().map(PeakVelocityMeasurement::getWaveform).collect(Collectors.toList());
                 measStacks = MetadataUtils.filterToEndPicked(measStacks);
 
-                synthetics = syntheticGenerationService.generateSynthetics(measStacks, frequencyBandParameterMap);
+                synthetics = measureByBand(measStacks, Function.identity(), band -> syntheticGenerationService.generateSynthetics(band, frequencyBandParameterMap));
             }
 
-            List<SpectraMeasurement> spectra = spectraCalc.measureAmplitudes(synthetics, frequencyBandParameterMap, velocityConfig, stationFrequencyBandMap);
+            List<SpectraMeasurement> spectra = measureByBand(
+                    synthetics,
+                        SyntheticCoda::getSourceWaveform,
+                        band -> spectraCalc.measureAmplitudes(band, frequencyBandParameterMap, velocityConfig, stationFrequencyBandMap));
 
             List<MeasuredMwParameters> measuredMwsParams = siteCalibrationService.fitMws(
-                    spectraByFrequencyBand(spectra),
+                    spectraTable(spectra),
                         mdacFiService.findFirst(),
                         collectByFrequencyBand(mdacPsService.findAll()),
                         stationFrequencyBandMap,
@@ -342,6 +367,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                                                                   .collect(Collectors.toConcurrentMap(SimpleEntry::getKey, SimpleEntry::getValue));
 
             if (persistResults) {
+                fingerprints.clear();
                 peakVelocityMeasurementsService.deleteAll();
                 syntheticService.deleteAll();
 
@@ -368,6 +394,40 @@ public class CalibrationServiceImpl implements CalibrationService {
         return details;
     }
 
+    /**
+     * Run a measurement stage one frequency band at a time. With lazy segments
+     * the samples for a band are fetched together before the stage and
+     * released after it so only one band is held in memory at a time.
+     */
+    private <T, R> List<R> measureByBand(List<T> items, Function<T, Waveform> waveformOf, Function<List<T>, List<R>> stage) {
+        List<R> results = new ArrayList<>();
+        if (!lazyMeasurementSegments) {
+            Optional.ofNullable(stage.apply(items)).ifPresent(results::addAll);
+            return results;
+        }
+        Map<Optional<FrequencyBand>, List<T>> byBand = items.stream().collect(Collectors.groupingBy(item -> Optional.ofNullable(waveformOf.apply(item)).map(w -> new FrequencyBand(w.getLowFrequency(), w.getHighFrequency()))));
+        for (List<T> band : byBand.values()) {
+            List<Waveform> loaded = loadSegments(band.stream().map(waveformOf).filter(Objects::nonNull).collect(Collectors.toList()));
+            try {
+                Optional.ofNullable(stage.apply(band)).ifPresent(results::addAll);
+            } finally {
+                releaseSegments(loaded);
+            }
+        }
+        return results;
+    }
+
+    private List<Waveform> loadSegments(List<Waveform> waveforms) {
+        if (!lazyMeasurementSegments) {
+            return Collections.emptyList();
+        }
+        return waveformService.loadSegments(waveforms);
+    }
+
+    private void releaseSegments(List<Waveform> loaded) {
+        loaded.forEach(w -> w.setData(null));
+    }
+
     private List<Spectra> computeFitSpectra(MeasuredMwParameters event, Set<FrequencyBand> frequencyBands, PICK_TYPES selectedPhase) {
         List<Spectra> spectra = new ArrayList<>();
         if (event != null) {
@@ -391,14 +451,27 @@ public class CalibrationServiceImpl implements CalibrationService {
 
     @Override
     public boolean startCalibration(boolean autoPickingEnabled) {
+        return startCalibration(autoPickingEnabled, incrementalByDefault);
+    }
+
+    @Override
+    public boolean startCalibration(boolean autoPickingEnabled, boolean incrementalRequested) {
         // FIXME: These *All methods should be *AllByProjectID instead!
         final Long id = atomicLong.getAndIncrement();
         try {
             runningJobs.put(id, calService.submit(() -> {
+                final StageTimer timer = new StageTimer(id);
                 try {
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.STARTING));
+                    notificationService.post(timer.next(Status.STARTING));
                     log.info("Starting calibration at {}", LocalDateTime.now());
 
+                    // Auto-picking rewrites end picks part way through the run so
+                    // the inputs at the start don't describe the results at the end
+                    final boolean incremental = incrementalRequested && !autoPickingEnabled;
+                    if (incrementalRequested && !incremental) {
+                        log.info("Incremental calibration is not supported with auto-picking enabled, running a full calibration instead");
+                    }
+
                     List<ValidationMwParameters> validationEvents = validationMwService.findAll();
                     Set<String> validationEventIds = Collections.emptySet();
                     if (validationEvents != null) {
@@ -416,7 +489,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                     Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = MetadataUtils.mapSharedParamsToFrequencyBands(sharedParametersService.findAll());
                     final Map<FrequencyBand, SharedFrequencyBandParameters> snrFilterMap = new HashMap<>(frequencyBandParameterMap);
 
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.PEAK_STARTING));
+                    notificationService.post(timer.next(Status.PEAK_STARTING));
                     List<Waveform> stacks = waveformService.getAllActiveStacks();
                     // In general each step produces output that the next step
                     // consumes
@@ -424,6 +497,20 @@ public class CalibrationServiceImpl implements CalibrationService {
                     VelocityConfiguration velocityConfig = configService.getVelocityConfiguration();
                     ShapeFitterConstraints constraints = configService.getCalibrationShapeFitterConstraints();
 
+                    // Bands with unchanged inputs since the last calibration can
+                    // keep their persisted peak velocity and shape results
+                    final Map<FrequencyBand, Long> inputFingerprints = fingerprints.inputFingerprints(stacks, velocityConfig, constraints);
+                    final Map<FrequencyBand, List<PeakVelocityMeasurement>> reusedVelocity = new HashMap<>();
+                    final Set<FrequencyBand> bandsToMeasure = new HashSet<>(inputFingerprints.keySet());
+                    bandsToMeasure.addAll(frequencyBandParameterMap.keySet());
+                    if (incremental) {
+                        reusedVelocity.putAll(findReusableVelocityMeasurements(inputFingerprints, frequencyBandParameterMap));
+                        bandsToMeasure.removeAll(reusedVelocity.keySet());
+                        stacks = stacks.stream().filter(w -> bandsToMeasure.contains(new FrequencyBand(w.getLowFrequency(), w.getHighFrequency()))).collect(Collectors.toList());
+                        log.info("Incremental calibration reusing peak velocity and shape results for {} of {} frequency bands", reusedVelocity.size(), inputFingerprints.size());
+                    }
+                    fingerprints.clear();
+
                     // 1) Compute the peak velocity, amplitude, and SNR values
                     // for the given coda stacks using theoretical group velocities
                     // to cut the windows for noise and SN/LG arrival
@@ -435,7 +522,11 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // First step is to clean up all the intermediary results if
                     // they exist. This is as wildly not-thread-safe as you might
                     // imagine.
-                    peakVelocityMeasurementsService.deleteAll();
+                    if (incremental) {
+                        bandsToMeasure.forEach(peakVelocityMeasurementsService::deleteAllByFrequencyBand);
+                    } else {
+                        peakVelocityMeasurementsService.deleteAll();
+                    }
                     syntheticService.deleteAll();
 
                     // We want to filter out the ones that don't pass the user's
@@ -446,7 +537,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                     snrFilteredVelocity = peakVelocityMeasurementsService.save(snrFilteredVelocity);
 
                     ConcurrencyUtils.checkInterrupt();
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.SHAPE_STARTING));
+                    notificationService.post(timer.next(Status.SHAPE_STARTING));
 
                     // If auto-picking is enabled attempt to pick any envelopes that
                     // don't already have F-picks in this set
@@ -461,11 +552,16 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // models to each of those parameters for each frequency band that can be used
                     // to generate synthetic coda at any given distance and frequency band
                     // combination
-                    frequencyBandParameterMap = shapeCalibrationService.measureShapes(snrFilteredVelocity, frequencyBandParameterMap, constraints);
+                    if (incremental) {
+                        frequencyBandParameterMap = shapeCalibrationService.measureShapes(snrFilteredVelocity, frequencyBandParameterMap, constraints, bandsToMeasure);
+                    } else {
+                        frequencyBandParameterMap = shapeCalibrationService.measureShapes(snrFilteredVelocity, frequencyBandParameterMap, constraints);
+                    }
                     frequencyBandParameterMap = MetadataUtils.mapSharedParamsToFrequencyBands(sharedParametersService.save(frequencyBandParameterMap.values()));
 
                     //Offset the coda start picks to the model velocity from the individual peak velocity estimate
-                    snrFilteredVelocity = peakVelocityMeasurementsService.save(offsetCodaStarts(snrFilteredVelocity, frequencyBandParameterMap));
+                    snrFilteredVelocity = new ArrayList<>(peakVelocityMeasurementsService.save(offsetCodaStarts(snrFilteredVelocity, frequencyBandParameterMap)));
+                    reusedVelocity.values().forEach(snrFilteredVelocity::addAll);
 
                     // 3) Now we need to generate some basic synthetics for the
                     // measurement code to use to determine where to measure the
@@ -475,12 +571,19 @@ public class CalibrationServiceImpl implements CalibrationService {
                     stacks = snrFilteredVelocity.stream().map(PeakVelocityMeasurement::getWaveform).filter(Objects::nonNull).collect(Collectors.toList());
                     stacks = MetadataUtils.filterToEndPicked(stacks);
 
-                    List<SyntheticCoda> synthetics = syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap);
-                    List<SpectraMeasurement> spectra = spectraMeasurementService.measureSpectra(synthetics, frequencyBandParameterMap, velocityConfig);
+                    // Each band goes from synthetic generation straight into
+                    // amplitude measurement without waiting on the other bands
+                    Map<FrequencyBand, List<Waveform>> stacksByBand = groupByFrequencyBand(stacks);
+                    Map<FrequencyBand, BandMeasurements> bandMeasurements = measureSpectraByBand(stacksByBand, frequencyBandParameterMap, velocityConfig, null);
+                    // The intermediate measurements only feed the later
+                    // stages, so they are handed on as a column store and
+                    // the entity lists are let go of. Only the final
+                    // path+site corrected set is persisted.
+                    SpectraMeasurementTable spectra = spectraTable(collectSpectra(bandMeasurements.values()));
 
                     if (autoPickingEnabled) {
                         // 1. Re-pick based on divergence from model
-                        snrFilteredVelocity = shapeCalibrationService.adjustEndPicksBasedOnSynthetics(snrFilteredVelocity, synthetics, constraints);
+                        snrFilteredVelocity = shapeCalibrationService.adjustEndPicksBasedOnSynthetics(snrFilteredVelocity, collectSynthetics(bandMeasurements.values()), constraints);
 
                         // Now that we have re-picked based on the average model divergence we want to
                         // regenerate the synthetics and re-measure
@@ -493,27 +596,27 @@ public class CalibrationServiceImpl implements CalibrationService {
 
                         // 3. Now that we have re-picked based on the average model divergence we want
                         // to regenerate the synthetics based on the new shape measurements
-                        spectra = spectraMeasurementService.measureSpectra(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap), frequencyBandParameterMap, velocityConfig);
+                        spectra = spectraTable(collectSpectra(measureSpectraByBand(stacksByBand, frequencyBandParameterMap, velocityConfig, null).values()));
                     }
-                    synthetics = null;
+                    bandMeasurements = null;
 
                     ConcurrencyUtils.checkInterrupt();
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.PATH_STARTING));
+                    notificationService.post(timer.next(Status.PATH_STARTING));
 
                     // 4) For each event in the data set find all stations that
                     // recorded the event, then compute what the estimated path
                     // effect correction needs to be for each frequency band
-                    frequencyBandParameterMap = pathCalibrationService.measurePathCorrections(spectraByFrequencyBand(spectra), frequencyBandParameterMap, velocityConfig);
+                    frequencyBandParameterMap = pathCalibrationService.measurePathCorrections(spectra, frequencyBandParameterMap, velocityConfig);
 
                     frequencyBandParameterMap = MetadataUtils.mapSharedParamsToFrequencyBands(sharedParametersService.save(frequencyBandParameterMap.values()));
                     ConcurrencyUtils.checkInterrupt();
 
                     // 5) Measure the amplitudes again but this time we can
                     // compute ESH path corrected values
-                    spectra = spectraMeasurementService.measureSpectra(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap), frequencyBandParameterMap, velocityConfig);
+                    spectra = spectraTable(collectSpectra(measureSpectraByBand(stacksByBand, frequencyBandParameterMap, velocityConfig, null).values()));
 
                     ConcurrencyUtils.checkInterrupt();
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.SITE_STARTING));
+                    notificationService.post(timer.next(Status.SITE_STARTING));
 
                     // 6) Now using those path correction values plus a list of
                     // trusted Mw/spectra measurements for some subset of events
@@ -522,7 +625,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // recorded as the site specific offset for measured values at each
                     // frequency band
                     Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap = siteCalibrationService.measureSiteCorrections(
-                            spectraByFrequencyBand(spectra),
+                            spectra,
                                 mdacFiService.findFirst(),
                                 collectByFrequencyBand(mdacPsService.findAll()),
                                 collectReferenceByEvid(referenceMwService.findAll()),
@@ -533,19 +636,30 @@ public class CalibrationServiceImpl implements CalibrationService {
                     ConcurrencyUtils.checkInterrupt();
                     // 7) Measure the amplitudes one last time to fill out the
                     // Path+Site corrected amplitude values
-                    spectra = spectraMeasurementService.measureSpectra(
-                            syntheticService.save(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap)),
-                                frequencyBandParameterMap,
-                                velocityConfig,
-                                frequencyBandSiteParameterMap);
+                    bandMeasurements = measureSpectraByBand(stacksByBand, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap);
+                    syntheticService.save(collectSynthetics(bandMeasurements.values()));
+                    spectraMeasurementService.replaceAll(collectSpectra(bandMeasurements.values()));
+
+                    if (!autoPickingEnabled) {
+                        fingerprints.record(
+                                inputFingerprints,
+                                    frequencyBandParameterMap,
+                                    snrFilteredVelocity.stream()
+                                                       .filter(v -> v.getWaveform() != null)
+                                                       .collect(
+                                                               Collectors.groupingBy(
+                                                                       v -> new FrequencyBand(v.getWaveform().getLowFrequency(), v.getWaveform().getHighFrequency()),
+                                                                           Collectors.collectingAndThen(Collectors.counting(), Long::intValue))));
+                    }
 
-                    log.info("Calibration complete at {}", LocalDateTime.now());
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.COMPLETE));
+                    CalibrationStatusEvent complete = timer.next(Status.COMPLETE);
+                    log.info("Calibration complete at {}, stage timings (ms) {}", LocalDateTime.now(), complete.getStageTimings());
+                    notificationService.post(complete);
                 } catch (InterruptedException interrupted) {
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.COMPLETE, new Result<>(true, interrupted)));
+                    notificationService.post(timer.next(Status.COMPLETE).setError(new Result<>(true, interrupted)));
                 } catch (Exception ex) {
                     log.error(ex.getMessage(), ex);
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.ERROR, new Result<>(false, ex)));
+                    notificationService.post(timer.next(Status.ERROR).setError(new Result<>(false, ex)));
                     throw ex;
                 } finally {
                     runningJobs.remove(id);
@@ -583,6 +697,48 @@ public class CalibrationServiceImpl implements CalibrationService {
                      .collect(Collectors.toMap(ps -> PICK_TYPES.valueOf(ps.getPhase().toUpperCase(Locale.ENGLISH).trim()), Function.identity()));
     }
 
+    /**
+     * Load the persisted peak velocity measurements for every band whose inputs
+     * are unchanged since the last calibration, skipping any band where the
+     * persisted measurements no longer match what that calibration saved.
+     */
+    private Map<FrequencyBand, List<PeakVelocityMeasurement>> findReusableVelocityMeasurements(Map<FrequencyBand, Long> inputFingerprints,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap) {
+        Map<FrequencyBand, List<PeakVelocityMeasurement>> reusable = new HashMap<>();
+        for (FrequencyBand band : fingerprints.unchangedBands(inputFingerprints, frequencyBandParameterMap)) {
+            List<PeakVelocityMeasurement> persisted = peakVelocityMeasurementsService.findAllByFrequencyBand(band);
+            if (persisted.size() == fingerprints.measurementCount(band)) {
+                reusable.put(band, persisted);
+            }
+        }
+        return reusable;
+    }
+
+    /**
+     * Generate synthetics for each band and measure the amplitudes against
+     * them as a single per-band task.
+     */
+    private Map<FrequencyBand, BandMeasurements> measureSpectraByBand(Map<FrequencyBand, List<Waveform>> stacksByBand,
+            final Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap, final VelocityConfiguration velocityConfig,
+            final Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap) throws InterruptedException {
+        return bandPipeline.run(stacksByBand, (band, bandStacks) -> {
+            List<SyntheticCoda> synthetics = syntheticGenerationService.generateSynthetics(bandStacks, frequencyBandParameterMap);
+            return new BandMeasurements(synthetics, spectraCalc.measureAmplitudes(synthetics, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap));
+        });
+    }
+
+    private List<SyntheticCoda> collectSynthetics(Collection<BandMeasurements> bandMeasurements) {
+        return bandMeasurements.stream().flatMap(m -> m.synthetics.stream()).collect(Collectors.toList());
+    }
+
+    private List<SpectraMeasurement> collectSpectra(Collection<BandMeasurements> bandMeasurements) {
+        return bandMeasurements.stream().flatMap(m -> m.spectra.stream()).collect(Collectors.toList());
+    }
+
+    private Map<FrequencyBand, List<Waveform>> groupByFrequencyBand(List<Waveform> stacks) {
+        return stacks.stream().collect(Collectors.groupingBy(w -> new FrequencyBand(w.getLowFrequency(), w.getHighFrequency())));
+    }
+
     private Map<FrequencyBand, List<SpectraMeasurement>> spectraByFrequencyBand(List<SpectraMeasurement> spectra) {
         return spectra.stream()
                       .filter(Objects::nonNull)
@@ -591,6 +747,10 @@ public class CalibrationServiceImpl implements CalibrationService {
                       .collect(Collectors.groupingBy(s -> new FrequencyBand(s.getWaveform().getLowFrequency(), s.getWaveform().getHighFrequency())));
     }
 
+    private SpectraMeasurementTable spectraTable(List<SpectraMeasurement> spectra) {
+        return SpectraMeasurementTable.of(spectraByFrequencyBand(spectra), WaveformUtils::isValidWaveform);
+    }
+
     @PreDestroy
     private void stop() {
         calService.shutdownNow();
@@ -599,6 +759,7 @@ public class CalibrationServiceImpl implements CalibrationService {
 
     @Override
     public boolean clearData() {
+        fingerprints.clear();
         if (cleaningService != null) {
             return cleaningService.clearAll();
         }
@@ -645,6 +806,41 @@ public class CalibrationServiceImpl implements CalibrationService {
         return infoMesssages;
     }
 
+    private static class BandMeasurements {
+        private final List<SyntheticCoda> synthetics;
+        private final List<SpectraMeasurement> spectra;
+
+        public BandMeasurements(List<SyntheticCoda> synthetics, List<SpectraMeasurement> spectra) {
+            this.synthetics = synthetics;
+            this.spectra = spectra;
+        }
+    }
+
+    /**
+     * Tracks how long each stage of a single calibration run takes so the
+     * timings can be reported with each status change.
+     */
+    private static class StageTimer {
+        private final Long id;
+        private final Map<Status, Long> timings = new EnumMap<>(Status.class);
+        private Status current;
+        private long stageStart;
+
+        public StageTimer(Long id) {
+            this.id = id;
+        }
+
+        public CalibrationStatusEvent next(Status status) {
+            long now = System.currentTimeMillis();
+            if (current != null) {
+                timings.merge(current, now - stageStart, Long::sum);
+            }
+            current = status;
+            stageStart = now;
+            return new CalibrationStatusEvent(id, status).setStageTimings(timings);
+        }
+    }
+
     private List<PeakVelocityMeasurement> offsetCodaStarts(List<PeakVelocityMeasurement> velocityMeasurements, final Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap) {
         if (velocityMeasurements != null && frequencyBandParameterMap != null) {
             velocityMeasurements.parallelStream().forEach(p -> {
@@ -652,8 +848,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                 //Offset to this back to the model predicted velocity instead of the raw max velocity
                 if ((sfb != null) && (p.getWaveform().getMaxVelTime() != null)) {
 
-                    double distance = configService.getDistanceFunc()
-                                                   .apply(configService.getEventCoord(p.getWaveform().getEvent()), configService.getStationCoord(p.getWaveform().getStream().getStation()));
+                    double distance = configService.getDistance(p.getWaveform().getEvent(), p.getWaveform().getStream().getStation());
 
                     TimeT codastart = new TimeT(p.getWaveform().getEvent().getOriginTime()).add(distance / (sfb.getVelocity0() - sfb.getVelocity1() / (sfb.getVelocity2() + distance)));
                     codastart.add(sfb.getCodaStartOffset());
@@ -0,0 +1,195 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSnapshot;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ValidationMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.BandParametersDataChangeEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationSettingsChangeEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.GvDataChangeEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.MdacDataChangeEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.ShapeConstraintsChangeEvent;
+import gov.llnl.gnem.apps.coda.calibration.repository.CalibrationShapeFitterConstraintsRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.MdacParametersFiRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.MdacParametersPsRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.MeasuredMwsRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.ReferenceMwParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.SharedFrequencyBandParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.SiteFrequencyBandParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.ValidationMwParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.VelocityConfigurationRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ReferenceEventChangeEvent;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.util.MetadataUtils;
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class CalibrationSnapshotServiceImpl implements CalibrationSnapshotService {
+
+    private final SharedFrequencyBandParametersRepository sfbRepository;
+    private final SiteFrequencyBandParametersRepository siteParamsRepository;
+    private final MdacParametersFiRepository mdacFiRepository;
+    private final MdacParametersPsRepository mdacPsRepository;
+    private final VelocityConfigurationRepository velocityConfigRepository;
+    private final CalibrationShapeFitterConstraintsRepository shapeConstraintsRepository;
+    private final ReferenceMwParametersRepository referenceMwRepository;
+    private final ValidationMwParametersRepository validationMwRepository;
+    private final MeasuredMwsRepository measuredMwRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CalibrationSnapshot snapshot;
+
+    @Autowired
+    public CalibrationSnapshotServiceImpl(SharedFrequencyBandParametersRepository sfbRepository, SiteFrequencyBandParametersRepository siteParamsRepository, MdacParametersFiRepository mdacFiRepository,
+            MdacParametersPsRepository mdacPsRepository, VelocityConfigurationRepository velocityConfigRepository, CalibrationShapeFitterConstraintsRepository shapeConstraintsRepository,
+            ReferenceMwParametersRepository referenceMwRepository, ValidationMwParametersRepository validationMwRepository, MeasuredMwsRepository measuredMwRepository,
+            NotificationService notificationService, PlatformTransactionManager transactionManager) {
+        this.sfbRepository = sfbRepository;
+        this.siteParamsRepository = siteParamsRepository;
+        this.mdacFiRepository = mdacFiRepository;
+        this.mdacPsRepository = mdacPsRepository;
+        this.velocityConfigRepository = velocityConfigRepository;
+        this.shapeConstraintsRepository = shapeConstraintsRepository;
+        this.referenceMwRepository = referenceMwRepository;
+        this.validationMwRepository = validationMwRepository;
+        this.measuredMwRepository = measuredMwRepository;
+        this.notificationService = notificationService;
+        // Load in a transaction of our own so the snapshot never shares
+        // managed instances with whatever transaction the caller has open.
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    private void setup() {
+        invalidateOn(BandParametersDataChangeEvent.class);
+        invalidateOn(MdacDataChangeEvent.class);
+        invalidateOn(GvDataChangeEvent.class);
+        invalidateOn(ShapeConstraintsChangeEvent.class);
+        invalidateOn(CalibrationSettingsChangeEvent.class);
+        invalidateOn(ReferenceEventChangeEvent.class);
+        // A finished calibration has rewritten site terms and measured Mws
+        notificationService.register(new Listener<CalibrationStatusEvent>() {
+            @Override
+            public void apply(CalibrationStatusEvent event) {
+                if (CalibrationStatusEvent.Status.COMPLETE == event.getStatus()) {
+                    invalidate();
+                }
+            }
+
+            @Override
+            public Class<CalibrationStatusEvent> getType() {
+                return CalibrationStatusEvent.class;
+            }
+        });
+    }
+
+    private <T> void invalidateOn(Class<T> type) {
+        notificationService.register(new Listener<T>() {
+            @Override
+            public void apply(T event) {
+                invalidate();
+            }
+
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+        });
+    }
+
+    @Override
+    public CalibrationSnapshot getSnapshot() {
+        CalibrationSnapshot current = snapshot;
+        if (current != null && current.getVersion() == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            long version = generation.get();
+            current = snapshot;
+            if (current == null || current.getVersion() != version) {
+                // If an invalidation lands while loading, the version is
+                // already stale and the next caller reloads again.
+                current = readOnlyTransaction.execute(status -> load(version));
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        generation.incrementAndGet();
+        // A reload between now and the commit would still see the old rows
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private CalibrationSnapshot load(long version) {
+        Map<String, MdacParametersPS> mdacPs = new HashMap<>();
+        for (MdacParametersPS ps : mdacPsRepository.findAll()) {
+            mdacPs.putIfAbsent(ps.getPhase(), ps);
+        }
+        Map<String, ReferenceMwParameters> referenceMws = new HashMap<>();
+        for (ReferenceMwParameters ref : referenceMwRepository.findAll()) {
+            referenceMws.putIfAbsent(ref.getEventId(), ref);
+        }
+        Map<String, ValidationMwParameters> validationMws = new HashMap<>();
+        for (ValidationMwParameters val : validationMwRepository.findAll()) {
+            validationMws.putIfAbsent(val.getEventId(), val);
+        }
+        Map<String, MeasuredMwParameters> measuredMws = new HashMap<>();
+        for (MeasuredMwParameters measured : measuredMwRepository.findAll()) {
+            measuredMws.putIfAbsent(measured.getEventId(), measured);
+        }
+        return new CalibrationSnapshot(version,
+                                       MetadataUtils.mapSharedParamsToFrequencyBands(sfbRepository.findAll()),
+                                       MetadataUtils.mapSiteParamsToFrequencyBands(siteParamsRepository.findAll()),
+                                       mdacFiRepository.findFirstByOrderById(),
+                                       mdacPs,
+                                       velocityConfigRepository.findFirstByOrderById(),
+                                       shapeConstraintsRepository.findFirstByOrderById(),
+                                       referenceMws,
+                                       validationMws,
+                                       measuredMws);
+    }
+}
@@ -13,9 +13,13 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings.DistanceCalcMethod;
@@ -32,8 +36,10 @@ import gov.llnl.gnem.apps.coda.calibration.repository.VelocityConfigurationRepos
 import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.util.GeodeticCoordinate;
 import gov.llnl.gnem.apps.coda.common.model.util.WGS84DistanceCalcFunction;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
@@ -52,6 +58,10 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     private VelocityConfiguration defaultVelConf;
     private ShapeFitterConstraints defaultShapeFitterConstraint;
     private NotificationService notificationService;
+    private final Object distanceLock = new Object();
+    private volatile EventStationDistanceCache distanceCache = new EventStationDistanceCache();
+    private volatile String distanceCalcMethod;
+    private long distanceGeneration;
 
     @Autowired
     public ConfigurationServiceImpl(EntityManager em, CalibrationSettingsRepository calSettingsRepository, VelocityConfigurationRepository velConfRepository,
@@ -70,11 +80,48 @@ public class ConfigurationServiceImpl implements ConfigurationService {
 
     @PostConstruct
     private void setup() {
+        notificationService.register(new Listener<CalibrationSettingsChangeEvent>() {
+            @Override
+            public void apply(CalibrationSettingsChangeEvent event) {
+                invalidateDistances();
+            }
+
+            @Override
+            public Class<CalibrationSettingsChangeEvent> getType() {
+                return CalibrationSettingsChangeEvent.class;
+            }
+        });
         update(defaultCalSettings);
         update(defaultVelConf);
         update(defaultShapeFitterConstraint);
     }
 
+    /**
+     * Drops the cached distance method and distances now and again once the
+     * settings change commits, since a lookup in another transaction before
+     * the commit still reads the old method.
+     */
+    void invalidateDistances() {
+        resetDistances();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resetDistances();
+                }
+            });
+        }
+    }
+
+    private void resetDistances() {
+        synchronized (distanceLock) {
+            distanceGeneration++;
+            distanceCalcMethod = null;
+            // A fresh table rather than clear() so a lookup still in flight under the old method cannot repopulate it
+            distanceCache = new EventStationDistanceCache();
+        }
+    }
+
     @Override
     public CalibrationSettings update(CalibrationSettings entry) {
         CalibrationSettings mergedEntry;
@@ -88,8 +135,9 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         } else {
             mergedEntry = entry;
         }
+        CalibrationSettings saved = calSettingsRepository.saveAndFlush(mergedEntry);
         notificationService.post(new CalibrationSettingsChangeEvent());
-        return calSettingsRepository.saveAndFlush(mergedEntry);
+        return saved;
     }
 
     @Override
@@ -188,7 +236,20 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     @Override
     public WGS84DistanceCalcFunction getDistanceFunc() {
 
-        String method = calSettingsRepository.findAll().stream().findAny().get().getDistanceCalcMethod();
+        String method = distanceCalcMethod;
+        if (method == null) {
+            long generation;
+            synchronized (distanceLock) {
+                generation = distanceGeneration;
+            }
+            method = calSettingsRepository.findAll().stream().findAny().get().getDistanceCalcMethod();
+            synchronized (distanceLock) {
+                // Only keep it if no invalidation happened while it was read
+                if (generation == distanceGeneration) {
+                    distanceCalcMethod = method;
+                }
+            }
+        }
 
         if (DistanceCalcMethod.HYPOCENTRAL.getValue().equalsIgnoreCase(method)) {
             return this::getHypocentralDistance;
@@ -196,4 +257,29 @@ public class ConfigurationServiceImpl implements ConfigurationService {
 
         return this::getEpicentralDistance;
     }
+
+    @Override
+    public double getDistance(Event event, Station station) {
+        EventStationDistanceCache cache = distanceCache;
+        double distance = cache.get(event.getLatitude(), event.getLongitude(), event.getDepth(), station.getLatitude(), station.getLongitude(), station.getElevation());
+        if (Double.isNaN(distance)) {
+            distance = getDistanceFunc().apply(getEventCoord(event), getStationCoord(station));
+            cache.put(event.getLatitude(), event.getLongitude(), event.getDepth(), station.getLatitude(), station.getLongitude(), station.getElevation(), distance);
+        }
+        return distance;
+    }
+
+    @Override
+    public double[] getDistances(List<Waveform> waveforms) {
+        double[] distances = new double[waveforms.size()];
+        for (int i = 0; i < distances.length; i++) {
+            Waveform waveform = waveforms.get(i);
+            if (waveform != null && waveform.getEvent() != null && waveform.getStream() != null && waveform.getStream().getStation() != null) {
+                distances[i] = getDistance(waveform.getEvent(), waveform.getStream().getStation());
+            } else {
+                distances[i] = Double.NaN;
+            }
+        }
+        return distances;
+    }
 }
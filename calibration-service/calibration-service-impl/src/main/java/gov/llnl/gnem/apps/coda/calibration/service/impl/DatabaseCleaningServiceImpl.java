@@ -26,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.DatabaseCleaningService;
 import gov.llnl.gnem.apps.coda.common.model.util.Durable;
 
@@ -33,10 +34,12 @@ import gov.llnl.gnem.apps.coda.common.model.util.Durable;
 public class DatabaseCleaningServiceImpl implements DatabaseCleaningService {
 
     private EntityManager entityManager;
+    private CalibrationSnapshotService snapshotService;
 
     @Autowired
-    public DatabaseCleaningServiceImpl(EntityManager entityManager) {
+    public DatabaseCleaningServiceImpl(EntityManager entityManager, CalibrationSnapshotService snapshotService) {
         this.entityManager = entityManager;
+        this.snapshotService = snapshotService;
     }
 
     @Transactional
@@ -57,6 +60,7 @@ public class DatabaseCleaningServiceImpl implements DatabaseCleaningService {
             entityManager.createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
             tableNames.forEach(tableName -> entityManager.createNativeQuery("TRUNCATE TABLE " + tableName).executeUpdate());
             entityManager.createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+            snapshotService.invalidate();
             return true;
         } catch (Exception e) {
             return false;
@@ -0,0 +1,156 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+/**
+ * Event to station distances keyed on the raw coordinates of both ends. A
+ * relocated event or station produces a different key so its old distance is
+ * never returned. A change of distance method is handled by the owner
+ * replacing the cache.
+ * <p>
+ * Entries live in striped open addressing tables over primitive arrays so a
+ * lookup neither allocates nor hashes any strings. Each stripe is bounded and
+ * simply starts over once it fills.
+ */
+class EventStationDistanceCache {
+
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_CAPACITY = 1 << 16;
+    private static final int KEY_WIDTH = 6;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    EventStationDistanceCache() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @return the cached distance or NaN if these coordinates have not been
+     *         seen yet
+     */
+    double get(double eventLat, double eventLon, double eventDepth, double stationLat, double stationLon, double stationElevation) {
+        long hash = hash(eventLat, eventLon, eventDepth, stationLat, stationLon, stationElevation);
+        return stripes[(int) (hash >>> 60)].get(hash, eventLat, eventLon, eventDepth, stationLat, stationLon, stationElevation);
+    }
+
+    void put(double eventLat, double eventLon, double eventDepth, double stationLat, double stationLon, double stationElevation, double distance) {
+        long hash = hash(eventLat, eventLon, eventDepth, stationLat, stationLon, stationElevation);
+        stripes[(int) (hash >>> 60)].put(hash, eventLat, eventLon, eventDepth, stationLat, stationLon, stationElevation, distance);
+    }
+
+    private static long hash(double a, double b, double c, double d, double e, double f) {
+        long h = mix(Double.doubleToLongBits(a));
+        h = mix(h ^ Double.doubleToLongBits(b));
+        h = mix(h ^ Double.doubleToLongBits(c));
+        h = mix(h ^ Double.doubleToLongBits(d));
+        h = mix(h ^ Double.doubleToLongBits(e));
+        h = mix(h ^ Double.doubleToLongBits(f));
+        // Zero marks an empty slot
+        return h == 0L ? 1L : h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static final class Stripe {
+        private long[] hashes = new long[INITIAL_CAPACITY];
+        private double[] keys = new double[INITIAL_CAPACITY * KEY_WIDTH];
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized double get(long hash, double a, double b, double c, double d, double e, double f) {
+            int mask = hashes.length - 1;
+            for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+                long h = hashes[slot];
+                if (h == 0L) {
+                    return Double.NaN;
+                }
+                if (h == hash && matches(slot, a, b, c, d, e, f)) {
+                    return values[slot];
+                }
+            }
+        }
+
+        synchronized void put(long hash, double a, double b, double c, double d, double e, double f, double distance) {
+            if ((size + 1) * 4 > hashes.length * 3) {
+                if (hashes.length >= MAX_CAPACITY) {
+                    clear();
+                } else {
+                    resize(hashes.length * 2);
+                }
+            }
+            int mask = hashes.length - 1;
+            int slot = (int) hash & mask;
+            while (hashes[slot] != 0L) {
+                if (hashes[slot] == hash && matches(slot, a, b, c, d, e, f)) {
+                    values[slot] = distance;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            int k = slot * KEY_WIDTH;
+            keys[k] = a;
+            keys[k + 1] = b;
+            keys[k + 2] = c;
+            keys[k + 3] = d;
+            keys[k + 4] = e;
+            keys[k + 5] = f;
+            values[slot] = distance;
+            size++;
+        }
+
+        private void clear() {
+            if (size > 0) {
+                hashes = new long[INITIAL_CAPACITY];
+                keys = new double[INITIAL_CAPACITY * KEY_WIDTH];
+                values = new double[INITIAL_CAPACITY];
+                size = 0;
+            }
+        }
+
+        private boolean matches(int slot, double a, double b, double c, double d, double e, double f) {
+            int k = slot * KEY_WIDTH;
+            return keys[k] == a && keys[k + 1] == b && keys[k + 2] == c && keys[k + 3] == d && keys[k + 4] == e && keys[k + 5] == f;
+        }
+
+        private void resize(int capacity) {
+            long[] oldHashes = hashes;
+            double[] oldKeys = keys;
+            double[] oldValues = values;
+            hashes = new long[capacity];
+            keys = new double[capacity * KEY_WIDTH];
+            values = new double[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldHashes[i] != 0L) {
+                    int slot = (int) oldHashes[i] & mask;
+                    while (hashes[slot] != 0L) {
+                        slot = (slot + 1) & mask;
+                    }
+                    hashes[slot] = oldHashes[i];
+                    System.arraycopy(oldKeys, i * KEY_WIDTH, keys, slot * KEY_WIDTH, KEY_WIDTH);
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -17,12 +17,10 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Set;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.IntStream;
 
 import org.apache.commons.math3.analysis.MultivariateFunction;
@@ -37,7 +35,6 @@ import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
 import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
 import org.apache.commons.math3.random.MersenneTwister;
-import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,6 +44,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PathCalibrationMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.PathCalibrationMeasurementService;
@@ -55,7 +53,6 @@ import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalcul
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
-import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 
 @Service
@@ -132,85 +129,68 @@ public class Joint1DPathCorrection implements PathCalibrationService {
     @Override
     public Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf) throws InterruptedException {
+        return measurePathCorrections(SpectraMeasurementTable.of(dataByFreqBand, WaveformUtils::isValidWaveform), frequencyBandParameters, velConf);
+    }
+
+    @Override
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(SpectraMeasurementTable spectra, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters,
+            VelocityConfiguration velConf) throws InterruptedException {
 
+        final double phaseVelocity;
         if (velConf != null) {
             Double phase = velConf.getPhaseVelocityInKms();
             if (phase != null && phase != 0.0) {
-                vphase = phase;
+                phaseVelocity = phase;
             } else {
+                phaseVelocity = vphase;
                 log.debug("Null or zero phase velocity passed in {}, using phase velocity {} instead", phase, vphase);
             }
         } else {
+            phaseVelocity = vphase;
             log.debug("Null or zero velocity config passed in {}, using phase velocity {} instead", velConf, vphase);
         }
 
         List<PathCalibrationMeasurement> measurements = new ArrayList<>();
         Map<FrequencyBand, SharedFrequencyBandParameters> pathCorrectedFrequencyBandParameters = new HashMap<>();
 
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> dataMappedToEventAndStation = removeSingleStationOrFewerEntries(mapToEventAndStation(dataByFreqBand));
-
         ConcurrencyUtils.checkInterrupt();
         frequencyBandParameters.entrySet().parallelStream().forEach(frequencyBandParams -> {
             if (Thread.currentThread().isInterrupted()) {
                 return;
             }
             SharedFrequencyBandParameters pathCorrectedParams = frequencyBandParams.getValue();
-
-            Map<Station, Integer> eventCountByStation = new HashMap<>();
-            Set<Station> stations = new HashSet<>();
-            Map<Station, Integer> stationIdxMap = new HashMap<>();
-            Map<Event, Map<Station, Double>> dataMap = new HashMap<>();
-            Map<Event, Map<Station, Double>> distanceMap = new HashMap<>();
             FrequencyBand frequencyBand = frequencyBandParams.getKey();
 
-            Map<Event, Map<Station, SpectraMeasurement>> freqBandData = dataMappedToEventAndStation.get(frequencyBand);
+            int[] eventGroups = multiStationGroups(spectra, spectra.getBandIndex(frequencyBand));
 
-            if (freqBandData != null) {
+            if (eventGroups.length > 0) {
                 // Avoiding divide by zero as this is only ever used for
                 // residual calculations
                 final double totalDataCount;
-                long dataCount = 0l;
-                for (Entry<Event, Map<Station, SpectraMeasurement>> eventEntry : freqBandData.entrySet()) {
-                    Event event = eventEntry.getKey();
-                    for (Entry<Station, SpectraMeasurement> stationEntry : eventEntry.getValue().entrySet()) {
-                        if (Thread.currentThread().isInterrupted()) {
-                            return;
-                        }
-                        SpectraMeasurement spectra = stationEntry.getValue();
-                        Station station = stationEntry.getKey();
-
-                        if (!dataMap.containsKey(event)) {
-                            dataMap.put(event, new HashMap<Station, Double>());
-                            distanceMap.put(event, new HashMap<Station, Double>());
-                        }
-                        if (dataMap.get(event).containsKey(station)) {
-                            log.info("Saw same evid/sta pair more than once {} {}", event.getEventId(), station.getStationName());
-                        }
-
-                        if (!eventCountByStation.containsKey(station)) {
-                            eventCountByStation.put(station, 0);
+                int dataCount = 0;
+                int optIdx = NUM_TERMS;
+                int[] stationIdx = new int[spectra.getStationCount()];
+                Arrays.fill(stationIdx, -1);
+                for (int group : eventGroups) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                        int station = spectra.getStationIndex(row);
+                        if (stationIdx[station] < 0) {
+                            stationIdx[station] = optIdx++;
                         }
-                        dataMap.get(event).put(station, spectra.getRawAtMeasurementTime());
-                        distanceMap.get(event).put(station, configService.getDistanceFunc().apply(configService.getEventCoord(event), configService.getStationCoord(station)));
-
-                        stations.add(station);
-                        eventCountByStation.put(station, eventCountByStation.get(station) + 1);
                         dataCount++;
                     }
                 }
-                dataCount = dataCount > 0 ? dataCount : 1;
-                totalDataCount = dataCount;
+                totalDataCount = dataCount > 0 ? dataCount : 1;
 
                 // Common terms + one site term for each station
-                double[] optimizationParams = new double[NUM_TERMS + stations.size()];
-                double[] optimizationLowBounds = new double[NUM_TERMS + stations.size()];
-                double[] optimizationHighBounds = new double[NUM_TERMS + stations.size()];
+                double[] optimizationParams = new double[optIdx];
+                double[] optimizationLowBounds = new double[optIdx];
+                double[] optimizationHighBounds = new double[optIdx];
 
-                int optIdx = NUM_TERMS;
-                for (Station stationName : stations) {
-                    stationIdxMap.put(stationName, optIdx);
-                    optIdx++;
-                }
+                BandObservations observations = packObservations(spectra, eventGroups, stationIdx, frequencyBand, dataCount, phaseVelocity);
 
                 // FIXME: These shouldn't be hardcoded
                 optimizationParams[P1_IDX] = p1;
@@ -239,7 +219,7 @@ public class Joint1DPathCorrection implements PathCalibrationService {
                 Arrays.fill(sigmaArray, 0.5);
 
                 // starting residual
-                Double initialResidual = Math.pow(costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, optimizationParams) / totalDataCount, 2.0);
+                Double initialResidual = Math.pow(costFunction(observations, optimizationParams) / totalDataCount, 2.0);
                 log.debug("Band {} initial cost: {}", frequencyBand.getLowFrequency(), initialResidual);
 
                 List<double[]> paramPoints = makeParamPoints(NUM_TERMS, agressiveOptimization, optimizationLowBounds, optimizationHighBounds);
@@ -247,7 +227,7 @@ public class Joint1DPathCorrection implements PathCalibrationService {
                     ConvergenceChecker<PointValuePair> convergenceChecker = new SimpleValueChecker(TOLERANCE, TOLERANCE);
                     CMAESOptimizer optimizer = new CMAESOptimizer(1000000, TOLERANCE, true, 0, 10, new MersenneTwister(), true, convergenceChecker);
 
-                    MultivariateFunction prediction = new ESHPathMultivariate(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand);
+                    MultivariateFunction prediction = new ESHPathMultivariate(observations);
                     PointValuePair opt = null;
                     try {
                         opt = optimizer.optimize(
@@ -272,7 +252,7 @@ public class Joint1DPathCorrection implements PathCalibrationService {
                 }
 
                 // final residual
-                Double finalResults = costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, optimizationParams);
+                Double finalResults = costFunction(observations, optimizationParams);
                 Double finalResidual = Math.pow(finalResults / totalDataCount, 2.0);
                 log.debug("Band {} final cost: {}", frequencyBand.getLowFrequency(), finalResidual);
 
@@ -298,108 +278,164 @@ public class Joint1DPathCorrection implements PathCalibrationService {
         return pathCorrectedFrequencyBandParameters;
     }
 
-    private Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> mapToEventAndStation(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand) {
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> data = new HashMap<>();
-        if (dataByFreqBand != null) {
-
-            for (Entry<FrequencyBand, List<SpectraMeasurement>> entries : dataByFreqBand.entrySet()) {
-                if (!data.containsKey(entries.getKey())) {
-                    data.put(entries.getKey(), new HashMap<>());
-                }
-                Map<Event, Map<Station, SpectraMeasurement>> eventMap = data.get(entries.getKey());
-                for (SpectraMeasurement entry : entries.getValue()) {
-                    if (WaveformUtils.isValidWaveform(entry.getWaveform())) {
-                        Event event = entry.getWaveform().getEvent();
-                        Station station = entry.getWaveform().getStream().getStation();
-                        if (!eventMap.containsKey(event)) {
-                            eventMap.put(event, new HashMap<>());
-                        }
-                        Map<Station, SpectraMeasurement> stationMap = eventMap.get(event);
-                        stationMap.put(station, entry);
-                    }
-                }
-            }
-        }
-        return data;
-    }
-
     private class ESHPathMultivariate implements MultivariateFunction {
-        private Map<Event, Map<Station, SpectraMeasurement>> freqBandData;
-        private Map<Event, Map<Station, Double>> dataMap;
-        private Map<Event, Map<Station, Double>> distanceMap;
-        private FrequencyBand frequencyBand;
-        private Map<Station, Integer> stationIdxMap;
-
-        public ESHPathMultivariate(Map<Event, Map<Station, SpectraMeasurement>> freqBandData, Map<Event, Map<Station, Double>> dataMap, Map<Event, Map<Station, Double>> distanceMap,
-                Map<Station, Integer> stationIdxMap, FrequencyBand frequencyBand) {
-            this.freqBandData = freqBandData;
-            this.dataMap = dataMap;
-            this.distanceMap = distanceMap;
-            this.frequencyBand = frequencyBand;
-            this.stationIdxMap = stationIdxMap;
+        private final BandObservations observations;
+        private final double[] residuals;
+        private final double[] sorted;
+
+        public ESHPathMultivariate(BandObservations observations) {
+            this.observations = observations;
+            this.residuals = new double[observations.maxStationsPerEvent];
+            this.sorted = new double[observations.maxStationsPerEvent];
         }
 
         @Override
         public double value(double[] point) {
-            return costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, point);
+            return costFunction(observations, point, residuals, sorted);
         }
     }
 
-    private Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> removeSingleStationOrFewerEntries(Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> freqBandData) {
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> localData = new HashMap<>();
-        for (Entry<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> frequencyEntry : freqBandData.entrySet()) {
-            FrequencyBand frequency = frequencyEntry.getKey();
-            for (Event evid : frequencyEntry.getValue().keySet()) {
-                if (freqBandData.get(frequency).get(evid).size() > 1) {
-                    if (!localData.containsKey(frequency)) {
-                        localData.put(frequency, new HashMap<Event, Map<Station, SpectraMeasurement>>());
-                    }
-                    localData.get(frequency).put(evid, freqBandData.get(frequency).get(evid));
-                }
+    /**
+     * The measurements of one frequency band packed into flat arrays. The
+     * observations of event {@code e} occupy the range
+     * {@code [eventOffsets[e], eventOffsets[e + 1])} of every per observation
+     * array.
+     */
+    static final class BandObservations {
+        private final int eventCount;
+        private final int maxStationsPerEvent;
+        private final int[] eventOffsets;
+        private final int[] siteIdx;
+        private final double[] distance;
+        // distance * pi * f0 * log10(e), only the divide by q * vphase depends
+        // on the model so the rest is done once up front
+        private final double[] attenuation;
+        private final double[] observed;
+        private final double phaseVelocity;
+
+        private BandObservations(int eventCount, int maxStationsPerEvent, int[] eventOffsets, int[] siteIdx, double[] distance, double[] attenuation, double[] observed, double phaseVelocity) {
+            this.eventCount = eventCount;
+            this.maxStationsPerEvent = maxStationsPerEvent;
+            this.eventOffsets = eventOffsets;
+            this.siteIdx = siteIdx;
+            this.distance = distance;
+            this.attenuation = attenuation;
+            this.observed = observed;
+            this.phaseVelocity = phaseVelocity;
+        }
+    }
+
+    BandObservations packObservations(SpectraMeasurementTable spectra, int[] eventGroups, int[] stationIdx, FrequencyBand frequencyBand, int dataCount, double phaseVelocity) {
+        double freq0 = Math.sqrt(frequencyBand.getLowFrequency() * frequencyBand.getHighFrequency());
+        int[] eventOffsets = new int[eventGroups.length + 1];
+        int[] siteIdx = new int[dataCount];
+        double[] distance = new double[dataCount];
+        double[] attenuation = new double[dataCount];
+        double[] observed = new double[dataCount];
+
+        int eventIdx = 0;
+        int obsIdx = 0;
+        int maxStationsPerEvent = 0;
+        for (int group : eventGroups) {
+            Event event = spectra.getEvent(spectra.getGroupEvent(group));
+            eventOffsets[eventIdx] = obsIdx;
+            for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                int station = spectra.getStationIndex(row);
+                double del = configService.getDistance(event, spectra.getStation(station));
+                siteIdx[obsIdx] = stationIdx[station];
+                distance[obsIdx] = del;
+                attenuation[obsIdx] = del * Math.PI * freq0 * efact;
+                observed[obsIdx] = spectra.getRawAtMeasurementTime(row);
+                obsIdx++;
             }
+            maxStationsPerEvent = Math.max(maxStationsPerEvent, obsIdx - eventOffsets[eventIdx]);
+            eventIdx++;
+        }
+        eventOffsets[eventIdx] = obsIdx;
+        return new BandObservations(eventIdx, maxStationsPerEvent, eventOffsets, siteIdx, distance, attenuation, observed, phaseVelocity);
+    }
+
+    /**
+     * @return the groups of the band that were recorded by more than one
+     *         station, single station events say nothing about the site terms
+     */
+    static int[] multiStationGroups(SpectraMeasurementTable spectra, int band) {
+        if (band < 0) {
+            return new int[0];
         }
-        return localData;
+        return IntStream.range(spectra.getBandGroupStart(band), spectra.getBandGroupEnd(band)).filter(group -> spectra.getGroupEnd(group) - spectra.getGroupStart(group) > 1).toArray();
+    }
+
+    /**
+     * @param stationIdx
+     *            the index in the optimization parameters of the site term for
+     *            each station in the table
+     * @param phaseVelocity
+     *            the phase velocity in km/s used for the attenuation term
+     * @return the cost function the optimizer evaluates for the band, over
+     *         the events recorded by more than one station. Used to exercise
+     *         the inversion outside of a full path calibration.
+     */
+    public ToDoubleFunction<double[]> bandCostFunction(SpectraMeasurementTable spectra, FrequencyBand frequencyBand, int[] stationIdx, double phaseVelocity) {
+        int[] eventGroups = multiStationGroups(spectra, spectra.getBandIndex(frequencyBand));
+        int dataCount = 0;
+        for (int group : eventGroups) {
+            dataCount += spectra.getGroupEnd(group) - spectra.getGroupStart(group);
+        }
+        BandObservations observations = packObservations(spectra, eventGroups, stationIdx, frequencyBand, dataCount, phaseVelocity);
+        return optimizationParams -> costFunction(observations, optimizationParams);
     }
 
     /**
      * cost function for use in optimization code. Extended Street-Herrmann
      * spreading model, no Q.
      */
-    public double costFunction(Map<Event, Map<Station, SpectraMeasurement>> evidStaData, Map<Event, Map<Station, Double>> dataMap, Map<Event, Map<Station, Double>> distanceMap,
-            Map<Station, Integer> stationIdxMap, FrequencyBand frequencyBand, double[] optimizationParams) {
-
-        double freq0 = Math.sqrt(frequencyBand.getLowFrequency() * frequencyBand.getHighFrequency());
+    public double costFunction(BandObservations observations, double[] optimizationParams) {
+        return costFunction(observations, optimizationParams, new double[observations.maxStationsPerEvent], new double[observations.maxStationsPerEvent]);
+    }
 
-        return evidStaData.entrySet().parallelStream().map(evidEntry -> {
-            double cost = 0.0;
-            Event evid = evidEntry.getKey();
-            Map<Station, SpectraMeasurement> stationMapData = evidEntry.getValue();
-            Map<Station, Double> stationValues = new HashMap<>();
-
-            DoubleArrayList dataVec = new DoubleArrayList(stationMapData.size());
-            for (Entry<Station, SpectraMeasurement> entry : stationMapData.entrySet()) {
-                double del = distanceMap.get(evid).get(entry.getKey());
-                double site = optimizationParams[stationIdxMap.get(entry.getKey())];
-                double p1 = Math.pow(10.0, optimizationParams[P1_IDX]);
-                double q = Math.pow(10.0, optimizationParams[Q_IDX]);
-                double xcross = Math.pow(10.0, optimizationParams[XCROSS_IDX]);
-                double xtrans = Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX]));
-                double pdat = site + spectraCalc.log10ESHcorrection(p1, p2, xcross, xtrans, del) - del * Math.PI * freq0 * efact / (q * vphase);
-                double adjustedVal = dataMap.get(evid).get(entry.getKey()) - pdat;
-                dataVec.add(adjustedVal);
-                stationValues.put(entry.getKey(), adjustedVal);
+    private double costFunction(BandObservations observations, double[] optimizationParams, double[] residuals, double[] sorted) {
+        double p1 = Math.pow(10.0, optimizationParams[P1_IDX]);
+        double q = Math.pow(10.0, optimizationParams[Q_IDX]);
+        double xcross = Math.pow(10.0, optimizationParams[XCROSS_IDX]);
+        double xtrans = Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX]));
+        double qv = q * observations.phaseVelocity;
+        double huberDel = .5d;
+        double huberFloor = Math.pow(huberDel, 2.0);
+
+        double total = 0.0;
+        for (int e = 0; e < observations.eventCount; e++) {
+            int start = observations.eventOffsets[e];
+            int count = observations.eventOffsets[e + 1] - start;
+            for (int i = 0; i < count; i++) {
+                int obs = start + i;
+                double pdat = optimizationParams[observations.siteIdx[obs]]
+                        + spectraCalc.log10ESHcorrection(p1, p2, xcross, xtrans, observations.distance[obs])
+                        - observations.attenuation[obs] / qv;
+                residuals[i] = observations.observed[obs] - pdat;
             }
 
-            if (dataVec.size() > 1) {
-                double huberDel = .5d;
-                double median = dataVec.median();
-                for (Entry<Station, SpectraMeasurement> entry1 : stationMapData.entrySet()) {
-                    double diff = Math.abs(stationValues.get(entry1.getKey()) - median);
-                    cost = cost + (Math.pow(huberDel, 2.0) + (Math.sqrt(1d + Math.pow(diff / huberDel, 2.0)) - 1d));
+            if (count > 1) {
+                double cost = 0.0;
+                double median = median(residuals, sorted, count);
+                for (int i = 0; i < count; i++) {
+                    double diff = Math.abs(residuals[i] - median);
+                    cost = cost + (huberFloor + (Math.sqrt(1d + Math.pow(diff / huberDel, 2.0)) - 1d));
                 }
+                total = total + cost;
             }
-            return cost;
-        }).reduce(0.0d, Double::sum);
+        }
+        return total;
+    }
+
+    private static double median(double[] values, double[] sorted, int count) {
+        System.arraycopy(values, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int middle = count >> 1;
+        if ((count & 1) == 0) {
+            return (sorted[middle] + sorted[middle - 1]) / 2.0;
+        }
+        return sorted[middle];
     }
 
     /**
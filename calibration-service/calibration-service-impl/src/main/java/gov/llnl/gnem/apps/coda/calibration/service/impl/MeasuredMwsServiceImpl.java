@@ -28,6 +28,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.ValidationMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.repository.MeasuredMwsRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.ReferenceMwParametersRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.ValidationMwParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
 import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
 
@@ -39,25 +40,29 @@ public class MeasuredMwsServiceImpl implements MeasuredMwsService {
     private ReferenceMwParametersRepository referenceMwsRepository;
     private ValidationMwParametersRepository validationMwsRepository;
     private WaveformService eventRepository;
+    private CalibrationSnapshotService snapshotService;
 
     @Autowired
     public MeasuredMwsServiceImpl(MeasuredMwsRepository measuredMwsRepository, ReferenceMwParametersRepository referenceMwsRepository,
-            ValidationMwParametersRepository validationMwParametersRepository, WaveformService eventRepository) {
+            ValidationMwParametersRepository validationMwParametersRepository, WaveformService eventRepository, CalibrationSnapshotService snapshotService) {
         this.measuredMwsRepository = measuredMwsRepository;
         this.referenceMwsRepository = referenceMwsRepository;
         this.validationMwsRepository = validationMwParametersRepository;
         this.eventRepository = eventRepository;
+        this.snapshotService = snapshotService;
     }
 
     @Override
     @Transactional
     public void delete(MeasuredMwParameters MeasuredMwParameters) {
         measuredMwsRepository.delete(MeasuredMwParameters);
+        snapshotService.invalidate();
     }
 
     @Override
     @Transactional
     public List<MeasuredMwParameters> save(Iterable<MeasuredMwParameters> entities) {
+        snapshotService.invalidate();
         return measuredMwsRepository.saveAll(entities);
     }
 
@@ -66,11 +71,13 @@ public class MeasuredMwsServiceImpl implements MeasuredMwsService {
     public void delete(Iterable<Long> ids) {
         List<MeasuredMwParameters> toDelete = measuredMwsRepository.findAllById(ids);
         measuredMwsRepository.deleteAllInBatch(toDelete);
+        snapshotService.invalidate();
     }
 
     @Override
     @Transactional
     public MeasuredMwParameters save(MeasuredMwParameters entity) {
+        snapshotService.invalidate();
         return measuredMwsRepository.save(entity);
     }
 
@@ -106,6 +113,7 @@ public class MeasuredMwsServiceImpl implements MeasuredMwsService {
     @Override
     public void deleteAll() {
         measuredMwsRepository.deleteAllInBatch();
+        snapshotService.invalidate();
     }
 
     public Class<Long> getIdType() {
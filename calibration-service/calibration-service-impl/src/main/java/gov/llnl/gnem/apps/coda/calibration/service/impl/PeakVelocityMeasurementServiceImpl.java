@@ -15,6 +15,7 @@
 package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.calibration.repository.PeakVelocityMeasurementRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.PeakVelocityMeasurementService;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MaxVelocityCalculator;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 
 @Service
@@ -66,6 +68,16 @@ public class PeakVelocityMeasurementServiceImpl implements PeakVelocityMeasureme
         return getRepository().findByWaveformIdMetadataOnly(id);
     }
 
+    @Override
+    public List<PeakVelocityMeasurement> findAllByFrequencyBand(FrequencyBand frequencyBand) {
+        return getRepository().findAllByWaveformLowFrequencyAndWaveformHighFrequency(frequencyBand.getLowFrequency(), frequencyBand.getHighFrequency());
+    }
+
+    @Override
+    public void deleteAllByFrequencyBand(FrequencyBand frequencyBand) {
+        getRepository().deleteAllByIdInBatch(findAllByFrequencyBand(frequencyBand).stream().map(PeakVelocityMeasurement::getId).collect(Collectors.toList()));
+    }
+
     @Override
     public long count() {
         return getRepository().count();
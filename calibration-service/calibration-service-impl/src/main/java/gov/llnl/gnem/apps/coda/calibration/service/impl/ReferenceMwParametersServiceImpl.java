@@ -24,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.repository.ReferenceMwParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
 import gov.llnl.gnem.apps.coda.common.model.messaging.ReferenceEventChangeEvent;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
@@ -34,11 +35,13 @@ public class ReferenceMwParametersServiceImpl implements ReferenceMwParametersSe
 
     private ReferenceMwParametersRepository referenceMwParametersRepository;
     private NotificationService notificationService;
+    private CalibrationSnapshotService snapshotService;
 
     @Autowired
-    public ReferenceMwParametersServiceImpl(ReferenceMwParametersRepository referenceMwParametersRepository, NotificationService notificationService) {
+    public ReferenceMwParametersServiceImpl(ReferenceMwParametersRepository referenceMwParametersRepository, NotificationService notificationService, CalibrationSnapshotService snapshotService) {
         this.referenceMwParametersRepository = referenceMwParametersRepository;
         this.notificationService = notificationService;
+        this.snapshotService = snapshotService;
     }
 
     public ReferenceMwParametersRepository getReferenceMwParametersRepository() {
@@ -53,6 +56,7 @@ public class ReferenceMwParametersServiceImpl implements ReferenceMwParametersSe
     @Transactional
     public void delete(ReferenceMwParameters referenceMwParameters) {
         referenceMwParametersRepository.delete(referenceMwParameters);
+        snapshotService.invalidate();
     }
 
     @Override
@@ -72,6 +76,7 @@ public class ReferenceMwParametersServiceImpl implements ReferenceMwParametersSe
         List<ReferenceMwParameters> toDelete = referenceMwParametersRepository.findAllById(ids);
         referenceMwParametersRepository.deleteAllInBatch(toDelete);
         referenceMwParametersRepository.flush();
+        snapshotService.invalidate();
     }
 
     @Override
@@ -80,6 +85,7 @@ public class ReferenceMwParametersServiceImpl implements ReferenceMwParametersSe
         List<ReferenceMwParameters> toDelete = referenceMwParametersRepository.findAllByEventIds(eventIds);
         referenceMwParametersRepository.deleteAllInBatch(toDelete);
         referenceMwParametersRepository.flush();
+        snapshotService.invalidate();
     }
 
     @Override
@@ -91,6 +97,7 @@ public class ReferenceMwParametersServiceImpl implements ReferenceMwParametersSe
         } else {
             persistentRef.merge(entity);
         }
+        snapshotService.invalidate();
         return referenceMwParametersRepository.save(persistentRef);
     }
 
@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -31,12 +32,27 @@ public class ServiceConfig {
 
     private static ExecutorService measurementServicePool;
 
+    private static ExecutorService calibrationBandPool;
+
+    private static ExecutorService ratioInversionPool;
+
+    private static ExecutorService waveformIngestPool;
+
     @Value("${spectraTruncationEnabled:true}")
     private boolean spectraTruncationEnabled;
 
     @Value("${measurementPoolSize:10}")
     private int measurementPoolSize;
 
+    @Value("${calibrationBandPoolSize:4}")
+    private int calibrationBandPoolSize;
+
+    @Value("${ratioInversionPoolSize:0}")
+    private int ratioInversionPoolSize;
+
+    @Value("${waveformIngestQueueSize:16}")
+    private int waveformIngestQueueSize;
+
     @Bean("MeasurementExecutorService")
     public ExecutorService getMeasurementExecutor() {
         synchronized (lock) {
@@ -52,6 +68,60 @@ public class ServiceConfig {
         return measurementServicePool;
     }
 
+    @Bean("CalibrationBandExecutorService")
+    public ExecutorService getCalibrationBandExecutor() {
+        synchronized (lock) {
+            if (calibrationBandPool == null) {
+                // Unbounded queue since a calibration submits exactly one task
+                // per frequency band, the thread count is what bounds the work
+                calibrationBandPool = new ThreadPoolExecutor(calibrationBandPoolSize, calibrationBandPoolSize, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName("CalibrationBand");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return calibrationBandPool;
+    }
+
+    @Bean("RatioInversionExecutorService")
+    public ExecutorService getRatioInversionExecutor() {
+        synchronized (lock) {
+            if (ratioInversionPool == null) {
+                int poolSize = ratioInversionPoolSize > 0 ? ratioInversionPoolSize : Runtime.getRuntime().availableProcessors();
+                // Unbounded queue since a ratio inversion submits one task per
+                // event pair up front, the thread count is what bounds the work
+                ratioInversionPool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName("RatioInversion");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return ratioInversionPool;
+    }
+
+    @Bean("WaveformIngestExecutorService")
+    public ExecutorService getWaveformIngestExecutor() {
+        synchronized (lock) {
+            if (waveformIngestPool == null) {
+                // One writer since the batches all land in the same table.
+                // Once the queue is full the posting request thread writes
+                // its own batch, which holds back clients sending faster
+                // than the database can keep up.
+                waveformIngestPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(waveformIngestQueueSize), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName("WaveformIngest");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+            }
+        }
+        return waveformIngestPool;
+    }
+
     public boolean isSpectraTruncationEnabled() {
         return spectraTruncationEnabled;
     }
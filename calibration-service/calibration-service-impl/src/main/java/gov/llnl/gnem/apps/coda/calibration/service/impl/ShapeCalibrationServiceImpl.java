@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -42,6 +43,7 @@ import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 
 @Service
 public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
@@ -49,11 +51,13 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
     private static final Logger log = LoggerFactory.getLogger(ShapeCalibrationServiceImpl.class);
     private ShapeMeasurementService shapeMeasurementService;
     private ShapeCalculator shapeCalc;
+    private WaveformToTimeSeriesConverter converter;
 
     @Autowired
-    public ShapeCalibrationServiceImpl(ShapeMeasurementService shapeMeasurementService, ShapeCalculator shapeCalc) {
+    public ShapeCalibrationServiceImpl(ShapeMeasurementService shapeMeasurementService, ShapeCalculator shapeCalc, WaveformToTimeSeriesConverter converter) {
         this.shapeMeasurementService = shapeMeasurementService;
         this.shapeCalc = shapeCalc;
+        this.converter = converter;
     }
 
     @Override
@@ -66,6 +70,38 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
     public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(List<PeakVelocityMeasurement> velocityMeasurements,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParamInputs, ShapeFitterConstraints constraints, boolean autoPickingEnabled, boolean shouldPersistResults)
             throws InterruptedException {
+        Runnable persistence = null;
+        if (shouldPersistResults) {
+            // Shape measurements are intermediary results so rather than trying to
+            // merge them we want to just drop them wholesale if they exist and
+            // replace them with the new data set.
+            // TODO: Need to only delete these for the current project
+            persistence = shapeMeasurementService::deleteAll;
+        }
+        return measureShapes(velocityMeasurements, frequencyBandParamInputs, constraints, autoPickingEnabled, persistence);
+    }
+
+    @Override
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(List<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParamInputs, ShapeFitterConstraints constraints, Set<FrequencyBand> bandsToMeasure) throws InterruptedException {
+        List<PeakVelocityMeasurement> bandVelocityMeasurements = velocityMeasurements.stream()
+                                                                                     .filter(vel -> vel.getWaveform() != null)
+                                                                                     .filter(
+                                                                                             vel -> bandsToMeasure.contains(
+                                                                                                     new FrequencyBand(vel.getWaveform().getLowFrequency(), vel.getWaveform().getHighFrequency())))
+                                                                                     .collect(Collectors.toList());
+        return measureShapes(bandVelocityMeasurements, frequencyBandParamInputs, constraints, false, () -> bandsToMeasure.forEach(shapeMeasurementService::deleteAllByFrequencyBand));
+    }
+
+    /**
+     * @param clearPersisted
+     *            called before the new measurements are saved to drop any
+     *            existing ones they replace, or null if the results should not
+     *            be persisted at all
+     */
+    private Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(List<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParamInputs, ShapeFitterConstraints constraints, boolean autoPickingEnabled,
+            Runnable clearPersisted) throws InterruptedException {
         Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters = new HashMap<>();
         if (frequencyBandParamInputs.isEmpty()) {
             // TODO: Propagate warning to the status API
@@ -96,12 +132,8 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
 
         ConcurrencyUtils.checkInterrupt();
 
-        if (shouldPersistResults) {
-            // Shape measurements are intermediary results so rather than trying to
-            // merge them we want to just drop them wholesale if they exist and
-            // replace them with the new data set.
-            // TODO: Need to only delete these for the current project
-            shapeMeasurementService.deleteAll();
+        if (clearPersisted != null) {
+            clearPersisted.run();
             betaAndGammaMeasurements = shapeMeasurementService.save(betaAndGammaMeasurements);
         }
 
@@ -120,7 +152,7 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
 
     @Override
     public List<PeakVelocityMeasurement> adjustEndPicksBasedOnSynthetics(List<PeakVelocityMeasurement> velocityMeasurements, List<SyntheticCoda> synthetics, ShapeFitterConstraints constraints) {
-        final CalibrationCurveFitter fitter = new CalibrationCurveFitter();
+        final CalibrationCurveFitter fitter = new CalibrationCurveFitter(converter);
 
         velocityMeasurements.parallelStream().forEach(velocityMeasurement -> {
             boolean isAutoPicked = velocityMeasurement.getWaveform().getAssociatedPicks().stream().anyMatch(wp -> wp.getPickName().equalsIgnoreCase(PICK_TYPES.AP.name()));
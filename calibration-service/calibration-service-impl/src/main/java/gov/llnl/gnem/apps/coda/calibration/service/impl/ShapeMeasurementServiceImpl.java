@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadata;
 import gov.llnl.gnem.apps.coda.calibration.repository.ShapeMeasurementRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ShapeMeasurementService;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 
 @Service
 public class ShapeMeasurementServiceImpl implements ShapeMeasurementService {
@@ -85,6 +87,15 @@ public class ShapeMeasurementServiceImpl implements ShapeMeasurementService {
         shapeMeasurementRepository.deleteAllInBatch();
     }
 
+    @Override
+    public void deleteAllByFrequencyBand(FrequencyBand frequencyBand) {
+        shapeMeasurementRepository.deleteAllByIdInBatch(
+                shapeMeasurementRepository.findAllByWaveformLowFrequencyAndWaveformHighFrequency(frequencyBand.getLowFrequency(), frequencyBand.getHighFrequency())
+                                          .stream()
+                                          .map(ShapeMeasurement::getId)
+                                          .collect(Collectors.toList()));
+    }
+
     @Override
     public ShapeMeasurement findOneByWaveformId(Long waveformId) {
         return Optional.ofNullable(shapeMeasurementRepository.findOneByWaveformId(waveformId)).orElseGet(ShapeMeasurement::new);
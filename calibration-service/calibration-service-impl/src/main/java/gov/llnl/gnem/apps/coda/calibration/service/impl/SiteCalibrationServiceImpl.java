@@ -18,7 +18,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -38,6 +37,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ValidationMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.repository.SharedFrequencyBandParametersRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
@@ -81,37 +81,44 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
     @Override
     public List<MeasuredMwParameters> fitMws(final Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, final MdacParametersFI mdacFI, final Map<PICK_TYPES, MdacParametersPS> mdacPS,
             final Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, final PICK_TYPES selectedPhase) {
+        return fitMws(SpectraMeasurementTable.of(dataByFreqBand, WaveformUtils::isValidWaveform), mdacFI, mdacPS, stationFrequencyBandParameters, selectedPhase);
+    }
+
+    @Override
+    public List<MeasuredMwParameters> fitMws(final SpectraMeasurementTable spectra, final MdacParametersFI mdacFI, final Map<PICK_TYPES, MdacParametersPS> mdacPS,
+            final Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, final PICK_TYPES selectedPhase) {
         final MdacParametersPS psRows = mdacPS.get(selectedPhase);
-        final Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqBandStaMeasurementsMap = mapToEventAndStation(dataByFreqBand);
         final Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> weightFunctionMapByEvent = new HashMap<>();
         final Map<Event, Map<FrequencyBand, SummaryStatistics>> averageMapByEvent = new HashMap<>();
 
+        final int bandCount = spectra.getBandCount();
+        final int[] eventGroups = spectra.getEventGroups();
+        final SummaryStatistics[] averageByEventBand = new SummaryStatistics[spectra.getEventCount() * bandCount];
+
         final int totalFreqBands = sharedFrequencyBandParametersRepository.findDistinctFrequencyBands().size();
         Map<String, Integer> stationCount = new HashMap<>();
         Map<String, Double> bandCoverage = new HashMap<>();
 
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
+        for (int e = 0; e < spectra.getEventCount(); e++) {
+            Event evid = spectra.getEvent(e);
             Set<String> stations = new HashSet<>();
             Double totalFreqsMeasured = 0.0;
 
-            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                FrequencyBand freqBand = freqStaMap.getKey();
+            for (int i = spectra.getEventGroupStart(e); i < spectra.getEventGroupEnd(e); i++) {
+                final int group = eventGroups[i];
+                final int averageIdx = e * bandCount + spectra.getGroupBand(group);
                 boolean freqWasMeasured = false;
-                for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                    double amp = staMwEntry.getValue().getPathAndSiteCorrected();
+                for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                    double amp = spectra.getPathAndSiteCorrected(row);
 
                     if (amp != 0.0) {
-                        if (!averageMapByEvent.containsKey(evid)) {
-                            averageMapByEvent.put(evid, new HashMap<FrequencyBand, SummaryStatistics>());
+                        if (averageByEventBand[averageIdx] == null) {
+                            averageByEventBand[averageIdx] = new SummaryStatistics();
                         }
-                        if (!averageMapByEvent.get(evid).containsKey(freqBand)) {
-                            averageMapByEvent.get(evid).put(freqBand, new SummaryStatistics());
-                        }
-                        averageMapByEvent.get(evid).get(freqBand).addValue(amp);
+                        averageByEventBand[averageIdx].addValue(amp);
                         freqWasMeasured = true;
 
-                        Station sta = staMwEntry.getValue().getWaveform().getStream().getStation();
+                        Station sta = spectra.getStation(spectra.getStationIndex(row));
                         stations.add(sta.getNetworkName() + sta.getStationName());
                     }
                 }
@@ -128,7 +135,11 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
                 bandCoverage.put(evid.getEventId(), 0.0);
             }
 
-            weightFunctionMapByEvent.putIfAbsent(evid, createDataWeightMapFunction(averageMapByEvent.get(evid)));
+            Map<FrequencyBand, SummaryStatistics> eventAverages = eventBandStatistics(spectra, averageByEventBand, e);
+            if (eventAverages != null) {
+                averageMapByEvent.put(evid, eventAverages);
+            }
+            weightFunctionMapByEvent.putIfAbsent(evid, createDataWeightMapFunction(eventAverages));
         }
         MwMeasurementInputData inputData = new MwMeasurementInputData(averageMapByEvent, weightFunctionMapByEvent, psRows, stationCount, bandCoverage);
         List<MeasuredMwParameters> measuredMws = spectraCalc.measureMws(inputData, selectedPhase, mdacFI);
@@ -143,21 +154,31 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
     public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(final Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, final MdacParametersFI mdacFI,
             final Map<PICK_TYPES, MdacParametersPS> mdacPS, final Map<String, List<ReferenceMwParameters>> refMws, Map<String, List<ValidationMwParameters>> valMws,
             final Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, final PICK_TYPES selectedPhase) {
+        return measureSiteCorrections(SpectraMeasurementTable.of(dataByFreqBand, WaveformUtils::isValidWaveform), mdacFI, mdacPS, refMws, valMws, frequencyBandParameters, selectedPhase);
+    }
+
+    @Override
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(final SpectraMeasurementTable spectra, final MdacParametersFI mdacFI,
+            final Map<PICK_TYPES, MdacParametersPS> mdacPS, final Map<String, List<ReferenceMwParameters>> refMws, Map<String, List<ValidationMwParameters>> valMws,
+            final Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, final PICK_TYPES selectedPhase) {
         final MdacParametersPS psRows = mdacPS.get(selectedPhase);
 
-        //Input
-        final Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqBandStaMeasurementsMap = mapToEventAndStation(dataByFreqBand);
+        //Input, the statistics below are indexed by [station][band] and
+        //[event][band] over the dictionaries of the table
+        final int bandCount = spectra.getBandCount();
+        final int[] eventGroups = spectra.getEventGroups();
 
         final Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> weightFunctionMapByEvent = new HashMap<>();
 
         //Step 1
-        final Map<Station, Map<FrequencyBand, SummaryStatistics>> staFreqBandSiteCorrectionMapReferenceEvents = new HashMap<>();
+        final SummaryStatistics[] siteCorrectionReferenceEvents = new SummaryStatistics[spectra.getStationCount() * bandCount];
         //Step 2
-        final Map<Event, Map<FrequencyBand, SummaryStatistics>> averageMapByEvent = new HashMap<>();
+        SummaryStatistics[] averageByEventBand = new SummaryStatistics[spectra.getEventCount() * bandCount];
         //Step 3
-        final Map<Station, Map<FrequencyBand, SummaryStatistics>> staFreqBandSiteCorrectionMapAverage = new HashMap<>();
+        final SummaryStatistics[] siteCorrectionAverage = new SummaryStatistics[spectra.getStationCount() * bandCount];
         //Result
         final Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteCorrections = new HashMap<>();
+        final Map<Event, Map<FrequencyBand, SummaryStatistics>> averageMapByEvent = new HashMap<>();
 
         // Get total frequency count for bandCoverage calculation
         final int totalFreqBands = sharedFrequencyBandParametersRepository.findDistinctFrequencyBands().size();
@@ -172,8 +193,8 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         //0-2A) If no then weight based on the standard error of the bands + 1
 
         //1) Generate spectra for reference events and get the site correction for each station that saw it.
-        for (final Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            final Event evid = evidFreqMap.getKey();
+        for (int e = 0; e < spectra.getEventCount(); e++) {
+            final Event evid = spectra.getEvent(e);
             if (refMws != null && refMws.containsKey(evid.getEventId())) {
                 final List<ReferenceMwParameters> refMwsParams = refMws.get(evid.getEventId());
                 final ReferenceMwParameters refMw = refMwsParams.stream().findFirst().orElse(null);
@@ -196,8 +217,10 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
                         cornerFreq = mdac.getCornerFrequency(mdacFunc);
                     }
 
-                    for (final Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                        final FrequencyBand freqBand = freqStaMap.getKey();
+                    for (int i = spectra.getEventGroupStart(e); i < spectra.getEventGroupEnd(e); i++) {
+                        final int group = eventGroups[i];
+                        final int band = spectra.getGroupBand(group);
+                        final FrequencyBand freqBand = spectra.getBand(band);
                         final Double lowFreq = freqBand.getLowFrequency();
                         final Double highFreq = freqBand.getHighFrequency();
 
@@ -207,22 +230,16 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
                         final double centerFreq = (highFreq + lowFreq) / 2.0;
 
                         final double[] refSpectra = mdacFunc.apply(centerFreq);
+                        // Output should be Dyne-cm
+                        final double refAmp = Math.log10(refSpectra[1]) + DYNE_LOG10_ADJUSTMENT;
 
-                        for (final Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-
-                            final double amp = staMwEntry.getValue().getPathCorrected();
-                            if (!staFreqBandSiteCorrectionMapReferenceEvents.containsKey(staMwEntry.getKey())) {
-                                staFreqBandSiteCorrectionMapReferenceEvents.put(staMwEntry.getKey(), new HashMap<FrequencyBand, SummaryStatistics>());
-                            }
-                            if (!staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                                staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).put(freqBand, new SummaryStatistics());
+                        for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                            final int siteIdx = spectra.getStationIndex(row) * bandCount + band;
+                            if (siteCorrectionReferenceEvents[siteIdx] == null) {
+                                siteCorrectionReferenceEvents[siteIdx] = new SummaryStatistics();
                             }
-
-                            // Output should be Dyne-cm
-                            final double refAmp = Math.log10(refSpectra[1]) + DYNE_LOG10_ADJUSTMENT;
-                            final double ampDiff = refAmp - amp;
-
-                            staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).get(freqBand).addValue(ampDiff);
+                            final double ampDiff = refAmp - spectra.getPathCorrected(row);
+                            siteCorrectionReferenceEvents[siteIdx].addValue(ampDiff);
                         }
                     }
                 }
@@ -230,24 +247,21 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         }
 
         //2) For every station with a site correction measured apply it to every other event and get average site term for every frequency band
-        for (final Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            final Event evid = evidFreqMap.getKey();
-            if ((refMws != null && refMws.containsKey(evid.getEventId())) || (valMws == null || valMws.isEmpty() || !valMws.containsKey(evid.getEventId()))) {
-                for (final Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                    final FrequencyBand freqBand = freqStaMap.getKey();
-                    for (final Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                        if (staFreqBandSiteCorrectionMapReferenceEvents.containsKey(staMwEntry.getKey())
-                                && staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                            final double amp = staMwEntry.getValue().getPathCorrected();
-                            if (!averageMapByEvent.containsKey(evid)) {
-                                averageMapByEvent.put(evid, new HashMap<FrequencyBand, SummaryStatistics>());
+        for (int e = 0; e < spectra.getEventCount(); e++) {
+            final String evid = spectra.getEvent(e).getEventId();
+            if ((refMws != null && refMws.containsKey(evid)) || (valMws == null || valMws.isEmpty() || !valMws.containsKey(evid))) {
+                for (int i = spectra.getEventGroupStart(e); i < spectra.getEventGroupEnd(e); i++) {
+                    final int group = eventGroups[i];
+                    final int band = spectra.getGroupBand(group);
+                    final int averageIdx = e * bandCount + band;
+                    for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                        final SummaryStatistics siteCorrection = siteCorrectionReferenceEvents[spectra.getStationIndex(row) * bandCount + band];
+                        if (siteCorrection != null) {
+                            if (averageByEventBand[averageIdx] == null) {
+                                averageByEventBand[averageIdx] = new SummaryStatistics();
                             }
-                            if (!averageMapByEvent.get(evid).containsKey(freqBand)) {
-                                averageMapByEvent.get(evid).put(freqBand, new SummaryStatistics());
-                            }
-
-                            final double refAmp = amp + staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).get(freqBand).getMean();
-                            averageMapByEvent.get(evid).get(freqBand).addValue(refAmp);
+                            final double refAmp = spectra.getPathCorrected(row) + siteCorrection.getMean();
+                            averageByEventBand[averageIdx].addValue(refAmp);
                         }
                     }
                 }
@@ -255,23 +269,22 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         }
 
         //3) For all measurements offset by the average site term for each station/frequency band to get the final site terms
-        for (final Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            final Event evid = evidFreqMap.getKey();
-            if ((refMws != null && refMws.containsKey(evid.getEventId())) || (valMws == null || valMws.isEmpty() || !valMws.containsKey(evid.getEventId()))) {
-                for (final Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                    final FrequencyBand freqBand = freqStaMap.getKey();
-                    if (averageMapByEvent.containsKey(evid) && averageMapByEvent.get(evid).containsKey(freqBand)) {
-                        for (final Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                            final double amp = staMwEntry.getValue().getPathCorrected();
-                            if (!staFreqBandSiteCorrectionMapAverage.containsKey(staMwEntry.getKey())) {
-                                staFreqBandSiteCorrectionMapAverage.put(staMwEntry.getKey(), new HashMap<FrequencyBand, SummaryStatistics>());
-                            }
-                            if (!staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                                staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).put(freqBand, new SummaryStatistics());
+        for (int e = 0; e < spectra.getEventCount(); e++) {
+            final String evid = spectra.getEvent(e).getEventId();
+            if ((refMws != null && refMws.containsKey(evid)) || (valMws == null || valMws.isEmpty() || !valMws.containsKey(evid))) {
+                for (int i = spectra.getEventGroupStart(e); i < spectra.getEventGroupEnd(e); i++) {
+                    final int group = eventGroups[i];
+                    final int band = spectra.getGroupBand(group);
+                    final SummaryStatistics eventAverage = averageByEventBand[e * bandCount + band];
+                    if (eventAverage != null) {
+                        final double refAmp = eventAverage.getMean();
+                        for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                            final int siteIdx = spectra.getStationIndex(row) * bandCount + band;
+                            if (siteCorrectionAverage[siteIdx] == null) {
+                                siteCorrectionAverage[siteIdx] = new SummaryStatistics();
                             }
-                            final double refAmp = averageMapByEvent.get(evid).get(freqBand).getMean();
-                            final double ampDiff = refAmp - amp;
-                            staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).get(freqBand).addValue(ampDiff);
+                            final double ampDiff = refAmp - spectra.getPathCorrected(row);
+                            siteCorrectionAverage[siteIdx].addValue(ampDiff);
                         }
                     }
                 }
@@ -279,33 +292,33 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         }
 
         //4) Re-average the events using the new site corrections
-        averageMapByEvent.clear();
+        averageByEventBand = new SummaryStatistics[spectra.getEventCount() * bandCount];
 
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
+        for (int e = 0; e < spectra.getEventCount(); e++) {
+            Event evid = spectra.getEvent(e);
             Set<String> stations = new HashSet<>();
             Double totalFreqsMeasured = 0.0;
 
-            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                FrequencyBand freqBand = freqStaMap.getKey();
+            for (int i = spectra.getEventGroupStart(e); i < spectra.getEventGroupEnd(e); i++) {
+                final int group = eventGroups[i];
+                final int band = spectra.getGroupBand(group);
+                final int averageIdx = e * bandCount + band;
                 boolean freqWasMeasured = false;
 
-                for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                    if (staFreqBandSiteCorrectionMapAverage.containsKey(staMwEntry.getKey()) && staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                        final double amp = staMwEntry.getValue().getPathCorrected();
-                        if (!averageMapByEvent.containsKey(evid)) {
-                            averageMapByEvent.put(evid, new HashMap<FrequencyBand, SummaryStatistics>());
+                for (int row = spectra.getGroupStart(group); row < spectra.getGroupEnd(group); row++) {
+                    final SummaryStatistics siteCorrection = siteCorrectionAverage[spectra.getStationIndex(row) * bandCount + band];
+                    if (siteCorrection != null) {
+                        final double amp = spectra.getPathCorrected(row);
+                        if (averageByEventBand[averageIdx] == null) {
+                            averageByEventBand[averageIdx] = new SummaryStatistics();
                         }
-                        if (!averageMapByEvent.get(evid).containsKey(freqBand)) {
-                            averageMapByEvent.get(evid).put(freqBand, new SummaryStatistics());
-                        }
-                        final double refAmp = amp + staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).get(freqBand).getMean();
-                        averageMapByEvent.get(evid).get(freqBand).addValue(refAmp);
+                        final double refAmp = amp + siteCorrection.getMean();
+                        averageByEventBand[averageIdx].addValue(refAmp);
 
                         if (amp != 0.0) {
                             freqWasMeasured = true;
 
-                            Station sta = staMwEntry.getValue().getWaveform().getStream().getStation();
+                            Station sta = spectra.getStation(spectra.getStationIndex(row));
                             stations.add(sta.getNetworkName() + sta.getStationName());
                         }
                     }
@@ -322,24 +335,27 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
             } else {
                 bandCoverage.put(evid.getEventId(), 0.0);
             }
-            weightFunctionMapByEvent.putIfAbsent(evid, createDataWeightMapFunction(averageMapByEvent.get(evid)));
+            Map<FrequencyBand, SummaryStatistics> eventAverages = eventBandStatistics(spectra, averageByEventBand, e);
+            if (eventAverages != null) {
+                averageMapByEvent.put(evid, eventAverages);
+            }
+            weightFunctionMapByEvent.putIfAbsent(evid, createDataWeightMapFunction(eventAverages));
         }
 
         // 5) Convert average map into a set of Site correction objects
-        for (final Entry<Station, Map<FrequencyBand, SummaryStatistics>> freqBandCorrectionMap : staFreqBandSiteCorrectionMapAverage.entrySet()) {
-            final Station station = freqBandCorrectionMap.getKey();
-            final Set<Entry<FrequencyBand, SummaryStatistics>> bandEntries = freqBandCorrectionMap.getValue().entrySet();
-
-            for (final Entry<FrequencyBand, SummaryStatistics> freqBandEntry : bandEntries) {
-                final SiteFrequencyBandParameters siteParam = new SiteFrequencyBandParameters();
-                siteParam.setStation(station);
-                siteParam.setHighFrequency(freqBandEntry.getKey().getHighFrequency());
-                siteParam.setLowFrequency(freqBandEntry.getKey().getLowFrequency());
-                siteParam.setSiteTerm(freqBandEntry.getValue().getMean());
-                if (!siteCorrections.containsKey(freqBandEntry.getKey())) {
-                    siteCorrections.put(freqBandEntry.getKey(), new HashMap<>());
+        for (int s = 0; s < spectra.getStationCount(); s++) {
+            final Station station = spectra.getStation(s);
+            for (int band = 0; band < bandCount; band++) {
+                final SummaryStatistics siteCorrection = siteCorrectionAverage[s * bandCount + band];
+                if (siteCorrection != null) {
+                    final FrequencyBand freqBand = spectra.getBand(band);
+                    final SiteFrequencyBandParameters siteParam = new SiteFrequencyBandParameters();
+                    siteParam.setStation(station);
+                    siteParam.setHighFrequency(freqBand.getHighFrequency());
+                    siteParam.setLowFrequency(freqBand.getLowFrequency());
+                    siteParam.setSiteTerm(siteCorrection.getMean());
+                    siteCorrections.computeIfAbsent(freqBand, k -> new HashMap<>()).put(station, siteParam);
                 }
-                siteCorrections.get(freqBandEntry.getKey()).put(station, siteParam);
             }
         }
         overwriteSiteParams(siteCorrections);
@@ -352,6 +368,20 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         return siteCorrections;
     }
 
+    private static Map<FrequencyBand, SummaryStatistics> eventBandStatistics(final SpectraMeasurementTable spectra, final SummaryStatistics[] byEventBand, final int event) {
+        Map<FrequencyBand, SummaryStatistics> stats = null;
+        final int bandCount = spectra.getBandCount();
+        for (int band = 0; band < bandCount; band++) {
+            if (byEventBand[event * bandCount + band] != null) {
+                if (stats == null) {
+                    stats = new HashMap<>();
+                }
+                stats.put(spectra.getBand(band), byEventBand[event * bandCount + band]);
+            }
+        }
+        return stats;
+    }
+
     private void overwriteMeasuredMws(final List<MeasuredMwParameters> measuredMws) {
         measuredMwsService.deleteAll();
         measuredMwsService.save(measuredMws);
@@ -399,32 +429,6 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         };
     }
 
-    public static Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> mapToEventAndStation(final Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand) {
-        final Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> data = new HashMap<>();
-        if (dataByFreqBand != null) {
-            for (final Entry<FrequencyBand, List<SpectraMeasurement>> entries : dataByFreqBand.entrySet()) {
-                for (final SpectraMeasurement entry : entries.getValue()) {
-                    if (WaveformUtils.isValidWaveform(entry.getWaveform())) {
-                        final Event event = entry.getWaveform().getEvent();
-                        final Station station = entry.getWaveform().getStream().getStation();
-                        if (!data.containsKey(event)) {
-                            data.put(event, new HashMap<>());
-                        }
-                        final Map<FrequencyBand, Map<Station, SpectraMeasurement>> bandMap = data.get(event);
-                        if (!bandMap.containsKey(entries.getKey())) {
-                            bandMap.put(entries.getKey(), new HashMap<>());
-                        }
-                        final Map<Station, SpectraMeasurement> stationMap = bandMap.get(entries.getKey());
-                        stationMap.put(station, entry);
-                    } else {
-                        log.debug("No valid waveform for {}", entry);
-                    }
-                }
-            }
-        }
-        return data;
-    }
-
     public MdacCalculatorService getMdac() {
         return mdac;
     }
@@ -25,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.calibration.repository.SiteFrequencyBandParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
 
 @Service
@@ -34,10 +35,12 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
     private static final Logger log = LoggerFactory.getLogger(SiteFrequencyBandParametersServiceImpl.class);
 
     private SiteFrequencyBandParametersRepository siteFrequencyBandParametersRepository;
+    private CalibrationSnapshotService snapshotService;
 
     @Autowired
-    public SiteFrequencyBandParametersServiceImpl(SiteFrequencyBandParametersRepository siteFrequencyBandParametersRepository) {
+    public SiteFrequencyBandParametersServiceImpl(SiteFrequencyBandParametersRepository siteFrequencyBandParametersRepository, CalibrationSnapshotService snapshotService) {
         setSiteFrequencyBandParametersRepository(siteFrequencyBandParametersRepository);
+        this.snapshotService = snapshotService;
     }
 
     public SiteFrequencyBandParametersRepository getSiteFrequencyBandParametersRepository() {
@@ -52,6 +55,7 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
     @Transactional
     public void delete(SiteFrequencyBandParameters siteFrequencyBandParameters) {
         siteFrequencyBandParametersRepository.delete(siteFrequencyBandParameters);
+        snapshotService.invalidate();
     }
 
     @Override
@@ -70,6 +74,7 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
         SiteFrequencyBandParameters entry;
         if (entity.getId() != null) {
             entry = siteFrequencyBandParametersRepository.save(entity);
+            snapshotService.invalidate();
         } else {
             entry = update(entity);
         }
@@ -82,6 +87,7 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
         SiteFrequencyBandParameters attachedEntry = attachIfAvailableInRepository(entry);
         if (attachedEntry != null) {
             attachedEntry = siteFrequencyBandParametersRepository.saveAndFlush(attachedEntry);
+            snapshotService.invalidate();
         }
         return attachedEntry;
     }
@@ -130,6 +136,7 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
     public void delete(Iterable<Long> ids) {
         List<SiteFrequencyBandParameters> toDelete = siteFrequencyBandParametersRepository.findAllById(ids);
         siteFrequencyBandParametersRepository.deleteAllInBatch(toDelete);
+        snapshotService.invalidate();
     }
 
     @Override
@@ -169,6 +176,7 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
     @Override
     public void deleteAll() {
         siteFrequencyBandParametersRepository.deleteAllInBatch();
+        snapshotService.invalidate();
     }
 
     public Class<Long> getIdType() {
@@ -110,18 +110,17 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
     @Override
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig) {
-        List<SpectraMeasurement> measurements = spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig);
-        if (!measurements.isEmpty()) {
-            spectraRepo.deleteAllInBatch();
-            measurements = spectraRepo.saveAll(measurements);
-        }
-        return measurements;
+        return replaceAll(spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig));
     }
 
     @Override
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap) {
-        List<SpectraMeasurement> measurements = spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap);
+        return replaceAll(spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap));
+    }
+
+    @Override
+    public List<SpectraMeasurement> replaceAll(List<SpectraMeasurement> measurements) {
         if (!measurements.isEmpty()) {
             spectraRepo.deleteAllInBatch();
             measurements = spectraRepo.saveAll(measurements);
@@ -25,8 +25,9 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -45,6 +46,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSnapshot;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
@@ -59,12 +61,9 @@ import gov.llnl.gnem.apps.coda.calibration.repository.SpectraRatioJointInversion
 import gov.llnl.gnem.apps.coda.calibration.repository.SpectraRatioPairDetailsRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.SpectraRatioPairInversionSampleRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.AutopickingService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.PeakVelocityMeasurementService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ShapeCalibrationService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
@@ -75,6 +74,7 @@ import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalcul
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraRatioInversionCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
@@ -125,25 +125,26 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
     private final SpectraCalculator spectraCalc;
     private final SyntheticCodaGenerationService syntheticGenerationService;
     private final ConfigurationService configService;
-    private final MeasuredMwsService fitMwService;
-    private final ReferenceMwParametersService refMwService;
     private final AutopickingService picker;
 
     private final MdacCalculatorService mdacService;
-    private final MdacParametersFiService mdacFiService;
-    private final MdacParametersPsService mdacPsService;
+    private final CalibrationSnapshotService snapshotService;
 
     private static final AtomicLong atomicLong = new AtomicLong(0l);
 
     private final ExecutorService measureService;
 
+    private final ExecutorService ratioInversionService;
+
+    private Map<Long, Future<?>> runningJobs = new ConcurrentHashMap<>(2);
+
     @Autowired
     public SpectraRatioServiceImpl(SpectraRatioPairDetailsRepository spectraRatioRepository, SpectraRatioPairInversionSampleRepository spectraRatioPairInversionSampleRepository,
             SpectraRatioJointInversionSampleRepository spectraRatioJontInversionSampleRepository, NotificationService notificationService, WaveformService waveformService,
             PeakVelocityMeasurementService peakVelocityMeasurementsService, SharedFrequencyBandParametersService sharedParametersService, SiteFrequencyBandParametersService siteParamsService,
             ShapeCalibrationService shapeCalibrationService, SpectraCalculator spectraCalc, SyntheticCodaGenerationService syntheticGenerationService, ConfigurationService configService,
-            AutopickingService picker, @Qualifier("MeasurementExecutorService") ExecutorService measureService, final MdacCalculatorService mdacService, final MdacParametersFiService mdacFiService,
-            final MdacParametersPsService mdacPsService, MeasuredMwsService fitMwService, ReferenceMwParametersService refMwService) {
+            AutopickingService picker, @Qualifier("MeasurementExecutorService") ExecutorService measureService, final MdacCalculatorService mdacService,
+            final CalibrationSnapshotService snapshotService, @Qualifier("RatioInversionExecutorService") ExecutorService ratioInversionService) {
         this.spectraRatioPairDetailsRepository = spectraRatioRepository;
         this.spectraRatioPairInversionSampleRepository = spectraRatioPairInversionSampleRepository;
         this.spectraRatioJontInversionSampleRepository = spectraRatioJontInversionSampleRepository;
@@ -159,10 +160,8 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
         this.picker = picker;
         this.measureService = measureService;
         this.mdacService = mdacService;
-        this.mdacFiService = mdacFiService;
-        this.mdacPsService = mdacPsService;
-        this.fitMwService = fitMwService;
-        this.refMwService = refMwService;
+        this.snapshotService = snapshotService;
+        this.ratioInversionService = ratioInversionService;
     }
 
     @Transactional
@@ -293,73 +292,30 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
             List<SpectraRatioPairDetails> userEdited = spectraRatioPairDetailsRepository.findByUserEditedTrue();
             Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> userEditedRatios = mapRatioDataToEvents(userEdited);
 
-            // Loop through Events
-            for (Entry<Event, Map<Station, Map<FrequencyBand, SpectraMeasurement>>> eventEntry : spectraSmallEventData.entrySet()) {
-                Event curEvent = eventEntry.getKey();
-
-                // Loop through Stations
-                for (Entry<Station, Map<FrequencyBand, SpectraMeasurement>> stationEntry : eventEntry.getValue().entrySet()) {
-                    Station curStation = stationEntry.getKey();
-
-                    Map<FrequencyBand, SpectraMeasurement> dataSortedByFreq = new TreeMap<FrequencyBand, SpectraMeasurement>(stationEntry.getValue());
-
-                    // Loop through frequencies
-                    for (FrequencyBand freqBand : dataSortedByFreq.keySet()) {
-                        if (spectraSmallEventData.containsKey(curEvent)) {
-                            Map<FrequencyBand, SpectraMeasurement> smallDataAtStation = spectraSmallEventData.get(curEvent).get(curStation);
-
-                            // Check the other event set to see if it has the same station available
-                            for (Entry<Event, Map<Station, Map<FrequencyBand, SpectraMeasurement>>> secondEventEntry : spectraLargeEventData.entrySet()) {
-
-                                // Don't expect to see the same event in both lists but need to rule it out
-                                if (!secondEventEntry.getKey().getEventId().equalsIgnoreCase(curEvent.getEventId())) {
-
-                                    Map<FrequencyBand, SpectraMeasurement> largeDataAtStation = secondEventEntry.getValue().get(curStation);
-                                    // Make sure both events have data from the same station
-
-                                    if (smallDataAtStation != null && largeDataAtStation != null) {
-                                        SpectraMeasurement smallDataAtFreq = smallDataAtStation.get(freqBand);
-                                        SpectraMeasurement largeDataAtFreq = largeDataAtStation.get(freqBand);
-                                        if (smallDataAtFreq != null && largeDataAtFreq != null) {
-                                            SpectraMeasurement smallSpectra = smallDataAtFreq;
-                                            SpectraMeasurement largeSpectra = largeDataAtFreq;
-
-                                            EventPair eventPair = new EventPair();
-                                            eventPair.setX(curEvent);
-                                            eventPair.setY(largeDataAtFreq.getWaveform().getEvent());
-
-                                            SpectraRatioPairDetails userRatio = null;
-                                            if (userEditedRatios != null && userEditedRatios.containsKey(eventPair) && userEditedRatios.get(eventPair).containsKey(curStation)) {
-                                                userRatio = userEditedRatios.get(eventPair).get(curStation).get(freqBand);
-                                            }
-
-                                            if (!ratioData.containsKey(eventPair)) {
-                                                ratioData.put(eventPair, new HashMap<>());
-                                            }
-                                            Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>> ratiosForPair = ratioData.get(eventPair);
-
-                                            if (!ratiosForPair.containsKey(curStation)) {
-                                                ratiosForPair.put(curStation, new HashMap<>());
-                                            }
-
-                                            if (userRatio == null) {
-                                                Result<SpectraRatioPairDetails> ratioDetails = calcRatioFunc.apply(smallSpectra, largeSpectra);
-                                                if (ratioDetails.isSuccess()) {
-                                                    ratioDataList.add(ratioDetails.getResultPayload().get());
-                                                    ratiosForPair.get(curStation).put(freqBand, ratioDetails.getResultPayload().get());
-                                                    ratioData.put(eventPair, ratiosForPair);
-                                                } else {
-                                                    log.info("Unable to ratio spectra {}", ratioDetails.getErrors());
-                                                }
-                                            } else {
-                                                ratiosForPair.get(curStation).put(freqBand, userRatio);
-                                                ratioData.put(eventPair, ratiosForPair);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
+            Map<Pair<Station, FrequencyBand>, List<SpectraMeasurement>> smallByStationBand = indexByStationAndBand(spectraSmallEventData);
+            Map<Pair<Station, FrequencyBand>, List<SpectraMeasurement>> largeByStationBand = indexByStationAndBand(spectraLargeEventData);
+
+            // Every waveform belongs to exactly one station and band so pairing a whole key in one task
+            // keeps any in-place resampling of a waveform shared between pairs on a single thread
+            List<RatioPairMatch> matches = smallByStationBand.entrySet()
+                                                             .parallelStream()
+                                                             .filter(smallEntry -> largeByStationBand.containsKey(smallEntry.getKey()))
+                                                             .flatMap(
+                                                                     smallEntry -> pairAtStationAndBand(
+                                                                             smallEntry.getKey(),
+                                                                                 smallEntry.getValue(),
+                                                                                 largeByStationBand.get(smallEntry.getKey()),
+                                                                                 userEditedRatios,
+                                                                                 calcRatioFunc).stream())
+                                                             .collect(Collectors.toList());
+
+            for (RatioPairMatch match : matches) {
+                Map<FrequencyBand, SpectraRatioPairDetails> ratiosAtStation = ratioData.computeIfAbsent(match.eventPair, k -> new HashMap<>())
+                                                                                       .computeIfAbsent(match.stationBand.getX(), k -> new HashMap<>());
+                if (match.ratio != null) {
+                    ratiosAtStation.put(match.stationBand.getY(), match.ratio);
+                    if (!match.userEdited) {
+                        ratioDataList.add(match.ratio);
                     }
                 }
             }
@@ -397,17 +353,23 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
     }
 
     private Map<EventPair, SpectraRatioPairInversionResult> invertEventRatioPairs(Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData) {
-        final MdacParametersFI mdacFiEntry = new MdacParametersFI(mdacFiService.findFirst());
-        final MdacParametersPS psRows = mdacPsService.findMatchingPhase(PICK_TYPES.LG.getPhase());
-        SpectraRatioInversionCalculator inversion = new SpectraRatioInversionCalculator(mdacService, mdacFiEntry, psRows, fitMwService, refMwService, momentErrorRange);
-        Map<EventPair, SpectraRatioPairInversionResult> inversionResults = inversion.cmaesRegressionPerPair(ratioData);
-        return inversionResults;
+        final CalibrationSnapshot snapshot = snapshotService.getSnapshot();
+        final MdacParametersFI mdacFiEntry = new MdacParametersFI(snapshot.getMdacFi());
+        final MdacParametersPS psRows = snapshot.getMdacPs(PICK_TYPES.LG.getPhase());
+        SpectraRatioInversionCalculator inversion = new SpectraRatioInversionCalculator(mdacService, mdacFiEntry, psRows, snapshot, momentErrorRange);
+        try {
+            return inversion.cmaesRegressionPerPair(ratioData, ratioInversionService);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Spectra ratio inversion cancelled");
+        }
     }
 
     private Map<EventPair, SpectraRatioPairInversionResultJoint> invertEventRatios(Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData) {
-        final MdacParametersFI mdacFiEntry = new MdacParametersFI(mdacFiService.findFirst());
-        final MdacParametersPS psRows = mdacPsService.findMatchingPhase(PICK_TYPES.LG.getPhase());
-        SpectraRatioInversionCalculator inversion = new SpectraRatioInversionCalculator(mdacService, mdacFiEntry, psRows, fitMwService, refMwService, momentErrorRange);
+        final CalibrationSnapshot snapshot = snapshotService.getSnapshot();
+        final MdacParametersFI mdacFiEntry = new MdacParametersFI(snapshot.getMdacFi());
+        final MdacParametersPS psRows = snapshot.getMdacPs(PICK_TYPES.LG.getPhase());
+        SpectraRatioInversionCalculator inversion = new SpectraRatioInversionCalculator(mdacService, mdacFiEntry, psRows, snapshot, momentErrorRange);
         Map<EventPair, SpectraRatioPairInversionResultJoint> inversionResults = inversion.cmaesRegressionJoint(ratioData);
         return inversionResults;
     }
@@ -522,6 +484,70 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
         return spectraDataMap;
     }
 
+    private Map<Pair<Station, FrequencyBand>, List<SpectraMeasurement>> indexByStationAndBand(Map<Event, Map<Station, Map<FrequencyBand, SpectraMeasurement>>> spectraData) {
+        Map<Pair<Station, FrequencyBand>, List<SpectraMeasurement>> index = new HashMap<>();
+        for (Map<Station, Map<FrequencyBand, SpectraMeasurement>> stations : spectraData.values()) {
+            for (Entry<Station, Map<FrequencyBand, SpectraMeasurement>> stationEntry : stations.entrySet()) {
+                for (Entry<FrequencyBand, SpectraMeasurement> bandEntry : stationEntry.getValue().entrySet()) {
+                    index.computeIfAbsent(new Pair<>(stationEntry.getKey(), bandEntry.getKey()), k -> new ArrayList<>()).add(bandEntry.getValue());
+                }
+            }
+        }
+        return index;
+    }
+
+    private List<RatioPairMatch> pairAtStationAndBand(Pair<Station, FrequencyBand> stationBand, List<SpectraMeasurement> smallSpectra, List<SpectraMeasurement> largeSpectra,
+            Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> userEditedRatios, BiFunction<SpectraMeasurement, SpectraMeasurement, Result<SpectraRatioPairDetails>> calcRatioFunc) {
+        List<RatioPairMatch> matches = new ArrayList<>(smallSpectra.size() * largeSpectra.size());
+        for (SpectraMeasurement small : smallSpectra) {
+            Event smallEvent = small.getWaveform().getEvent();
+            for (SpectraMeasurement large : largeSpectra) {
+                Event largeEvent = large.getWaveform().getEvent();
+                // Don't expect to see the same event in both lists but need to rule it out
+                if (largeEvent.getEventId().equalsIgnoreCase(smallEvent.getEventId())) {
+                    continue;
+                }
+
+                EventPair eventPair = new EventPair();
+                eventPair.setX(smallEvent);
+                eventPair.setY(largeEvent);
+
+                SpectraRatioPairDetails userRatio = null;
+                Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>> userRatiosForPair = userEditedRatios.get(eventPair);
+                if (userRatiosForPair != null && userRatiosForPair.containsKey(stationBand.getX())) {
+                    userRatio = userRatiosForPair.get(stationBand.getX()).get(stationBand.getY());
+                }
+
+                if (userRatio != null) {
+                    matches.add(new RatioPairMatch(eventPair, stationBand, userRatio, true));
+                } else {
+                    Result<SpectraRatioPairDetails> ratioDetails = calcRatioFunc.apply(small, large);
+                    if (ratioDetails.isSuccess()) {
+                        matches.add(new RatioPairMatch(eventPair, stationBand, ratioDetails.getResultPayload().get(), false));
+                    } else {
+                        log.info("Unable to ratio spectra {}", ratioDetails.getErrors());
+                        matches.add(new RatioPairMatch(eventPair, stationBand, null, false));
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static class RatioPairMatch {
+        private final EventPair eventPair;
+        private final Pair<Station, FrequencyBand> stationBand;
+        private final SpectraRatioPairDetails ratio;
+        private final boolean userEdited;
+
+        public RatioPairMatch(EventPair eventPair, Pair<Station, FrequencyBand> stationBand, SpectraRatioPairDetails ratio, boolean userEdited) {
+            this.eventPair = eventPair;
+            this.stationBand = stationBand;
+            this.ratio = ratio;
+            this.userEdited = userEdited;
+        }
+    }
+
     private Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> mapRatioDataToEvents(List<SpectraRatioPairDetails> ratios) {
         Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioEventMap = new HashMap<>();
         if (ratios != null) {
@@ -684,12 +710,21 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
                         return new Result<>(false, null);
                     }
                     return new Result<>(true, ratioByStationReport);
+                } catch (CancellationException cancelled) {
+                    notificationService.post(new RatioStatusEvent(id, Status.COMPLETE).setError(new Result<>(true, cancelled)));
+                    return new Result<>(false, Collections.singletonList(cancelled), new SpectraRatiosReport());
                 } catch (Exception ex) {
                     log.error(ex.getMessage(), ex);
                     notificationService.post(new RatioStatusEvent(id, RatioStatusEvent.Status.ERROR));
                     throw ex;
+                } finally {
+                    runningJobs.remove(id);
                 }
             });
+            runningJobs.put(id, future);
+            if (future.isDone()) {
+                runningJobs.remove(id);
+            }
             notificationService.post(new RatioStatusEvent(id, RatioStatusEvent.Status.PROCESSING));
         } catch (RejectedExecutionException e) {
             notificationService.post(new RatioStatusEvent(id, RatioStatusEvent.Status.ERROR));
@@ -698,6 +733,17 @@ public class SpectraRatioServiceImpl implements SpectraRatioPairDetailsService {
         return future;
     }
 
+    @Override
+    public boolean cancelRatioCalculation(Long id) {
+        boolean cancelled = false;
+        Future<?> task = runningJobs.get(id);
+        if (task != null) {
+            task.cancel(true);
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
     @Override
     public List<SpectraRatioPairDetailsMetadata> findAllMetadataOnly() {
         return spectraRatioPairDetailsRepository.findAllMetdataOnly();
@@ -77,7 +77,7 @@ public class SyntheticCodaGenerationServiceImpl implements SyntheticCodaGenerati
 
             TimeSeries seis = converter.convert(sourceWaveform);
 
-            double distance = configService.getDistanceFunc().apply(configService.getEventCoord(event), configService.getStationCoord(station));
+            double distance = configService.getDistance(event, station);
 
             double br = syntheticCodaModel.getDistanceFunction(model.getBeta0(), model.getBeta1(), model.getBeta2(), distance);
             double vr = syntheticCodaModel.getDistanceFunction(model.getVelocity0(), model.getVelocity1(), model.getVelocity2(), distance);
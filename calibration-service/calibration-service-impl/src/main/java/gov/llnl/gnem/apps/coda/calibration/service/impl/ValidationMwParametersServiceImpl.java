@@ -24,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ValidationMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.repository.ValidationMwParametersRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ValidationMwParametersService;
 
 @Service
@@ -31,10 +32,12 @@ import gov.llnl.gnem.apps.coda.calibration.service.api.ValidationMwParametersSer
 public class ValidationMwParametersServiceImpl implements ValidationMwParametersService {
 
     private ValidationMwParametersRepository validationMwParametersRepository;
+    private CalibrationSnapshotService snapshotService;
 
     @Autowired
-    public ValidationMwParametersServiceImpl(ValidationMwParametersRepository validationMwParametersRepository) {
+    public ValidationMwParametersServiceImpl(ValidationMwParametersRepository validationMwParametersRepository, CalibrationSnapshotService snapshotService) {
         this.validationMwParametersRepository = validationMwParametersRepository;
+        this.snapshotService = snapshotService;
     }
 
     public ValidationMwParametersRepository getValidationMwParametersRepository() {
@@ -49,6 +52,7 @@ public class ValidationMwParametersServiceImpl implements ValidationMwParameters
     @Transactional
     public void delete(ValidationMwParameters validationMwParameters) {
         validationMwParametersRepository.delete(validationMwParameters);
+        snapshotService.invalidate();
     }
 
     @Override
@@ -67,6 +71,7 @@ public class ValidationMwParametersServiceImpl implements ValidationMwParameters
         List<ValidationMwParameters> toDelete = validationMwParametersRepository.findAllById(ids);
         validationMwParametersRepository.deleteAllInBatch(toDelete);
         validationMwParametersRepository.flush();
+        snapshotService.invalidate();
     }
 
     @Override
@@ -75,6 +80,7 @@ public class ValidationMwParametersServiceImpl implements ValidationMwParameters
         List<ValidationMwParameters> toDelete = validationMwParametersRepository.findAllByEventIds(eventIds);
         validationMwParametersRepository.deleteAllInBatch(toDelete);
         validationMwParametersRepository.flush();
+        snapshotService.invalidate();
     }
 
     @Override
@@ -86,6 +92,7 @@ public class ValidationMwParametersServiceImpl implements ValidationMwParameters
         } else {
             persistentRef.merge(entity);
         }
+        snapshotService.invalidate();
         return validationMwParametersRepository.save(persistentRef);
     }
 
@@ -48,6 +48,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 import llnl.gnem.core.util.SeriesMath;
 import llnl.gnem.core.util.TimeT;
@@ -65,6 +66,16 @@ public class CalibrationCurveFitter {
 
     private Logger log = LoggerFactory.getLogger(CalibrationCurveFitter.class);
 
+    private final WaveformToTimeSeriesConverter converter;
+
+    public CalibrationCurveFitter() {
+        this(new WaveformToTimeSeriesConverter());
+    }
+
+    public CalibrationCurveFitter(WaveformToTimeSeriesConverter converter) {
+        this.converter = converter;
+    }
+
     public EnvelopeFit fitCurveLengthByDivergenceFromSynthetic(final ShapeMeasurement measurement, final SyntheticCoda synthetic, final double endPickTime, final ShapeFitterConstraints constraints,
             final double minLengthTime) {
 
@@ -74,9 +85,7 @@ public class CalibrationCurveFitter {
         double maxTime = endPickTime - originTimeOffset;
         final double sampleRate = synthetic.getSampleRate();
 
-        TimeSeries envSeis = new TimeSeries(WaveformUtils.doublesToFloats(synthetic.getSourceWaveform().getSegment()),
-                                            synthetic.getSourceWaveform().getSampleRate(),
-                                            new TimeT(synthetic.getSourceWaveform().getBeginTime()));
+        TimeSeries envSeis = converter.convert(synthetic.getSourceWaveform());
         envSeis.interpolate(sampleRate);
 
         TimeSeries synthSeis = new TimeSeries(WaveformUtils.doublesToFloats(synthetic.getSegment()), synthetic.getSampleRate(), new TimeT(synthetic.getBeginTime()));
@@ -179,32 +188,8 @@ public class CalibrationCurveFitter {
         double startIntercept = regression.getIntercept();
         double startBeta = regression.getSlope();
 
-        MultivariateFunction prediction = point -> {
-            double intercept = point[0];
-            double gamma = point[1];
-            double beta = point[2];
-            double sum = 0.0;
-            int length;
-            if (shouldAutoPick) {
-                length = (int) (point[3] / sampleRate);
-            } else {
-                length = segment.length;
-            }
-
-            for (int j = 0; j < length; j++) {
-                double t = (j / sampleRate) + 1.0;
-                double actual = segment[j];
-                double predicted = intercept - (gamma * Math.log10(t)) + (beta * t);
-                sum = lossFunction(sum, predicted, actual);
-            }
-            sum = sum / length;
-            return sum - ((sum * lengthWeight) * ((double) length / segment.length));
-        };
-
-        ConvergenceChecker<PointValuePair> convergenceChecker = new SimplePointChecker<>(relativeThreshold, -1.0, 100000);
-
         if (Double.isNaN(startIntercept)) {
-            startIntercept = ThreadLocalRandom.current().nextDouble(minInt, maxInt);
+            startIntercept = (minInt + maxInt) / 2.0;
             startBeta = minBeta;
         } else if (startBeta > maxBeta) {
             startBeta = maxBeta;
@@ -212,23 +197,29 @@ public class CalibrationCurveFitter {
             startBeta = minBeta;
         }
 
-        PointValuePair bestResult = optimizeCMAES(
-                prediction,
-                    new InitialGuess(new double[] { startIntercept, minGamma, startBeta, maxTime }),
-                    new CMAESOptimizer.Sigma(new double[] { (maxInt - minInt) / 2.0, (maxGamma - minGamma) / 2.0, (maxBeta - minBeta) / 2.0, (maxTime - minTime) / 2.0 }),
-                    convergenceChecker,
-                    populationSize,
-                    new SimpleBounds(new double[] { -Double.MAX_VALUE, minGamma, minBeta, minTime }, new double[] { Double.MAX_VALUE, maxGamma, maxBeta, maxTime }));
+        double[] curve = new double[CodaShapeOptimizer.PARAMETERS];
+        double value = CodaShapeOptimizer.forCurrentThread()
+                                         .minimize(
+                                                 segment,
+                                                     sampleRate,
+                                                     shouldAutoPick,
+                                                     lengthWeight,
+                                                     huberDel,
+                                                     relativeThreshold,
+                                                     new double[] { startIntercept, minGamma, startBeta, maxTime },
+                                                     new double[] { (maxInt - minInt) / 2.0, (maxGamma - minGamma) / 2.0, (maxBeta - minBeta) / 2.0, shouldAutoPick ? (maxTime - minTime) / 2.0 : 0.0 },
+                                                     new double[] { -Double.MAX_VALUE, minGamma, minBeta, minTime },
+                                                     new double[] { Double.MAX_VALUE, maxGamma, maxBeta, maxTime },
+                                                     curve);
 
-        double[] curve = bestResult.getKey();
         fit.setIntercept(curve[0]);
         fit.setGamma(curve[1]);
         fit.setBeta(curve[2]);
         if (shouldAutoPick) {
             fit.setEndTime(curve[3]);
-            fit.setError(bestResult.getValue() / curve[3]);
+            fit.setError(value / curve[3]);
         } else {
-            fit.setError(bestResult.getValue() / segment.length);
+            fit.setError(value / segment.length);
         }
 
         return fit;
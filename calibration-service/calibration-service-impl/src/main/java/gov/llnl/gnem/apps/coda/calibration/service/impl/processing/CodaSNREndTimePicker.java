@@ -14,8 +14,6 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -76,10 +74,6 @@ public class CodaSNREndTimePicker implements EndTimePicker {
     private Double getSnrEndPick(final float[] waveform, final double sampleRate, int startOffset, final double minLengthSec, final double maxLengthSec, final double minimumSnr, final double noise,
             final int windowSize) {
         int obsWindow = (int) (windowSize * sampleRate);
-        int spikeSamples = (int) ((windowSize / 4.0) * sampleRate);
-        DescriptiveStatistics obs = new DescriptiveStatistics(obsWindow);
-        DescriptiveStatistics spike = new DescriptiveStatistics(spikeSamples);
-        SimpleRegression spikeReg = new SimpleRegression();
         double snrTimePick = BAD_PICK;
 
         int minSamples = (int) (minLengthSec * sampleRate);
@@ -94,11 +88,18 @@ public class CodaSNREndTimePicker implements EndTimePicker {
             log.trace("Snr end picker running with stopIdx {}, minSamples {}, maxSamples {}, waveformLength {}, noiseThreshold {}", stopIdx, minSamples, maxSamples, waveform.length, noiseThreshold);
             if (waveform[startOffset] >= noiseThreshold) {
                 snrTimePick = startOffset / sampleRate;
+                // Running sum over the trailing obsWindow samples, the
+                // waveform itself holds the values that fall out of the window
+                // so each step is one add and one subtract.
+                double obsSum = 0.0;
                 for (int i = startOffset; i < stopIdx; i++) {
-                    obs.addValue(waveform[i]);
-                    spike.addValue(waveform[i]);
-                    if (obs.getN() >= windowSize) {
-                        if (obs.getMean() <= noiseThreshold) {
+                    obsSum += waveform[i];
+                    if (i - startOffset >= obsWindow) {
+                        obsSum -= waveform[i - obsWindow];
+                    }
+                    int obsCount = Math.min(i - startOffset + 1, obsWindow);
+                    if (obsCount >= windowSize) {
+                        if (obsSum / obsCount <= noiseThreshold) {
                             for (int j = i - obsWindow; j < i; j++) {
                                 if (j > 0 && waveform[j] <= noiseThreshold) {
                                     snrTimePick = j / sampleRate;
@@ -113,19 +114,6 @@ public class CodaSNREndTimePicker implements EndTimePicker {
                             snrTimePick = i / sampleRate;
                         }
                     }
-                    if (spike.getN() > spikeSamples) {
-                        double[] spikeVals = spike.getValues();
-                        spikeReg.clear();
-                        for (int k = 0; k < spikeVals.length; k++) {
-                            spikeReg.addData(k, spikeVals[k]);
-                        }
-
-                        double spikeSlope = spikeReg.getSlope();
-                        if (!Double.isNaN(spikeSlope) && spikeSlope > 0.1) {
-                            snrTimePick = (i - spike.getN() - 1) / sampleRate;
-                            break;
-                        }
-                    }
 
                     if (waveform[i] < noiseThreshold) {
                         snrTimePick = i / sampleRate;
@@ -0,0 +1,473 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+/**
+ * CMA-ES (Hansen, "The CMA Evolution Strategy: A Tutorial") specialized for
+ * the coda shape model {@code intercept - gamma * log10(t) + beta * t} with an
+ * optional fitted end time. The update rules, bound handling and stopping
+ * criteria follow the commons-math {@code CMAESOptimizer} but every array is
+ * preallocated in a per-thread workspace, so a fit allocates nothing per
+ * generation or per evaluation. The random stream is reseeded for every fit
+ * which makes results reproducible regardless of the calling thread.
+ */
+final class CodaShapeOptimizer {
+
+    static final int INTERCEPT = 0;
+    static final int GAMMA = 1;
+    static final int BETA = 2;
+    static final int END_TIME = 3;
+    static final int PARAMETERS = 4;
+
+    private static final int LAMBDA = 50;
+    private static final int MU = LAMBDA / 2;
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final int MAX_GENERATIONS = 100000;
+    private static final double TOL_X = 1e-11;
+    private static final double TOL_FUN = 1e-12;
+    private static final double TOL_HIST_FUN = 1e-13;
+    private static final int MAX_JACOBI_SWEEPS = 50;
+
+    private static final ThreadLocal<CodaShapeOptimizer> WORKSPACE = ThreadLocal.withInitial(CodaShapeOptimizer::new);
+
+    private final double[] weights = new double[MU];
+    private final double muEff;
+
+    // Model inputs for the current fit
+    private float[] segment;
+    private boolean fitEndTime;
+    private double sampleRate;
+    private double lengthWeight;
+    private double huberDeltaSquared;
+    private double[] time = new double[0];
+    private double[] logTime = new double[0];
+    private double cachedSampleRate = Double.NaN;
+    private int cachedLength = -1;
+
+    // Coordinates with a non-zero step size; the rest stay at their start value
+    private final int[] active = new int[PARAMETERS];
+    private int n;
+    private final double[] lower = new double[PARAMETERS];
+    private final double[] upper = new double[PARAMETERS];
+    private final double[] candidate = new double[PARAMETERS];
+
+    // Strategy state
+    private final double[] mean = new double[PARAMETERS];
+    private final double[] oldMean = new double[PARAMETERS];
+    private final double[] pc = new double[PARAMETERS];
+    private final double[] ps = new double[PARAMETERS];
+    private final double[] diagD = new double[PARAMETERS];
+    private final double[] work = new double[PARAMETERS];
+    private final double[][] c = new double[PARAMETERS][PARAMETERS];
+    private final double[][] b = new double[PARAMETERS][PARAMETERS];
+    private final double[][] eig = new double[PARAMETERS][PARAMETERS];
+    private final double[][] invSqrtC = new double[PARAMETERS][PARAMETERS];
+    private final double[][] arx = new double[LAMBDA][PARAMETERS];
+    private final double[] raw = new double[LAMBDA];
+    private final double[] fitness = new double[LAMBDA];
+    private final int[] order = new int[LAMBDA];
+    private final double[] bestHistory;
+    private final double[] worstHistory;
+    private final double[] generationBest = new double[PARAMETERS];
+    private final double[] previousBest = new double[PARAMETERS];
+
+    private long rngState;
+    private double spareGaussian;
+    private boolean hasSpareGaussian;
+
+    private CodaShapeOptimizer() {
+        double sum = 0.0;
+        for (int i = 0; i < MU; i++) {
+            weights[i] = Math.log(MU + 0.5) - Math.log(i + 1.0);
+            sum += weights[i];
+        }
+        double sumSq = 0.0;
+        for (int i = 0; i < MU; i++) {
+            weights[i] /= sum;
+            sumSq += weights[i] * weights[i];
+        }
+        muEff = 1.0 / sumSq;
+        int historySize = 10 + (int) (3.0 * 10.0 * PARAMETERS / LAMBDA);
+        bestHistory = new double[historySize];
+        worstHistory = new double[historySize];
+    }
+
+    static CodaShapeOptimizer forCurrentThread() {
+        return WORKSPACE.get();
+    }
+
+    /**
+     * Minimizes the pseudo-Huber misfit between the shape model and the
+     * envelope segment.
+     *
+     * @param start
+     *            initial {intercept, gamma, beta, end time}
+     * @param sigma
+     *            initial step size per parameter, a step of zero holds that
+     *            parameter fixed
+     * @param result
+     *            receives the best parameters found
+     * @return the misfit at {@code result}
+     */
+    double minimize(final float[] segment, final double sampleRate, final boolean fitEndTime, final double lengthWeight, final double huberDelta, final double relativeThreshold,
+            final double[] start, final double[] sigma, final double[] lowerBounds, final double[] upperBounds, final double[] result) {
+        this.segment = segment;
+        this.sampleRate = sampleRate;
+        this.fitEndTime = fitEndTime;
+        this.lengthWeight = lengthWeight;
+        this.huberDeltaSquared = huberDelta * huberDelta;
+        prepareTimes(segment.length, sampleRate);
+        rngState = SEED;
+        hasSpareGaussian = false;
+
+        double stepSize = 0.0;
+        n = 0;
+        for (int i = 0; i < PARAMETERS; i++) {
+            lower[i] = lowerBounds[i];
+            upper[i] = upperBounds[i];
+            candidate[i] = clip(start[i], lower[i], upper[i]);
+            result[i] = candidate[i];
+            if (sigma[i] > 0.0) {
+                active[n++] = i;
+                stepSize = Math.max(stepSize, sigma[i]);
+            }
+        }
+
+        double bestValue = evaluate(candidate);
+        if (Double.isNaN(bestValue)) {
+            bestValue = Double.POSITIVE_INFINITY;
+        }
+        if (n == 0) {
+            return bestValue;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int p = active[i];
+            mean[i] = candidate[p];
+            pc[i] = 0.0;
+            ps[i] = 0.0;
+            diagD[i] = sigma[p] / stepSize;
+            for (int j = 0; j < n; j++) {
+                b[i][j] = i == j ? 1.0 : 0.0;
+                c[i][j] = i == j ? diagD[i] * diagD[i] : 0.0;
+                invSqrtC[i][j] = i == j ? 1.0 / diagD[i] : 0.0;
+            }
+        }
+
+        final double cc = (4.0 + muEff / n) / (n + 4.0 + 2.0 * muEff / n);
+        final double cs = (muEff + 2.0) / (n + muEff + 3.0);
+        final double damps = (1.0 + 2.0 * Math.max(0.0, Math.sqrt((muEff - 1.0) / (n + 1.0)) - 1.0)) * Math.max(0.3, 1.0 - n / (1e-6 + MAX_GENERATIONS)) + cs;
+        final double c1 = 2.0 / ((n + 1.3) * (n + 1.3) + muEff);
+        final double cMu = Math.min(1.0 - c1, 2.0 * (muEff - 2.0 + 1.0 / muEff) / ((n + 2.0) * (n + 2.0) + muEff));
+        final double chiN = Math.sqrt(n) * (1.0 - 1.0 / (4.0 * n) + 1.0 / (21.0 * n * n));
+        final double normPs = Math.sqrt(cs * (2.0 - cs) * muEff);
+        final double normPc = Math.sqrt(cc * (2.0 - cc) * muEff);
+
+        for (int generation = 1; generation <= MAX_GENERATIONS; generation++) {
+            double minRaw = Double.POSITIVE_INFINITY;
+            double maxRaw = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < LAMBDA; k++) {
+                double[] x = arx[k];
+                for (int i = 0; i < n; i++) {
+                    work[i] = diagD[i] * nextGaussian();
+                }
+                double penalty = 0.0;
+                for (int i = 0; i < n; i++) {
+                    double y = 0.0;
+                    for (int j = 0; j < n; j++) {
+                        y += b[i][j] * work[j];
+                    }
+                    x[i] = mean[i] + stepSize * y;
+                    int p = active[i];
+                    candidate[p] = clip(x[i], lower[p], upper[p]);
+                    penalty += Math.abs(x[i] - candidate[p]);
+                }
+                double value = evaluate(candidate);
+                if (Double.isNaN(value)) {
+                    value = Double.POSITIVE_INFINITY;
+                }
+                raw[k] = value;
+                fitness[k] = penalty;
+                if (value < bestValue) {
+                    bestValue = value;
+                    System.arraycopy(candidate, 0, result, 0, PARAMETERS);
+                }
+                if (value != Double.POSITIVE_INFINITY) {
+                    minRaw = Math.min(minRaw, value);
+                    maxRaw = Math.max(maxRaw, value);
+                }
+            }
+            double valueRange = maxRaw > minRaw ? maxRaw - minRaw : 0.0;
+            for (int k = 0; k < LAMBDA; k++) {
+                fitness[k] = raw[k] + fitness[k] * valueRange;
+                order[k] = k;
+            }
+            sortByFitness();
+
+            for (int i = 0; i < n; i++) {
+                oldMean[i] = mean[i];
+                double m = 0.0;
+                for (int r = 0; r < MU; r++) {
+                    m += weights[r] * arx[order[r]][i];
+                }
+                mean[i] = m;
+            }
+
+            // Step-size path in the isotropic coordinate system
+            double psNorm = 0.0;
+            for (int i = 0; i < n; i++) {
+                double z = 0.0;
+                for (int j = 0; j < n; j++) {
+                    z += invSqrtC[i][j] * (mean[j] - oldMean[j]);
+                }
+                work[i] = z;
+            }
+            for (int i = 0; i < n; i++) {
+                ps[i] = (1.0 - cs) * ps[i] + normPs * work[i] / stepSize;
+                psNorm += ps[i] * ps[i];
+            }
+            psNorm = Math.sqrt(psNorm);
+            boolean hsig = psNorm / Math.sqrt(1.0 - Math.pow(1.0 - cs, 2.0 * generation)) / chiN < 1.4 + 2.0 / (n + 1.0);
+            for (int i = 0; i < n; i++) {
+                pc[i] = (1.0 - cc) * pc[i] + (hsig ? normPc * (mean[i] - oldMean[i]) / stepSize : 0.0);
+            }
+
+            double oldFactor = 1.0 - c1 - cMu + (hsig ? 0.0 : c1 * cc * (2.0 - cc));
+            double invSigmaSq = 1.0 / (stepSize * stepSize);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double rankMu = 0.0;
+                    for (int r = 0; r < MU; r++) {
+                        double[] x = arx[order[r]];
+                        rankMu += weights[r] * (x[i] - oldMean[i]) * (x[j] - oldMean[j]);
+                    }
+                    double v = oldFactor * c[i][j] + c1 * pc[i] * pc[j] + cMu * rankMu * invSigmaSq;
+                    c[i][j] = v;
+                    c[j][i] = v;
+                }
+            }
+
+            stepSize *= Math.exp(Math.min(1.0, (cs / damps) * (psNorm / chiN - 1.0)));
+            decompose();
+
+            double generationMin = fitness[order[0]];
+            double generationMax = fitness[order[LAMBDA - 1]];
+            // Flat fitness, widen the search instead of collapsing onto a plateau
+            if (generationMin == fitness[order[(int) (0.1 + LAMBDA / 4.0)]]) {
+                stepSize *= Math.exp(0.2 + cs / damps);
+            }
+
+            int slot = (generation - 1) % bestHistory.length;
+            bestHistory[slot] = generationMin;
+            worstHistory[slot] = generationMax;
+            int filled = Math.min(generation, bestHistory.length);
+            double historyBestMin = Double.POSITIVE_INFINITY;
+            double historyBestMax = Double.NEGATIVE_INFINITY;
+            double historyWorstMax = Double.NEGATIVE_INFINITY;
+            for (int h = 0; h < filled; h++) {
+                historyBestMin = Math.min(historyBestMin, bestHistory[h]);
+                historyBestMax = Math.max(historyBestMax, bestHistory[h]);
+                historyWorstMax = Math.max(historyWorstMax, worstHistory[h]);
+            }
+
+            double[] best = arx[order[0]];
+            boolean converged = generation > 1;
+            for (int i = 0; i < n; i++) {
+                int p = active[i];
+                generationBest[i] = clip(best[i], lower[p], upper[p]);
+                double a = generationBest[i];
+                double prev = previousBest[i];
+                if (Math.abs(a - prev) > relativeThreshold * Math.max(Math.abs(a), Math.abs(prev))) {
+                    converged = false;
+                }
+                previousBest[i] = a;
+            }
+            if (converged) {
+                break;
+            }
+
+            boolean tolX = true;
+            for (int i = 0; i < n; i++) {
+                if (stepSize * Math.max(Math.abs(pc[i]), Math.sqrt(c[i][i])) >= TOL_X) {
+                    tolX = false;
+                    break;
+                }
+            }
+            if (tolX) {
+                break;
+            }
+            if (generation > 2 && historyWorstMax - historyBestMin < TOL_FUN) {
+                break;
+            }
+            if (generation > bestHistory.length && historyBestMax - historyBestMin < TOL_HIST_FUN) {
+                break;
+            }
+        }
+        return bestValue;
+    }
+
+    private double evaluate(final double[] point) {
+        final double intercept = point[INTERCEPT];
+        final double gamma = point[GAMMA];
+        final double beta = point[BETA];
+        final int total = segment.length;
+        int length = total;
+        if (fitEndTime) {
+            length = Math.min(total, (int) (point[END_TIME] / sampleRate));
+        }
+        final double invDeltaSq = 1.0 / huberDeltaSquared;
+        final double[] t = time;
+        final double[] logT = logTime;
+        double sum = 0.0;
+        for (int j = 0; j < length; j++) {
+            double residual = intercept - gamma * logT[j] + beta * t[j] - segment[j];
+            sum += huberDeltaSquared + (Math.sqrt(1.0 + residual * residual * invDeltaSq) - 1.0);
+        }
+        sum = sum / length;
+        return sum - ((sum * lengthWeight) * ((double) length / total));
+    }
+
+    private void prepareTimes(final int length, final double rate) {
+        if (length == cachedLength && Double.compare(rate, cachedSampleRate) == 0) {
+            return;
+        }
+        if (time.length < length) {
+            time = new double[length];
+            logTime = new double[length];
+        }
+        for (int j = 0; j < length; j++) {
+            time[j] = (j / rate) + 1.0;
+            logTime[j] = Math.log10(time[j]);
+        }
+        cachedLength = length;
+        cachedSampleRate = rate;
+    }
+
+    private void sortByFitness() {
+        for (int i = 1; i < LAMBDA; i++) {
+            int idx = order[i];
+            double f = fitness[idx];
+            int j = i - 1;
+            while (j >= 0 && fitness[order[j]] > f) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = idx;
+        }
+    }
+
+    /**
+     * Cyclic Jacobi eigendecomposition of the covariance into {@code b} and
+     * {@code diagD}, followed by rebuilding C^-1/2.
+     */
+    private void decompose() {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                eig[i][j] = c[i][j];
+                b[i][j] = i == j ? 1.0 : 0.0;
+            }
+        }
+        for (int sweep = 0; sweep < MAX_JACOBI_SWEEPS; sweep++) {
+            double off = 0.0;
+            double diag = 0.0;
+            for (int i = 0; i < n; i++) {
+                diag += eig[i][i] * eig[i][i];
+                for (int j = i + 1; j < n; j++) {
+                    off += eig[i][j] * eig[i][j];
+                }
+            }
+            if (off <= 1e-30 * diag) {
+                break;
+            }
+            for (int p = 0; p < n - 1; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    double apq = eig[p][q];
+                    if (apq == 0.0) {
+                        continue;
+                    }
+                    double theta = (eig[q][q] - eig[p][p]) / (2.0 * apq);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+                    if (theta == 0.0) {
+                        t = 1.0;
+                    }
+                    double cos = 1.0 / Math.sqrt(t * t + 1.0);
+                    double sin = t * cos;
+                    for (int k = 0; k < n; k++) {
+                        double akp = eig[k][p];
+                        double akq = eig[k][q];
+                        eig[k][p] = cos * akp - sin * akq;
+                        eig[k][q] = sin * akp + cos * akq;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double apk = eig[p][k];
+                        double aqk = eig[q][k];
+                        eig[p][k] = cos * apk - sin * aqk;
+                        eig[q][k] = sin * apk + cos * aqk;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double bkp = b[k][p];
+                        double bkq = b[k][q];
+                        b[k][p] = cos * bkp - sin * bkq;
+                        b[k][q] = sin * bkp + cos * bkq;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            diagD[i] = Math.sqrt(Math.max(eig[i][i], 1e-300));
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double v = 0.0;
+                for (int k = 0; k < n; k++) {
+                    v += b[i][k] * b[j][k] / diagD[k];
+                }
+                invSqrtC[i][j] = v;
+            }
+        }
+    }
+
+    private static double clip(final double value, final double min, final double max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    private double nextGaussian() {
+        if (hasSpareGaussian) {
+            hasSpareGaussian = false;
+            return spareGaussian;
+        }
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2.0 * nextDouble() - 1.0;
+            v = 2.0 * nextDouble() - 1.0;
+            s = u * u + v * v;
+        } while (s >= 1.0 || s == 0.0);
+        double scale = Math.sqrt(-2.0 * Math.log(s) / s);
+        spareGaussian = v * scale;
+        hasSpareGaussian = true;
+        return u * scale;
+    }
+
+    // SplitMix64, kept inline so the generator state lives in the workspace
+    private double nextDouble() {
+        long z = (rngState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
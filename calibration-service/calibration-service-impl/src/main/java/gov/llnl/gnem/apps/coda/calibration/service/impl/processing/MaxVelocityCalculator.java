@@ -17,18 +17,17 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.google.common.base.Functions;
-
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
@@ -46,16 +45,16 @@ public class MaxVelocityCalculator {
     private static final Logger log = LoggerFactory.getLogger(MaxVelocityCalculator.class);
     private WaveformToTimeSeriesConverter converter;
     private VelocityConfiguration velConf;
-    private SharedFrequencyBandParametersService sfbService;
+    private CalibrationSnapshotService snapshotService;
     private WaveformPickService pickService;
     private ConfigurationService configService;
 
     @Autowired
-    public MaxVelocityCalculator(VelocityConfiguration velConf, WaveformToTimeSeriesConverter converter, SharedFrequencyBandParametersService sfbService, WaveformPickService pickService,
+    public MaxVelocityCalculator(VelocityConfiguration velConf, WaveformToTimeSeriesConverter converter, CalibrationSnapshotService snapshotService, WaveformPickService pickService,
             ConfigurationService configService) {
         this.converter = converter;
         this.velConf = velConf;
-        this.sfbService = sfbService;
+        this.snapshotService = snapshotService;
         this.pickService = pickService;
         this.configService = configService;
     }
@@ -101,15 +100,17 @@ public class MaxVelocityCalculator {
     }
 
     private Map<FrequencyBand, SharedFrequencyBandParameters> getFrequencyBandMap() {
-        return sfbService.findAll().stream().collect(Collectors.toMap(sfb -> new FrequencyBand(sfb.getLowFrequency(), sfb.getHighFrequency()), Functions.identity(), (arg0, arg1) -> arg0));
+        return snapshotService.getSnapshot().getSharedParameters();
     }
 
     private List<PeakVelocityMeasurement> computeMaximumVelocity(List<Waveform> waveforms, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBands, double gv1GtDistanceThreshold,
             double gv2GtDistanceThreshold, double gv1LtDistanceThreshold, double gv2LtDistanceThreshold, double thresholdInKm, boolean savePicks) {
-        return waveforms.stream().parallel().map(rawWaveform -> {
+        final double[] distances = configService.getDistances(waveforms);
+        return IntStream.range(0, waveforms.size()).parallel().mapToObj(i -> {
             if (Thread.currentThread().isInterrupted()) {
                 return null;
             }
+            Waveform rawWaveform = waveforms.get(i);
 
             SharedFrequencyBandParameters band = frequencyBands.get(new FrequencyBand(rawWaveform.getLowFrequency(), rawWaveform.getHighFrequency()));
             double codaOffset = 0d;
@@ -117,9 +118,10 @@ public class MaxVelocityCalculator {
                 codaOffset = band.getCodaStartOffset();
             }
 
-            TimeSeries waveform = converter.convert(rawWaveform);
+            double[] segment = converter.getSegment(rawWaveform);
+            TimeSeries waveform = new TimeSeries(WaveformUtils.doublesToFloats(segment), rawWaveform.getSampleRate(), new TimeT(rawWaveform.getBeginTime()));
 
-            double distance = configService.getDistanceFunc().apply(configService.getEventCoord(rawWaveform.getEvent()), configService.getStationCoord(rawWaveform.getStream().getStation()));
+            double distance = distances[i];
             TimeT origintime = new TimeT(rawWaveform.getEvent().getOriginTime());
             TimeT starttime;
             TimeT endtime;
@@ -149,7 +151,7 @@ public class MaxVelocityCalculator {
 
                 double velocity = distance / peakS[0];
 
-                double noise = WaveformUtils.getNoiseFloor(rawWaveform.getSegment());
+                double noise = WaveformUtils.getNoiseFloor(segment);
 
                 // the envelope noise is in log10 units.
                 double snrPeak = peakS[1] - noise;
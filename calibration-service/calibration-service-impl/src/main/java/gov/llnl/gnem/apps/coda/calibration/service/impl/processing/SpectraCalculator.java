@@ -196,7 +196,7 @@ public class SpectraCalculator {
             final Station station = synth.getSourceWaveform().getStream().getStation();
             final Event event = synth.getSourceWaveform().getEvent();
 
-            final double distance = configService.getDistanceFunc().apply(configService.getEventCoord(event), configService.getStationCoord(station));
+            final double distance = configService.getDistance(event, station);
 
             double vr = params.getVelocity0() - params.getVelocity1() / (params.getVelocity2() + distance);
             if (vr == 0.0) {
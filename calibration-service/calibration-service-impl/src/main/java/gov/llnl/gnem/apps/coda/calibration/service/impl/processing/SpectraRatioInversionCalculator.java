@@ -23,10 +23,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 
 import org.apache.commons.math3.analysis.MultivariateFunction;
@@ -47,13 +52,12 @@ import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSnapshot;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.RatioOptimizerMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
@@ -78,6 +82,11 @@ public class SpectraRatioInversionCalculator {
     private static final int JOINT_CF_A = 3;
     private static final int JOINT_CF_B = 6;
 
+    // Each pool thread keeps one optimizer and reseeds it per event pair so a
+    // given pair always sees the same random sequence regardless of which
+    // thread picks it up or in what order
+    private static final ThreadLocal<PairOptimizer> PAIR_OPTIMIZER = ThreadLocal.withInitial(PairOptimizer::new);
+
     private double momentErrorRange;
     private final double DEFAULT_LOW_MOMENT = 1.0;
     private final double DEFAULT_HIGH_MOMENT = 25.0;
@@ -85,8 +94,7 @@ public class SpectraRatioInversionCalculator {
     private final double lowTestAppStressMpa = 0.001;
     private final double highTestAppStressMpa = 100.0;
 
-    private MeasuredMwsService fitMwService;
-    private ReferenceMwParametersService refMwService;
+    private CalibrationSnapshot snapshot;
     private MdacCalculator mdacCalculator;
 
     enum CORNER_FREQ_NAMES {
@@ -111,206 +119,246 @@ public class SpectraRatioInversionCalculator {
     // Create a map of eventpair to cornerFrequency min/max values for each event A and B in the pair
     final SynchronizedSummaryStatistics jointStats = new SynchronizedSummaryStatistics();
 
-    public SpectraRatioInversionCalculator(MdacCalculatorService mdacService, MdacParametersFI mdacFiEntry, MdacParametersPS psRows, MeasuredMwsService fitMwService,
-            ReferenceMwParametersService refMwService, double momentErrorRange) {
-        this.fitMwService = fitMwService;
-        this.refMwService = refMwService;
+    public SpectraRatioInversionCalculator(MdacCalculatorService mdacService, MdacParametersFI mdacFiEntry, MdacParametersPS psRows, CalibrationSnapshot snapshot,
+            double momentErrorRange) {
+        this.snapshot = snapshot;
         //We just want the K constant for the given MDAC model so no need for a real moment here
         this.mdacCalculator = mdacService.getMdacCalculator(psRows, mdacFiEntry, DEFAULT_HIGH_MOMENT);
         this.momentErrorRange = momentErrorRange;
     }
 
-    public Map<EventPair, SpectraRatioPairInversionResult> cmaesRegressionPerPair(Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData) {
-        Map<EventPair, SpectraRatioPairInversionResult> estimatedMomentCorners = new HashMap<>();
-        ratioData.entrySet().stream().forEach(eventPairEntry -> {
-            EventPair eventPair = eventPairEntry.getKey();
-            Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>> stationData = eventPairEntry.getValue();
-
-            //Check for fit or reference entries for both events and, if present, use those
-            // as priors on the inversion to help constrain it.
-            Double lowTestMomentEventA = null;
-            Double highTestMomentEventA = null;
-            Double lowTestMomentEventB = null;
-            Double highTestMomentEventB = null;
-
-            MeasuredMwParameters fitMoment = fitMwService.findByEventId(eventPair.getY().getEventId());
-            ReferenceMwParameters refMoment = refMwService.findByEventId(eventPair.getY().getEventId());
-
-            if (fitMoment != null) {
-                lowTestMomentEventA = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
-                highTestMomentEventA = MdacCalculator.mwToLogM0(fitMoment.getMw()) + momentErrorRange;
-            } else if (refMoment != null) {
-                lowTestMomentEventA = MdacCalculator.mwToLogM0(refMoment.getRefMw()) - momentErrorRange;
-                highTestMomentEventA = MdacCalculator.mwToLogM0(refMoment.getRefMw()) + momentErrorRange;
-            }
+    /**
+     * Invert every event pair independently on the given executor and wait for
+     * all of them to finish.
+     *
+     * @param ratioData
+     *            ratio measurements grouped by event pair and station
+     * @param executor
+     *            the pool the per-pair inversions run on, its thread count
+     *            bounds how many pairs are inverted at once
+     * @return the inversion result for each event pair
+     * @throws InterruptedException
+     *             if the calling thread is interrupted while waiting, any
+     *             outstanding pair inversions are cancelled first
+     */
+    public Map<EventPair, SpectraRatioPairInversionResult> cmaesRegressionPerPair(Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData, ExecutorService executor)
+            throws InterruptedException {
+        Map<EventPair, Future<SpectraRatioPairInversionResult>> tasks = new HashMap<>(ratioData.size());
+        for (Entry<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> eventPairEntry : ratioData.entrySet()) {
+            tasks.put(eventPairEntry.getKey(), executor.submit(() -> invertEventPair(eventPairEntry.getKey(), eventPairEntry.getValue())));
+        }
 
-            if (lowTestMomentEventA == null) {
-                lowTestMomentEventA = DEFAULT_LOW_MOMENT;
+        Map<EventPair, SpectraRatioPairInversionResult> estimatedMomentCorners = new HashMap<>(tasks.size());
+        try {
+            for (Entry<EventPair, Future<SpectraRatioPairInversionResult>> task : tasks.entrySet()) {
+                estimatedMomentCorners.put(task.getKey(), task.getValue().get());
             }
-            if (highTestMomentEventA == null) {
-                highTestMomentEventA = DEFAULT_HIGH_MOMENT;
+        } catch (InterruptedException | CancellationException e) {
+            cancelAll(tasks);
+            throw new InterruptedException();
+        } catch (ExecutionException e) {
+            cancelAll(tasks);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new IllegalStateException(e.getCause());
+        }
+        return estimatedMomentCorners;
+    }
 
-            fitMoment = fitMwService.findByEventId(eventPair.getX().getEventId());
-            refMoment = refMwService.findByEventId(eventPair.getX().getEventId());
+    private void cancelAll(Map<EventPair, Future<SpectraRatioPairInversionResult>> tasks) {
+        tasks.values().forEach(task -> task.cancel(true));
+    }
 
-            if (fitMoment != null) {
-                lowTestMomentEventB = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
-                highTestMomentEventB = MdacCalculator.mwToLogM0(fitMoment.getMw()) + momentErrorRange;
-            } else if (refMoment != null) {
-                lowTestMomentEventB = MdacCalculator.mwToLogM0(refMoment.getRefMw()) - momentErrorRange;
-                highTestMomentEventB = MdacCalculator.mwToLogM0(refMoment.getRefMw()) + momentErrorRange;
-            }
+    private static long pairSeed(EventPair eventPair) {
+        return ((long) Objects.hashCode(eventPair.getY().getEventId()) << 32) ^ (Objects.hashCode(eventPair.getX().getEventId()) & 0xffffffffL);
+    }
 
-            if (lowTestMomentEventB == null) {
-                lowTestMomentEventB = DEFAULT_LOW_MOMENT;
-            }
-            if (highTestMomentEventB == null) {
-                highTestMomentEventB = DEFAULT_HIGH_MOMENT;
-            }
+    private SpectraRatioPairInversionResult invertEventPair(EventPair eventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>> stationData) {
+        //Check for fit or reference entries for both events and, if present, use those
+        // as priors on the inversion to help constrain it.
+        Double lowTestMomentEventA = null;
+        Double highTestMomentEventA = null;
+        Double lowTestMomentEventB = null;
+        Double highTestMomentEventB = null;
+
+        MeasuredMwParameters fitMoment = snapshot.getMeasuredMw(eventPair.getY().getEventId());
+        ReferenceMwParameters refMoment = snapshot.getReferenceMw(eventPair.getY().getEventId());
+
+        if (fitMoment != null) {
+            lowTestMomentEventA = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
+            highTestMomentEventA = MdacCalculator.mwToLogM0(fitMoment.getMw()) + momentErrorRange;
+        } else if (refMoment != null) {
+            lowTestMomentEventA = MdacCalculator.mwToLogM0(refMoment.getRefMw()) - momentErrorRange;
+            highTestMomentEventA = MdacCalculator.mwToLogM0(refMoment.getRefMw()) + momentErrorRange;
+        }
 
-            SpectraRatioCostFunctionPerEventPair costFunc = new SpectraRatioCostFunctionPerEventPair(stationData,
-                                                                                                     lowTestMomentEventB,
-                                                                                                     highTestMomentEventB,
-                                                                                                     lowTestMomentEventA,
-                                                                                                     highTestMomentEventA,
-                                                                                                     lowTestAppStressMpa,
-                                                                                                     highTestAppStressMpa,
-                                                                                                     lowTestAppStressMpa,
-                                                                                                     highTestAppStressMpa);
-
-            CMAESOptimizer optimizer = new CMAESOptimizer(500, STOP_FITNESS, true, 0, 0, new MersenneTwister(), false, new SimplePointChecker<>(0.001, 0.001, 100000));
-
-            PointValuePair best = optimizer.optimize(
-                    new MaxEval(1000000),
-                        new ObjectiveFunction(costFunc),
-                        GoalType.MINIMIZE,
-                        new SimpleBounds(new double[] { lowTestMomentEventA, lowTestAppStressMpa, lowTestMomentEventB, lowTestAppStressMpa },
-                                         new double[] { highTestMomentEventA, highTestAppStressMpa, highTestMomentEventB, highTestAppStressMpa }),
-                        new InitialGuess(new double[] { lowTestMomentEventA + ((highTestMomentEventA - lowTestMomentEventA) / 2.0),
-                                lowTestAppStressMpa + ((highTestAppStressMpa - lowTestAppStressMpa) / 2.0), lowTestMomentEventB + ((highTestMomentEventB - lowTestMomentEventB) / 2.0),
-                                lowTestAppStressMpa + ((highTestAppStressMpa - lowTestAppStressMpa) / 2.0) }),
-                        new CMAESOptimizer.Sigma(new double[] { (highTestMomentEventA - lowTestMomentEventA) / 2.0, (highTestAppStressMpa - lowTestAppStressMpa) / 2.0,
-                                (highTestMomentEventB - lowTestMomentEventB) / 2.0, (highTestAppStressMpa - lowTestAppStressMpa) / 2.0 }),
-                        new CMAESOptimizer.PopulationSize(100));
-
-            //Technically we could save the second Z array copy here by storing these as a tensor rather than a matrix but
-            //almost assuredly premature optimization at the moment
-            Pair<EventInversionMap, EventInversionMap> costs = costFunc.getSamplePoints();
-            EventInversionMap eventCost = costs.getX();
-            IntArrayList m0XIdx = new IntArrayList(eventCost.size());
-            IntArrayList m0YIdx = new IntArrayList(eventCost.size());
-            FloatArrayList m0Samples = new FloatArrayList(eventCost.size());
-            for (Entry<Pair<Integer, Integer>, Pair<Float, Integer>> cost : eventCost.entrySet()) {
-                m0XIdx.add(cost.getKey().getX());
-                m0YIdx.add(cost.getKey().getY());
-                m0Samples.add(cost.getValue().getX());
-            }
+        if (lowTestMomentEventA == null) {
+            lowTestMomentEventA = DEFAULT_LOW_MOMENT;
+        }
+        if (highTestMomentEventA == null) {
+            highTestMomentEventA = DEFAULT_HIGH_MOMENT;
+        }
 
-            eventCost = costs.getY();
-            IntArrayList stressXIdx = new IntArrayList(eventCost.size());
-            IntArrayList stressYIdx = new IntArrayList(eventCost.size());
-            FloatArrayList stressSamples = new FloatArrayList(eventCost.size());
-            for (Entry<Pair<Integer, Integer>, Pair<Float, Integer>> cost : eventCost.entrySet()) {
-                stressXIdx.add(cost.getKey().getX());
-                stressYIdx.add(cost.getKey().getY());
-                stressSamples.add(cost.getValue().getX());
-            }
+        fitMoment = snapshot.getMeasuredMw(eventPair.getX().getEventId());
+        refMoment = snapshot.getReferenceMw(eventPair.getX().getEventId());
 
-            SynchronizedMultivariateSummaryStatistics stats = costFunc.getStats();
-            // Calculate the corner freq min max x2
-            final RealMatrix C = stats.getCovariance();
+        if (fitMoment != null) {
+            lowTestMomentEventB = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
+            highTestMomentEventB = MdacCalculator.mwToLogM0(fitMoment.getMw()) + momentErrorRange;
+        } else if (refMoment != null) {
+            lowTestMomentEventB = MdacCalculator.mwToLogM0(refMoment.getRefMw()) - momentErrorRange;
+            highTestMomentEventB = MdacCalculator.mwToLogM0(refMoment.getRefMw()) + momentErrorRange;
+        }
 
-            final double SE = Math.sqrt(C.getEntry(FIT, FIT) / (stats.getN() - 4.0));
-            final double f1 = best.getValue() + SE;
-            final double f2 = best.getValue() + (SE * 2.0);
+        if (lowTestMomentEventB == null) {
+            lowTestMomentEventB = DEFAULT_LOW_MOMENT;
+        }
+        if (highTestMomentEventB == null) {
+            highTestMomentEventB = DEFAULT_HIGH_MOMENT;
+        }
 
-            double cornerFreqA1Min = Double.POSITIVE_INFINITY;
-            double cornerFreqA2Min = Double.POSITIVE_INFINITY;
-            double cornerFreqB1Min = Double.POSITIVE_INFINITY;
-            double cornerFreqB2Min = Double.POSITIVE_INFINITY;
-            double cornerFreqA1Max = Double.NEGATIVE_INFINITY;
-            double cornerFreqA2Max = Double.NEGATIVE_INFINITY;
-            double cornerFreqB1Max = Double.NEGATIVE_INFINITY;
-            double cornerFreqB2Max = Double.NEGATIVE_INFINITY;
+        SpectraRatioCostFunctionPerEventPair costFunc = new SpectraRatioCostFunctionPerEventPair(stationData,
+                                                                                                 lowTestMomentEventB,
+                                                                                                 highTestMomentEventB,
+                                                                                                 lowTestMomentEventA,
+                                                                                                 highTestMomentEventA,
+                                                                                                 lowTestAppStressMpa,
+                                                                                                 highTestAppStressMpa,
+                                                                                                 lowTestAppStressMpa,
+                                                                                                 highTestAppStressMpa);
+
+        PairOptimizer pairOptimizer = PAIR_OPTIMIZER.get();
+        pairOptimizer.random.setSeed(pairSeed(eventPair));
+
+        PointValuePair best = pairOptimizer.optimizer.optimize(
+                new MaxEval(1000000),
+                    new ObjectiveFunction(costFunc),
+                    GoalType.MINIMIZE,
+                    new SimpleBounds(new double[] { lowTestMomentEventA, lowTestAppStressMpa, lowTestMomentEventB, lowTestAppStressMpa },
+                                     new double[] { highTestMomentEventA, highTestAppStressMpa, highTestMomentEventB, highTestAppStressMpa }),
+                    new InitialGuess(new double[] { lowTestMomentEventA + ((highTestMomentEventA - lowTestMomentEventA) / 2.0),
+                            lowTestAppStressMpa + ((highTestAppStressMpa - lowTestAppStressMpa) / 2.0), lowTestMomentEventB + ((highTestMomentEventB - lowTestMomentEventB) / 2.0),
+                            lowTestAppStressMpa + ((highTestAppStressMpa - lowTestAppStressMpa) / 2.0) }),
+                    new CMAESOptimizer.Sigma(new double[] { (highTestMomentEventA - lowTestMomentEventA) / 2.0, (highTestAppStressMpa - lowTestAppStressMpa) / 2.0,
+                            (highTestMomentEventB - lowTestMomentEventB) / 2.0, (highTestAppStressMpa - lowTestAppStressMpa) / 2.0 }),
+                    new CMAESOptimizer.PopulationSize(100));
 
-            for (RatioOptimizerMeasurement meas : costFunc.getOptimizerMeasurements()) {
-                if (meas.getFit() < f1) {
-                    if (meas.getCornerFreqA() < cornerFreqA1Min) {
-                        cornerFreqA1Min = meas.getCornerFreqA();
-                        cornerFreqA2Min = meas.getCornerFreqA();
-                    }
-                    if (meas.getCornerFreqA() > cornerFreqA1Max) {
-                        cornerFreqA1Max = meas.getCornerFreqA();
-                        cornerFreqA2Max = meas.getCornerFreqA();
-                    }
+        //Technically we could save the second Z array copy here by storing these as a tensor rather than a matrix but
+        //almost assuredly premature optimization at the moment
+        Pair<EventInversionMap, EventInversionMap> costs = costFunc.getSamplePoints();
+        EventInversionMap eventCost = costs.getX();
+        IntArrayList m0XIdx = new IntArrayList(eventCost.size());
+        IntArrayList m0YIdx = new IntArrayList(eventCost.size());
+        FloatArrayList m0Samples = new FloatArrayList(eventCost.size());
+        for (Entry<Pair<Integer, Integer>, Pair<Float, Integer>> cost : eventCost.entrySet()) {
+            m0XIdx.add(cost.getKey().getX());
+            m0YIdx.add(cost.getKey().getY());
+            m0Samples.add(cost.getValue().getX());
+        }
 
-                    if (meas.getCornerFreqB() < cornerFreqB1Min) {
-                        cornerFreqB1Min = meas.getCornerFreqB();
-                        cornerFreqB2Min = meas.getCornerFreqB();
-                    }
-                    if (meas.getCornerFreqB() > cornerFreqB1Max) {
-                        cornerFreqB1Max = meas.getCornerFreqB();
-                        cornerFreqB2Max = meas.getCornerFreqB();
-                    }
-                } else if (meas.getFit() < f2) {
-                    if (meas.getCornerFreqA() < cornerFreqA2Min) {
-                        cornerFreqA2Min = meas.getCornerFreqA();
-                    }
-                    if (meas.getCornerFreqA() > cornerFreqA2Max) {
-                        cornerFreqA2Max = meas.getCornerFreqA();
-                    }
+        eventCost = costs.getY();
+        IntArrayList stressXIdx = new IntArrayList(eventCost.size());
+        IntArrayList stressYIdx = new IntArrayList(eventCost.size());
+        FloatArrayList stressSamples = new FloatArrayList(eventCost.size());
+        for (Entry<Pair<Integer, Integer>, Pair<Float, Integer>> cost : eventCost.entrySet()) {
+            stressXIdx.add(cost.getKey().getX());
+            stressYIdx.add(cost.getKey().getY());
+            stressSamples.add(cost.getValue().getX());
+        }
 
-                    if (meas.getCornerFreqB() < cornerFreqB2Min) {
-                        cornerFreqB2Min = meas.getCornerFreqB();
-                    }
-                    if (meas.getCornerFreqB() > cornerFreqB2Max) {
-                        cornerFreqB2Max = meas.getCornerFreqB();
-                    }
-                } else {
-                    break;
+        SynchronizedMultivariateSummaryStatistics stats = costFunc.getStats();
+        // Calculate the corner freq min max x2
+        final RealMatrix C = stats.getCovariance();
+
+        final double SE = Math.sqrt(C.getEntry(FIT, FIT) / (stats.getN() - 4.0));
+        final double f1 = best.getValue() + SE;
+        final double f2 = best.getValue() + (SE * 2.0);
+
+        double cornerFreqA1Min = Double.POSITIVE_INFINITY;
+        double cornerFreqA2Min = Double.POSITIVE_INFINITY;
+        double cornerFreqB1Min = Double.POSITIVE_INFINITY;
+        double cornerFreqB2Min = Double.POSITIVE_INFINITY;
+        double cornerFreqA1Max = Double.NEGATIVE_INFINITY;
+        double cornerFreqA2Max = Double.NEGATIVE_INFINITY;
+        double cornerFreqB1Max = Double.NEGATIVE_INFINITY;
+        double cornerFreqB2Max = Double.NEGATIVE_INFINITY;
+
+        for (RatioOptimizerMeasurement meas : costFunc.getOptimizerMeasurements()) {
+            if (meas.getFit() < f1) {
+                if (meas.getCornerFreqA() < cornerFreqA1Min) {
+                    cornerFreqA1Min = meas.getCornerFreqA();
+                    cornerFreqA2Min = meas.getCornerFreqA();
+                }
+                if (meas.getCornerFreqA() > cornerFreqA1Max) {
+                    cornerFreqA1Max = meas.getCornerFreqA();
+                    cornerFreqA2Max = meas.getCornerFreqA();
                 }
-            }
 
-            SpectraRatioPairInversionResult estimate = new SpectraRatioPairInversionResult();
-            estimate.setEventIdA(eventPair.getY().getEventId())
-                    .setEventIdB(eventPair.getX().getEventId())
-                    .setMomentEstimateA((float) best.getPoint()[0])
-                    .setCornerEstimateA((float) mdacCalculator.cornerFreqFromApparentStressM0(Math.pow(10, best.getPoint()[0]), best.getPoint()[1]))
-                    .setCornerEstimateA1Min(cornerFreqA1Min)
-                    .setCornerEstimateA1Max(cornerFreqA1Max)
-                    .setCornerEstimateA2Min(cornerFreqA2Min)
-                    .setCornerEstimateA2Max(cornerFreqA2Max)
-                    .setMomentEstimateB((float) best.getPoint()[2])
-                    .setCornerEstimateB((float) mdacCalculator.cornerFreqFromApparentStressM0(Math.pow(10, best.getPoint()[2]), best.getPoint()[3]))
-                    .setCornerEstimateB1Min(cornerFreqB1Min)
-                    .setCornerEstimateB1Max(cornerFreqB1Max)
-                    .setCornerEstimateB2Min(cornerFreqB2Min)
-                    .setCornerEstimateB2Max(cornerFreqB2Max)
-                    .setApparentStressEstimateA((float) best.getPoint()[1])
-                    .setApparentStressEstimateB((float) best.getPoint()[3])
-                    .setMisfit(best.getValue().floatValue())
-                    .setAppStressMin((float) lowTestAppStressMpa)
-                    .setAppStressMax((float) highTestAppStressMpa)
-                    .setM0minY(lowTestMomentEventA.floatValue())
-                    .setM0maxY(highTestMomentEventA.floatValue())
-                    .setM0minX(lowTestMomentEventB.floatValue())
-                    .setM0maxX(highTestMomentEventB.floatValue())
-                    .setM0XIdx(m0XIdx)
-                    .setM0Xdim(XDIM)
-                    .setM0YIdx(m0YIdx)
-                    .setM0Ydim(YDIM)
-                    .setM0data(m0Samples)
-                    .setStressXIdx(stressXIdx)
-                    .setAppStressXdim(XDIM)
-                    .setStressYIdx(stressYIdx)
-                    .setAppStressYdim(YDIM)
-                    .setStressData(stressSamples)
-                    .setkConstant(mdacCalculator.getK());
+                if (meas.getCornerFreqB() < cornerFreqB1Min) {
+                    cornerFreqB1Min = meas.getCornerFreqB();
+                    cornerFreqB2Min = meas.getCornerFreqB();
+                }
+                if (meas.getCornerFreqB() > cornerFreqB1Max) {
+                    cornerFreqB1Max = meas.getCornerFreqB();
+                    cornerFreqB2Max = meas.getCornerFreqB();
+                }
+            } else if (meas.getFit() < f2) {
+                if (meas.getCornerFreqA() < cornerFreqA2Min) {
+                    cornerFreqA2Min = meas.getCornerFreqA();
+                }
+                if (meas.getCornerFreqA() > cornerFreqA2Max) {
+                    cornerFreqA2Max = meas.getCornerFreqA();
+                }
 
-            estimatedMomentCorners.put(eventPair, estimate);
-        });
-        return estimatedMomentCorners;
+                if (meas.getCornerFreqB() < cornerFreqB2Min) {
+                    cornerFreqB2Min = meas.getCornerFreqB();
+                }
+                if (meas.getCornerFreqB() > cornerFreqB2Max) {
+                    cornerFreqB2Max = meas.getCornerFreqB();
+                }
+            } else {
+                break;
+            }
+        }
+
+        SpectraRatioPairInversionResult estimate = new SpectraRatioPairInversionResult();
+        estimate.setEventIdA(eventPair.getY().getEventId())
+                .setEventIdB(eventPair.getX().getEventId())
+                .setMomentEstimateA((float) best.getPoint()[0])
+                .setCornerEstimateA((float) mdacCalculator.cornerFreqFromApparentStressM0(Math.pow(10, best.getPoint()[0]), best.getPoint()[1]))
+                .setCornerEstimateA1Min(cornerFreqA1Min)
+                .setCornerEstimateA1Max(cornerFreqA1Max)
+                .setCornerEstimateA2Min(cornerFreqA2Min)
+                .setCornerEstimateA2Max(cornerFreqA2Max)
+                .setMomentEstimateB((float) best.getPoint()[2])
+                .setCornerEstimateB((float) mdacCalculator.cornerFreqFromApparentStressM0(Math.pow(10, best.getPoint()[2]), best.getPoint()[3]))
+                .setCornerEstimateB1Min(cornerFreqB1Min)
+                .setCornerEstimateB1Max(cornerFreqB1Max)
+                .setCornerEstimateB2Min(cornerFreqB2Min)
+                .setCornerEstimateB2Max(cornerFreqB2Max)
+                .setApparentStressEstimateA((float) best.getPoint()[1])
+                .setApparentStressEstimateB((float) best.getPoint()[3])
+                .setMisfit(best.getValue().floatValue())
+                .setAppStressMin((float) lowTestAppStressMpa)
+                .setAppStressMax((float) highTestAppStressMpa)
+                .setM0minY(lowTestMomentEventA.floatValue())
+                .setM0maxY(highTestMomentEventA.floatValue())
+                .setM0minX(lowTestMomentEventB.floatValue())
+                .setM0maxX(highTestMomentEventB.floatValue())
+                .setM0XIdx(m0XIdx)
+                .setM0Xdim(XDIM)
+                .setM0YIdx(m0YIdx)
+                .setM0Ydim(YDIM)
+                .setM0data(m0Samples)
+                .setStressXIdx(stressXIdx)
+                .setAppStressXdim(XDIM)
+                .setStressYIdx(stressYIdx)
+                .setAppStressYdim(YDIM)
+                .setStressData(stressSamples)
+                .setkConstant(mdacCalculator.getK());
+
+        return estimate;
     }
 
     public Map<EventPair, SpectraRatioPairInversionResultJoint> cmaesRegressionJoint(Map<EventPair, Map<Station, Map<FrequencyBand, SpectraRatioPairDetails>>> ratioData) {
@@ -366,8 +414,8 @@ public class SpectraRatioInversionCalculator {
 
             //Check for fit or reference entries for both events and, if present, use those
             // as priors on the inversion to help constrain it.
-            MeasuredMwParameters fitMoment = fitMwService.findByEventId(eventPair.getY().getEventId());
-            ReferenceMwParameters refMoment = refMwService.findByEventId(eventPair.getY().getEventId());
+            MeasuredMwParameters fitMoment = snapshot.getMeasuredMw(eventPair.getY().getEventId());
+            ReferenceMwParameters refMoment = snapshot.getReferenceMw(eventPair.getY().getEventId());
 
             if (fitMoment != null) {
                 lowTestMomentEventA = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
@@ -384,8 +432,8 @@ public class SpectraRatioInversionCalculator {
                 highTestMomentEventA = DEFAULT_HIGH_MOMENT;
             }
 
-            fitMoment = fitMwService.findByEventId(eventPair.getX().getEventId());
-            refMoment = refMwService.findByEventId(eventPair.getX().getEventId());
+            fitMoment = snapshot.getMeasuredMw(eventPair.getX().getEventId());
+            refMoment = snapshot.getReferenceMw(eventPair.getX().getEventId());
 
             if (fitMoment != null) {
                 lowTestMomentEventB = MdacCalculator.mwToLogM0(fitMoment.getMw()) - momentErrorRange;
@@ -649,6 +697,9 @@ public class SpectraRatioInversionCalculator {
 
         @Override
         public double value(double[] point) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
             float sum = 0f;
             double log10_M0 = point[0];
             double appStress = point[1];
@@ -708,6 +759,11 @@ public class SpectraRatioInversionCalculator {
 
     }
 
+    private static class PairOptimizer {
+        final MersenneTwister random = new MersenneTwister();
+        final CMAESOptimizer optimizer = new CMAESOptimizer(500, STOP_FITNESS, true, 0, 0, random, false, new SimplePointChecker<>(0.001, 0.001, 100000));
+    }
+
     private class SpectraRatioCostFunctionJoint implements MultivariateFunction {
 
         private Map<String, Integer> eventIndexMap;
@@ -744,6 +800,9 @@ public class SpectraRatioInversionCalculator {
 
         @Override
         public double value(double[] point) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
             float sum = 0f;
             List<Double[]> eventPairInput = new ArrayList<>();
 
@@ -14,21 +14,82 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.impl;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.MeasurementStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.RatioStatusEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.PassFailEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.SpectraMeasurementChangeEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import gov.llnl.gnem.apps.coda.common.service.api.Listener;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * Listeners added with {@link #register(Listener)} are still called on the
+ * posting thread before {@link #post(Object)} returns, which the cache
+ * invalidation listeners rely on. Listeners added with
+ * {@link #registerAsync(Listener)} are instead handed the event from a single
+ * dispatch thread so slow consumers, like the GUI websocket, never hold up
+ * the thread doing the work.
+ *
+ * <p>
+ * Events for the asynchronous listeners wait in a bounded queue for up to the
+ * coalescing window. While waiting, {@link WaveformChangeEvent}s and
+ * {@link SpectraMeasurementChangeEvent}s with the same add/delete flags are
+ * merged into one event carrying the union of their ids. A change event with
+ * different flags closes the merge for that type so an add and a later delete
+ * of the same id stay in order. When the queue is full new events are
+ * dropped and counted, except for job status events
+ * ({@link CalibrationStatusEvent}, {@link MeasurementStatusEvent},
+ * {@link RatioStatusEvent} and {@link PassFailEvent}). There are only a
+ * handful of those per job and a listener that misses the last one never
+ * finds out the job finished, so they are always queued even past the
+ * capacity.
+ */
 @Service
 public class NotificationServiceImpl implements NotificationService {
-    private List<Listener<?>> listeners = new ArrayList<>();
     private static final Logger log = LoggerFactory.getLogger(NotificationServiceImpl.class);
 
+    private static final List<Class<?>> STATUS_EVENTS = List.of(CalibrationStatusEvent.class, MeasurementStatusEvent.class, RatioStatusEvent.class, PassFailEvent.class);
+
+    @Value("${notification.queue-capacity:4096}")
+    private int queueCapacity = 4096;
+
+    @Value("${notification.coalesce-window-ms:100}")
+    private long coalesceWindowMillis = 100;
+
+    private final List<Listener<?>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Listener<?>> asyncListeners = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private final Map<Class<?>, IdBatch> openBatches = new HashMap<>();
+    private ExecutorService dispatcher;
+    private boolean dropping;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> void post(T event) {
@@ -42,6 +103,9 @@ public class NotificationServiceImpl implements NotificationService {
                     }
                 }
             }
+            if (hasListener(asyncListeners, event)) {
+                enqueue(event);
+            }
         }
     }
 
@@ -49,4 +113,191 @@ public class NotificationServiceImpl implements NotificationService {
     public void register(Listener<?> listener) {
         listeners.add(listener);
     }
+
+    @Override
+    public void registerAsync(Listener<?> listener) {
+        synchronized (lock) {
+            if (dispatcher == null) {
+                dispatcher = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "notification-dispatch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                dispatcher.execute(this::dispatchLoop);
+            }
+        }
+        asyncListeners.add(listener);
+    }
+
+    /**
+     * @return the number of events waiting for the asynchronous listeners
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of change events merged into an earlier queued one
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of events handed to the asynchronous listeners
+     */
+    public long getDispatchedCount() {
+        return dispatched.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (lock) {
+            if (dispatcher != null) {
+                dispatcher.shutdownNow();
+            }
+        }
+    }
+
+    private void enqueue(Object event) {
+        IdBatch batch = IdBatch.of(event);
+        synchronized (lock) {
+            if (batch != null) {
+                IdBatch open = openBatches.get(batch.type);
+                if (open != null && open.sameFlags(batch)) {
+                    open.ids.addAll(batch.ids);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+            }
+            if (pending.size() >= queueCapacity && !isStatusEvent(event)) {
+                dropped.incrementAndGet();
+                if (!dropping) {
+                    dropping = true;
+                    log.warn("Notification queue is full ({} events), dropping events for asynchronous listeners", queueCapacity);
+                }
+                return;
+            }
+            if (batch != null) {
+                openBatches.put(batch.type, batch);
+                pending.add(batch);
+            } else {
+                pending.add(event);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (lock) {
+                    while (pending.isEmpty()) {
+                        lock.wait();
+                    }
+                }
+                if (coalesceWindowMillis > 0) {
+                    Thread.sleep(coalesceWindowMillis);
+                }
+                List<Object> events;
+                synchronized (lock) {
+                    events = new ArrayList<>(pending);
+                    pending.clear();
+                    openBatches.clear();
+                    dropping = false;
+                }
+                for (Object event : events) {
+                    deliver(event instanceof IdBatch ? ((IdBatch) event).toEvent() : event);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void deliver(T event) {
+        for (Listener<?> listener : asyncListeners) {
+            if (listener.getType().isInstance(event)) {
+                try {
+                    ((Listener<T>) listener).apply(event);
+                } catch (RuntimeException ex) {
+                    log.warn(ex.getLocalizedMessage(), ex);
+                }
+            }
+        }
+        dispatched.incrementAndGet();
+    }
+
+    private static boolean isStatusEvent(Object event) {
+        for (Class<?> type : STATUS_EVENTS) {
+            if (type.isInstance(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasListener(List<Listener<?>> candidates, Object event) {
+        for (Listener<?> listener : candidates) {
+            if (listener.getType().isInstance(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ids of queued change events of one type and flag combination, turned
+     * back into a single event when dispatched.
+     */
+    private static final class IdBatch {
+        private final Class<?> type;
+        private final boolean addOrUpdate;
+        private final boolean delete;
+        private final Set<Long> ids;
+
+        private IdBatch(Class<?> type, boolean addOrUpdate, boolean delete, List<Long> ids) {
+            this.type = type;
+            this.addOrUpdate = addOrUpdate;
+            this.delete = delete;
+            this.ids = new LinkedHashSet<>(ids);
+        }
+
+        private static IdBatch of(Object event) {
+            if (event instanceof WaveformChangeEvent) {
+                WaveformChangeEvent change = (WaveformChangeEvent) event;
+                if (change.getIds() != null) {
+                    return new IdBatch(WaveformChangeEvent.class, change.isAddOrUpdate(), change.isDelete(), change.getIds());
+                }
+            } else if (event instanceof SpectraMeasurementChangeEvent) {
+                SpectraMeasurementChangeEvent change = (SpectraMeasurementChangeEvent) event;
+                if (change.getIds() != null) {
+                    return new IdBatch(SpectraMeasurementChangeEvent.class, change.isAddOrUpdate(), change.isDelete(), change.getIds());
+                }
+            }
+            return null;
+        }
+
+        private boolean sameFlags(IdBatch other) {
+            return addOrUpdate == other.addOrUpdate && delete == other.delete;
+        }
+
+        private Object toEvent() {
+            List<Long> merged = new ArrayList<>(ids);
+            if (type == WaveformChangeEvent.class) {
+                return new WaveformChangeEvent(merged).setAddOrUpdate(addOrUpdate).setDelete(delete);
+            }
+            return new SpectraMeasurementChangeEvent(merged).setAddOrUpdate(addOrUpdate).setDelete(delete);
+        }
+    }
 }
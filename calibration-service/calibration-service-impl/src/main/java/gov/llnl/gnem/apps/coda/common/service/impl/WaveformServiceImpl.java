@@ -15,37 +15,49 @@
 package gov.llnl.gnem.apps.coda.common.service.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSnapshot;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
-import gov.llnl.gnem.apps.coda.calibration.repository.SharedFrequencyBandParametersRepository;
-import gov.llnl.gnem.apps.coda.calibration.repository.SiteFrequencyBandParametersRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.SpectraMeasurementRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.SyntheticRepository;
-import gov.llnl.gnem.apps.coda.calibration.repository.VelocityConfigurationRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationSnapshotService;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.messaging.PassFailEvent;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
 import gov.llnl.gnem.apps.coda.common.model.messaging.SpectraMeasurementChangeEvent;
@@ -53,36 +65,42 @@ import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
-import gov.llnl.gnem.apps.coda.common.service.util.MetadataUtils;
+import jakarta.persistence.EntityManager;
 
 @Service
 public class WaveformServiceImpl implements WaveformService {
 
     private Logger log = LoggerFactory.getLogger(WaveformServiceImpl.class);
 
+    // Waveforms resolved, written and flushed together by a batch update.
+    // Also bounds the IN lists of the lookup queries.
+    private static final int INGEST_CHUNK_SIZE = 500;
+
     private WaveformRepository waveformRepository;
     private SpectraMeasurementRepository spectraMeasurementRepository;
     private SpectraCalculator spectraCalc;
     private SyntheticRepository syntheticRepository;
     private NotificationService notificationService;
     private ExampleMatcher ignoreStandardFieldsMatcher = ExampleMatcher.matching().withIgnoreNullValues().withIgnoreCase().withIgnorePaths("id", "version", "associatedPicks", "segment");
-    private SharedFrequencyBandParametersRepository sfbRepository;
-    private VelocityConfigurationRepository velocityConfigRepository;
-
-    private SiteFrequencyBandParametersRepository siteParamsRepository;
+    private CalibrationSnapshotService snapshotService;
+    private ExecutorService ingestService;
+    private TransactionTemplate ingestTransaction;
+    private EntityManager em;
 
     @Autowired
     public WaveformServiceImpl(WaveformRepository waveformRepository, SpectraMeasurementRepository spectraMeasurementRepository, SpectraCalculator spectraCalc, SyntheticRepository syntheticRepository,
-            SharedFrequencyBandParametersRepository sfbRepository, SiteFrequencyBandParametersRepository siteParamsRepository, VelocityConfigurationRepository velocityConfigRepository,
-            NotificationService notificationService) {
+            CalibrationSnapshotService snapshotService, NotificationService notificationService, @Qualifier("WaveformIngestExecutorService") ExecutorService ingestService,
+            PlatformTransactionManager transactionManager, EntityManager em) {
         this.waveformRepository = waveformRepository;
         this.spectraMeasurementRepository = spectraMeasurementRepository;
         this.spectraCalc = spectraCalc;
         this.syntheticRepository = syntheticRepository;
-        this.sfbRepository = sfbRepository;
-        this.siteParamsRepository = siteParamsRepository;
-        this.velocityConfigRepository = velocityConfigRepository;
+        this.snapshotService = snapshotService;
         this.notificationService = notificationService;
+        this.ingestService = ingestService;
+        this.em = em;
+        this.ingestTransaction = new TransactionTemplate(transactionManager);
+        this.ingestTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public WaveformRepository getWaveformRepository() {
@@ -122,7 +140,9 @@ public class WaveformServiceImpl implements WaveformService {
     @Override
     public Waveform save(Waveform entity) {
         Waveform wave;
-        if (entity.getId() != null) {
+        if (entity.getId() != null && !entity.hasData()) {
+            wave = saveWithoutSegment(entity);
+        } else if (entity.getId() != null) {
             wave = waveformRepository.save(entity);
         } else {
             wave = update(entity);
@@ -130,6 +150,73 @@ public class WaveformServiceImpl implements WaveformService {
         return wave;
     }
 
+    /**
+     * Saves a waveform loaded without its segment. Only the measurement times,
+     * the active flag and the picks are written, through update queries so the
+     * stored segment is never read. The result is a metadata only view.
+     */
+    private Waveform saveWithoutSegment(Waveform entity) {
+        Long id = entity.getId();
+        if (waveformRepository.updateMetadata(id, entity.getVersion(), entity.getMaxVelTime(), entity.getCodaStartTime(), entity.getUserStartTime(), entity.getActive()) == 0) {
+            if (!waveformRepository.existsById(id)) {
+                log.warn("Unable to save waveform {} without segment data, it no longer exists", id);
+                return entity;
+            }
+            throw new OptimisticLockingFailureException("Waveform " + id + " was updated by another transaction");
+        }
+
+        List<WaveformPick> picks = Optional.ofNullable(entity.getAssociatedPicks()).orElseGet(ArrayList::new);
+        List<Long> kept = picks.stream().map(WaveformPick::getId).filter(pickId -> pickId != null).collect(Collectors.toList());
+        if (kept.isEmpty()) {
+            waveformRepository.deletePicks(id);
+        } else {
+            waveformRepository.deletePicksNotIn(id, kept);
+        }
+        for (WaveformPick pick : picks) {
+            if (pick.getId() != null) {
+                waveformRepository.updatePick(id, pick.getId(), pick.getPickName(), pick.getPickType(), pick.getPickTimeSecFromOrigin());
+            } else {
+                em.persist(new WaveformPick().setWaveform(em.getReference(Waveform.class, id))
+                                             .setPickName(pick.getPickName())
+                                             .setPickType(pick.getPickType())
+                                             .setPickTimeSecFromOrigin(pick.getPickTimeSecFromOrigin()));
+            }
+        }
+        return attachPickMetadata(Collections.singletonList(waveformRepository.findWaveformMetadataById(id))).get(0);
+    }
+
+    @Override
+    public List<Waveform> loadSegments(Collection<Waveform> waveforms) {
+        Map<Long, List<Waveform>> missing = waveforms.stream()
+                                                     .filter(w -> w != null && !w.hasData() && w.getId() != null)
+                                                     .collect(Collectors.groupingBy(Waveform::getId));
+        List<Waveform> loaded = new ArrayList<>(missing.size());
+        List<Long> ids = new ArrayList<>(missing.keySet());
+        for (int i = 0; i < ids.size(); i += INGEST_CHUNK_SIZE) {
+            for (Object[] row : waveformRepository.findSegmentsByIds(ids.subList(i, Math.min(i + INGEST_CHUNK_SIZE, ids.size())))) {
+                for (Waveform waveform : missing.get((Long) row[0])) {
+                    waveform.setData((DoubleArrayList) row[1]);
+                    loaded.add(waveform);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private List<Waveform> attachPickMetadata(List<Waveform> metadata) {
+        if (metadata.isEmpty()) {
+            return metadata;
+        }
+        Map<Long, List<WaveformPick>> picksByWaveform = waveformRepository.findPickMetadataByWaveformIds(getIds(metadata))
+                                                                          .stream()
+                                                                          .collect(Collectors.groupingBy(p -> p.getWaveform().getId()));
+        metadata.forEach(w -> {
+            w.setData(null);
+            w.setAssociatedPicks(picksByWaveform.getOrDefault(w.getId(), new ArrayList<>()));
+        });
+        return metadata;
+    }
+
     @Override
     public Waveform findOne(Long id) {
         return getWaveformRepository().findOneDetached(id);
@@ -181,11 +268,12 @@ public class WaveformServiceImpl implements WaveformService {
                     if (synthetic != null) {
                         List<SyntheticCoda> synthetics = new ArrayList<SyntheticCoda>();
                         synthetics.add(synthetic);
+                        CalibrationSnapshot snapshot = snapshotService.getSnapshot();
                         List<SpectraMeasurement> spectraMeasurements = spectraCalc.measureAmplitudes(
                                 synthetics,
-                                    MetadataUtils.mapSharedParamsToFrequencyBands(sfbRepository.findAll()),
-                                    velocityConfigRepository.findFirstByOrderById(),
-                                    MetadataUtils.mapSiteParamsToFrequencyBands(siteParamsRepository.findAll()));
+                                    snapshot.getSharedParameters(),
+                                    snapshot.getVelocityConfiguration(),
+                                    snapshot.getSiteParameters());
                         if (spectraMeasurements != null && !spectraMeasurements.isEmpty()) {
                             measurement.setPathAndSiteCorrected(spectraMeasurements.get(0).getPathAndSiteCorrected());
                             measurement.setRawAtMeasurementTime(spectraMeasurements.get(0).getRawAtMeasurementTime());
@@ -207,25 +295,103 @@ public class WaveformServiceImpl implements WaveformService {
         return mergedEntry;
     }
 
-    @Transactional
+    /**
+     * Queues the waveforms to be merged into any stored waveforms with the
+     * same id or event, network, station and frequency band and written on the
+     * ingest executor. A {@link PassFailEvent} for the session reports when
+     * the batch is written or why it failed.
+     */
     @Override
     public List<Waveform> update(Long sessionId, List<Waveform> values) {
-        List<Waveform> vals = new ArrayList<>(values.size());
-        for (Waveform entry : values) {
-            Waveform mergedEntry = attachIfAvailableInRepository(entry);
-            vals.add(mergedEntry);
-        }
-        CompletableFuture.runAsync(() -> {
-            List<Waveform> saved = waveformRepository.saveAll(vals);
-            waveformRepository.flush();
-            if (sessionId != null) {
-                notificationService.post(new PassFailEvent(sessionId, UUID.randomUUID().toString(), new Result<Object>(true, Boolean.TRUE)));
-                notificationService.post(new WaveformChangeEvent(getIds(saved)).setAddOrUpdate(true));
+        List<Waveform> vals = values.stream().filter(w -> w != null).collect(Collectors.toList());
+        ingestService.execute(() -> {
+            try {
+                List<Long> ids = ingestTransaction.execute(status -> ingest(vals));
+                if (sessionId != null) {
+                    notificationService.post(new PassFailEvent(sessionId, UUID.randomUUID().toString(), new Result<Object>(true, Boolean.TRUE)));
+                    notificationService.post(new WaveformChangeEvent(ids).setAddOrUpdate(true));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to save batch of {} waveforms: {}", vals.size(), e.getLocalizedMessage(), e);
+                if (sessionId != null) {
+                    notificationService.post(new PassFailEvent(sessionId, UUID.randomUUID().toString(), new Result<Object>(false, Collections.singletonList(e), null)));
+                }
             }
         });
         return vals;
     }
 
+    /**
+     * Writes the waveforms a chunk at a time: one query per chunk finds the
+     * stored rows, the chunk is written as JDBC batches on flush and the
+     * persistence context is cleared so memory stays flat for large loads.
+     */
+    private List<Long> ingest(List<Waveform> values) {
+        List<Long> ids = new ArrayList<>(values.size());
+        for (int start = 0; start < values.size(); start += INGEST_CHUNK_SIZE) {
+            List<Waveform> chunk = values.subList(start, Math.min(values.size(), start + INGEST_CHUNK_SIZE));
+            List<Waveform> saved = waveformRepository.saveAll(attachAllIfAvailableInRepository(chunk));
+            waveformRepository.flush();
+            ids.addAll(getIds(saved));
+            em.clear();
+        }
+        return ids;
+    }
+
+    /**
+     * Set based version of {@link #attachIfAvailableInRepository(Waveform)}.
+     * Rows are matched by id, or otherwise on the same event, network,
+     * station and frequency band keeping the highest id like
+     * {@link WaveformRepository#findByUniqueFields}.
+     */
+    private List<Waveform> attachAllIfAvailableInRepository(List<Waveform> entries) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> eventIds = new HashSet<>();
+        Set<String> stationNames = new HashSet<>();
+        for (Waveform entry : entries) {
+            if (entry.getId() != null) {
+                ids.add(entry.getId());
+            } else if (uniqueKey(entry) != null) {
+                eventIds.add(entry.getEvent().getEventId());
+                stationNames.add(entry.getStream().getStation().getStationName());
+            }
+        }
+
+        Map<Long, Waveform> storedById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            waveformRepository.findAllWithPicksByIds(ids).forEach(w -> storedById.put(w.getId(), w));
+        }
+        Map<List<Object>, Waveform> storedByKey = new HashMap<>();
+        if (!eventIds.isEmpty()) {
+            for (Waveform stored : waveformRepository.findAllByEventIdsAndStationNames(eventIds, stationNames)) {
+                List<Object> key = uniqueKey(stored);
+                if (key != null) {
+                    storedByKey.merge(key, stored, (a, b) -> a.getId() > b.getId() ? a : b);
+                }
+            }
+        }
+
+        List<Waveform> merged = new ArrayList<>(entries.size());
+        for (Waveform entry : entries) {
+            Waveform stored = entry.getId() != null ? storedById.get(entry.getId()) : storedByKey.get(uniqueKey(entry));
+            merged.add(stored != null ? stored.mergeNonNullOrEmptyFields(entry) : entry);
+        }
+        return merged;
+    }
+
+    private static List<Object> uniqueKey(Waveform waveform) {
+        if (waveform.getEvent() == null || waveform.getStream() == null || waveform.getStream().getStation() == null) {
+            return null;
+        }
+        String eventId = waveform.getEvent().getEventId();
+        String networkName = waveform.getStream().getStation().getNetworkName();
+        String stationName = waveform.getStream().getStation().getStationName();
+        if (eventId == null || networkName == null || stationName == null || waveform.getLowFrequency() == null || waveform.getHighFrequency() == null) {
+            return null;
+        }
+        return Arrays.asList(eventId, networkName, stationName, waveform.getLowFrequency(), waveform.getHighFrequency());
+    }
+
     private List<Long> getIds(Waveform waveform) {
         return getIds(Collections.singletonList(waveform));
     }
@@ -276,6 +442,22 @@ public class WaveformServiceImpl implements WaveformService {
         return waveformRepository.findAllActiveStacksByStationNames(stationNames);
     }
 
+    @Override
+    public List<Waveform> findAllActiveStacksByEventIdAndStationNames(String eventId, List<String> stationNames, boolean loadSegments) {
+        if (loadSegments) {
+            return findAllActiveStacksByEventIdAndStationNames(eventId, stationNames);
+        }
+        return attachPickMetadata(waveformRepository.findAllActiveStackMetadataByEventIdAndStationNames(eventId, stationNames));
+    }
+
+    @Override
+    public List<Waveform> getAllActiveStacksInStationNames(List<String> stationNames, boolean loadSegments) {
+        if (loadSegments) {
+            return getAllActiveStacksInStationNames(stationNames);
+        }
+        return attachPickMetadata(waveformRepository.findAllActiveStackMetadataByStationNames(stationNames));
+    }
+
     @Override
     public List<Waveform> getSharedEventStationStacksById(Long id) {
         return waveformRepository.findAllSharedEventStationStacksById(id);
@@ -14,16 +14,49 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.util;
 
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
 import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Component
 public class WaveformToTimeSeriesConverter {
 
+    private WaveformRepository waveformRepository;
+
+    public WaveformToTimeSeriesConverter() {
+        //NOP
+    }
+
+    @Autowired
+    public WaveformToTimeSeriesConverter(WaveformRepository waveformRepository) {
+        this.waveformRepository = waveformRepository;
+    }
+
     public TimeSeries convert(Waveform waveform) {
-        return new TimeSeries(WaveformUtils.doublesToFloats(waveform.getSegment()), waveform.getSampleRate(), new TimeT(waveform.getBeginTime()));
+        return new TimeSeries(WaveformUtils.doublesToFloats(getSegment(waveform)), waveform.getSampleRate(), new TimeT(waveform.getBeginTime()));
+    }
+
+    /**
+     * Returns the samples of the waveform, fetching them from the repository
+     * if the waveform was loaded without its segment. Fetched samples are not
+     * kept on the waveform.
+     */
+    public double[] getSegment(Waveform waveform) {
+        if (waveform.hasData()) {
+            return waveform.getSegment();
+        }
+        if (waveformRepository == null || waveform.getId() == null) {
+            throw new IllegalStateException("Waveform " + waveform.getId() + " has no segment loaded and it cannot be fetched");
+        }
+        DoubleArrayList segment = waveformRepository.findSegmentById(waveform.getId());
+        if (segment == null) {
+            throw new IllegalStateException("No segment stored for waveform " + waveform.getId());
+        }
+        return segment.toArray();
     }
 }
@@ -14,6 +14,7 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.util;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -26,7 +27,165 @@ import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 public class WaveformUtils {
+    private static final int NOISE_BINS = 100;
+
+    private static final ThreadLocal<NoiseFloorScratch> NOISE_SCRATCH = ThreadLocal.withInitial(NoiseFloorScratch::new);
+
+    private static final class NoiseFloorScratch {
+        private double[] values = new double[0];
+        private final long[] binCounts = new long[NOISE_BINS];
+        private final double[] binMeans = new double[NOISE_BINS];
+    }
+
+    /**
+     * Estimates the noise level of a (log10) envelope as the lesser of its
+     * median and the mean of the most populated of 100 equal width amplitude
+     * bins.
+     *
+     * Works on a per thread scratch copy with a quickselect median and a
+     * primitive histogram, reproducing the commons-math
+     * {@link DescriptiveStatistics} 50th percentile and
+     * {@link EmpiricalDistribution} bin means it was originally written
+     * against. Empty or non-finite input still goes through commons-math so
+     * its NaN and infinity handling is unchanged.
+     *
+     * @param waveform
+     *            the envelope samples, left unmodified
+     * @return the noise floor estimate
+     */
     public static double getNoiseFloor(double[] waveform) {
+        int n = waveform.length;
+        if (n == 0) {
+            return getNoiseFloorWithBinStats(waveform);
+        }
+        NoiseFloorScratch scratch = NOISE_SCRATCH.get();
+        if (scratch.values.length < n) {
+            scratch.values = new double[n];
+        }
+        double[] values = scratch.values;
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double value = waveform[i];
+            if (!Double.isFinite(value)) {
+                return getNoiseFloorWithBinStats(waveform);
+            }
+            values[i] = value;
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        long[] binCounts = scratch.binCounts;
+        double[] binMeans = scratch.binMeans;
+        Arrays.fill(binCounts, 0L);
+        Arrays.fill(binMeans, 0.0);
+        double delta = (max - min) / NOISE_BINS;
+        for (int i = 0; i < n; i++) {
+            double value = values[i];
+            int bin = Math.min(Math.max((int) Math.ceil((value - min) / delta) - 1, 0), NOISE_BINS - 1);
+            long count = ++binCounts[bin];
+            // Incremental mean, matching SummaryStatistics to the last bit
+            binMeans[bin] += (value - binMeans[bin]) / count;
+        }
+
+        double noise = median(values, n);
+
+        long lastCount = 0;
+        double maxBinVal = noise;
+        for (int bin = 0; bin < NOISE_BINS; bin++) {
+            if (binCounts[bin] > lastCount) {
+                lastCount = binCounts[bin];
+                maxBinVal = binMeans[bin];
+            }
+        }
+
+        if (maxBinVal < noise) {
+            noise = maxBinVal;
+        }
+        return noise;
+    }
+
+    /**
+     * The legacy (R_6 style) 50th percentile {@link DescriptiveStatistics}
+     * reports, reorders the first {@code n} values in place.
+     */
+    private static double median(double[] values, int n) {
+        double pos = 0.5 * (n + 1);
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        if (intPos >= n) {
+            return select(values, n, n - 1);
+        }
+        double lower = select(values, n, intPos - 1);
+        // Everything past the selected index is at least as large so the next
+        // order statistic is just the smallest of them
+        double upper = values[intPos];
+        for (int i = intPos + 1; i < n; i++) {
+            if (values[i] < upper) {
+                upper = values[i];
+            }
+        }
+        return lower + (pos - fpos) * (upper - lower);
+    }
+
+    /**
+     * Quickselect with a median of three pivot, leaves the k-th smallest of
+     * the first {@code n} values at index {@code k} with nothing smaller
+     * after it.
+     */
+    private static double select(double[] values, int n, int k) {
+        int left = 0;
+        int right = n - 1;
+        while (right > left) {
+            int mid = (left + right) >>> 1;
+            if (values[mid] < values[left]) {
+                swap(values, left, mid);
+            }
+            if (values[right] < values[left]) {
+                swap(values, left, right);
+            }
+            if (values[right] < values[mid]) {
+                swap(values, mid, right);
+            }
+            double pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+    static double getNoiseFloorWithBinStats(double[] waveform) {
         DescriptiveStatistics stats = new DescriptiveStatistics();
         double[] values = new double[waveform.length];
         for (int i = 0; i < waveform.length; i++) {
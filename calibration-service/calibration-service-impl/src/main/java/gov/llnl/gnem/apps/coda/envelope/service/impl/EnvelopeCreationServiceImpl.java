@@ -14,18 +14,24 @@
 */
 package gov.llnl.gnem.apps.coda.envelope.service.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
@@ -38,7 +44,7 @@ import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeParamsService;
 import gov.llnl.gnem.apps.coda.envelope.service.api.WaveformStacker;
-import llnl.gnem.core.util.Passband;
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Service
@@ -52,6 +58,15 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
 
     private WaveformStacker stacker;
 
+    @Value("${envelope-app.spectral-filter-bank:false}")
+    private boolean spectralFilterBank;
+
+    @Value("${envelope-app.envelope-engine:COMPLEX_FFT}")
+    private EnvelopeEngine envelopeEngine;
+
+    @Value("${envelope-app.stream-window:16}")
+    private int streamWindow;
+
     @Autowired
     public EnvelopeCreationServiceImpl(WaveformToTimeSeriesConverter converter, EnvelopeParamsService params, WaveformStacker stacker) {
         this.converter = converter;
@@ -61,9 +76,16 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
 
     @Override
     public Result<List<Waveform>> createEnvelopes(Long sessionId, Collection<Waveform> waveforms, EnvelopeJobConfiguration envConf, boolean shouldReturnStacks) {
+        List<Waveform> results = new ArrayList<>();
+        Result<Integer> emitted = createEnvelopes(sessionId, waveforms, envConf, shouldReturnStacks, results::add);
+        return new Result<>(emitted.isSuccess(), emitted.getErrors(), results);
+    }
+
+    @Override
+    public Result<Integer> createEnvelopes(Long sessionId, Collection<Waveform> waveforms, EnvelopeJobConfiguration envConf, boolean shouldReturnStacks, Consumer<Waveform> sink) {
         if (waveforms == null || waveforms.isEmpty()) {
             // TODO: Propagate warning to the status API
-            return new Result<>(false, Collections.singletonList(new LightweightIllegalStateException("No waveforms provided; unable to compute envelopes.")), Collections.emptyList());
+            return new Result<>(false, Collections.singletonList(new LightweightIllegalStateException("No waveforms provided; unable to compute envelopes.")), 0);
         }
 
         if (envConf == null) {
@@ -74,34 +96,83 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
             // TODO: Propagate warning to the status API
             return new Result<>(false,
                                 Collections.singletonList(new LightweightIllegalStateException("No configuration specified but is required for this endpoint; unable to compute envelopes.")),
-                                Collections.emptyList());
+                                0);
         }
 
         Set<Waveform> distinctWaveforms = new HashSet<>(waveforms);
-        List<Waveform> results = generateEnvelopesForBands(distinctWaveforms.stream().filter(Objects::nonNull).collect(Collectors.toList()), envConf);
-        if (shouldReturnStacks) {
-            results = results.stream()
-                             .filter(w -> w.getEvent() != null && w.getLowFrequency() != null && w.getStream() != null && w.getStream().getStation() != null)
-                             .collect(Collectors.groupingBy(w -> w.getEvent().getEventId() + w.getLowFrequency() + w.getStream().getStation().hashCode()))
-                             .values()
-                             .stream()
-                             .map(waves -> {
-                                 return stacker.stackEnvelopes(waves);
-                             })
-                             .collect(Collectors.toList());
+        List<List<Waveform>> groups = groupByEventAndStation(distinctWaveforms.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+
+        // Every band of every component of an event/station has to be done
+        // before it can be stacked so work through whole groups, a window at
+        // a time, and hand off the results before starting on the next window
+        int window = Math.max(1, streamWindow);
+        int emitted = 0;
+        for (int i = 0; i < groups.size(); i += window) {
+            List<Waveform> rawWaveforms = groups.subList(i, Math.min(i + window, groups.size())).stream().flatMap(List::stream).collect(Collectors.toList());
+            List<Waveform> results = generateEnvelopesForBands(rawWaveforms, envConf);
+            if (shouldReturnStacks) {
+                results = stackEnvelopes(results);
+            }
+            for (Waveform result : results) {
+                sink.accept(result);
+                emitted++;
+            }
+        }
+        return new Result<>(true, emitted);
+    }
+
+    private List<List<Waveform>> groupByEventAndStation(List<Waveform> rawWaveforms) {
+        Map<Object, List<Waveform>> groups = new LinkedHashMap<>();
+        for (Waveform wave : rawWaveforms) {
+            Object key;
+            if (wave.getEvent() != null && wave.getStream() != null && wave.getStream().getStation() != null) {
+                key = wave.getEvent().getEventId() + wave.getStream().getStation().hashCode();
+            } else {
+                // Can't be stacked with anything so it gets a group of its own
+                key = new Object();
+            }
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(wave);
         }
-        return new Result<>(true, results);
+        return new ArrayList<>(groups.values());
+    }
+
+    private List<Waveform> stackEnvelopes(List<Waveform> envelopes) {
+        return envelopes.stream()
+                        .filter(w -> w.getEvent() != null && w.getLowFrequency() != null && w.getStream() != null && w.getStream().getStation() != null)
+                        .collect(Collectors.groupingBy(w -> w.getEvent().getEventId() + w.getLowFrequency() + w.getStream().getStation().hashCode()))
+                        .values()
+                        .stream()
+                        .map(waves -> {
+                            return stacker.stackEnvelopes(waves);
+                        })
+                        .collect(Collectors.toList());
     }
 
     private List<Waveform> generateEnvelopesForBands(List<Waveform> rawWaveforms, EnvelopeJobConfiguration envConf) {
         return rawWaveforms.parallelStream().map(wave -> {
-            return envConf.getFrequencyBandConfiguration().parallelStream().map(bandConfig -> {
-                return createEnvelopeForBand(wave, bandConfig);
+            EnvelopeFilterBank filterBank = createFilterBank(wave);
+            if (filterBank == null) {
+                return Stream.<Waveform>empty();
+            }
+            // Spectral banks reuse their scratch buffers so their bands run
+            // one at a time
+            Stream<EnvelopeBandParameters> bands = spectralFilterBank ? envConf.getFrequencyBandConfiguration().stream() : envConf.getFrequencyBandConfiguration().parallelStream();
+            return bands.map(bandConfig -> {
+                return createEnvelopeForBand(wave, filterBank, bandConfig);
             }).filter(Objects::nonNull);
         }).flatMap(Function.identity()).collect(Collectors.toList());
     }
 
-    private Waveform createEnvelopeForBand(Waveform wave, EnvelopeBandParameters bandConfig) {
+    private EnvelopeFilterBank createFilterBank(Waveform wave) {
+        try {
+            return new EnvelopeFilterBank(converter.convert(wave), spectralFilterBank, envelopeEngine);
+        } catch (Exception e) {
+            log.info(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private Waveform createEnvelopeForBand(Waveform wave, EnvelopeFilterBank filterBank, EnvelopeBandParameters bandConfig) {
         try {
             Waveform seisWave = new Waveform().mergeNonNullOrEmptyFields(wave);
 
@@ -111,8 +182,6 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
                 return null;
             }
 
-            TimeSeries seis = converter.convert(wave);
-
             //Note these mutate the series
             double maxNeededRate = sampRate;
             if (maxNeededRate > bandConfig.getHighFrequency() * 2.0) {
@@ -122,13 +191,7 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
                 maxNeededRate = bandConfig.getInterpolation();
             }
 
-            seis.RemoveMean();
-            seis.removeTrend();
-            seis.Taper(1);
-
-            seis.filter(4, Passband.BAND_PASS, bandConfig.getLowFrequency(), bandConfig.getHighFrequency(), true);
-
-            seis.Envelope();
+            TimeSeries seis = filterBank.envelope(bandConfig.getLowFrequency(), bandConfig.getHighFrequency());
             seis.Log10();
 
             int smoothing = bandConfig.getSmoothing();
@@ -0,0 +1,170 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
+import llnl.gnem.core.signalprocessing.filter.ButterworthFilter;
+import llnl.gnem.core.signalprocessing.filter.IIRFilter;
+import llnl.gnem.core.util.Passband;
+import llnl.gnem.core.waveform.seismogram.TimeSeries;
+
+/**
+ * Produces band limited envelopes of a single raw trace. The mean and trend
+ * removal and the taper are done once for the trace instead of once per band.
+ *
+ * <p>
+ * In the default time domain mode each band runs the same two-pass 4-pole
+ * Butterworth and Hilbert envelope as before on a copy of the shared
+ * preprocessed trace, so results are unchanged and bands can be processed
+ * concurrently. The Hilbert transform behind each envelope is done by the
+ * configured {@link EnvelopeEngine}.
+ *
+ * <p>
+ * In spectral mode the trace is forward transformed once. Each band applies
+ * the squared magnitude response of the same Butterworth filter (the steady
+ * state response of the two-pass filter) and the analytic signal mask to that
+ * shared spectrum, then needs a single inverse transform into a scratch buffer
+ * reused across bands. Results differ from the time domain filter only by its
+ * start-up transients near the tapered trace edges. A bank in spectral mode
+ * is not thread safe.
+ */
+public class EnvelopeFilterBank {
+
+    private static final int R = 0;
+    private static final int I = 1;
+    private static final int FILTER_ORDER = 4;
+    private static final int MAX_CACHED_RESPONSES = 128;
+    private static final Map<String, double[]> GAIN_CACHE = new ConcurrentHashMap<>();
+
+    private final TimeSeries preprocessed;
+    private final boolean spectral;
+    private final EnvelopeEngine engine;
+
+    private double[][] spectrum;
+    private double[][] scratch;
+
+    public EnvelopeFilterBank(TimeSeries seis, boolean spectral) {
+        this(seis, spectral, EnvelopeEngine.COMPLEX_FFT);
+    }
+
+    public EnvelopeFilterBank(TimeSeries seis, boolean spectral, EnvelopeEngine engine) {
+        seis.RemoveMean();
+        seis.removeTrend();
+        seis.Taper(1);
+        this.preprocessed = seis;
+        this.spectral = spectral;
+        this.engine = engine;
+    }
+
+    /**
+     * @return the envelope (linear amplitude) of the trace band passed between
+     *         the given corners
+     */
+    public TimeSeries envelope(double lowFrequency, double highFrequency) {
+        TimeSeries seis = new TimeSeries(preprocessed);
+        if (spectral) {
+            seis.setData(spectralEnvelope(lowFrequency, highFrequency));
+            return seis;
+        }
+        seis.filter(FILTER_ORDER, Passband.BAND_PASS, lowFrequency, highFrequency, true);
+        seis.Envelope(engine);
+        return seis;
+    }
+
+    private float[] spectralEnvelope(double lowFrequency, double highFrequency) {
+        if (spectrum == null) {
+            spectrum = forwardSpectrum();
+            scratch = new double[2][spectrum[R].length];
+        }
+        int n = spectrum[R].length;
+        int half = n / 2;
+        double[] gain = twoPassGain(lowFrequency, highFrequency, preprocessed.getSamprate(), n);
+
+        double[] re = scratch[R];
+        double[] im = scratch[I];
+        for (int k = 0; k <= half; k++) {
+            // One-sided spectrum for the analytic signal
+            double g = (k == 0 || k == half) ? gain[k] : 2.0 * gain[k];
+            re[k] = spectrum[R][k] * g;
+            im[k] = spectrum[I][k] * g;
+        }
+        for (int k = half + 1; k < n; k++) {
+            re[k] = 0.0;
+            im[k] = 0.0;
+        }
+
+        FastFourierTransformer.transformInPlace(scratch, DftNormalization.STANDARD, TransformType.INVERSE);
+
+        float[] envelope = new float[preprocessed.getLength()];
+        for (int i = 0; i < envelope.length; i++) {
+            envelope[i] = (float) Math.sqrt(re[i] * re[i] + im[i] * im[i]);
+        }
+        return envelope;
+    }
+
+    private double[][] forwardSpectrum() {
+        float[] data = preprocessed.getData();
+        // Pad to at least twice the length so the filter response wrapping
+        // around the end of the transform lands in the zero padding
+        int n = Integer.highestOneBit(Math.max(2, data.length * 2) - 1) << 1;
+        double[][] seq = new double[2][n];
+        for (int i = 0; i < data.length; i++) {
+            seq[R][i] = data[i];
+        }
+        FastFourierTransformer.transformInPlace(seq, DftNormalization.STANDARD, TransformType.FORWARD);
+        return seq;
+    }
+
+    /**
+     * Squared magnitude response of the Butterworth band pass for bins 0 to
+     * n/2, taken from the transform of the filter's own impulse response.
+     * Responses only depend on the band, sample rate and transform length so
+     * they are shared between traces.
+     */
+    private static double[] twoPassGain(double lowFrequency, double highFrequency, double sampleRate, int n) {
+        String key = lowFrequency + ":" + highFrequency + ":" + sampleRate + ":" + n;
+        double[] gain = GAIN_CACHE.get(key);
+        if (gain == null) {
+            float[] impulse = new float[n];
+            impulse[0] = 1f;
+            IIRFilter filter = new ButterworthFilter(FILTER_ORDER, Passband.BAND_PASS, lowFrequency, highFrequency, 1.0 / sampleRate);
+            filter.initialize();
+            filter.filter(impulse);
+
+            double[][] response = new double[2][n];
+            for (int i = 0; i < n; i++) {
+                response[R][i] = impulse[i];
+            }
+            FastFourierTransformer.transformInPlace(response, DftNormalization.STANDARD, TransformType.FORWARD);
+
+            gain = new double[n / 2 + 1];
+            for (int k = 0; k < gain.length; k++) {
+                gain[k] = response[R][k] * response[R][k] + response[I][k] * response[I][k];
+            }
+            if (GAIN_CACHE.size() >= MAX_CACHED_RESPONSES) {
+                GAIN_CACHE.clear();
+            }
+            GAIN_CACHE.put(key, gain);
+        }
+        return gain;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent.Status;
+import gov.llnl.gnem.apps.coda.calibration.service.api.AutopickingService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.DatabaseCleaningService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.PathCalibrationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.PeakVelocityMeasurementService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ShapeCalibrationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SiteCalibrationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticCodaGenerationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ValidationMwParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformPickService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
+
+@ExtendWith(MockitoExtension.class)
+public class CalibrationServiceImplIncrementalTest {
+
+    private static final FrequencyBand BAND_A = new FrequencyBand(1.0, 2.0);
+    private static final FrequencyBand BAND_B = new FrequencyBand(2.0, 3.0);
+
+    @Mock
+    private WaveformService waveformService;
+
+    @Mock
+    private PeakVelocityMeasurementService peakVelocityService;
+
+    @Mock
+    private SharedFrequencyBandParametersService sharedParametersService;
+
+    @Mock
+    private ShapeCalibrationService shapeCalibrationService;
+
+    @Mock
+    private SpectraMeasurementService spectraMeasurementService;
+
+    @Mock
+    private SyntheticCodaGenerationService syntheticGenerationService;
+
+    @Mock
+    private PathCalibrationService pathCalibrationService;
+
+    @Mock
+    private MdacParametersFiService mdacFiService;
+
+    @Mock
+    private MdacParametersPsService mdacPsService;
+
+    @Mock
+    private ReferenceMwParametersService referenceMwService;
+
+    @Mock
+    private ValidationMwParametersService validationMwService;
+
+    @Mock
+    private SiteCalibrationService siteCalibrationService;
+
+    @Mock
+    private SyntheticService syntheticService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private DatabaseCleaningService cleaningService;
+
+    @Mock
+    private ConfigurationService configService;
+
+    @Mock
+    private SiteFrequencyBandParametersService siteParamsService;
+
+    @Mock
+    private SpectraCalculator spectraCalc;
+
+    @Mock
+    private WaveformPickService pickService;
+
+    @Mock
+    private AutopickingService picker;
+
+    private final BlockingQueue<CalibrationStatusEvent> finished = new LinkedBlockingQueue<>();
+    private ExecutorService bandExecutor;
+    private ExecutorService measureExecutor;
+    private CalibrationServiceImpl calibrationService;
+
+    private List<Waveform> stacks;
+    private List<SharedFrequencyBandParameters> parameters;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        stacks = List.of(genWaveform(1L, BAND_A), genWaveform(2L, BAND_A), genWaveform(3L, BAND_B), genWaveform(4L, BAND_B));
+        parameters = List.of(genParameters(BAND_A), genParameters(BAND_B));
+
+        Mockito.when(sharedParametersService.findAll()).thenAnswer(inv -> parameters);
+        Mockito.when(sharedParametersService.save(Mockito.anyCollection())).thenAnswer(CalibrationServiceImplIncrementalTest::firstArgAsList);
+        Mockito.when(waveformService.getAllActiveStacks()).thenAnswer(inv -> new ArrayList<>(stacks));
+        Mockito.when(waveformService.save(Mockito.anyList())).thenAnswer(CalibrationServiceImplIncrementalTest::firstArgAsList);
+        Mockito.when(peakVelocityService.measureVelocities(Mockito.anyList(), Mockito.any())).thenAnswer(inv -> velocities(inv.getArgument(0)));
+        Mockito.when(peakVelocityService.save(Mockito.anyList())).thenAnswer(CalibrationServiceImplIncrementalTest::firstArgAsList);
+        Mockito.lenient()
+               .when(peakVelocityService.findAllByFrequencyBand(Mockito.any()))
+               .thenAnswer(inv -> velocities(stacks.stream().filter(w -> bandOf(w).equals(inv.getArgument(0))).collect(Collectors.toList())));
+        Mockito.lenient().when(shapeCalibrationService.measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any())).thenAnswer(inv -> inv.getArgument(1));
+        Mockito.lenient().when(shapeCalibrationService.measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any(), Mockito.anySet())).thenAnswer(inv -> inv.getArgument(1));
+        Mockito.lenient()
+               .when(shapeCalibrationService.measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any(), Mockito.anyBoolean(), Mockito.anyBoolean()))
+               .thenAnswer(inv -> inv.getArgument(1));
+        Mockito.when(pathCalibrationService.measurePathCorrections(Mockito.any(SpectraMeasurementTable.class), Mockito.anyMap(), Mockito.any())).thenAnswer(inv -> inv.getArgument(1));
+        Mockito.doAnswer(inv -> {
+            Object event = inv.getArgument(0);
+            if (event instanceof CalibrationStatusEvent status && (status.getStatus() == Status.COMPLETE || status.getStatus() == Status.ERROR)) {
+                finished.add(status);
+            }
+            return null;
+        }).when(notificationService).post(Mockito.any());
+
+        bandExecutor = Executors.newFixedThreadPool(2);
+        measureExecutor = Executors.newSingleThreadExecutor();
+        calibrationService = new CalibrationServiceImpl(waveformService,
+                                                        peakVelocityService,
+                                                        sharedParametersService,
+                                                        shapeCalibrationService,
+                                                        spectraMeasurementService,
+                                                        syntheticGenerationService,
+                                                        pathCalibrationService,
+                                                        mdacFiService,
+                                                        mdacPsService,
+                                                        referenceMwService,
+                                                        validationMwService,
+                                                        siteCalibrationService,
+                                                        syntheticService,
+                                                        notificationService,
+                                                        cleaningService,
+                                                        configService,
+                                                        siteParamsService,
+                                                        spectraCalc,
+                                                        pickService,
+                                                        picker,
+                                                        measureExecutor,
+                                                        new BandPipeline(bandExecutor),
+                                                        new CalibrationFingerprints());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        bandExecutor.shutdownNow();
+        measureExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testUnchangedBandsKeepVelocityAndShapeResults() throws Exception {
+        calibrate(false);
+        Mockito.clearInvocations(peakVelocityService, shapeCalibrationService);
+
+        calibrate(false);
+
+        assertEquals(Collections.emptyList(), measuredStacks(), "No stacks should be re-measured when nothing changed");
+        Mockito.verify(peakVelocityService, Mockito.never()).deleteAllByFrequencyBand(Mockito.any());
+        Mockito.verify(peakVelocityService, Mockito.never()).deleteAll();
+        Mockito.verify(shapeCalibrationService).measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any(), Mockito.eq(Collections.emptySet()));
+    }
+
+    @Test
+    public void testChangedPickOnlyInvalidatesItsBand() throws Exception {
+        calibrate(false);
+        Mockito.clearInvocations(peakVelocityService, shapeCalibrationService);
+
+        stacks.get(0).getAssociatedPicks().get(0).setPickTimeSecFromOrigin(60d);
+        calibrate(false);
+
+        assertOnlyMeasured(BAND_A, BAND_B);
+    }
+
+    @Test
+    public void testChangedParametersOnlyInvalidatesItsBand() throws Exception {
+        calibrate(false);
+        Mockito.clearInvocations(peakVelocityService, shapeCalibrationService);
+
+        parameters.get(1).setMinSnr(0.5);
+        calibrate(false);
+
+        assertOnlyMeasured(BAND_B, BAND_A);
+    }
+
+    @Test
+    public void testChangedWaveformOnlyInvalidatesItsBand() throws Exception {
+        calibrate(false);
+        Mockito.clearInvocations(peakVelocityService, shapeCalibrationService);
+
+        stacks.get(3).setSegment(new double[] { 3.0, 2.0, 1.0 });
+        calibrate(false);
+
+        assertOnlyMeasured(BAND_B, BAND_A);
+    }
+
+    @Test
+    public void testAutoPickingRunsFullCalibration() throws Exception {
+        calibrate(false);
+        Mockito.clearInvocations(peakVelocityService, shapeCalibrationService);
+
+        calibrate(true);
+
+        assertEquals(stacks, measuredStacks(), "Auto-picking should re-measure every stack");
+        Mockito.verify(peakVelocityService).deleteAll();
+        Mockito.verify(peakVelocityService, Mockito.never()).deleteAllByFrequencyBand(Mockito.any());
+        Mockito.verify(peakVelocityService, Mockito.never()).findAllByFrequencyBand(Mockito.any());
+        Mockito.verify(shapeCalibrationService).measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any());
+        Mockito.verify(shapeCalibrationService, Mockito.never()).measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any(), Mockito.anySet());
+        Mockito.clearInvocations(peakVelocityService);
+
+        // Auto-picking rewrites the picks so nothing from it is reusable
+        calibrate(false);
+        assertEquals(stacks, measuredStacks(), "A run after auto-picking should not reuse anything");
+    }
+
+    private void assertOnlyMeasured(FrequencyBand changed, FrequencyBand unchanged) throws Exception {
+        List<Waveform> measured = measuredStacks();
+        assertFalse(measured.isEmpty());
+        assertTrue(measured.stream().allMatch(w -> bandOf(w).equals(changed)), "Only stacks in the changed band should be re-measured");
+        assertEquals(stacks.stream().filter(w -> bandOf(w).equals(changed)).count(), measured.size());
+        Mockito.verify(peakVelocityService).deleteAllByFrequencyBand(changed);
+        Mockito.verify(peakVelocityService, Mockito.never()).deleteAllByFrequencyBand(unchanged);
+        Mockito.verify(peakVelocityService, Mockito.never()).deleteAll();
+        Mockito.verify(shapeCalibrationService).measureShapes(Mockito.anyList(), Mockito.anyMap(), Mockito.any(), Mockito.eq(Set.of(changed)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Waveform> measuredStacks() {
+        ArgumentCaptor<List<Waveform>> measured = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(peakVelocityService).measureVelocities(measured.capture(), Mockito.any());
+        return measured.getValue();
+    }
+
+    private void calibrate(boolean autoPickingEnabled) throws Exception {
+        assertTrue(calibrationService.startCalibration(autoPickingEnabled, true));
+        CalibrationStatusEvent status = finished.poll(30, TimeUnit.SECONDS);
+        assertNotNull(status, "Calibration did not finish");
+        assertEquals(Status.COMPLETE, status.getStatus(), () -> "Calibration failed " + status.getError());
+    }
+
+    private static List<Object> firstArgAsList(InvocationOnMock inv) {
+        return new ArrayList<>((Collection<?>) inv.getArgument(0));
+    }
+
+    private static List<PeakVelocityMeasurement> velocities(List<Waveform> waveforms) {
+        return waveforms.stream().map(w -> new PeakVelocityMeasurement().setWaveform(w).setSnr(10.0)).collect(Collectors.toList());
+    }
+
+    private static FrequencyBand bandOf(Waveform waveform) {
+        return new FrequencyBand(waveform.getLowFrequency(), waveform.getHighFrequency());
+    }
+
+    private static SharedFrequencyBandParameters genParameters(FrequencyBand band) {
+        return new SharedFrequencyBandParameters().setLowFrequency(band.getLowFrequency()).setHighFrequency(band.getHighFrequency()).setMinSnr(1.0);
+    }
+
+    private static Waveform genWaveform(Long id, FrequencyBand band) {
+        Date origin = Date.from(Instant.EPOCH);
+        List<WaveformPick> picks = new ArrayList<>();
+        picks.add(new WaveformPick().setPickName(PICK_TYPES.F.getPhase()).setPickType(PICK_TYPES.F.name()).setPickTimeSecFromOrigin(50d));
+        return new Waveform().setId(id)
+                             .setEvent(new Event().setEventId("100").setOriginTime(origin))
+                             .setLowFrequency(band.getLowFrequency())
+                             .setHighFrequency(band.getHighFrequency())
+                             .setSegment(new double[] { 1.0, 2.0, 3.0 })
+                             .setAssociatedPicks(picks);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.CalibrationSettings.DistanceCalcMethod;
+import gov.llnl.gnem.apps.coda.calibration.repository.CalibrationSettingsRepository;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class EventStationDistanceCacheTest {
+
+    @AfterEach
+    protected void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testGetAndPut() {
+        EventStationDistanceCache cache = new EventStationDistanceCache();
+        assertTrue(Double.isNaN(cache.get(1.0, 2.0, 3.0, 4.0, 5.0, 6.0)));
+
+        cache.put(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 100.0);
+        cache.put(1.0, 2.0, 3.0, 4.0, 5.0, 7.0, 200.0);
+        assertEquals(100.0, cache.get(1.0, 2.0, 3.0, 4.0, 5.0, 6.0));
+        assertEquals(200.0, cache.get(1.0, 2.0, 3.0, 4.0, 5.0, 7.0));
+        assertTrue(Double.isNaN(cache.get(2.0, 1.0, 3.0, 4.0, 5.0, 6.0)));
+
+        cache.put(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 150.0);
+        assertEquals(150.0, cache.get(1.0, 2.0, 3.0, 4.0, 5.0, 6.0));
+    }
+
+    @Test
+    public void testGrowsAndStartsOverWhenFull() {
+        EventStationDistanceCache cache = new EventStationDistanceCache();
+        int entries = 1_000_000;
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, -i, 0.0, 10.0, 20.0, 0.0, i);
+            // The entry just written always survives a resize or restart
+            assertEquals(i, cache.get(i, -i, 0.0, 10.0, 20.0, 0.0));
+        }
+        int found = 0;
+        for (int i = 0; i < entries; i++) {
+            double distance = cache.get(i, -i, 0.0, 10.0, 20.0, 0.0);
+            if (!Double.isNaN(distance)) {
+                assertEquals(i, distance);
+                found++;
+            }
+        }
+        assertTrue(found > 0 && found < entries);
+    }
+
+    @Test
+    public void testSettingsChangeInvalidatesAgainAfterCommit() {
+        CalibrationSettings settings = new CalibrationSettings().setDistanceCalcMethod(DistanceCalcMethod.EPICENTRAL.getValue());
+        CalibrationSettingsRepository repository = Mockito.mock(CalibrationSettingsRepository.class);
+        Mockito.when(repository.findAll()).thenAnswer(invocation -> List.of(settings));
+        ConfigurationServiceImpl service = new ConfigurationServiceImpl(null, repository, null, null, null, null, null, null, null);
+
+        Event event = new Event().setLatitude(10.0).setLongitude(20.0).setDepth(100_000.0);
+        Station station = new Station().setLatitude(11.0).setLongitude(21.0).setElevation(0.0);
+        double epicentral = service.getEpicentralDistance(service.getEventCoord(event), service.getStationCoord(station));
+        double hypocentral = service.getHypocentralDistance(service.getEventCoord(event), service.getStationCoord(station));
+        assertNotEquals(epicentral, hypocentral, 1.0);
+        assertEquals(epicentral, service.getDistance(event, station));
+
+        // The settings change clears the cache inside its transaction, but a
+        // lookup before the commit still reads the old method
+        TransactionSynchronizationManager.initSynchronization();
+        service.invalidateDistances();
+        assertEquals(epicentral, service.getDistance(event, station));
+
+        settings.setDistanceCalcMethod(DistanceCalcMethod.HYPOCENTRAL.getValue());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(hypocentral, service.getDistance(event, station));
+    }
+}
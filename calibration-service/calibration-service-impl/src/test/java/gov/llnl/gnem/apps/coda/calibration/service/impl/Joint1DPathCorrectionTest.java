@@ -0,0 +1,177 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementTable;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.Joint1DPathCorrection.BandObservations;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class Joint1DPathCorrectionTest {
+
+    // p1, q, xcross and xtrans come before the site terms
+    private static final int NUM_TERMS = 4;
+    private static final double P2 = 1.0;
+    private static final double VPHASE = 3.5;
+    private static final double EFACT = Math.log10(Math.E);
+    private static final FrequencyBand BAND = new FrequencyBand(1.0, 1.5);
+    // Stations recorded per event, covers single station events and both
+    // even and odd counts for the median
+    private static final int[] STATIONS_PER_EVENT = { 1, 2, 3, 4, 5, 1, 6, 7, 2, 1, 3, 8 };
+    private static final int STATION_COUNT = 8;
+
+    private final Map<Event, Map<Station, Double>> dataMap = new LinkedHashMap<>();
+    private final Map<Event, Map<Station, Double>> distanceMap = new LinkedHashMap<>();
+    private final Map<Station, Integer> stationIdxMap = new HashMap<>();
+    private SpectraCalculator spectraCalc;
+    private Joint1DPathCorrection pathCorrection;
+    private SpectraMeasurementTable table;
+    private int[] stationIdx;
+
+    @BeforeEach
+    protected void setUp() {
+        Random random = new Random(17);
+        Station[] stations = new Station[STATION_COUNT];
+        for (int s = 0; s < STATION_COUNT; s++) {
+            stations[s] = new Station().setNetworkName("XX").setStationName("S" + s);
+            stationIdxMap.put(stations[s], NUM_TERMS + s);
+        }
+
+        SpectraMeasurementTable.Builder builder = new SpectraMeasurementTable.Builder();
+        for (int e = 0; e < STATIONS_PER_EVENT.length; e++) {
+            Event event = new Event().setEventId("E" + e).setOriginTime(new Date(e * 3_600_000L));
+            Map<Station, Double> data = new LinkedHashMap<>();
+            Map<Station, Double> distances = new LinkedHashMap<>();
+            int first = random.nextInt(STATION_COUNT);
+            for (int i = 0; i < STATIONS_PER_EVENT[e]; i++) {
+                Station station = stations[(first + i) % STATION_COUNT];
+                double raw = 2.0 + random.nextGaussian();
+                data.put(station, raw);
+                distances.put(station, 20.0 + random.nextDouble() * 1500.0);
+                builder.add(BAND, event, station, -1l, raw, 0.0, 0.0);
+            }
+            dataMap.put(event, data);
+            distanceMap.put(event, distances);
+        }
+        table = builder.build();
+        stationIdx = new int[table.getStationCount()];
+        for (int s = 0; s < stationIdx.length; s++) {
+            stationIdx[s] = stationIdxMap.get(table.getStation(s));
+        }
+
+        ConfigurationService configService = Mockito.mock(ConfigurationService.class);
+        Mockito.when(configService.getDistance(any(), any())).thenAnswer(invocation -> distanceMap.get(invocation.getArgument(0)).get(invocation.getArgument(1)));
+        spectraCalc = new SpectraCalculator(null, null, null, null, null, new VelocityConfiguration().setPhaseVelocityInKms(VPHASE), configService);
+        pathCorrection = new Joint1DPathCorrection(spectraCalc, null, configService);
+    }
+
+    /**
+     * The cost function as it was written over the per event maps, summed
+     * over every event. Events with a single station contribute nothing.
+     */
+    private double mapCostFunction(double[] optimizationParams) {
+        double freq0 = Math.sqrt(BAND.getLowFrequency() * BAND.getHighFrequency());
+        double total = 0.0;
+        for (Entry<Event, Map<Station, Double>> evidEntry : dataMap.entrySet()) {
+            Event evid = evidEntry.getKey();
+            Map<Station, Double> stationValues = new HashMap<>();
+            DoubleArrayList dataVec = new DoubleArrayList(evidEntry.getValue().size());
+            for (Entry<Station, Double> entry : evidEntry.getValue().entrySet()) {
+                double del = distanceMap.get(evid).get(entry.getKey());
+                double site = optimizationParams[stationIdxMap.get(entry.getKey())];
+                double p1 = Math.pow(10.0, optimizationParams[0]);
+                double q = Math.pow(10.0, optimizationParams[1]);
+                double xcross = Math.pow(10.0, optimizationParams[2]);
+                double xtrans = Math.pow(10.0, Math.pow(10.0, optimizationParams[3]));
+                double pdat = site + spectraCalc.log10ESHcorrection(p1, P2, xcross, xtrans, del) - del * Math.PI * freq0 * EFACT / (q * VPHASE);
+                double adjustedVal = entry.getValue() - pdat;
+                dataVec.add(adjustedVal);
+                stationValues.put(entry.getKey(), adjustedVal);
+            }
+
+            if (dataVec.size() > 1) {
+                double huberDel = .5d;
+                double median = dataVec.median();
+                for (Station station : evidEntry.getValue().keySet()) {
+                    double diff = Math.abs(stationValues.get(station) - median);
+                    total = total + (Math.pow(huberDel, 2.0) + (Math.sqrt(1d + Math.pow(diff / huberDel, 2.0)) - 1d));
+                }
+            }
+        }
+        return total;
+    }
+
+    private static double[] randomParams(Random random) {
+        double[] params = new double[NUM_TERMS + STATION_COUNT];
+        params[0] = -4.0 + random.nextDouble() * 3.0;
+        params[1] = Math.log10(50.0 + random.nextDouble() * 2000.0);
+        params[2] = Math.log10(50.0 + random.nextDouble() * 500.0);
+        params[3] = Math.log10(Math.log10(1.5 + random.nextDouble() * 2.0));
+        for (int i = NUM_TERMS; i < params.length; i++) {
+            params[i] = random.nextGaussian();
+        }
+        return params;
+    }
+
+    @Test
+    public void testCostFunctionMatchesMapImplementation() {
+        int band = table.getBandIndex(BAND);
+        int[] allGroups = new int[table.getBandGroupEnd(band) - table.getBandGroupStart(band)];
+        for (int i = 0; i < allGroups.length; i++) {
+            allGroups[i] = table.getBandGroupStart(band) + i;
+        }
+        BandObservations observations = pathCorrection.packObservations(table, allGroups, stationIdx, BAND, table.size(), VPHASE);
+
+        Random random = new Random(23);
+        for (int trial = 0; trial < 50; trial++) {
+            double[] params = randomParams(random);
+            double expected = mapCostFunction(params);
+            assertEquals(expected, pathCorrection.costFunction(observations, params), Math.abs(expected) * 1e-12, "trial " + trial);
+        }
+    }
+
+    @Test
+    public void testBandCostFunctionSkipsSingleStationEvents() {
+        int band = table.getBandIndex(BAND);
+        assertEquals(STATIONS_PER_EVENT.length, table.getBandGroupEnd(band) - table.getBandGroupStart(band));
+        assertEquals(STATIONS_PER_EVENT.length - 3, Joint1DPathCorrection.multiStationGroups(table, band).length);
+
+        Random random = new Random(29);
+        for (int trial = 0; trial < 50; trial++) {
+            double[] params = randomParams(random);
+            double expected = mapCostFunction(params);
+            assertEquals(expected, pathCorrection.bandCostFunction(table, BAND, stationIdx, VPHASE).applyAsDouble(params), Math.abs(expected) * 1e-12, "trial " + trial);
+        }
+    }
+}
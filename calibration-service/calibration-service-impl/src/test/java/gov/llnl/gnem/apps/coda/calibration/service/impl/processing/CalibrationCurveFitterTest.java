@@ -0,0 +1,89 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.EnvelopeFit;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+
+public class CalibrationCurveFitterTest {
+
+    private static final double SAMPLE_RATE = 1.0;
+    private static final double INTERCEPT = 6.0;
+    private static final double GAMMA = 1.2;
+    private static final double BETA = -0.008;
+
+    private static float[] envelope(int codaLength, int totalLength) {
+        Random random = new Random(7);
+        float[] data = new float[totalLength];
+        double floor = 0.0;
+        for (int j = 0; j < totalLength; j++) {
+            double t = (j / SAMPLE_RATE) + 1.0;
+            if (j < codaLength) {
+                data[j] = (float) (INTERCEPT - GAMMA * Math.log10(t) + BETA * t + 0.02 * random.nextGaussian());
+                floor = data[j];
+            } else {
+                data[j] = (float) (floor - 1.5 + 0.3 * random.nextGaussian());
+            }
+        }
+        return data;
+    }
+
+    private static ShapeFitterConstraints constraints() {
+        return new ShapeFitterConstraints().setMinIntercept(-10.0)
+                                           .setMaxIntercept(20.0)
+                                           .setMinGamma(0.0)
+                                           .setMaxGamma(4.0)
+                                           .setMinBeta(-0.1)
+                                           .setMaxBeta(0.01)
+                                           .setLengthWeight(0.5);
+    }
+
+    @Test
+    public void testFitRecoversShape() {
+        float[] segment = envelope(400, 400);
+        EnvelopeFit fit = new CalibrationCurveFitter().fitCodaCMAES(segment, SAMPLE_RATE, constraints(), 0.0);
+        assertEquals(INTERCEPT, fit.getIntercept(), 0.1);
+        assertEquals(GAMMA, fit.getGamma(), 0.1);
+        assertEquals(BETA, fit.getBeta(), 0.001);
+    }
+
+    @Test
+    public void testFitIsDeterministic() {
+        float[] segment = envelope(250, 400);
+        CalibrationCurveFitter fitter = new CalibrationCurveFitter();
+        EnvelopeFit first = fitter.fitCodaCMAES(segment, SAMPLE_RATE, constraints(), 10.0, true);
+        fitter.fitCodaCMAES(envelope(400, 400), SAMPLE_RATE, constraints(), 0.0);
+        EnvelopeFit second = fitter.fitCodaCMAES(segment, SAMPLE_RATE, constraints(), 10.0, true);
+        assertEquals(first.getIntercept(), second.getIntercept(), 0.0);
+        assertEquals(first.getGamma(), second.getGamma(), 0.0);
+        assertEquals(first.getBeta(), second.getBeta(), 0.0);
+        assertEquals(first.getEndTime(), second.getEndTime(), 0.0);
+        assertEquals(first.getError(), second.getError(), 0.0);
+    }
+
+    @Test
+    public void testAutoPickFindsEndOfCoda() {
+        float[] segment = envelope(250, 400);
+        EnvelopeFit fit = new CalibrationCurveFitter().fitCodaCMAES(segment, SAMPLE_RATE, constraints(), 10.0, true);
+        assertEquals(250.0, fit.getEndTime(), 15.0);
+        assertEquals(GAMMA, fit.getGamma(), 0.2);
+    }
+}
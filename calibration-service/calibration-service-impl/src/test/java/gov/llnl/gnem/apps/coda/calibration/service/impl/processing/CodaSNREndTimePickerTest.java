@@ -0,0 +1,63 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class CodaSNREndTimePickerTest {
+
+    private static final double START_TIME = 1000.0;
+    private static final double NOISE = 1.0;
+    private static final double MIN_SNR = 2.0;
+
+    private static float[] envelope(int length, int onset, double sampleRate) {
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            double value = NOISE;
+            if (i >= onset) {
+                double t = ((i - onset) / sampleRate) + 1.0;
+                value = Math.max(value, 6.0 - 1.2 * Math.log10(t) - 0.008 * t);
+            }
+            data[i] = (float) value;
+        }
+        return data;
+    }
+
+    @Test
+    public void testPicksWhereCodaDropsIntoNoise() {
+        double pick = new CodaSNREndTimePicker().getEndTime(envelope(600, 50, 1.0), 1.0, START_TIME, 50, 10.0, 500.0, MIN_SNR, NOISE);
+        assertEquals(START_TIME + 135.0, pick, 0.0);
+    }
+
+    @Test
+    public void testPickLimitedByMaxLength() {
+        double pick = new CodaSNREndTimePicker().getEndTime(envelope(600, 50, 1.0), 1.0, START_TIME, 50, 10.0, 60.0, MIN_SNR, NOISE);
+        assertEquals(START_TIME + 109.0, pick, 0.0);
+    }
+
+    @Test
+    public void testPicksAtHigherSampleRate() {
+        double pick = new CodaSNREndTimePicker().getEndTime(envelope(1200, 100, 2.0), 2.0, START_TIME, 100, 10.0, 500.0, MIN_SNR, NOISE);
+        assertEquals(START_TIME + 134.5, pick, 0.0);
+    }
+
+    @Test
+    public void testStartBelowNoiseIsBadPick() {
+        double pick = new CodaSNREndTimePicker().getEndTime(envelope(600, 50, 1.0), 1.0, START_TIME, 10, 10.0, 500.0, MIN_SNR, NOISE);
+        assertEquals(START_TIME - 100.0, pick, 0.0);
+    }
+}
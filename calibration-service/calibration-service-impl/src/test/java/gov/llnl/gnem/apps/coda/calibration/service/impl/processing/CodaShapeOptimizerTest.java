@@ -0,0 +1,236 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.SimpleBounds;
+import org.apache.commons.math3.optim.SimplePointChecker;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.EnvelopeFit;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+
+/**
+ * Compares {@link CalibrationCurveFitter#fitCodaCMAES} with the commons-math
+ * {@link CMAESOptimizer} fit it replaced. The two use different random
+ * streams, and the commons fit can stall in a worse local minimum for some
+ * seeds, so the reference is the best of a few seeded commons runs. The
+ * parameters and misfit have to agree to within the tolerances below, which
+ * are well inside the spread of the shape parameters between stations.
+ */
+public class CodaShapeOptimizerTest {
+
+    private static final double HUBER_DEL = 0.5;
+    private static final double RELATIVE_THRESHOLD = 1e-5;
+    private static final int POPULATION_SIZE = 50;
+
+    private static final double INTERCEPT_TOLERANCE = 0.02;
+    private static final double GAMMA_TOLERANCE = 0.02;
+    private static final double BETA_TOLERANCE = 2e-4;
+    private static final double END_TIME_TOLERANCE = 2.0;
+    // Relative, the end time sits on a plateau of the objective so the misfit
+    // (value / end time) moves by a fraction of a percent along it
+    private static final double MISFIT_TOLERANCE = 5e-3;
+    private static final int REFERENCE_SEEDS = 5;
+
+    private static float[] envelope(long seed, double sampleRate, double intercept, double gamma, double beta, int codaLength, int totalLength) {
+        Random random = new Random(seed);
+        float[] data = new float[totalLength];
+        double floor = 0.0;
+        for (int j = 0; j < totalLength; j++) {
+            double t = (j / sampleRate) + 1.0;
+            if (j < codaLength) {
+                data[j] = (float) (intercept - gamma * Math.log10(t) + beta * t + 0.05 * random.nextGaussian());
+                floor = data[j];
+            } else {
+                data[j] = (float) (floor - 1.5 + 0.3 * random.nextGaussian());
+            }
+        }
+        return data;
+    }
+
+    private static ShapeFitterConstraints constraints() {
+        return new ShapeFitterConstraints().setMinIntercept(-10.0)
+                                           .setMaxIntercept(20.0)
+                                           .setMinGamma(0.0)
+                                           .setMaxGamma(4.0)
+                                           .setMinBeta(-0.1)
+                                           .setMaxBeta(0.01)
+                                           .setLengthWeight(0.5);
+    }
+
+    /**
+     * The shape fit as it was written against {@link CMAESOptimizer}, apart
+     * from the seeded generator and the midpoint start for a failed
+     * regression that the replacement also uses.
+     */
+    private static EnvelopeFit commonsFit(final float[] segment, final double sampleRate, ShapeFitterConstraints constraints, double startTime, boolean autoPickingEnabled, long seed) {
+        double minInt = constraints.getMinIntercept();
+        double maxInt = constraints.getMaxIntercept();
+        double minGamma = constraints.getMinGamma();
+        double maxGamma = constraints.getMaxGamma();
+        double minBeta = constraints.getMinBeta();
+        double maxBeta = constraints.getMaxBeta();
+        double lengthWeight = constraints.getLengthWeight();
+
+        double maxTime;
+        double minTime = Math.max(startTime, 2d);
+        if (autoPickingEnabled) {
+            maxTime = segment.length / sampleRate;
+        } else {
+            maxTime = minTime;
+        }
+        if (maxTime < minTime) {
+            minTime = segment.length / sampleRate;
+            maxTime = minTime;
+        }
+        boolean shouldAutoPick = autoPickingEnabled && maxTime > minTime;
+
+        SimpleRegression regression = new SimpleRegression();
+        for (int j = 0; j < segment.length; j++) {
+            regression.addData((j / sampleRate) + 1, segment[j]);
+        }
+        double startIntercept = regression.getIntercept();
+        double startBeta = regression.getSlope();
+
+        MultivariateFunction prediction = point -> {
+            double intercept = point[0];
+            double gamma = point[1];
+            double beta = point[2];
+            double sum = 0.0;
+            int length;
+            if (shouldAutoPick) {
+                length = (int) (point[3] / sampleRate);
+            } else {
+                length = segment.length;
+            }
+
+            for (int j = 0; j < length; j++) {
+                double t = (j / sampleRate) + 1.0;
+                double predicted = intercept - (gamma * Math.log10(t)) + (beta * t);
+                sum = sum + (Math.pow(HUBER_DEL, 2.0) + (Math.sqrt(1d + Math.pow(Math.abs(predicted - segment[j]) / HUBER_DEL, 2.0)) - 1d));
+            }
+            sum = sum / length;
+            return sum - ((sum * lengthWeight) * ((double) length / segment.length));
+        };
+
+        if (Double.isNaN(startIntercept)) {
+            startIntercept = (minInt + maxInt) / 2.0;
+            startBeta = minBeta;
+        } else if (startBeta > maxBeta) {
+            startBeta = maxBeta;
+        } else if (startBeta < minBeta) {
+            startBeta = minBeta;
+        }
+
+        CMAESOptimizer optimizer = new CMAESOptimizer(1000000, 0, true, 0, 10, new MersenneTwister(seed), true, new SimplePointChecker<>(RELATIVE_THRESHOLD, -1.0, 100000));
+        PointValuePair result = optimizer.optimize(
+                new MaxEval(1000000),
+                    new ObjectiveFunction(prediction),
+                    GoalType.MINIMIZE,
+                    new SimpleBounds(new double[] { -Double.MAX_VALUE, minGamma, minBeta, minTime }, new double[] { Double.MAX_VALUE, maxGamma, maxBeta, maxTime }),
+                    new InitialGuess(new double[] { startIntercept, minGamma, startBeta, maxTime }),
+                    new CMAESOptimizer.Sigma(new double[] { (maxInt - minInt) / 2.0, (maxGamma - minGamma) / 2.0, (maxBeta - minBeta) / 2.0, (maxTime - minTime) / 2.0 }),
+                    new CMAESOptimizer.PopulationSize(POPULATION_SIZE));
+
+        double[] curve = result.getKey();
+        EnvelopeFit fit = new EnvelopeFit();
+        fit.setIntercept(curve[0]);
+        fit.setGamma(curve[1]);
+        fit.setBeta(curve[2]);
+        if (shouldAutoPick) {
+            fit.setEndTime(curve[3]);
+            fit.setError(result.getValue() / curve[3]);
+        } else {
+            fit.setError(result.getValue() / segment.length);
+        }
+        return fit;
+    }
+
+    private static EnvelopeFit bestCommonsFit(float[] segment, double sampleRate, double startTime, boolean autoPick) {
+        EnvelopeFit best = null;
+        for (long seed = 1; seed <= REFERENCE_SEEDS; seed++) {
+            EnvelopeFit fit = commonsFit(segment, sampleRate, constraints(), startTime, autoPick, seed);
+            if (best == null || fit.getError() < best.getError()) {
+                best = fit;
+            }
+        }
+        return best;
+    }
+
+    private static void assertSameFit(float[] segment, double sampleRate, double startTime, boolean autoPick) {
+        EnvelopeFit expected = bestCommonsFit(segment, sampleRate, startTime, autoPick);
+        EnvelopeFit actual = new CalibrationCurveFitter().fitCodaCMAES(segment, sampleRate, constraints(), startTime, autoPick);
+        String label = "length " + segment.length + " sample rate " + sampleRate + " auto pick " + autoPick;
+
+        assertEquals(expected.getIntercept(), actual.getIntercept(), INTERCEPT_TOLERANCE, label);
+        assertEquals(expected.getGamma(), actual.getGamma(), GAMMA_TOLERANCE, label);
+        assertEquals(expected.getBeta(), actual.getBeta(), BETA_TOLERANCE, label);
+        if (autoPick) {
+            assertEquals(expected.getEndTime(), actual.getEndTime(), END_TIME_TOLERANCE, label);
+        }
+        assertEquals(expected.getError(), actual.getError(), Math.abs(expected.getError()) * MISFIT_TOLERANCE, label);
+    }
+
+    @Test
+    public void testMatchesCommonsFitWithoutEndTime() {
+        assertSameFit(envelope(1, 1.0, 6.0, 1.2, -0.008, 400, 400), 1.0, 0.0, false);
+        assertSameFit(envelope(2, 1.0, 3.5, 0.4, -0.02, 150, 150), 1.0, 0.0, false);
+        assertSameFit(envelope(3, 2.0, 8.0, 2.1, -0.002, 600, 600), 2.0, 0.0, false);
+        assertSameFit(envelope(4, 1.0, -1.0, 0.8, -0.05, 90, 90), 1.0, 0.0, false);
+    }
+
+    @Test
+    public void testMatchesCommonsFitWithEndTime() {
+        assertSameFit(envelope(5, 1.0, 6.0, 1.2, -0.008, 250, 400), 1.0, 10.0, true);
+        assertSameFit(envelope(6, 1.0, 3.5, 0.4, -0.02, 120, 300), 1.0, 10.0, true);
+        assertSameFit(envelope(7, 2.0, 8.0, 2.1, -0.002, 500, 800), 2.0, 20.0, true);
+        assertSameFit(envelope(8, 1.0, 5.0, 1.0, -0.01, 300, 300), 1.0, 10.0, true);
+    }
+
+    @Test
+    public void testFailedRegressionStartsFromInterceptMidpoint() {
+        // A single sample leaves the start regression undefined
+        float[] segment = new float[] { 3.0f };
+        SimpleRegression regression = new SimpleRegression();
+        regression.addData(1.0, segment[0]);
+        assertTrue(Double.isNaN(regression.getIntercept()));
+
+        EnvelopeFit expected = bestCommonsFit(segment, 1.0, 0.0, false);
+        CalibrationCurveFitter fitter = new CalibrationCurveFitter();
+        EnvelopeFit actual = fitter.fitCodaCMAES(segment, 1.0, constraints(), 0.0, false);
+        EnvelopeFit repeated = fitter.fitCodaCMAES(segment, 1.0, constraints(), 0.0, false);
+
+        // Only intercept + beta is constrained by a sample at t = 1
+        assertEquals(segment[0], actual.getIntercept() + actual.getBeta(), 1e-3);
+        assertEquals(expected.getIntercept() + expected.getBeta(), actual.getIntercept() + actual.getBeta(), 1e-3);
+        assertEquals(expected.getError(), actual.getError(), Math.abs(expected.getError()) * MISFIT_TOLERANCE);
+        assertEquals(actual.getIntercept(), repeated.getIntercept(), 0.0);
+        assertEquals(actual.getError(), repeated.getError(), 0.0);
+    }
+}
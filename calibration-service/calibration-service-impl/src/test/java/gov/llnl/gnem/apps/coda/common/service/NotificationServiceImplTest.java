@@ -0,0 +1,130 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.RatioStatusEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.PassFailEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.impl.NotificationServiceImpl;
+
+public class NotificationServiceImplTest {
+
+    private final NotificationServiceImpl notificationService = new NotificationServiceImpl();
+
+    @AfterEach
+    public void tearDown() {
+        notificationService.shutdown();
+    }
+
+    @Test
+    public void testSynchronousListenerRunsBeforePostReturns() {
+        List<String> seen = new ArrayList<>();
+        notificationService.register(listener(String.class, seen::add));
+        notificationService.post("event");
+        assertThat(seen).containsExactly("event");
+    }
+
+    @Test
+    public void testChangeEventsAreCoalescedInOrder() throws Exception {
+        ReflectionTestUtils.setField(notificationService, "coalesceWindowMillis", 200L);
+        BlockingQueue<WaveformChangeEvent> seen = new LinkedBlockingQueue<>();
+        notificationService.registerAsync(listener(WaveformChangeEvent.class, seen::add));
+
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(1L, 2L)).setAddOrUpdate(true));
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(2L, 3L)).setAddOrUpdate(true));
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(1L)).setDelete(true));
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(4L)).setAddOrUpdate(true));
+
+        WaveformChangeEvent first = seen.poll(5, TimeUnit.SECONDS);
+        WaveformChangeEvent second = seen.poll(5, TimeUnit.SECONDS);
+        WaveformChangeEvent third = seen.poll(5, TimeUnit.SECONDS);
+        assertThat(first.getIds()).containsExactly(1L, 2L, 3L);
+        assertThat(first.isAddOrUpdate()).isTrue();
+        assertThat(second.getIds()).containsExactly(1L);
+        assertThat(second.isDelete()).isTrue();
+        assertThat(third.getIds()).containsExactly(4L);
+        assertThat(notificationService.getCoalescedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testFullQueueDropsEvents() {
+        ReflectionTestUtils.setField(notificationService, "coalesceWindowMillis", 60000L);
+        ReflectionTestUtils.setField(notificationService, "queueCapacity", 1);
+        notificationService.registerAsync(listener(String.class, event -> {
+        }));
+
+        notificationService.post("first");
+        notificationService.post("second");
+
+        assertThat(notificationService.getQueueDepth()).isEqualTo(1);
+        assertThat(notificationService.getDroppedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testFullQueueKeepsStatusEvents() throws Exception {
+        ReflectionTestUtils.setField(notificationService, "coalesceWindowMillis", 500L);
+        ReflectionTestUtils.setField(notificationService, "queueCapacity", 1);
+        BlockingQueue<Object> seen = new LinkedBlockingQueue<>();
+        notificationService.registerAsync(listener(Object.class, seen::add));
+
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(1L)).setAddOrUpdate(true));
+        notificationService.post("dropped");
+        notificationService.post(new WaveformChangeEvent(Arrays.asList(2L)).setDelete(true));
+        notificationService.post(new CalibrationStatusEvent(1L, CalibrationStatusEvent.Status.COMPLETE));
+        notificationService.post(new RatioStatusEvent(2L, RatioStatusEvent.Status.ERROR));
+        notificationService.post(new PassFailEvent(3L, "pass", new Result<>(true, Boolean.TRUE)));
+
+        assertThat(notificationService.getDroppedCount()).isEqualTo(2L);
+        List<Object> delivered = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            delivered.add(seen.poll(5, TimeUnit.SECONDS));
+        }
+        assertThat(delivered.get(0)).isInstanceOf(WaveformChangeEvent.class);
+        assertThat(delivered.get(1)).isInstanceOf(CalibrationStatusEvent.class);
+        assertThat(delivered.get(2)).isInstanceOf(RatioStatusEvent.class);
+        assertThat(delivered.get(3)).isInstanceOf(PassFailEvent.class);
+    }
+
+    private static <T> Listener<T> listener(Class<T> type, Consumer<T> consumer) {
+        return new Listener<T>() {
+            @Override
+            public void apply(T event) {
+                consumer.accept(event);
+            }
+
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+        };
+    }
+}
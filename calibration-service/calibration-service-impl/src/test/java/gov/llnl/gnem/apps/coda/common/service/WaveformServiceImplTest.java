@@ -18,7 +18,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
@@ -26,8 +31,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationServiceTestContext;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
@@ -39,6 +47,7 @@ import gov.llnl.gnem.apps.coda.common.model.test.annotations.IntTest;
 import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 import gov.llnl.gnem.apps.coda.common.service.impl.WaveformServiceImpl;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 
 @IntTest
 @DataJpaTest(showSql = false)
@@ -52,6 +61,10 @@ public class WaveformServiceImplTest {
     @Autowired
     private WaveformServiceImpl waveformService;
 
+    @Autowired
+    @Qualifier("WaveformIngestExecutorService")
+    private ExecutorService ingestService;
+
     @Mock
     private NotificationService notificationService;
 
@@ -101,6 +114,97 @@ public class WaveformServiceImplTest {
         assertThat(waveformService.findAll()).size().describedAs("Should have saved two waveform entries").isEqualTo(2);
     }
 
+    @Test
+    public void testLoadStacksWithoutSegments() throws Exception {
+        double[] segment = new double[] { 1.0, 2.0, 3.0 };
+        Waveform initialWaveform = genWaveform();
+        initialWaveform.getStream().setChannelName(Stream.TYPE_STACK);
+        initialWaveform.setSegment(segment);
+        Waveform saved = waveformService.save(new Waveform().mergeNonNullOrEmptyFields(initialWaveform));
+
+        List<Waveform> stacks = waveformService.getAllActiveStacksInStationNames(Collections.singletonList("STA1"), false);
+        assertThat(stacks).size().isEqualTo(1);
+        Waveform lazy = stacks.get(0);
+        assertThat(lazy.hasData()).describedAs("Segment should not be loaded").isFalse();
+        assertThat(lazy.getAssociatedPicks()).size().describedAs("Picks should still be loaded").isEqualTo(1);
+        assertThat(new WaveformToTimeSeriesConverter(waveformRepository).getSegment(lazy)).containsExactly(segment);
+
+        lazy.setMaxVelTime(Date.from(Instant.EPOCH.plusSeconds(10)));
+        Waveform updated = waveformService.save(lazy);
+        assertThat(updated.hasData()).describedAs("Saving should not load the segment back onto the result").isFalse();
+
+        Waveform stored = waveformService.findOne(saved.getId());
+        assertThat(stored.getSegment()).describedAs("Saving without a segment should keep the stored one").containsExactly(segment);
+        assertThat(stored.getMaxVelTime().getTime()).isEqualTo(10000L);
+    }
+
+    @Test
+    public void testSaveWithoutSegmentUpdatesPicks() throws Exception {
+        double[] segment = new double[] { 1.0, 2.0, 3.0 };
+        Waveform initialWaveform = genWaveform();
+        initialWaveform.getStream().setChannelName(Stream.TYPE_STACK);
+        initialWaveform.setSegment(segment);
+        Waveform saved = waveformService.save(new Waveform().mergeNonNullOrEmptyFields(initialWaveform));
+
+        Waveform lazy = waveformService.getAllActiveStacksInStationNames(Collections.singletonList("STA1"), false).get(0);
+        lazy.getAssociatedPicks().get(0).setPickTimeSecFromOrigin(25d);
+        lazy.getAssociatedPicks().add(new WaveformPick().setPickName("cs").setPickType("cs").setPickTimeSecFromOrigin(5d).setWaveform(lazy));
+        Waveform updated = waveformService.save(lazy);
+
+        assertThat(updated.hasData()).isFalse();
+        assertThat(updated.getVersion()).describedAs("Saving should bump the version").isGreaterThan(saved.getVersion());
+        Waveform stored = waveformService.findOne(saved.getId());
+        assertThat(stored.getSegment()).containsExactly(segment);
+        assertThat(stored.getAssociatedPicks()).extracting(WaveformPick::getPickName).containsExactlyInAnyOrder("f", "cs");
+        assertThat(stored.getAssociatedPicks()).filteredOn(p -> "f".equals(p.getPickName())).allMatch(p -> p.getPickTimeSecFromOrigin() == 25d);
+
+        updated.getAssociatedPicks().removeIf(p -> "f".equals(p.getPickName()));
+        waveformService.save(updated);
+        assertThat(waveformService.findOne(saved.getId()).getAssociatedPicks()).extracting(WaveformPick::getPickName).containsExactly("cs");
+    }
+
+    @Test
+    public void testLoadSegmentsInBatch() throws Exception {
+        Waveform first = genWaveform();
+        first.getStream().setChannelName(Stream.TYPE_STACK);
+        first.setSegment(new double[] { 1.0, 2.0 });
+        waveformService.save(new Waveform().mergeNonNullOrEmptyFields(first));
+        Waveform second = genWaveform().setLowFrequency(2.0).setHighFrequency(3.0);
+        second.getStream().setChannelName(Stream.TYPE_STACK);
+        second.setSegment(new double[] { 3.0, 4.0 });
+        waveformService.save(new Waveform().mergeNonNullOrEmptyFields(second));
+
+        List<Waveform> lazy = waveformService.getAllActiveStacksInStationNames(Collections.singletonList("STA1"), false);
+        assertThat(lazy).size().isEqualTo(2).returnToIterable().noneMatch(Waveform::hasData);
+
+        List<Waveform> loaded = waveformService.loadSegments(lazy);
+        assertThat(loaded).size().isEqualTo(2);
+        assertThat(lazy).allMatch(Waveform::hasData);
+        assertThat(lazy).filteredOn(w -> w.getLowFrequency() == 1.0).singleElement().extracting(Waveform::getSegment).isEqualTo(new double[] { 1.0, 2.0 });
+        assertThat(lazy).filteredOn(w -> w.getLowFrequency() == 2.0).singleElement().extracting(Waveform::getSegment).isEqualTo(new double[] { 3.0, 4.0 });
+        assertThat(waveformService.loadSegments(lazy)).describedAs("Waveforms that already have samples are not fetched again").isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testBatchUpdateMergesOnUniqueFields() throws Exception {
+        try {
+            Waveform stored = waveformService.save(new Waveform().mergeNonNullOrEmptyFields(genWaveform()));
+
+            Waveform sameKey = new Waveform().mergeNonNullOrEmptyFields(genWaveform()).setSegmentUnits("m/s");
+            Waveform otherBand = new Waveform().mergeNonNullOrEmptyFields(genWaveform()).setLowFrequency(2.0).setHighFrequency(3.0);
+            waveformService.update(null, Arrays.asList(sameKey, otherBand));
+
+            // The ingest executor is single threaded so this runs after the batch
+            ingestService.submit(() -> {
+            }).get(10, TimeUnit.SECONDS);
+            assertThat(waveformService.count()).describedAs("Should have added only the waveform for the new band").isEqualTo(2);
+            assertThat(waveformService.findOne(stored.getId()).getSegmentUnits()).describedAs("Should have merged into the stored waveform").isEqualTo("m/s");
+        } finally {
+            waveformRepository.deleteAll();
+        }
+    }
+
     private Waveform genWaveform() {
         Waveform w = new Waveform(null,
                                   null,
@@ -0,0 +1,67 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class WaveformUtilsTest {
+
+    private static void assertNoiseFloorMatchesBinStats(double[] values) {
+        double[] input = values.clone();
+        double expected = WaveformUtils.getNoiseFloorWithBinStats(values.clone());
+        assertEquals(expected, WaveformUtils.getNoiseFloor(input), 0.0, "length " + values.length);
+        assertArrayEquals(values, input);
+    }
+
+    @Test
+    public void testNoiseFloorMatchesBinStats() {
+        Random random = new Random(7);
+        for (int length : new int[] { 1, 2, 3, 50, 99, 100, 101, 257, 1000, 10000 }) {
+            for (int trial = 0; trial < 20; trial++) {
+                double[] values = new double[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = -2.0 + random.nextGaussian() + (i < length / 4 ? 3.0 * random.nextDouble() : 0.0);
+                    if (trial % 2 == 1) {
+                        // Coarse values so bins and the median see ties
+                        values[i] = Math.round(values[i] * 4.0) / 4.0;
+                    }
+                }
+                assertNoiseFloorMatchesBinStats(values);
+            }
+        }
+    }
+
+    @Test
+    public void testNoiseFloorConstantAndNonFiniteInput() {
+        for (int length : new int[] { 1, 2, 99, 100, 101, 1000 }) {
+            double[] constant = new double[length];
+            Arrays.fill(constant, -1.5);
+            assertNoiseFloorMatchesBinStats(constant);
+
+            double[] withNaN = new double[length];
+            for (int i = 0; i < length; i++) {
+                withNaN[i] = Math.sin(i);
+            }
+            withNaN[length / 2] = Double.NaN;
+            assertNoiseFloorMatchesBinStats(withNaN);
+        }
+    }
+}
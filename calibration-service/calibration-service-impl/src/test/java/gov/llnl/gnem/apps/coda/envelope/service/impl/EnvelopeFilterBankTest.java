@@ -0,0 +1,70 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import llnl.gnem.core.util.Passband;
+import llnl.gnem.core.util.TimeT;
+import llnl.gnem.core.waveform.seismogram.TimeSeries;
+
+public class EnvelopeFilterBankTest {
+
+    private static final double SAMPLE_RATE = 40.0;
+
+    private static TimeSeries trace() {
+        Random random = new Random(42);
+        float[] data = new float[12000];
+        for (int i = 0; i < data.length; i++) {
+            double t = i / SAMPLE_RATE;
+            data[i] = (float) (Math.sin(2.0 * Math.PI * 1.5 * t) * Math.exp(-t / 100.0) + 0.5 * Math.sin(2.0 * Math.PI * 6.0 * t) + random.nextGaussian() + 3.0 + 0.001 * i);
+        }
+        return new TimeSeries(data, SAMPLE_RATE, new TimeT(0.0));
+    }
+
+    @Test
+    public void testTimeDomainMatchesPerBandProcessing() {
+        EnvelopeFilterBank bank = new EnvelopeFilterBank(trace(), false);
+        for (double[] band : new double[][] { { 0.5, 0.7 }, { 1.0, 2.0 }, { 4.0, 8.0 } }) {
+            TimeSeries expected = trace();
+            expected.RemoveMean();
+            expected.removeTrend();
+            expected.Taper(1);
+            expected.filter(4, Passband.BAND_PASS, band[0], band[1], true);
+            expected.Envelope();
+            assertArrayEquals(expected.getData(), bank.envelope(band[0], band[1]).getData());
+        }
+    }
+
+    @Test
+    public void testSpectralMatchesTimeDomainAwayFromEdges() {
+        EnvelopeFilterBank timeDomain = new EnvelopeFilterBank(trace(), false);
+        EnvelopeFilterBank spectral = new EnvelopeFilterBank(trace(), true);
+        for (double[] band : new double[][] { { 0.5, 0.7 }, { 1.0, 2.0 }, { 4.0, 8.0 } }) {
+            float[] expected = timeDomain.envelope(band[0], band[1]).getData();
+            float[] actual = spectral.envelope(band[0], band[1]).getData();
+            assertEquals(expected.length, actual.length);
+            int edge = expected.length / 10;
+            for (int i = edge; i < expected.length - edge; i++) {
+                assertEquals(Math.log10(expected[i]), Math.log10(actual[i]), 0.01, "Sample " + i + " for band " + band[0] + "-" + band[1]);
+            }
+        }
+    }
+}
@@ -78,6 +78,11 @@ public class SpectraRatioLocalClient implements SpectraRatioClient {
         }
     }
 
+    @Override
+    public Mono<Boolean> cancelRatioCalculation(Long id) {
+        return Mono.just(ratioDetailsService.cancelRatioCalculation(id));
+    }
+
     @Override
     public Mono<SpectraRatioPairDetails> updateRatio(SpectraRatioPairDetails ratio) {
         log.trace("Updating ratio data for ratio {}", ratio.getId());
@@ -14,9 +14,11 @@
 */
 package gov.llnl.gnem.apps.coda.envelope.standalone.data.client;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +32,9 @@ import gov.llnl.gnem.apps.coda.envelope.gui.data.api.EnvelopeClient;
 import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Component
 @Primary
@@ -69,7 +73,56 @@ public class EnvelopeLocalClient implements EnvelopeClient {
 
     @Override
     public Flux<Waveform> postEnvelopes(Long sessionId, List<Waveform> segments, EnvelopeJobConfiguration conf) {
-        return Flux.fromIterable(service.createEnvelopes(sessionId, segments, conf, false).getResultPayload().orElseGet(() -> new ArrayList<>()));
+        // Hand envelopes downstream as the service finishes them rather than
+        // waiting for the whole batch. The service runs on its own thread and
+        // blocks in the sink until the subscriber has asked for more, so only
+        // the groups in flight are ever held, the same as the blocking writes
+        // of the web endpoint. Requests are not moved onto that thread since
+        // it is the one waiting for them.
+        return Flux.<Waveform>create(sink -> {
+            Semaphore demand = new Semaphore(0);
+            AtomicBoolean unbounded = new AtomicBoolean();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            sink.onRequest(n -> {
+                if (n == Long.MAX_VALUE) {
+                    unbounded.set(true);
+                    demand.release();
+                } else if (!unbounded.get()) {
+                    demand.release((int) Math.min(n, Integer.MAX_VALUE - demand.availablePermits()));
+                }
+            });
+            sink.onDispose(() -> {
+                cancelled.set(true);
+                demand.release();
+            });
+            try {
+                service.createEnvelopes(sessionId, segments, conf, false, envelope -> {
+                    awaitDemand(demand, unbounded, cancelled);
+                    sink.next(envelope);
+                });
+                sink.complete();
+            } catch (CancellationException e) {
+                log.debug("Envelope stream for session {} cancelled", sessionId);
+            } catch (RuntimeException e) {
+                sink.error(e);
+            }
+        }, FluxSink.OverflowStrategy.ERROR).subscribeOn(Schedulers.boundedElastic(), false);
+    }
+
+    private static void awaitDemand(Semaphore demand, AtomicBoolean unbounded, AtomicBoolean cancelled) {
+        try {
+            if (!unbounded.get() && !cancelled.get()) {
+                demand.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        }
+        if (cancelled.get()) {
+            // Stops the service at the next envelope rather than finishing
+            // a job nobody is listening to any more
+            throw new CancellationException();
+        }
     }
 
 }
@@ -34,20 +34,21 @@ public class PlotObjectData {
 
     private final List<String> textData;
     private PlotTrace traceStyle;
+    private long modifications;
 
     public PlotObjectData() {
         this(null);
     }
 
     public PlotObjectData(final PlotTrace traceStyle) {
-        xData = new ArrayList<>(0);
-        yData = new ArrayList<>(0);
-        zData = new ArrayList<>(0);
-        cData = new ArrayList<>(0);
-        errorData = new ArrayList<>(0);
-        errorDataMinus = new ArrayList<>(0);
+        xData = new TrackedList<>();
+        yData = new TrackedList<>();
+        zData = new TrackedList<>();
+        cData = new TrackedList<>();
+        errorData = new TrackedList<>();
+        errorDataMinus = new TrackedList<>();
         useHorizontalErrorBars = false;
-        textData = new ArrayList<>(0);
+        textData = new TrackedList<>();
         this.traceStyle = traceStyle;
     }
 
@@ -81,6 +82,7 @@ public class PlotObjectData {
 
     public void setErrorBarsHorizontal(final boolean useHorizontalErrorBars) {
         this.useHorizontalErrorBars = useHorizontalErrorBars;
+        modifications++;
     }
 
     public List<String> getTextData() {
@@ -93,6 +95,7 @@ public class PlotObjectData {
 
     public void setHoverMode(HoverModes hoverMode) {
         this.hoverMode = hoverMode;
+        modifications++;
     }
 
     public FillModes getFillMode() {
@@ -101,6 +104,7 @@ public class PlotObjectData {
 
     public void setFillMode(FillModes fillMode) {
         this.fillMode = fillMode;
+        modifications++;
     }
 
     public String getHoverTemplate() {
@@ -109,6 +113,7 @@ public class PlotObjectData {
 
     public void setHoverTemplate(String hoverTemplate) {
         this.hoverTemplate = hoverTemplate;
+        modifications++;
     }
 
     public PlotTrace getTraceStyle() {
@@ -117,6 +122,20 @@ public class PlotObjectData {
 
     public void setTraceStyle(final PlotTrace traceStyle) {
         this.traceStyle = traceStyle;
+        modifications++;
+    }
+
+    /**
+     * @return a count that grows whenever anything serialized for this trace
+     *         changes, including edits made through the data lists and the
+     *         trace style, so a cached serialization can tell it is stale
+     */
+    public long getModificationCount() {
+        long count = modifications + (traceStyle != null ? traceStyle.getModificationCount() : 0);
+        for (List<?> data : List.of(xData, yData, zData, cData, errorData, errorDataMinus, textData)) {
+            count += ((TrackedList<?>) data).modifications();
+        }
+        return count;
     }
 
     public void clear() {
@@ -127,5 +146,27 @@ public class PlotObjectData {
         errorData.clear();
         errorDataMinus.clear();
         textData.clear();
+        modifications++;
+    }
+
+    /**
+     * A list that also counts replaced elements as modifications.
+     */
+    private static final class TrackedList<E> extends ArrayList<E> {
+        private static final long serialVersionUID = 1L;
+
+        private TrackedList() {
+            super(0);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            modCount++;
+            return super.set(index, element);
+        }
+
+        private int modifications() {
+            return modCount;
+        }
     }
 }
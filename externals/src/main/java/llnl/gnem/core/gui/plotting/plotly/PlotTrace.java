@@ -49,6 +49,7 @@ public class PlotTrace {
     private String xAxisId;
     private String yAxisId;
     private boolean isAnnotationLogX = false;
+    private long modifications;
 
     public enum Style {
         LINE("lines", "scatter", 0), SCATTER_MARKER_AND_LINE("lines+markers", "scatter", 1), SCATTER_MARKER("markers", "scatter", 2), VERTICAL_LINE("line", "shapes", 3), HEATMAP("heatmap", "heatmap",
@@ -89,14 +90,17 @@ public class PlotTrace {
 
     public void setFillColor(final Color fillColor) {
         this.fillColor = fillColor;
+        modifications++;
     }
 
     public void setEdgeColor(final Color edgeColor) {
         this.edgeColor = edgeColor;
+        modifications++;
     }
 
     public void setStyleName(final String styleName) {
         this.styleName = styleName;
+        modifications++;
     }
 
     public Integer getPxSize() {
@@ -105,6 +109,7 @@ public class PlotTrace {
 
     public void setPxSize(final Integer pxSize) {
         this.pxSize = pxSize;
+        modifications++;
     }
 
     public String getSeriesName() {
@@ -113,6 +118,7 @@ public class PlotTrace {
 
     public void setSeriesName(final String seriesName) {
         this.seriesName = seriesName;
+        modifications++;
     }
 
     public Color getFillColor() {
@@ -129,10 +135,12 @@ public class PlotTrace {
 
     public void setShowLegend(final Boolean showLegend) {
         this.showLegend = showLegend;
+        modifications++;
     }
 
     public void setLegendGroup(final String legendGroup) {
         this.legendGroup = legendGroup;
+        modifications++;
     }
 
     public Integer getzIndex() {
@@ -141,10 +149,12 @@ public class PlotTrace {
 
     public void setzIndex(final Integer zIndex) {
         this.zIndex = zIndex;
+        modifications++;
     }
 
     public void setColorMap(final String colorMap) {
         this.colorMap = colorMap;
+        modifications++;
     }
 
     public String getColorMap() {
@@ -157,6 +167,7 @@ public class PlotTrace {
 
     public void setColorBarTitle(String colorBarTitle) {
         this.colorBarTitle = colorBarTitle;
+        modifications++;
     }
 
     public Double getColorBarX() {
@@ -165,6 +176,7 @@ public class PlotTrace {
 
     public void setColorBarX(Double colorBarX) {
         this.colorBarX = colorBarX;
+        modifications++;
     }
 
     public Double getColorBarY() {
@@ -173,6 +185,7 @@ public class PlotTrace {
 
     public void setColorBarY(Double colorBarY) {
         this.colorBarY = colorBarY;
+        modifications++;
     }
 
     public Double getColorBarLength() {
@@ -181,14 +194,17 @@ public class PlotTrace {
 
     public void setColorBarLength(Double colorBarLength) {
         this.colorBarLength = colorBarLength;
+        modifications++;
     }
 
     public void setLegendOnly(final Boolean legendOnly) {
         this.legendOnly = legendOnly;
+        modifications++;
     }
 
     public void setDraggable(final Boolean draggable) {
         this.draggable = draggable;
+        modifications++;
     }
 
     public Boolean isDraggable() {
@@ -197,6 +213,7 @@ public class PlotTrace {
 
     public void setXaxisId(String xAxisId) {
         this.xAxisId = xAxisId;
+        modifications++;
     }
 
     public String getXaxisId() {
@@ -205,6 +222,7 @@ public class PlotTrace {
 
     public void setYaxisId(String yAxisId) {
         this.yAxisId = yAxisId;
+        modifications++;
     }
 
     public String getYaxisId() {
@@ -217,6 +235,14 @@ public class PlotTrace {
 
     public void setAnnotationLogX(boolean isAnnotationLogX) {
         this.isAnnotationLogX = isAnnotationLogX;
+        modifications++;
+    }
+
+    /**
+     * @return the number of times a setter has been called on this style
+     */
+    public long getModificationCount() {
+        return modifications;
     }
 
     public String toJson() {
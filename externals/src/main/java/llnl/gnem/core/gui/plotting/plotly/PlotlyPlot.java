@@ -18,16 +18,22 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -38,6 +44,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -94,9 +101,26 @@ public class PlotlyPlot implements BasicPlot {
     private Integer leftMargin;
     private Integer rightMargin;
 
-    private transient String cachedPlotData = "";
+    // Line traces at least this long cross the bridge as base64 typed arrays
+    private static final int BINARY_ARRAY_MIN_LENGTH = 64;
+
     private transient String cachedPlotLayout = "";
 
+    // Serialized traces keyed by the data they came from along with its
+    // modification count, only the ones changed since the last rebuild are
+    // serialized again. The data can be shared with other plots and edited in
+    // place so the count, not this plot's own add/remove calls, is what marks
+    // a trace stale. The sent lists are what the page was last told about
+    // and the pending updates are the changes it has not picked up yet. The
+    // page reads those from the FX thread so they get their own lock rather
+    // than waiting on a rebuild.
+    private final transient Map<PlotObjectData, CachedTrace> traceCache = new IdentityHashMap<>();
+    private final transient Object traceUpdateLock = new Object();
+    private transient List<PlotObjectData> sentTraces = new ArrayList<>(0);
+    private transient List<String> sentTraceJson = new ArrayList<>(0);
+    private final transient Map<Integer, String> pendingTraceUpdates = new TreeMap<>();
+    private transient boolean fullUpdatePending = true;
+
     private AtomicBoolean hasChanges = new AtomicBoolean(true);
     private AtomicBoolean hasPersistentChanges = new AtomicBoolean(true);
 
@@ -190,7 +214,7 @@ public class PlotlyPlot implements BasicPlot {
                 chooser.setInitialFileName("raw-data.json");
                 File saveTarget = chooser.showSaveDialog(null);
                 if (saveTarget != null) {
-                    FileUtils.writeStringToFile(saveTarget, getPlotDataJSON(), Charset.defaultCharset());
+                    FileUtils.writeStringToFile(saveTarget, getPlotDataNode().toString(), Charset.defaultCharset());
                     synchronized (fileChooserLock) {
                         lastKnownDirectoryProperty.set(saveTarget.getParentFile());
                     }
@@ -368,6 +392,9 @@ public class PlotlyPlot implements BasicPlot {
 
     @Override
     public Map<String, PlotObjectData> getPlotTypes() {
+        // Callers are free to edit the trace data directly so none of the
+        // serialized traces can be trusted after handing this out
+        invalidateTraces();
         return plotData.getDefaultTypePlots();
     }
 
@@ -394,6 +421,7 @@ public class PlotlyPlot implements BasicPlot {
     @Override
     public void setSymbolSize(final int pxSymbolSize) {
         plotData.getDefaultTraceStyle().setPxSize(pxSymbolSize);
+        invalidateTraces();
     }
 
     @Override
@@ -438,6 +466,7 @@ public class PlotlyPlot implements BasicPlot {
 
     protected synchronized void addPlotObject(final PlotObject object, final PlotData plot) {
         final PlotObjectData data = plot.getDefaultTypePlots().computeIfAbsent(object.getSeriesIdentifier(), k -> new PlotObjectData());
+        traceCache.remove(data);
         if (object instanceof VerticalLine) {
             final VerticalLine vline = (VerticalLine) object;
             final List<Double> ydata = data.getYdata();
@@ -583,6 +612,7 @@ public class PlotlyPlot implements BasicPlot {
 
     protected synchronized void removePlotObject(PlotObject object, PlotData plot) {
         final PlotObjectData data = plot.getDefaultTypePlots().computeIfAbsent(object.getSeriesIdentifier(), k -> new PlotObjectData());
+        traceCache.remove(data);
         if (object instanceof VerticalLine || object instanceof Rectangle || object instanceof Line) {
             plot.getDefaultTypePlots().remove(object.getSeriesIdentifier());
         } else if (object instanceof Symbol) {
@@ -624,6 +654,7 @@ public class PlotlyPlot implements BasicPlot {
     @Override
     public void clear() {
         plotData.getDefaultTypePlots().clear();
+        invalidateTraces();
         hasChanges.set(true);
         hasPersistentChanges.set(true);
         replot();
@@ -658,14 +689,97 @@ public class PlotlyPlot implements BasicPlot {
         return orderedPlots;
     }
 
+    /**
+     * @return every trace of the plot as it was last sent to the page
+     */
     public String getPlotDataJSON() {
-        return cachedPlotData;
+        synchronized (traceUpdateLock) {
+            return "[" + String.join(",", sentTraceJson) + "]";
+        }
     }
 
-    private synchronized void rebuildDataCache() {
+    /**
+     * Hands the page the traces that changed since it last asked, keyed by
+     * their index in the trace list. Returns null when the traces were added,
+     * removed or reordered and the page has to load all of them again.
+     */
+    public String getPlotDataUpdateJSON() {
+        synchronized (traceUpdateLock) {
+            if (fullUpdatePending) {
+                fullUpdatePending = false;
+                pendingTraceUpdates.clear();
+                return null;
+            }
+            final StringBuilder update = new StringBuilder("{");
+            for (final Entry<Integer, String> trace : pendingTraceUpdates.entrySet()) {
+                if (update.length() > 1) {
+                    update.append(',');
+                }
+                update.append('"').append(trace.getKey()).append("\":").append(trace.getValue());
+            }
+            pendingTraceUpdates.clear();
+            return update.append('}').toString();
+        }
+    }
+
+    private synchronized void invalidateTraces() {
+        traceCache.clear();
+        hasChanges.set(true);
+    }
+
+    synchronized void rebuildDataCache() {
         if (hasChanges.get() || subPlots.parallelStream().anyMatch(PlotlyPlot::hasChanges)) {
-            final ArrayNode traceNodes = getPlotDataNode();
-            cachedPlotData = traceNodes.toString();
+            final List<PlotObjectData> traces = new ArrayList<>();
+            final List<String> traceJson = new ArrayList<>();
+            collectTraces(traces, traceJson);
+
+            synchronized (traceUpdateLock) {
+                if (!fullUpdatePending) {
+                    if (traces.size() != sentTraces.size()) {
+                        fullUpdatePending = true;
+                    } else {
+                        for (int i = 0; i < traces.size() && !fullUpdatePending; i++) {
+                            if (traces.get(i) != sentTraces.get(i)) {
+                                fullUpdatePending = true;
+                            } else if (traceJson.get(i) != sentTraceJson.get(i)) {
+                                // Unchanged traces come back as the same cached string
+                                pendingTraceUpdates.put(i, traceJson.get(i));
+                            }
+                        }
+                    }
+                }
+                if (fullUpdatePending) {
+                    pendingTraceUpdates.clear();
+                }
+                sentTraces = traces;
+                sentTraceJson = traceJson;
+            }
+        }
+    }
+
+    private synchronized void collectTraces(final List<PlotObjectData> traces, final List<String> traceJson) {
+        if (!subPlots.isEmpty()) {
+            for (int i = 0; i < subPlots.size(); i++) {
+                PlotlyPlot subPlot = subPlots.get(i);
+                if (i > 0) {
+                    subPlot.setSubPlotId((i + 1));
+                }
+                subPlot.collectTraces(traces, traceJson);
+            }
+        } else {
+            for (final PlotObjectData data : getOrderedPlots(plotData.getDefaultTypePlots().values())) {
+                if (isShape(data)) {
+                    continue;
+                }
+                long modifications = data.getModificationCount();
+                CachedTrace trace = traceCache.get(data);
+                if (trace == null || trace.modifications != modifications) {
+                    trace = new CachedTrace(modifications, getTraceNode(data, true).toString());
+                    traceCache.put(data, trace);
+                }
+                traces.add(data);
+                traceJson.add(trace.json);
+            }
         }
     }
 
@@ -685,118 +799,168 @@ public class PlotlyPlot implements BasicPlot {
             final List<PlotObjectData> orderedPlots = getOrderedPlots(plotData.getDefaultTypePlots().values());
 
             for (final PlotObjectData data : orderedPlots) {
-                if (data.getTraceStyle() != null && data.getTraceStyle().getType() != null && data.getTraceStyle().getType().getType().equals(SHAPES)) {
-                    //Skip these since they go in layout.shapes
+                if (isShape(data)) {
                     continue;
                 }
-                final ObjectNode trace = Optional.ofNullable(data.getTraceStyle()).orElse(plotData.getDefaultTraceStyle()).getJSONObject();
+                traceNodes.add(getTraceNode(data, false));
+            }
+        }
+        return traceNodes;
+    }
 
-                if (subplotId != null && data.getTraceStyle().getXaxisId() == null) {
-                    trace.put("xaxis", "x" + subplotId);
-                }
-                if (subplotId != null && data.getTraceStyle().getYaxisId() == null) {
-                    trace.put("yaxis", "y" + subplotId);
-                }
+    private boolean isShape(final PlotObjectData data) {
+        //Skip these since they go in layout.shapes
+        return data.getTraceStyle() != null && data.getTraceStyle().getType() != null && data.getTraceStyle().getType().getType().equals(SHAPES);
+    }
 
-                final List<Double> xdata = data.getXdata();
-                if (!xdata.isEmpty()) {
-                    final ArrayNode xNode = trace.arrayNode();
-                    xdata.forEach(xNode::add);
-                    trace.set("x", xNode);
-                }
+    private ObjectNode getTraceNode(final PlotObjectData data, final boolean binaryArrays) {
+        final ObjectNode trace = Optional.ofNullable(data.getTraceStyle()).orElse(plotData.getDefaultTraceStyle()).getJSONObject();
 
-                final List<Double> ydata = data.getYdata();
-                if (!ydata.isEmpty()) {
-                    final ArrayNode yNode = trace.arrayNode();
-                    ydata.forEach(yNode::add);
-                    trace.set("y", yNode);
-                }
+        if (subplotId != null && data.getTraceStyle().getXaxisId() == null) {
+            trace.put("xaxis", "x" + subplotId);
+        }
+        if (subplotId != null && data.getTraceStyle().getYaxisId() == null) {
+            trace.put("yaxis", "y" + subplotId);
+        }
 
-                // Hover mode
-                final HoverModes hoverInfo = data.getHoverMode();
-                if (hoverInfo != null) {
-                    trace.put("hoverinfo", hoverInfo.getHoverModeName());
-                }
+        // Selections hand symbol coordinates back to Java to be matched
+        // exactly so only lines are sent as typed arrays
+        final boolean binary = binaryArrays && Style.LINE.equals(data.getTraceStyle().getType());
 
-                // Fill mode
-                final FillModes fillMode = data.getFillMode();
-                if (fillMode != null) {
-                    trace.put("fill", fillMode.getFillModeName());
-                    trace.put("fillcolor", FxUtils.toWebHexColorString(data.getTraceStyle().getFillColor()));
-                }
+        final List<Double> xdata = data.getXdata();
+        if (!xdata.isEmpty()) {
+            trace.set("x", numericArrayNode(trace, xdata, binary));
+        }
 
-                // Hover template
-                final String hoverTemplate = data.getHoverTemplate();
-                if (hoverTemplate != null) {
-                    trace.put("hovertemplate", hoverTemplate);
-                }
+        final List<Double> ydata = data.getYdata();
+        if (!ydata.isEmpty()) {
+            trace.set("y", numericArrayNode(trace, ydata, binary));
+        }
 
-                // Error bars
-                final List<Double> errorData = data.getErrorData();
-                final List<Double> errorDataMinus = data.getErrorDataMinus();
-                if (errorData != null && errorDataMinus != null) {
-
-                    final ObjectNode errorBarNode = plotData.getMapper().createObjectNode();
-                    errorBarNode.put("type", "data");
-                    if (!errorData.isEmpty()) {
-                        final ArrayNode errorDataNode = trace.arrayNode();
-                        errorData.forEach(errorDataNode::add);
-                        errorBarNode.set("array", errorDataNode);
-                    }
+        // Hover mode
+        final HoverModes hoverInfo = data.getHoverMode();
+        if (hoverInfo != null) {
+            trace.put("hoverinfo", hoverInfo.getHoverModeName());
+        }
 
-                    if (!errorDataMinus.isEmpty()) {
-                        final ArrayNode errorDataMinusNode = trace.arrayNode();
-                        errorDataMinus.forEach(errorDataMinusNode::add);
-                        errorBarNode.set("arrayminus", errorDataMinusNode);
-                    }
+        // Fill mode
+        final FillModes fillMode = data.getFillMode();
+        if (fillMode != null) {
+            trace.put("fill", fillMode.getFillModeName());
+            trace.put("fillcolor", FxUtils.toWebHexColorString(data.getTraceStyle().getFillColor()));
+        }
 
-                    if (errorBarNode.has("array") || errorBarNode.has("arrayminus")) {
-                        if (data.useHorizontalErrorBars()) {
-                            trace.set("error_x", errorBarNode);
-                        } else {
-                            trace.set("error_y", errorBarNode);
-                        }
-                    }
-                }
+        // Hover template
+        final String hoverTemplate = data.getHoverTemplate();
+        if (hoverTemplate != null) {
+            trace.put("hovertemplate", hoverTemplate);
+        }
 
-                final List<Double[]> zdata = data.getZdata();
-                if (!zdata.isEmpty()) {
-                    final ArrayNode zNode = trace.arrayNode();
-                    zdata.forEach(zdata2 -> {
-                        final ArrayNode zNode2 = trace.arrayNode();
-                        for (Double element : zdata2) {
-                            zNode2.add(element);
-                        }
-                        zNode.add(zNode2);
-                    });
-                    trace.set("z", zNode);
-                }
+        // Error bars
+        final List<Double> errorData = data.getErrorData();
+        final List<Double> errorDataMinus = data.getErrorDataMinus();
+        if (errorData != null && errorDataMinus != null) {
+
+            final ObjectNode errorBarNode = plotData.getMapper().createObjectNode();
+            errorBarNode.put("type", "data");
+            if (!errorData.isEmpty()) {
+                final ArrayNode errorDataNode = trace.arrayNode();
+                errorData.forEach(errorDataNode::add);
+                errorBarNode.set("array", errorDataNode);
+            }
 
-                if (data.getTraceStyle().getType().equals(Style.CONTOUR)) {
-                    trace.put("connectgaps", true);
-                }
+            if (!errorDataMinus.isEmpty()) {
+                final ArrayNode errorDataMinusNode = trace.arrayNode();
+                errorDataMinus.forEach(errorDataMinusNode::add);
+                errorBarNode.set("arrayminus", errorDataMinusNode);
+            }
 
-                final List<Double> cData = data.getColorData();
-                if (!cData.isEmpty()) {
-                    final ArrayNode cNode = trace.arrayNode();
-                    cData.forEach(cNode::add);
-                    trace.withObjectProperty("marker").set("color", cNode);
+            if (errorBarNode.has("array") || errorBarNode.has("arrayminus")) {
+                if (data.useHorizontalErrorBars()) {
+                    trace.set("error_x", errorBarNode);
+                } else {
+                    trace.set("error_y", errorBarNode);
                 }
+            }
+        }
 
-                final List<String> textData = data.getTextData();
-                if (!textData.isEmpty()) {
-                    final ArrayNode textNode = trace.arrayNode();
-                    textData.forEach(textNode::add);
-                    trace.set("text", textNode);
+        final List<Double[]> zdata = data.getZdata();
+        if (!zdata.isEmpty()) {
+            final ArrayNode zNode = trace.arrayNode();
+            zdata.forEach(zdata2 -> {
+                final ArrayNode zNode2 = trace.arrayNode();
+                for (Double element : zdata2) {
+                    zNode2.add(element);
                 }
+                zNode.add(zNode2);
+            });
+            trace.set("z", zNode);
+        }
+
+        if (data.getTraceStyle().getType().equals(Style.CONTOUR)) {
+            trace.put("connectgaps", true);
+        }
+
+        final List<Double> cData = data.getColorData();
+        if (!cData.isEmpty()) {
+            final ArrayNode cNode = trace.arrayNode();
+            cData.forEach(cNode::add);
+            trace.withObjectProperty("marker").set("color", cNode);
+        }
+
+        final List<String> textData = data.getTextData();
+        if (!textData.isEmpty()) {
+            final ArrayNode textNode = trace.arrayNode();
+            textData.forEach(textNode::add);
+            trace.set("text", textNode);
+        }
 
-                traceNodes.add(trace);
+        return trace;
+    }
+
+    /**
+     * Long line arrays are packed as base64 little endian floats, the page
+     * turns them back into typed arrays rather than parsing number text.
+     * Single precision is used unless it would round off more than a
+     * millionth of the range of the values, such as for epoch times.
+     */
+    private static JsonNode numericArrayNode(final ObjectNode trace, final List<Double> values, final boolean binary) {
+        if (!binary || values.size() < BINARY_ARRAY_MIN_LENGTH) {
+            final ArrayNode node = trace.arrayNode();
+            values.forEach(node::add);
+            return node;
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (final Double value : values) {
+            if (value != null && Double.isFinite(value)) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
             }
         }
-        return traceNodes;
+        final double magnitude = Math.max(Math.abs(min), Math.abs(max));
+        final boolean singlePrecision = min > max || magnitude * 0x1p-24 <= (max - min) * 1e-6;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(values.size() * (singlePrecision ? Float.BYTES : Double.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        for (final Double value : values) {
+            final double v = value != null ? value : Double.NaN;
+            if (singlePrecision) {
+                buffer.putFloat((float) v);
+            } else {
+                buffer.putDouble(v);
+            }
+        }
+        final ObjectNode node = trace.objectNode();
+        node.put("dtype", singlePrecision ? "f4" : "f8");
+        node.put("bdata", Base64.getEncoder().encodeToString(buffer.array()));
+        return node;
     }
 
-    private void setSubPlotId(int id) {
+    private synchronized void setSubPlotId(int id) {
+        if (subplotId == null || subplotId != id) {
+            traceCache.clear();
+        }
         this.subplotId = id;
     }
 
@@ -1018,6 +1182,7 @@ public class PlotlyPlot implements BasicPlot {
     @Override
     public void setColorMap(final String colorMap) {
         plotData.getDefaultTraceStyle().setColorMap(colorMap);
+        invalidateTraces();
     }
 
     @Override
@@ -1051,4 +1216,14 @@ public class PlotlyPlot implements BasicPlot {
         this.plotData.setDragmode(dragmode);
         hasPersistentChanges.set(true);
     }
+
+    private static final class CachedTrace {
+        private final long modifications;
+        private final String json;
+
+        private CachedTrace(long modifications, String json) {
+            this.modifications = modifications;
+            this.json = json;
+        }
+    }
 }
@@ -127,8 +127,7 @@ public class PlotlyWaveformPlot extends PlotlyPlot {
         double maxLength = 0.0;
         for (final SeismicSignal seismogram : seismograms) {
             maxLength = Math.max(maxLength, seismogram.getSegmentLength());
-            final Line line = new BasicLine(seismogram.getIdentifier(), seismogram.getZeroTimeOffsetSeconds(), seismogram.getDelta(), seismogram.getData(), Color.BLUE, LineStyles.SOLID, 1);
-            line.setName(seismogram.getIdentifier() + "");
+            final Line line = createSeismogramLine(seismogram);
             if (zOrder != null) {
                 line.setZindex(zOrder);
             }
@@ -140,6 +139,17 @@ public class PlotlyWaveformPlot extends PlotlyPlot {
         replot();
     }
 
+    /**
+     * Builds the line drawn for a seismogram. Subclasses can override this to
+     * draw a reduced copy while the seismogram itself keeps every sample for
+     * picks and zoom range calculations.
+     */
+    protected Line createSeismogramLine(final SeismicSignal seismogram) {
+        final Line line = new BasicLine(seismogram.getIdentifier(), seismogram.getZeroTimeOffsetSeconds(), seismogram.getDelta(), seismogram.getData(), Color.BLUE, LineStyles.SOLID, 1);
+        line.setName(seismogram.getIdentifier() + "");
+        return line;
+    }
+
     protected final Collection<SeismicSignal> getSeismograms() {
         return seismograms;
     }
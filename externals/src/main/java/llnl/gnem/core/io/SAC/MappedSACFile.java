@@ -0,0 +1,89 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.io.SAC;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a SAC file straight out of the file channel. The header is decoded in
+ * the byte order of the file and the samples are exposed as a
+ * {@link FloatBuffer} view over the same bytes, so nothing is copied or
+ * swapped until the caller reads the samples.
+ *
+ * Files larger than {@link #MAP_THRESHOLD_BYTES} are memory mapped. Smaller
+ * files are read with a single channel read instead since a mapping costs more
+ * to set up than the read does and every live mapping uses up one of the
+ * limited number of mappings a process is allowed.
+ */
+public class MappedSACFile {
+
+    public static final long MAP_THRESHOLD_BYTES = 1024 * 1024;
+
+    private final Path path;
+    private final SACHeader header;
+    private final FloatBuffer samples;
+
+    public MappedSACFile(Path path) throws IOException {
+        this.path = path;
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("SAC file " + path + " is too large to read (" + size + " bytes)");
+            }
+            if (size >= MAP_THRESHOLD_BYTES) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until the file is exhausted
+                }
+                buffer.flip();
+            }
+        }
+
+        header = new SACHeader(buffer);
+        if (header.npts < 0) {
+            throw new IOException("SAC file " + path + " has an invalid number of points (" + header.npts + ")");
+        }
+        long dataBytes = 4L * header.npts;
+        if (buffer.remaining() < dataBytes) {
+            throw new IOException("SAC file " + path + " is truncated; header declares " + header.npts + " points but only " + buffer.remaining() / 4 + " are present");
+        }
+        // Slicing resets the byte order so it has to be set again on the view
+        samples = buffer.slice().limit((int) dataBytes).order(buffer.order()).asFloatBuffer();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public SACHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return a read-only view over the samples in the file; position and
+     *         limit are independent of any other view returned by this method
+     */
+    public FloatBuffer getSamples() {
+        return samples.asReadOnlyBuffer();
+    }
+}
@@ -5,15 +5,15 @@
 //  Last Modified:  January 4, 2004
 package llnl.gnem.core.io.SAC;
 
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
-import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -288,6 +288,15 @@ public class SACHeader implements Closeable {
         setFieldsFromByteArray(headerImage);
     }
 
+    /**
+     * Decodes the header at the buffer's current position, leaving the
+     * position just past the header and the byte order set to that of the
+     * file.
+     */
+    public SACHeader(ByteBuffer buffer) throws IOException {
+        setFieldsFromBuffer(buffer);
+    }
+
     //  construct from file
     public SACHeader(InputStream sacis) throws IOException {
         byte[] headerImage = new byte[SACHBYTES];
@@ -390,7 +399,6 @@ public class SACHeader implements Closeable {
     public static final int ixyz = 51;
     static final int SACHWORDS = 158;
     static final int SACHBYTES = 4 * SACHWORDS;
-    static final int SACHSWAP = 4 * 110;
 
     public static boolean isDefault(int variable) {
         return variable == INTDEFAULT;
@@ -1704,198 +1712,194 @@ public class SACHeader implements Closeable {
     }
 
     private void setFieldsFromByteArray(byte[] headerImage) throws IOException {
-        //  The header image is read into a byte array, and the nvhdr field is
-        //    range tested to sense the byte order of the file.  If byte
-        //    swapping is indicated, then the header bytes are swapped in
-        //    the byte buffer prior to decoding the header fields.
-        DataInputStream bstream = new DataInputStream(new ByteArrayInputStream(headerImage));
-        bstream.mark(SACHBYTES);
-        bstream.skipBytes(4 * 76);
-        nvhdr = bstream.readInt(); // test nvhdr
-        bstream.reset();
+        setFieldsFromBuffer(ByteBuffer.wrap(headerImage));
+    }
+
+    /**
+     * Decodes the header from the first {@link #SACHBYTES} bytes at the
+     * buffer's current position. The nvhdr field is range tested to sense the
+     * byte order of the file and the fields are then read in that order, so
+     * swapped files don't need to be copied and swapped first. The buffer's
+     * position is left just past the header and its byte order is set to the
+     * order of the file.
+     */
+    void setFieldsFromBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < SACHBYTES) {
+            throw new IOException("SAC header is truncated; expected " + SACHBYTES + " bytes but only " + buffer.remaining() + " are available");
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        nvhdr = buffer.getInt(buffer.position() + 4 * 76); // test nvhdr
 
         if (nvhdr >= 0 && nvhdr <= 6) {
             swapBytes = false;
         } else {
-
             swapBytes = true;
-            bstream.close();
-            byte abyte;
-            for (int i = 0; i < SACHSWAP; i += 4) { // swapping method
-                abyte = headerImage[i]; // per Phil Crotwell's
-                headerImage[i] = headerImage[i + 3]; // suggestion
-                headerImage[i + 3] = abyte;
-                abyte = headerImage[i + 1];
-                headerImage[i + 1] = headerImage[i + 2];
-                headerImage[i + 2] = abyte;
-            }
-            bstream = new DataInputStream(new ByteArrayInputStream(headerImage));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
         }
 
         //  now decode header
-        delta = bstream.readFloat();
-        depmin = bstream.readFloat();
-        depmax = bstream.readFloat();
-        scale = bstream.readFloat();
-        odelta = bstream.readFloat();
-        b = bstream.readFloat();
-        e = bstream.readFloat();
-        o = bstream.readFloat();
-        a = bstream.readFloat();
-        fmt = bstream.readFloat();
-        t[0] = bstream.readFloat();
-        t[1] = bstream.readFloat();
-        t[2] = bstream.readFloat();
-        t[3] = bstream.readFloat();
-        t[4] = bstream.readFloat();
-        t[5] = bstream.readFloat();
-        t[6] = bstream.readFloat();
-        t[7] = bstream.readFloat();
-        t[8] = bstream.readFloat();
-        t[9] = bstream.readFloat();
-        f = bstream.readFloat();
-        resp[0] = bstream.readFloat();
-        resp[1] = bstream.readFloat();
-        resp[2] = bstream.readFloat();
-        resp[3] = bstream.readFloat();
-        resp[4] = bstream.readFloat();
-        resp[5] = bstream.readFloat();
-        resp[6] = bstream.readFloat();
-        resp[7] = bstream.readFloat();
-        resp[8] = bstream.readFloat();
-        resp[9] = bstream.readFloat();
-        stla = bstream.readFloat();
-        stlo = bstream.readFloat();
-        stel = bstream.readFloat();
-        stdp = bstream.readFloat();
-        evla = bstream.readFloat();
-        evlo = bstream.readFloat();
-        evel = bstream.readFloat();
-        evdp = bstream.readFloat();
-        mag = bstream.readFloat();
-        user[0] = bstream.readFloat();
-        user[1] = bstream.readFloat();
-        user[2] = bstream.readFloat();
-        user[3] = bstream.readFloat();
-        user[4] = bstream.readFloat();
-        user[5] = bstream.readFloat();
-        user[6] = bstream.readFloat();
-        user[7] = bstream.readFloat();
-        user[8] = bstream.readFloat();
-        user[9] = bstream.readFloat();
-        dist = bstream.readFloat();
-        az = bstream.readFloat();
-        baz = bstream.readFloat();
-        gcarc = bstream.readFloat();
-        sb = bstream.readFloat();
-        sdelta = bstream.readFloat();
-        depmen = bstream.readFloat();
-        cmpaz = bstream.readFloat();
-        cmpinc = bstream.readFloat();
-        xminimum = bstream.readFloat();
-        xmaximum = bstream.readFloat();
-        yminimum = bstream.readFloat();
-        ymaximum = bstream.readFloat();
-        unused6 = bstream.readFloat();
-        unused7 = bstream.readFloat();
-        unused8 = bstream.readFloat();
-        unused9 = bstream.readFloat();
-        unused10 = bstream.readFloat();
-        unused11 = bstream.readFloat();
-        unused12 = bstream.readFloat();
-        nzyear = bstream.readInt();
-        nzjday = bstream.readInt();
-        nzhour = bstream.readInt();
-        nzmin = bstream.readInt();
-        nzsec = bstream.readInt();
-        nzmsec = bstream.readInt();
-        nvhdr = bstream.readInt();
-        norid = bstream.readInt();
-        nevid = bstream.readInt();
-        npts = bstream.readInt();
-        nsnpts = bstream.readInt();
-        nwfid = bstream.readInt();
-        nxsize = bstream.readInt();
-        nysize = bstream.readInt();
-        unused15 = bstream.readInt();
-        iftype = bstream.readInt();
-        idep = bstream.readInt();
-        setIztype(Iztype.getIztype(bstream.readInt()));
-        unused16 = bstream.readInt();
-        iinst = bstream.readInt();
-        instreg = bstream.readInt();
-        ievreg = bstream.readInt();
-        ievtyp = bstream.readInt();
-        iqual = bstream.readInt();
-        isynth = bstream.readInt();
-        imagtyp = bstream.readInt();
-        imagsrc = bstream.readInt();
-        unused19 = bstream.readInt();
-        unused20 = bstream.readInt();
-        unused21 = bstream.readInt();
-        unused22 = bstream.readInt();
-        unused23 = bstream.readInt();
-        unused24 = bstream.readInt();
-        unused25 = bstream.readInt();
-        unused26 = bstream.readInt();
-        leven = bstream.readInt();
-        lpspol = bstream.readInt();
-        lovrok = bstream.readInt();
-        lcalda = bstream.readInt();
-        unused27 = bstream.readInt();
+        delta = buffer.getFloat();
+        depmin = buffer.getFloat();
+        depmax = buffer.getFloat();
+        scale = buffer.getFloat();
+        odelta = buffer.getFloat();
+        b = buffer.getFloat();
+        e = buffer.getFloat();
+        o = buffer.getFloat();
+        a = buffer.getFloat();
+        fmt = buffer.getFloat();
+        t[0] = buffer.getFloat();
+        t[1] = buffer.getFloat();
+        t[2] = buffer.getFloat();
+        t[3] = buffer.getFloat();
+        t[4] = buffer.getFloat();
+        t[5] = buffer.getFloat();
+        t[6] = buffer.getFloat();
+        t[7] = buffer.getFloat();
+        t[8] = buffer.getFloat();
+        t[9] = buffer.getFloat();
+        f = buffer.getFloat();
+        resp[0] = buffer.getFloat();
+        resp[1] = buffer.getFloat();
+        resp[2] = buffer.getFloat();
+        resp[3] = buffer.getFloat();
+        resp[4] = buffer.getFloat();
+        resp[5] = buffer.getFloat();
+        resp[6] = buffer.getFloat();
+        resp[7] = buffer.getFloat();
+        resp[8] = buffer.getFloat();
+        resp[9] = buffer.getFloat();
+        stla = buffer.getFloat();
+        stlo = buffer.getFloat();
+        stel = buffer.getFloat();
+        stdp = buffer.getFloat();
+        evla = buffer.getFloat();
+        evlo = buffer.getFloat();
+        evel = buffer.getFloat();
+        evdp = buffer.getFloat();
+        mag = buffer.getFloat();
+        user[0] = buffer.getFloat();
+        user[1] = buffer.getFloat();
+        user[2] = buffer.getFloat();
+        user[3] = buffer.getFloat();
+        user[4] = buffer.getFloat();
+        user[5] = buffer.getFloat();
+        user[6] = buffer.getFloat();
+        user[7] = buffer.getFloat();
+        user[8] = buffer.getFloat();
+        user[9] = buffer.getFloat();
+        dist = buffer.getFloat();
+        az = buffer.getFloat();
+        baz = buffer.getFloat();
+        gcarc = buffer.getFloat();
+        sb = buffer.getFloat();
+        sdelta = buffer.getFloat();
+        depmen = buffer.getFloat();
+        cmpaz = buffer.getFloat();
+        cmpinc = buffer.getFloat();
+        xminimum = buffer.getFloat();
+        xmaximum = buffer.getFloat();
+        yminimum = buffer.getFloat();
+        ymaximum = buffer.getFloat();
+        unused6 = buffer.getFloat();
+        unused7 = buffer.getFloat();
+        unused8 = buffer.getFloat();
+        unused9 = buffer.getFloat();
+        unused10 = buffer.getFloat();
+        unused11 = buffer.getFloat();
+        unused12 = buffer.getFloat();
+        nzyear = buffer.getInt();
+        nzjday = buffer.getInt();
+        nzhour = buffer.getInt();
+        nzmin = buffer.getInt();
+        nzsec = buffer.getInt();
+        nzmsec = buffer.getInt();
+        nvhdr = buffer.getInt();
+        norid = buffer.getInt();
+        nevid = buffer.getInt();
+        npts = buffer.getInt();
+        nsnpts = buffer.getInt();
+        nwfid = buffer.getInt();
+        nxsize = buffer.getInt();
+        nysize = buffer.getInt();
+        unused15 = buffer.getInt();
+        iftype = buffer.getInt();
+        idep = buffer.getInt();
+        setIztype(Iztype.getIztype(buffer.getInt()));
+        unused16 = buffer.getInt();
+        iinst = buffer.getInt();
+        instreg = buffer.getInt();
+        ievreg = buffer.getInt();
+        ievtyp = buffer.getInt();
+        iqual = buffer.getInt();
+        isynth = buffer.getInt();
+        imagtyp = buffer.getInt();
+        imagsrc = buffer.getInt();
+        unused19 = buffer.getInt();
+        unused20 = buffer.getInt();
+        unused21 = buffer.getInt();
+        unused22 = buffer.getInt();
+        unused23 = buffer.getInt();
+        unused24 = buffer.getInt();
+        unused25 = buffer.getInt();
+        unused26 = buffer.getInt();
+        leven = buffer.getInt();
+        lpspol = buffer.getInt();
+        lovrok = buffer.getInt();
+        lcalda = buffer.getInt();
+        unused27 = buffer.getInt();
 
         // String values
         byte[] strbuf = new byte[8];
 
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kstnm = trimIgnorableCharacters(new String(strbuf));
         strbuf = new byte[16];
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kevnm = trimIgnorableCharacters(new String(strbuf));
         strbuf = new byte[8];
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         khole = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         ko = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         ka = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[0] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[1] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[2] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[3] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[4] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[5] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[6] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[7] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[8] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kt[9] = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kf = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kuser0 = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kuser1 = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kuser2 = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kcmpnm = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         knetwk = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kdatrd = trimIgnorableCharacters(new String(strbuf));
-        bstream.read(strbuf);
+        buffer.get(strbuf);
         kinst = trimIgnorableCharacters(new String(strbuf));
-        bstream.close();
     }
 
     /**
@@ -0,0 +1,247 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.signalprocessing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envelope of a real series from its analytic signal, E(t) = sqrt( data^2 +
+ * Hilbert(data)^2 ), using real input transforms.
+ *
+ * <p>
+ * The series is zero padded to a power of two N like the complex
+ * implementation. The forward transform packs the even and odd samples into
+ * one N/2 point complex transform and splits the result, and since the Hilbert
+ * transform of a real series is real the inverse is done the same way, so the
+ * work is two N/2 point transforms instead of two N point ones. Twiddle and
+ * bit reversal tables are cached per transform length and the work buffers
+ * are reused per thread. The transforms run in double precision so the
+ * pre-event noise of a high dynamic range trace survives, only the input and
+ * output are float.
+ */
+public final class RealFFTEnvelope {
+
+    private static final int MAX_CACHED_PLANS = 32;
+    private static final Map<Integer, Plan> PLANS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private RealFFTEnvelope() {
+    }
+
+    /**
+     * @param data
+     *            the data series, left unmodified
+     * @return the envelope of the data
+     */
+    public static float[] envelope(float[] data) {
+        int n = transformLength(data.length);
+        if (n < 2) {
+            // The Hilbert transform of a single sample is zero
+            float[] envelope = new float[data.length];
+            for (int i = 0; i < data.length; i++) {
+                envelope[i] = Math.abs(data[i]);
+            }
+            return envelope;
+        }
+        Plan plan = plan(n);
+        int m = plan.half;
+        Buffers buffers = BUFFERS.get();
+        buffers.ensure(m);
+        double[] re = buffers.re;
+        double[] im = buffers.im;
+
+        // Even samples in the real part, odd in the imaginary, loaded in the
+        // bit reversed order the transform expects
+        int[] bitReverse = plan.bitReverse;
+        for (int i = 0; i < m; i++) {
+            int even = 2 * i;
+            int p = bitReverse[i];
+            re[p] = even < data.length ? data[even] : 0.0;
+            im[p] = even + 1 < data.length ? data[even + 1] : 0.0;
+        }
+        plan.transform(re, im, false);
+
+        // Split into the spectrum X[k] of the real series for k = 1 .. m-1 and
+        // rotate it into the Hilbert spectrum Y[k] = -i X[k]. Y[0] and Y[m]
+        // are zero.
+        double[] yRe = buffers.yRe;
+        double[] yIm = buffers.yIm;
+        yRe[0] = 0.0;
+        yIm[0] = 0.0;
+        for (int k = 1; k < m; k++) {
+            int j = m - k;
+            double ar = re[k];
+            double ai = im[k];
+            double br = re[j];
+            double bi = -im[j];
+            // Even part (Z[k] + conj(Z[m-k])) / 2 and odd part
+            // (Z[k] - conj(Z[m-k])) / 2i
+            double er = 0.5 * (ar + br);
+            double ei = 0.5 * (ai + bi);
+            double or = 0.5 * (ai - bi);
+            double oi = -0.5 * (ar - br);
+            double c = plan.cosN[k];
+            double s = plan.sinN[k];
+            // X[k] = E + e^{-2 pi i k / n} O
+            double xr = er + (c * or - s * oi);
+            double xi = ei + (c * oi + s * or);
+            yRe[k] = xi;
+            yIm[k] = -xr;
+        }
+
+        // Pack the Hermitian spectrum back into an m point inverse: even
+        // outputs from Y[k] + conj(Y[m-k]), odd from
+        // (Y[k] - conj(Y[m-k])) e^{2 pi i k / n}
+        for (int k = 0; k < m; k++) {
+            int j = m - k;
+            double br = j < m ? yRe[j] : 0.0;
+            double bi = j < m ? -yIm[j] : 0.0;
+            double er = yRe[k] + br;
+            double ei = yIm[k] + bi;
+            double dr = yRe[k] - br;
+            double di = yIm[k] - bi;
+            double c = plan.cosN[k];
+            double s = plan.sinN[k];
+            double or = dr * c + di * s;
+            double oi = di * c - dr * s;
+            int p = bitReverse[k];
+            re[p] = er - oi;
+            im[p] = ei + or;
+        }
+        plan.transform(re, im, true);
+
+        float[] envelope = new float[data.length];
+        double scale = 1.0 / n;
+        for (int i = 0; i < data.length; i++) {
+            int k = i >> 1;
+            double h = ((i & 1) == 0 ? re[k] : im[k]) * scale;
+            double d = data[i];
+            envelope[i] = (float) Math.sqrt(d * d + h * h);
+        }
+        return envelope;
+    }
+
+    private static int transformLength(int length) {
+        if (length <= 1) {
+            return length;
+        }
+        return Integer.highestOneBit(length - 1) << 1;
+    }
+
+    private static Plan plan(int n) {
+        Plan plan = PLANS.get(n);
+        if (plan == null) {
+            if (PLANS.size() >= MAX_CACHED_PLANS) {
+                PLANS.clear();
+            }
+            plan = PLANS.computeIfAbsent(n, Plan::new);
+        }
+        return plan;
+    }
+
+    /**
+     * Tables for one transform length n, the complex transforms themselves
+     * are n/2 points.
+     */
+    private static final class Plan {
+        private final int half;
+        private final int[] bitReverse;
+        private final double[] cos;
+        private final double[] sin;
+        // e^{-2 pi i k / n} for k < n/2, used by the real/complex split
+        private final double[] cosN;
+        private final double[] sinN;
+
+        private Plan(int n) {
+            half = n / 2;
+            int bits = Integer.numberOfTrailingZeros(half);
+            bitReverse = new int[half];
+            for (int i = 0; i < half; i++) {
+                bitReverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (Integer.SIZE - bits);
+            }
+            // Twiddles laid out stage by stage, the butterflies of span h
+            // read entries h - 1 .. 2h - 2 in order
+            cos = new double[Math.max(1, half - 1)];
+            sin = new double[cos.length];
+            for (int h = 1; h < half; h <<= 1) {
+                for (int k = 0; k < h; k++) {
+                    double angle = -Math.PI * k / h;
+                    cos[h - 1 + k] = Math.cos(angle);
+                    sin[h - 1 + k] = Math.sin(angle);
+                }
+            }
+            cosN = new double[half];
+            sinN = new double[half];
+            for (int k = 0; k < half; k++) {
+                double angle = -2.0 * Math.PI * k / n;
+                cosN[k] = Math.cos(angle);
+                sinN[k] = Math.sin(angle);
+            }
+        }
+
+        /**
+         * In place unnormalized radix-2 transform of length {@code half},
+         * e^{-2 pi i k m / half} kernel forward and the conjugate inverse.
+         * The input must already be in bit reversed order.
+         */
+        private void transform(double[] re, double[] im, boolean inverse) {
+            int m = half;
+            for (int a = 0; a + 1 < m; a += 2) {
+                double tr = re[a + 1];
+                double ti = im[a + 1];
+                re[a + 1] = re[a] - tr;
+                im[a + 1] = im[a] - ti;
+                re[a] += tr;
+                im[a] += ti;
+            }
+            double sign = inverse ? -1.0 : 1.0;
+            for (int size = 4; size <= m; size <<= 1) {
+                int halfSize = size >> 1;
+                int offset = halfSize - 1;
+                for (int start = 0; start < m; start += size) {
+                    for (int k = 0; k < halfSize; k++) {
+                        double wr = cos[offset + k];
+                        double wi = sign * sin[offset + k];
+                        int a = start + k;
+                        int b = a + halfSize;
+                        double tr = wr * re[b] - wi * im[b];
+                        double ti = wr * im[b] + wi * re[b];
+                        re[b] = re[a] - tr;
+                        im[b] = im[a] - ti;
+                        re[a] += tr;
+                        im[a] += ti;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Buffers {
+        private double[] re = new double[0];
+        private double[] im = new double[0];
+        private double[] yRe = new double[0];
+        private double[] yIm = new double[0];
+
+        private void ensure(int m) {
+            if (re.length < m) {
+                re = new double[m];
+                im = new double[m];
+                yRe = new double[m];
+                yIm = new double[m];
+            }
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.apache.commons.math3.transform.FastFourierTransformer;
 import org.apache.commons.math3.transform.TransformType;
 import org.apache.commons.math3.util.ArithmeticUtils;
 
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
+import llnl.gnem.core.signalprocessing.RealFFTEnvelope;
 import llnl.gnem.core.util.NumericalList.DoubleList;
 import llnl.gnem.core.util.NumericalList.FloatList;
 import llnl.gnem.core.util.seriesMathHelpers.DiscontinuityCollection;
@@ -236,7 +238,8 @@ public class SeriesMath {
     }
 
     /**
-     * A float version of the MeanSmooth method
+     * A float version of the MeanSmooth method. The input series is left
+     * unmodified.
      *
      * @param data
      *            The data to be smoothed.
@@ -245,9 +248,50 @@ public class SeriesMath {
      * @return The smoothed data.
      */
     public static float[] meanSmooth(float[] data, int halfWidth) {
-        double[] Ddata = floatToDouble(data);
-        Ddata = meanSmooth(Ddata, halfWidth);
-        return doubleToFloat(Ddata);
+        float[] result = Arrays.copyOf(data, data.length);
+        meanSmoothInPlace(result, halfWidth);
+        return result;
+    }
+
+    /**
+     * Replaces the series with its mean smoothed version, using the same
+     * window and end handling as {@link #meanSmooth(double[], int)}. The
+     * window sum is carried along in double precision, adding the sample
+     * entering the window and removing the one leaving it, so the cost does
+     * not depend on the window length. Only the last halfWidth + 1 original
+     * values are kept aside.
+     *
+     * @param data
+     *            The data to be smoothed, replaced by the result.
+     * @param halfWidth
+     *            The half-width of the smoothing window.
+     */
+    public static void meanSmoothInPlace(float[] data, int halfWidth) {
+        int N = data.length;
+        if (halfWidth > N) {
+            throw new IllegalArgumentException("The halfWidth is > than the array length.");
+        }
+        int W = 2 * halfWidth + 1;
+        if (halfWidth == 0 || W > N) {
+            return;
+        }
+        // Original values of the samples already overwritten, by index
+        // modulo halfWidth + 1
+        int historyLength = halfWidth + 1;
+        float[] history = new float[historyLength];
+        double sum = 0;
+        for (int k = 0; k < W; ++k) {
+            sum += data[k];
+        }
+        for (int j = halfWidth; j < N - halfWidth; ++j) {
+            if (j > halfWidth) {
+                int leaving = j - halfWidth - 1;
+                sum += data[j + halfWidth];
+                sum -= leaving < halfWidth ? data[leaving] : history[leaving % historyLength];
+            }
+            history[j % historyLength] = data[j];
+            data[j] = (float) (sum / W);
+        }
     }
 
     /**
@@ -825,6 +869,50 @@ public class SeriesMath {
         return result;
     }
 
+    /**
+     * Reduces {@code data[from, to)} to at most {@code maxPoints} samples for
+     * display. The range is split into {@code maxPoints / 2} equal width
+     * buckets and the smallest and largest sample of each bucket are kept in
+     * the order they occur, so peaks and troughs survive where plain
+     * decimation would alias them away. Ranges that already fit are copied
+     * unchanged.
+     *
+     * @param data
+     *            the original data series array
+     * @param from
+     *            first index of the range, inclusive
+     * @param to
+     *            last index of the range, exclusive
+     * @param maxPoints
+     *            the most samples to return, at least 2
+     * @return the reduced series, two samples per bucket
+     */
+    public static double[] minMaxDecimate(double[] data, int from, int to, int maxPoints) {
+        int length = to - from;
+        if (length <= maxPoints) {
+            return Arrays.copyOfRange(data, from, to);
+        }
+        int buckets = Math.max(1, maxPoints / 2);
+        double[] result = new double[buckets * 2];
+        int start = from;
+        for (int b = 0; b < buckets; b++) {
+            int end = from + (int) ((long) (b + 1) * length / buckets);
+            int minIdx = start;
+            int maxIdx = start;
+            for (int i = start + 1; i < end; i++) {
+                if (data[i] < data[minIdx]) {
+                    minIdx = i;
+                } else if (data[i] > data[maxIdx]) {
+                    maxIdx = i;
+                }
+            }
+            result[2 * b] = data[Math.min(minIdx, maxIdx)];
+            result[2 * b + 1] = data[Math.max(minIdx, maxIdx)];
+            start = end;
+        }
+        return result;
+    }
+
     /**
      * dot product of two equal length Series
      *
@@ -1013,6 +1101,23 @@ public class SeriesMath {
         return envelope;
     }
 
+    /**
+     * Calculate the envelope of real valued data using the given Hilbert
+     * transform engine
+     *
+     * @param data
+     *            : the data series
+     * @param engine
+     *            : how the Hilbert transform is computed
+     * @return the envelope function for the data
+     */
+    public static float[] envelope(float[] data, EnvelopeEngine engine) {
+        if (engine == EnvelopeEngine.REAL_FFT) {
+            return RealFFTEnvelope.envelope(data);
+        }
+        return envelope(data);
+    }
+
     //------------------------ Steve Myers' FIND utilties--------------------------//
     /**
      * Finds the index of values meeting specified conditions. Each element of
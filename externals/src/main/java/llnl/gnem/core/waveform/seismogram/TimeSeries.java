@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Objects;
 
+import llnl.gnem.core.signalprocessing.EnvelopeEngine;
 import llnl.gnem.core.signalprocessing.filter.ButterworthFilter;
 import llnl.gnem.core.signalprocessing.filter.IIRFilter;
 import llnl.gnem.core.util.Epoch;
@@ -397,7 +398,7 @@ public class TimeSeries implements Comparable<TimeSeries>, Serializable, Cloneab
      */
     @Override
     public void Smooth(final int halfwidth) {
-        data = SeriesMath.meanSmooth(data, halfwidth);//TODO note the SeriesMath.MeanSmooth() method should replace data with the smoothed version, but this isn't happening. Fix
+        SeriesMath.meanSmoothInPlace(data, halfwidth);
         onModify();
     }
 
@@ -744,6 +745,10 @@ public class TimeSeries implements Comparable<TimeSeries>, Serializable, Cloneab
         this.data = SeriesMath.envelope(data);
     }
 
+    public void Envelope(final EnvelopeEngine engine) {
+        this.data = SeriesMath.envelope(data, engine);
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (!(obj instanceof TimeSeries)) {
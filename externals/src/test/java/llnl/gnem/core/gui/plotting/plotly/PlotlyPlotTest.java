@@ -0,0 +1,80 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.gui.plotting.plotly;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+
+public class PlotlyPlotTest {
+
+    private static PlotObjectData series(double... y) {
+        PlotObjectData data = new PlotObjectData(new PlotTrace(PlotTrace.Style.SCATTER_MARKER));
+        for (int i = 0; i < y.length; i++) {
+            data.getXdata().add((double) i);
+            data.getYdata().add(y[i]);
+        }
+        return data;
+    }
+
+    private static PlotlyPlot plotOf(PlotObjectData... traces) {
+        PlotlyPlot plot = new PlotlyPlot(true, new PlotData(new PlotTrace(PlotTrace.Style.SCATTER_MARKER), Color.WHITE, new BasicTitle()), 1, 1);
+        for (int i = 0; i < traces.length; i++) {
+            plot.plotData.getDefaultTypePlots().put("series" + i, traces[i]);
+        }
+        plot.rebuildDataCache();
+        assertNull(plot.getPlotDataUpdateJSON(), "first update should send every trace");
+        plot.rebuildDataCache();
+        assertEquals("{}", plot.getPlotDataUpdateJSON());
+        return plot;
+    }
+
+    @Test
+    public void testSharedDataEditedInPlaceIsResent() {
+        PlotObjectData shared = series(1.0, 2.0, 3.0);
+        PlotlyPlot plot = plotOf(shared);
+        PlotlyPlot other = plotOf(shared);
+
+        // Another plot holding the same instance edits it without going through either plot
+        shared.getYdata().set(1, 42.0);
+        other.rebuildDataCache();
+        plot.rebuildDataCache();
+
+        String update = plot.getPlotDataUpdateJSON();
+        assertTrue(update.startsWith("{\"0\":"), update);
+        assertTrue(update.contains("42.0"), update);
+        assertEquals("{}", plot.getPlotDataUpdateJSON());
+    }
+
+    @Test
+    public void testClearedAndRefilledDataIsResent() {
+        PlotObjectData data = series(1.0, 2.0, 3.0);
+        PlotlyPlot plot = plotOf(data);
+
+        data.clear();
+        data.getXdata().add(0.0);
+        data.getYdata().add(7.0);
+        data.getTraceStyle().setSeriesName("refilled");
+        plot.rebuildDataCache();
+
+        String update = plot.getPlotDataUpdateJSON();
+        assertTrue(update.contains("7.0"), update);
+        assertTrue(update.contains("refilled"), update);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.signalprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import llnl.gnem.core.util.SeriesMath;
+
+public class RealFFTEnvelopeTest {
+
+    private static final int[] LENGTHS = { 1, 2, 3, 4, 5, 7, 8, 16, 63, 64, 100, 255, 256, 1000, 1023, 1024, 1025, 4097, 12000, 50001 };
+
+    private static float[] trace(int length, long seed) {
+        Random random = new Random(seed);
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (float) (Math.sin(0.05 * i) * Math.exp(-i / 5000.0) * 1000.0 + random.nextGaussian());
+        }
+        return data;
+    }
+
+    private static void assertMatchesComplexEnvelope(float[] data) {
+        float[] expected = SeriesMath.envelope(data);
+        float[] input = data.clone();
+        float[] actual = RealFFTEnvelope.envelope(input);
+
+        assertArrayEquals(data, input, "input was modified");
+        assertEquals(expected.length, actual.length);
+        float peak = 0f;
+        for (float value : expected) {
+            peak = Math.max(peak, Math.abs(value));
+        }
+        float tolerance = Math.max(peak * 1e-6f, Float.MIN_NORMAL);
+        assertArrayEquals(expected, actual, tolerance, "length " + data.length);
+    }
+
+    @Test
+    public void testMatchesComplexEnvelopeAcrossLengths() {
+        for (int length : LENGTHS) {
+            assertMatchesComplexEnvelope(trace(length, length));
+        }
+    }
+
+    @Test
+    public void testZeroInput() {
+        for (int length : LENGTHS) {
+            float[] envelope = RealFFTEnvelope.envelope(new float[length]);
+            assertArrayEquals(new float[length], envelope);
+        }
+    }
+
+    @Test
+    public void testEmptyInput() {
+        assertEquals(0, RealFFTEnvelope.envelope(new float[0]).length);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+* Copyright (c) 2024, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SeriesMathTest {
+
+    private static float[] series(int length, Random random) {
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (float) (Math.sin(0.1 * i) * 50.0 + random.nextGaussian() * 5.0 - 3.0);
+        }
+        return data;
+    }
+
+    private static void assertMatchesDoubleSmooth(float[] data, int halfWidth) {
+        float[] input = data.clone();
+        float[] actual = SeriesMath.meanSmooth(input, halfWidth);
+        float[] expected = SeriesMath.doubleToFloat(SeriesMath.meanSmooth(SeriesMath.floatToDouble(data), halfWidth));
+
+        assertArrayEquals(data, input, "input was modified");
+        assertArrayEquals(expected, actual, 1e-4f, "length " + data.length + " halfWidth " + halfWidth);
+
+        float[] inPlace = data.clone();
+        SeriesMath.meanSmoothInPlace(inPlace, halfWidth);
+        assertArrayEquals(actual, inPlace);
+    }
+
+    @Test
+    public void testMeanSmoothMatchesDoubleVersion() {
+        Random random = new Random(11);
+        for (int length : new int[] { 1, 2, 3, 5, 10, 11, 100, 1001 }) {
+            for (int halfWidth : new int[] { 0, 1, 2, 3, 5, 50, 499, 500, length / 2, (length - 1) / 2, length }) {
+                if (halfWidth <= length) {
+                    assertMatchesDoubleSmooth(series(length, random), halfWidth);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMeanSmoothLongSeries() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 20; trial++) {
+            int length = 1 + random.nextInt(20000);
+            assertMatchesDoubleSmooth(series(length, random), random.nextInt(Math.min(length, 200) + 1));
+        }
+    }
+
+    @Test
+    public void testMeanSmoothWindowLongerThanSeriesIsUnchanged() {
+        float[] data = { 1f, 5f, -2f, 8f };
+        assertArrayEquals(data, SeriesMath.meanSmooth(data, 2));
+        assertArrayEquals(data, SeriesMath.meanSmooth(data, 4));
+    }
+
+    @Test
+    public void testMeanSmoothHalfWidthBeyondSeriesThrows() {
+        assertThrows(IllegalArgumentException.class, () -> SeriesMath.meanSmooth(new float[4], 5));
+        assertThrows(IllegalArgumentException.class, () -> SeriesMath.meanSmoothInPlace(new float[4], 5));
+        assertThrows(IllegalArgumentException.class, () -> SeriesMath.meanSmooth(new double[4], 5));
+    }
+
+    @Test
+    public void testMinMaxDecimateKeepsPeaks() {
+        double[] data = new double[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = Math.sin(i * 0.01);
+        }
+        data[1234] = 50.0;
+        data[5678] = -50.0;
+
+        double[] reduced = SeriesMath.minMaxDecimate(data, 0, data.length, 200);
+        assertEquals(200, reduced.length);
+        assertEquals(50.0, Arrays.stream(reduced).max().getAsDouble());
+        assertEquals(-50.0, Arrays.stream(reduced).min().getAsDouble());
+
+        double[] window = SeriesMath.minMaxDecimate(data, 1000, 7000, 200);
+        assertEquals(200, window.length);
+        assertEquals(50.0, Arrays.stream(window).max().getAsDouble());
+        assertEquals(-50.0, Arrays.stream(window).min().getAsDouble());
+    }
+
+    @Test
+    public void testMinMaxDecimateShortRangeIsCopied() {
+        double[] data = new double[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        assertArrayEquals(Arrays.copyOfRange(data, 100, 151), SeriesMath.minMaxDecimate(data, 100, 151, 200));
+    }
+}